@@ -0,0 +1,137 @@
+/* ==================================================================
+ * BenchmarkRunner.java - 18/10/2026 8:57:45 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler and summarize the results per row.
+ * 
+ * <p>
+ * JMH reports throughput as operations per second and allocation as bytes per operation, where
+ * each operation processes a whole table or result set. This runner divides both by the
+ * {@code rows} benchmark parameter, to make results from different sizes comparable. Standard JMH
+ * command line arguments are supported, for example a benchmark name pattern to run only some
+ * benchmarks.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class BenchmarkRunner {
+
+  /** The name of the benchmark parameter with the number of rows per operation. */
+  public static final String ROWS_PARAM = "rows";
+
+  /** The GC profiler result name suffix for bytes allocated per operation. */
+  public static final String ALLOC_NORM_RESULT = "gc.alloc.rate.norm";
+
+  private BenchmarkRunner() {
+    // not available
+  }
+
+  /**
+   * Run the benchmarks.
+   * 
+   * @param args
+   *          JMH command line arguments
+   * @throws CommandLineOptionException
+   *           if the arguments are not valid
+   * @throws RunnerException
+   *           if the benchmarks fail
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cmdOptions);
+    if (cmdOptions.getIncludes().isEmpty()) {
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    Options opts = builder.addProfiler(GCProfiler.class).build();
+    Collection<RunResult> results = new Runner(opts).run();
+    printSummary(results, System.out);
+  }
+
+  /**
+   * Print a per-row summary of benchmark results.
+   * 
+   * @param results
+   *          the results
+   * @param out
+   *          the stream to print to
+   */
+  public static void printSummary(Collection<RunResult> results, PrintStream out) {
+    out.println();
+    out.println(String.format("%-80s %8s %14s %14s", "Benchmark", "Rows", "Rows/s",
+        "Bytes/row"));
+    for (RunResult r : results) {
+      BenchmarkParams params = r.getParams();
+      String rowsParam = params.getParam(ROWS_PARAM);
+      if (rowsParam == null) {
+        continue;
+      }
+      final int rows = Integer.parseInt(rowsParam);
+      final double opsPerSecond = r.getPrimaryResult().getScore();
+      Result<?> alloc = secondaryResult(r, ALLOC_NORM_RESULT);
+      final double bytesPerRow = (alloc != null ? alloc.getScore() / rows : Double.NaN);
+      out.println(String.format("%-80s %8d %14.0f %14.1f", name(params), rows,
+          opsPerSecond * rows, bytesPerRow));
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Result<?> secondaryResult(RunResult r, String nameSuffix) {
+    // JMH prefixes profiler result names with a separator character
+    for (Map.Entry<String, Result> e : r.getSecondaryResults().entrySet()) {
+      if (e.getKey().endsWith(nameSuffix)) {
+        return e.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static String name(BenchmarkParams params) {
+    StringBuilder buf = new StringBuilder(params.getBenchmark()
+        .substring(BenchmarkRunner.class.getPackage().getName().length() + 1));
+    for (String key : params.getParamsKeys()) {
+      if (!ROWS_PARAM.equals(key)) {
+        buf.append(' ').append(key).append('=').append(params.getParam(key));
+      }
+    }
+    return buf.toString();
+  }
+
+}
@@ -0,0 +1,124 @@
+/* ==================================================================
+ * BuildTableBenchmarks.java - 18/10/2026 8:57:38 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks;
+
+import static java.util.Arrays.asList;
+import static org.snf.accounting.cli.BaseShellSupport.TOP_LEFT;
+import static org.snf.accounting.cli.BaseShellSupport.TOP_RIGHT;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.snf.accounting.cli.BaseShellSupport;
+import org.springframework.shell.table.Aligner;
+import org.springframework.shell.table.Table;
+
+import com.github.fonimus.ssh.shell.SimpleTable;
+import com.github.fonimus.ssh.shell.SimpleTable.SimpleTableBuilder;
+
+/**
+ * Benchmark applying per-cell aligners with {@link BaseShellSupport}.
+ * 
+ * <p>
+ * The table values are formatted in advance, so only building the table is measured.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BuildTableBenchmarks {
+
+  /** The number of table rows to build. */
+  @Param({ "100", "1000", "10000", "100000" })
+  public int rows;
+
+  private SimpleTable table;
+  private HeadlessShellHelper shell;
+
+  /**
+   * Generate the table.
+   */
+  @Setup
+  public void setup() {
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("ID")
+        .column("Num")
+        .column("Date")
+        .column("Acct")
+        .column("Items")
+        .column("Amount")
+        .column("Due")
+        ;
+    // @formatter:on
+    for (int i = 0; i < rows; i++) {
+      t.line(asList(i + 1, "INV-" + Integer.toString(i + 1, 36).toUpperCase(),
+          "2020-01-01 (2020-01)", "customer" + i + "@example.com (" + i + ")", 3, "$1,234.56",
+          "$0.00"));
+    }
+    table = t.build();
+    shell = new HeadlessShellHelper();
+  }
+
+  /**
+   * Build the table with column alignments.
+   * 
+   * @return the table
+   */
+  @Benchmark
+  public Table buildTableAlignments() {
+    return BaseShellSupport.buildTable(shell, table,
+        c -> c == 2 || c == 3 ? TOP_LEFT : TOP_RIGHT, null);
+  }
+
+  /**
+   * Build the table with a cell customizer.
+   * 
+   * @return the table
+   */
+  @Benchmark
+  public Table buildTableCellVisitor() {
+    return BaseShellSupport.buildTable(shell, table, (c, r, cell) -> {
+      for (Aligner a : (c < 2 ? TOP_LEFT : TOP_RIGHT)) {
+        cell.addAligner(a);
+      }
+    });
+  }
+
+}
@@ -0,0 +1,96 @@
+/* ==================================================================
+ * HeadlessShellHelper.java - 18/10/2026 8:56:17 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks;
+
+import org.jline.terminal.Size;
+import org.springframework.shell.table.Table;
+
+import com.github.fonimus.ssh.shell.SshShellHelper;
+
+/**
+ * Shell helper that renders at a fixed terminal size without an SSH session.
+ * 
+ * <p>
+ * Printed output is not written anywhere; the last printed message is kept so benchmarks can
+ * consume it.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class HeadlessShellHelper extends SshShellHelper {
+
+  /** The default terminal width. */
+  public static final int DEFAULT_WIDTH = 160;
+
+  /** The default terminal height. */
+  public static final int DEFAULT_HEIGHT = 50;
+
+  private final Size size;
+  private String output;
+
+  /**
+   * Constructor.
+   */
+  public HeadlessShellHelper() {
+    this(DEFAULT_WIDTH);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param width
+   *          the terminal width to render at
+   */
+  public HeadlessShellHelper(int width) {
+    super();
+    this.size = new Size(width, DEFAULT_HEIGHT);
+  }
+
+  @Override
+  public Size terminalSize() {
+    return size;
+  }
+
+  @Override
+  public String renderTable(Table table) {
+    return table.render(size.getColumns());
+  }
+
+  @Override
+  public void print(String message) {
+    output = message;
+  }
+
+  /**
+   * Get and clear the last printed message.
+   * 
+   * @return the message, or {@literal null} if nothing has been printed
+   */
+  public String takeOutput() {
+    String result = output;
+    output = null;
+    return result;
+  }
+
+}
@@ -0,0 +1,84 @@
+/* ==================================================================
+ * PaymentTableBenchmarks.java - 18/10/2026 8:57:31 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.snf.accounting.cli.app.impl.PaymentCommands;
+import org.snf.accounting.domain.PaymentWithInvoicePayments;
+
+/**
+ * Benchmark rendering streamed payments as a table with
+ * {@code PaymentCommands.renderPaymentWithInvoicePaymentsTable()}.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PaymentTableBenchmarks {
+
+  /** The number of payments to render. */
+  @Param({ "100", "1000", "10000", "100000" })
+  public int rows;
+
+  private List<PaymentWithInvoicePayments> payments;
+  private HeadlessShellHelper shell;
+
+  /**
+   * Generate the payments.
+   */
+  @Setup
+  public void setup() {
+    payments = SyntheticData.payments(rows);
+    shell = new HeadlessShellHelper();
+  }
+
+  /**
+   * Render the payment table.
+   * 
+   * @return the rendered table
+   */
+  @Benchmark
+  public String renderPaymentTable() {
+    PaymentCommands.renderPaymentWithInvoicePaymentsTable(shell, payments::forEach);
+    return shell.takeOutput();
+  }
+
+}
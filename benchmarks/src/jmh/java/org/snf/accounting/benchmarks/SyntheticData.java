@@ -0,0 +1,174 @@
+/* ==================================================================
+ * SyntheticData.java - 18/10/2026 8:56:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.InvoicePayment;
+import net.solarnetwork.central.user.billing.snf.domain.PaymentType;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+
+/**
+ * Synthetic result sets for the rendering benchmarks.
+ * 
+ * <p>
+ * The data is generated deterministically, in account order, so every run renders the same rows.
+ * Accounts alternate between two currencies so the per-currency totals have more than one entry.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SyntheticData {
+
+  /** The number of invoices or payments generated per account. */
+  public static final int ROWS_PER_ACCOUNT = 4;
+
+  /** The number of items generated per invoice. */
+  public static final int ITEMS_PER_INVOICE = 3;
+
+  /** The number of invoice payments generated per payment. */
+  public static final int INVOICE_PAYMENTS_PER_PAYMENT = 2;
+
+  private static final String[] CURRENCIES = new String[] { "NZD", "USD" };
+  private static final String[] TIME_ZONES = new String[] { "Pacific/Auckland",
+      "America/Los_Angeles" };
+  private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+  private static final LocalDate START_MONTH = LocalDate.of(2020, 1, 1);
+  private static final long USER_ID_OFFSET = 1000L;
+
+  private SyntheticData() {
+    // not available
+  }
+
+  private static Address address(long accountId) {
+    Address addr = new Address(accountId, START);
+    addr.setName("Customer " + accountId);
+    addr.setEmail("customer" + accountId + "@example.com");
+    addr.setCountry("NZ");
+    addr.setTimeZoneId(TIME_ZONES[(int) (accountId % TIME_ZONES.length)]);
+    return addr;
+  }
+
+  private static Account account(long accountId) {
+    Account account = new Account(accountId, accountId + USER_ID_OFFSET, START);
+    account.setAddress(address(accountId));
+    account.setCurrencyCode(CURRENCIES[(int) (accountId % CURRENCIES.length)]);
+    return account;
+  }
+
+  /**
+   * Generate a list of invoices.
+   * 
+   * @param count
+   *          the number of invoices to generate
+   * @return the invoices, ordered by account
+   */
+  public static List<SnfInvoiceWithBalance> invoices(int count) {
+    List<SnfInvoiceWithBalance> result = new ArrayList<>(count);
+    Account account = null;
+    for (int i = 0; i < count; i++) {
+      final long accountId = (i / ROWS_PER_ACCOUNT) + 1L;
+      if (account == null || account.getId().getId().longValue() != accountId) {
+        account = account(accountId);
+      }
+      final long invoiceId = i + 1L;
+      final int month = i % ROWS_PER_ACCOUNT;
+      SnfInvoiceWithBalance inv = new SnfInvoiceWithBalance(invoiceId, account.getUserId(),
+          accountId, START.plusSeconds(invoiceId * 60L));
+      inv.setAddress(account.getAddress());
+      inv.setCurrencyCode(account.getCurrencyCode());
+      inv.setStartDate(START_MONTH.plusMonths(month));
+      inv.setEndDate(START_MONTH.plusMonths(month + 1));
+      Set<SnfInvoiceItem> items = new LinkedHashSet<>(ITEMS_PER_INVOICE);
+      BigDecimal total = BigDecimal.ZERO;
+      for (int j = 0; j < ITEMS_PER_INVOICE; j++) {
+        SnfInvoiceItem item = new SnfInvoiceItem(new UUID(invoiceId, j), invoiceId,
+            inv.getCreated());
+        item.setItemType(j == 0 ? InvoiceItemType.Fixed : InvoiceItemType.Usage);
+        item.setKey("item-" + j);
+        item.setQuantity(BigDecimal.valueOf(j + 1));
+        item.setAmount(BigDecimal.valueOf((invoiceId % 97) * 100 + j * 25 + 99, 2));
+        total = total.add(item.getAmount());
+        items.add(item);
+      }
+      inv.setItems(items);
+      // every other invoice is fully paid
+      inv.setPaidAmount(i % 2 == 0 ? total : BigDecimal.ZERO);
+      result.add(inv);
+    }
+    return result;
+  }
+
+  /**
+   * Generate a list of payments.
+   * 
+   * @param count
+   *          the number of payments to generate
+   * @return the payments, ordered by account
+   */
+  public static List<PaymentWithInvoicePayments> payments(int count) {
+    List<PaymentWithInvoicePayments> result = new ArrayList<>(count);
+    Account account = null;
+    for (int i = 0; i < count; i++) {
+      final long accountId = (i / ROWS_PER_ACCOUNT) + 1L;
+      if (account == null || account.getId().getId().longValue() != accountId) {
+        account = account(accountId);
+      }
+      final UUID paymentId = new UUID(accountId, i);
+      final Instant created = START.plusSeconds(i * 60L);
+      PaymentWithInvoicePayments pay = new PaymentWithInvoicePayments(paymentId,
+          account.getUserId(), accountId, created);
+      pay.setAccount(account);
+      pay.setCurrencyCode(account.getCurrencyCode());
+      pay.setPaymentType(PaymentType.Payment);
+      Set<InvoicePayment> invoicePayments = new LinkedHashSet<>(INVOICE_PAYMENTS_PER_PAYMENT);
+      BigDecimal total = BigDecimal.ZERO;
+      for (int j = 0; j < INVOICE_PAYMENTS_PER_PAYMENT; j++) {
+        InvoicePayment ip = new InvoicePayment(new UUID(i, j), account.getUserId(), accountId,
+            paymentId, (long) i * INVOICE_PAYMENTS_PER_PAYMENT + j + 1, created.plusSeconds(j));
+        ip.setAmount(BigDecimal.valueOf((i % 89) * 100 + j * 50 + 1, 2));
+        total = total.add(ip.getAmount());
+        invoicePayments.add(ip);
+      }
+      pay.setInvoicePayments(invoicePayments);
+      pay.setAmount(total);
+      result.add(pay);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,1525 @@
+/* ==================================================================
+ * ListResultSet.java - 18/10/2026 9:04:12 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.mybatis;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A read-only, in-memory result set over a list of rows.
+ * 
+ * <p>
+ * The rows can be generated, or recorded from a live result set with {@link #copyOf(ResultSet)},
+ * and then mapped any number of times by calling {@link #reset()} between each pass. Values are
+ * returned as stored when their type matches the getter, and converted otherwise, so for example
+ * an {@link Instant} value can be read with {@link #getTimestamp(String)}. Updates and streams are
+ * not supported.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ListResultSet implements ResultSet {
+
+  private final List<String> columns;
+  private final List<Object[]> rows;
+  private final Map<String, Integer> columnIndexes;
+  private final ResultSetMetaData metaData;
+  private int cursor;
+  private Object[] row;
+  private boolean wasNull;
+  private boolean closed;
+  private int fetchSize;
+
+  /**
+   * Constructor.
+   * 
+   * @param columns
+   *          the column labels
+   * @param rows
+   *          the rows, each with one value per column
+   * @throws IllegalArgumentException
+   *           if any row does not have one value per column
+   */
+  public ListResultSet(List<String> columns, List<Object[]> rows) {
+    super();
+    this.columns = new ArrayList<>(columns);
+    this.rows = rows;
+    this.columnIndexes = new HashMap<>(columns.size() * 2);
+    for (int i = 0, len = columns.size(); i < len; i++) {
+      String col = columns.get(i);
+      columnIndexes.putIfAbsent(col, i + 1);
+      columnIndexes.putIfAbsent(col.toLowerCase(Locale.ENGLISH), i + 1);
+    }
+    for (Object[] r : rows) {
+      if (r.length != columns.size()) {
+        throw new IllegalArgumentException(
+            "Expected " + columns.size() + " row values but got " + r.length + ".");
+      }
+    }
+    this.metaData = new ListResultSetMetaData();
+    this.cursor = -1;
+  }
+
+  /**
+   * Record all remaining rows of a result set.
+   * 
+   * <p>
+   * {@link Array} values are copied, so the result does not depend on the connection of
+   * {@code rs}.
+   * </p>
+   * 
+   * @param rs
+   *          the result set to copy
+   * @return the copy
+   * @throws SQLException
+   *           if any SQL error occurs
+   */
+  public static ListResultSet copyOf(ResultSet rs) throws SQLException {
+    final ResultSetMetaData meta = rs.getMetaData();
+    final int colCount = meta.getColumnCount();
+    List<String> cols = new ArrayList<>(colCount);
+    for (int i = 1; i <= colCount; i++) {
+      cols.add(meta.getColumnLabel(i));
+    }
+    List<Object[]> data = new ArrayList<>();
+    while (rs.next()) {
+      Object[] r = new Object[colCount];
+      for (int i = 1; i <= colCount; i++) {
+        Object v = rs.getObject(i);
+        if (v instanceof Array) {
+          Array a = (Array) v;
+          v = array(a.getBaseTypeName(), a.getBaseType(), (Object[]) a.getArray());
+        }
+        r[i - 1] = v;
+      }
+      data.add(r);
+    }
+    return new ListResultSet(cols, data);
+  }
+
+  /**
+   * Create an array value.
+   * 
+   * @param baseTypeName
+   *          the SQL type name of the array elements, for example {@literal text}
+   * @param baseType
+   *          the {@link Types} code of the array elements
+   * @param elements
+   *          the elements
+   * @return the array
+   */
+  public static Array array(String baseTypeName, int baseType, Object[] elements) {
+    return new ListArray(baseTypeName, baseType, elements);
+  }
+
+  /**
+   * Get the number of rows.
+   * 
+   * @return the row count
+   */
+  public int getRowCount() {
+    return rows.size();
+  }
+
+  /**
+   * Re-open the result set and move the cursor before the first row.
+   */
+  public void reset() {
+    closed = false;
+    cursor = -1;
+    row = null;
+  }
+
+  private Object value(int columnIndex) throws SQLException {
+    if (row == null) {
+      throw new SQLException("No current row.");
+    }
+    if (columnIndex < 1 || columnIndex > row.length) {
+      throw new SQLException("Column index " + columnIndex + " out of range.");
+    }
+    Object v = row[columnIndex - 1];
+    wasNull = (v == null);
+    return v;
+  }
+
+  private Number number(int columnIndex, Object v) throws SQLException {
+    if (v instanceof Number) {
+      return (Number) v;
+    } else if (v instanceof String) {
+      try {
+        return new BigDecimal((String) v);
+      } catch (NumberFormatException e) {
+        // fall through
+      }
+    }
+    throw conversionException(columnIndex, v, Number.class);
+  }
+
+  private SQLException conversionException(int columnIndex, Object v, Class<?> type) {
+    return new SQLException("Column " + columns.get(columnIndex - 1) + " value of type "
+        + v.getClass().getName() + " cannot be converted to " + type.getName() + ".");
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    if (closed) {
+      throw new SQLException("Result set closed.");
+    }
+    if (cursor < rows.size()) {
+      cursor++;
+    }
+    if (cursor < rows.size()) {
+      row = rows.get(cursor);
+      return true;
+    }
+    row = null;
+    return false;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+  }
+
+  @Override
+  public boolean wasNull() throws SQLException {
+    return wasNull;
+  }
+
+  @Override
+  public String getString(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? v.toString() : null);
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    return getString(findColumn(columnLabel));
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v instanceof Boolean) {
+      return (Boolean) v;
+    } else if (v instanceof String) {
+      return Boolean.parseBoolean((String) v);
+    }
+    return (v != null && number(columnIndex, v).intValue() != 0);
+  }
+
+  @Override
+  public boolean getBoolean(String columnLabel) throws SQLException {
+    return getBoolean(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte getByte(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).byteValue() : 0);
+  }
+
+  @Override
+  public byte getByte(String columnLabel) throws SQLException {
+    return getByte(findColumn(columnLabel));
+  }
+
+  @Override
+  public short getShort(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).shortValue() : 0);
+  }
+
+  @Override
+  public short getShort(String columnLabel) throws SQLException {
+    return getShort(findColumn(columnLabel));
+  }
+
+  @Override
+  public int getInt(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).intValue() : 0);
+  }
+
+  @Override
+  public int getInt(String columnLabel) throws SQLException {
+    return getInt(findColumn(columnLabel));
+  }
+
+  @Override
+  public long getLong(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).longValue() : 0);
+  }
+
+  @Override
+  public long getLong(String columnLabel) throws SQLException {
+    return getLong(findColumn(columnLabel));
+  }
+
+  @Override
+  public float getFloat(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).floatValue() : 0);
+  }
+
+  @Override
+  public float getFloat(String columnLabel) throws SQLException {
+    return getFloat(findColumn(columnLabel));
+  }
+
+  @Override
+  public double getDouble(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    return (v != null ? number(columnIndex, v).doubleValue() : 0);
+  }
+
+  @Override
+  public double getDouble(String columnLabel) throws SQLException {
+    return getDouble(findColumn(columnLabel));
+  }
+
+  @Deprecated
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Deprecated
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null || v instanceof BigDecimal) {
+      return (BigDecimal) v;
+    }
+    return new BigDecimal(number(columnIndex, v).toString());
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte[] getBytes(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public byte[] getBytes(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Date getDate(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null || v instanceof Date) {
+      return (Date) v;
+    } else if (v instanceof LocalDate) {
+      return Date.valueOf((LocalDate) v);
+    }
+    throw conversionException(columnIndex, v, Date.class);
+  }
+
+  @Override
+  public Date getDate(String columnLabel) throws SQLException {
+    return getDate(findColumn(columnLabel));
+  }
+
+  @Override
+  public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Time getTime(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Time getTime(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null || v instanceof Timestamp) {
+      return (Timestamp) v;
+    } else if (v instanceof Instant) {
+      return Timestamp.from((Instant) v);
+    }
+    throw conversionException(columnIndex, v, Timestamp.class);
+  }
+
+  @Override
+  public Timestamp getTimestamp(String columnLabel) throws SQLException {
+    return getTimestamp(findColumn(columnLabel));
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public InputStream getAsciiStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public InputStream getAsciiStream(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Deprecated
+  @Override
+  public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Deprecated
+  @Override
+  public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public InputStream getBinaryStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public InputStream getBinaryStream(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return null;
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    // no warnings
+  }
+
+  @Override
+  public String getCursorName() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return metaData;
+  }
+
+  @Override
+  public Object getObject(int columnIndex) throws SQLException {
+    return value(columnIndex);
+  }
+
+  @Override
+  public Object getObject(String columnLabel) throws SQLException {
+    return getObject(findColumn(columnLabel));
+  }
+
+  @Override
+  public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) {
+      return null;
+    } else if (type.isInstance(v)) {
+      return type.cast(v);
+    } else if (type == LocalDate.class) {
+      return type.cast(getDate(columnIndex).toLocalDate());
+    } else if (type == Instant.class) {
+      return type.cast(getTimestamp(columnIndex).toInstant());
+    } else if (type == LocalDateTime.class) {
+      return type.cast(getTimestamp(columnIndex).toLocalDateTime());
+    } else if (type == String.class) {
+      return type.cast(v.toString());
+    } else if (type == BigDecimal.class) {
+      return type.cast(getBigDecimal(columnIndex));
+    } else if (type == Long.class) {
+      return type.cast(getLong(columnIndex));
+    } else if (type == Integer.class) {
+      return type.cast(getInt(columnIndex));
+    }
+    throw conversionException(columnIndex, v, type);
+  }
+
+  @Override
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+    return getObject(findColumn(columnLabel), type);
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    Integer idx = columnIndexes.get(columnLabel);
+    if (idx == null) {
+      idx = columnIndexes.get(columnLabel.toLowerCase(Locale.ENGLISH));
+      if (idx == null) {
+        throw new SQLException("Column [" + columnLabel + "] not found.");
+      }
+    }
+    return idx;
+  }
+
+  @Override
+  public Reader getCharacterStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Reader getCharacterStream(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean isBeforeFirst() throws SQLException {
+    return (cursor < 0 && !rows.isEmpty());
+  }
+
+  @Override
+  public boolean isAfterLast() throws SQLException {
+    return (cursor >= rows.size() && !rows.isEmpty());
+  }
+
+  @Override
+  public boolean isFirst() throws SQLException {
+    return (cursor == 0 && row != null);
+  }
+
+  @Override
+  public boolean isLast() throws SQLException {
+    return (cursor == rows.size() - 1 && row != null);
+  }
+
+  @Override
+  public void beforeFirst() throws SQLException {
+    cursor = -1;
+    row = null;
+  }
+
+  @Override
+  public void afterLast() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean first() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean last() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public int getRow() throws SQLException {
+    return (row != null ? cursor + 1 : 0);
+  }
+
+  @Override
+  public boolean absolute(int row) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean relative(int rows) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean previous() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    if (direction != FETCH_FORWARD) {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return FETCH_FORWARD;
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    fetchSize = rows;
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return fetchSize;
+  }
+
+  @Override
+  public int getType() throws SQLException {
+    return TYPE_SCROLL_INSENSITIVE;
+  }
+
+  @Override
+  public int getConcurrency() throws SQLException {
+    return CONCUR_READ_ONLY;
+  }
+
+  @Override
+  public boolean rowUpdated() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean rowInserted() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public boolean rowDeleted() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNull(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNull(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateByte(int columnIndex, byte x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateByte(String columnLabel, byte x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateShort(int columnIndex, short x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateShort(String columnLabel, short x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateInt(int columnIndex, int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateInt(String columnLabel, int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateLong(int columnIndex, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateLong(String columnLabel, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateFloat(int columnIndex, float x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateFloat(String columnLabel, float x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateDouble(int columnIndex, double x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateDouble(String columnLabel, double x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateString(int columnIndex, String x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateString(String columnLabel, String x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateDate(int columnIndex, Date x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateDate(String columnLabel, Date x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateTime(int columnIndex, Time x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateTime(String columnLabel, Time x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x,
+      long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x,
+      long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, SQLType targetSqlType,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x, SQLType targetSqlType,
+      int scaleOrLength) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, SQLType targetSqlType) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x,
+      SQLType targetSqlType) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void insertRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void deleteRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void refreshRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void cancelRowUpdates() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void moveToInsertRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void moveToCurrentRow() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Statement getStatement() throws SQLException {
+    return null;
+  }
+
+  @Override
+  public Ref getRef(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Ref getRef(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Blob getBlob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Blob getBlob(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Clob getClob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Clob getClob(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Array getArray(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null || v instanceof Array) {
+      return (Array) v;
+    }
+    throw conversionException(columnIndex, v, Array.class);
+  }
+
+  @Override
+  public Array getArray(String columnLabel) throws SQLException {
+    return getArray(findColumn(columnLabel));
+  }
+
+  @Override
+  public URL getURL(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public URL getURL(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateRef(int columnIndex, Ref x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateRef(String columnLabel, Ref x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, Blob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, Blob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Clob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Clob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateArray(int columnIndex, Array x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateArray(String columnLabel, Array x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public RowId getRowId(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public RowId getRowId(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateRowId(int columnIndex, RowId x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateRowId(String columnLabel, RowId x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    return CLOSE_CURSORS_AT_COMMIT;
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed;
+  }
+
+  @Override
+  public void updateNString(int columnIndex, String x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNString(String columnLabel, String x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, NClob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, NClob x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public NClob getNClob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public NClob getNClob(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public SQLXML getSQLXML(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public SQLXML getSQLXML(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateSQLXML(int columnIndex, SQLXML x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateSQLXML(String columnLabel, SQLXML x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public String getNString(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public String getNString(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Reader getNCharacterStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Reader getNCharacterStream(String columnLabel) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader x,
+      long length) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader x) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this);
+  }
+
+  private static int sqlType(Object v) {
+    if (v instanceof String) {
+      return Types.VARCHAR;
+    } else if (v instanceof Long) {
+      return Types.BIGINT;
+    } else if (v instanceof Integer) {
+      return Types.INTEGER;
+    } else if (v instanceof Short) {
+      return Types.SMALLINT;
+    } else if (v instanceof BigDecimal) {
+      return Types.NUMERIC;
+    } else if (v instanceof Double) {
+      return Types.DOUBLE;
+    } else if (v instanceof Boolean) {
+      return Types.BOOLEAN;
+    } else if (v instanceof Timestamp || v instanceof Instant) {
+      return Types.TIMESTAMP;
+    } else if (v instanceof Date || v instanceof LocalDate) {
+      return Types.DATE;
+    } else if (v instanceof Array) {
+      return Types.ARRAY;
+    } else if (v instanceof UUID) {
+      return Types.OTHER;
+    }
+    return (v != null ? Types.JAVA_OBJECT : Types.NULL);
+  }
+
+  private final class ListResultSetMetaData implements ResultSetMetaData {
+
+    private final int[] types;
+    private final String[] classNames;
+
+    private ListResultSetMetaData() {
+      super();
+      final int colCount = columns.size();
+      types = new int[colCount];
+      classNames = new String[colCount];
+      Arrays.fill(types, Types.NULL);
+      Arrays.fill(classNames, Object.class.getName());
+      for (int i = 0; i < colCount; i++) {
+        for (Object[] r : rows) {
+          if (r[i] != null) {
+            types[i] = sqlType(r[i]);
+            classNames[i] = r[i].getClass().getName();
+            break;
+          }
+        }
+      }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+      if (iface.isInstance(this)) {
+        return iface.cast(this);
+      }
+      throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+      return iface.isInstance(this);
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+      return columns.size();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+      return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+      return types[column - 1] == Types.VARCHAR;
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+      return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+      return false;
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+      return columnNullableUnknown;
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+      final int t = types[column - 1];
+      return (t == Types.BIGINT || t == Types.INTEGER || t == Types.SMALLINT
+          || t == Types.NUMERIC || t == Types.DOUBLE);
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+      return columns.get(column - 1);
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+      return columns.get(column - 1);
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+      return "";
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+      return 0;
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+      return 0;
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+      return "";
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+      return "";
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+      return types[column - 1];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+      return classNames[column - 1];
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+      return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+      return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+      return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+      return classNames[column - 1];
+    }
+  }
+
+  private static final class ListArray implements Array {
+
+    private final String baseTypeName;
+    private final int baseType;
+    private final Object[] elements;
+
+    private ListArray(String baseTypeName, int baseType, Object[] elements) {
+      super();
+      this.baseTypeName = baseTypeName;
+      this.baseType = baseType;
+      this.elements = elements;
+    }
+
+    @Override
+    public String getBaseTypeName() throws SQLException {
+      return baseTypeName;
+    }
+
+    @Override
+    public int getBaseType() throws SQLException {
+      return baseType;
+    }
+
+    @Override
+    public Object getArray() throws SQLException {
+      return elements.clone();
+    }
+
+    @Override
+    public Object getArray(Map<String, Class<?>> map) throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public Object getArray(long index, int count) throws SQLException {
+      return Arrays.copyOfRange(elements, (int) index - 1, (int) index - 1 + count);
+    }
+
+    @Override
+    public Object getArray(long index, int count, Map<String, Class<?>> map)
+        throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public ResultSet getResultSet(Map<String, Class<?>> map) throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public ResultSet getResultSet(long index, int count) throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public ResultSet getResultSet(long index, int count, Map<String, Class<?>> map)
+        throws SQLException {
+      throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public void free() throws SQLException {
+      // nothing to free
+    }
+  }
+
+}
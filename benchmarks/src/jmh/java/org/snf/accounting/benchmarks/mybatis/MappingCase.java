@@ -0,0 +1,108 @@
+/* ==================================================================
+ * MappingCase.java - 18/10/2026 9:22:48 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.mybatis;
+
+import java.util.function.IntFunction;
+
+/**
+ * A result map and the shape of result set it maps.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public enum MappingCase {
+
+  /** Invoices joined with their items, as used by invoice queries. */
+  InvoiceFull("org.snf.accounting.dao.mybatis.SnfInvoice.SnfInvoice-FullResult",
+      SyntheticResultSets::invoiceWithItemRows, SyntheticResultSets.ITEMS_PER_INVOICE),
+
+  /** Invoices joined with their items, without item metadata. */
+  InvoiceFullNoMetadata(
+      "org.snf.accounting.benchmarks.mybatis.Alternatives.SnfInvoice-NoMetadataResult",
+      SyntheticResultSets::invoiceWithItemRows, SyntheticResultSets.ITEMS_PER_INVOICE),
+
+  /** Invoices without their items, as used by the headers invoice fetch mode. */
+  InvoiceHeader("org.snf.accounting.dao.mybatis.SnfInvoice.SnfInvoice-HeaderResult",
+      SyntheticResultSets::invoiceRows, 1),
+
+  /** Invoice items, as used by the headers invoice fetch mode. */
+  InvoiceItem("org.snf.accounting.dao.mybatis.SnfInvoiceItem.SnfInvoiceItem-FullResult",
+      SyntheticResultSets::invoiceItemRows, 1),
+
+  /** Payments joined with their invoice payments, as used by payment queries. */
+  PaymentFull("org.snf.accounting.dao.mybatis.Payment.Payment-FullResult",
+      SyntheticResultSets::paymentWithInvoicePaymentRows,
+      SyntheticResultSets.INVOICE_PAYMENTS_PER_PAYMENT),
+
+  /** Payments joined with their invoice payments, without their account. */
+  PaymentNoAccount("org.snf.accounting.benchmarks.mybatis.Alternatives.Payment-NoAccountResult",
+      SyntheticResultSets::paymentWithInvoicePaymentRows,
+      SyntheticResultSets.INVOICE_PAYMENTS_PER_PAYMENT);
+
+  /** The mapper XML locations of the alternative result maps. */
+  public static final String ALTERNATIVE_MAPPER_LOCATIONS
+      = "classpath*:org/snf/accounting/benchmarks/mybatis/*.xml";
+
+  private final String resultMapId;
+  private final IntFunction<ListResultSet> resultSetFactory;
+  private final int rowsPerObject;
+
+  private MappingCase(String resultMapId, IntFunction<ListResultSet> resultSetFactory,
+      int rowsPerObject) {
+    this.resultMapId = resultMapId;
+    this.resultSetFactory = resultSetFactory;
+    this.rowsPerObject = rowsPerObject;
+  }
+
+  /**
+   * Get the fully qualified result map ID.
+   * 
+   * @return the result map ID
+   */
+  public String getResultMapId() {
+    return resultMapId;
+  }
+
+  /**
+   * Generate a result set for this case.
+   * 
+   * @param rows
+   *          the number of rows to generate
+   * @return the result set
+   */
+  public ListResultSet resultSet(int rows) {
+    return resultSetFactory.apply(rows);
+  }
+
+  /**
+   * Get the number of objects the result map should map from a number of rows.
+   * 
+   * @param rows
+   *          the number of rows
+   * @return the expected number of mapped objects
+   */
+  public int expectedCount(int rows) {
+    return (rows + rowsPerObject - 1) / rowsPerObject;
+  }
+
+}
@@ -0,0 +1,202 @@
+/* ==================================================================
+ * MyBatisMappingHarness.java - 18/10/2026 9:11:36 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.mybatis;
+
+import static java.util.Collections.singletonList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import net.solarnetwork.central.dao.mybatis.type.UUIDTypeHandler;
+
+/**
+ * Map JDBC result sets with the application's MyBatis result maps, without a database.
+ * 
+ * <p>
+ * The MyBatis configuration is built from the same mapper XML and settings as the application.
+ * Any result map can then be applied to any {@link ResultSet}, such as a {@link ListResultSet} of
+ * synthetic or recorded rows, with the same result set handler MyBatis uses for a query. Extra
+ * mapper XML can be loaded to compare alternative result maps with the application's.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class MyBatisMappingHarness {
+
+  /** The application mapper XML locations. */
+  public static final String MAPPER_LOCATIONS
+      = "classpath*:org/snf/accounting/dao/mybatis/map/*.xml";
+
+  private final Configuration configuration;
+  private final Map<String, MappedStatement> statements = new HashMap<>(8);
+
+  /**
+   * Constructor.
+   * 
+   * @param extraMapperLocations
+   *          optional extra mapper XML resource locations to load after the application's, for
+   *          example with alternative result maps
+   * @throws IOException
+   *           if any mapper resource cannot be loaded
+   */
+  public MyBatisMappingHarness(String... extraMapperLocations) throws IOException {
+    super();
+    configuration = new Configuration();
+
+    // match application.yml and MyBatisConfig
+    configuration.setMapUnderscoreToCamelCase(true);
+    configuration.setDefaultFetchSize(100);
+    configuration.setDefaultStatementTimeout(30);
+    configuration.setDefaultExecutorType(ExecutorType.BATCH);
+    configuration.getTypeHandlerRegistry().register(new UUIDTypeHandler());
+
+    PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    loadMappers(resolver.getResources(MAPPER_LOCATIONS));
+    if (extraMapperLocations != null) {
+      for (String loc : extraMapperLocations) {
+        loadMappers(resolver.getResources(loc));
+      }
+    }
+  }
+
+  private void loadMappers(Resource[] resources) throws IOException {
+    for (Resource r : resources) {
+      try (InputStream in = r.getInputStream()) {
+        new XMLMapperBuilder(in, configuration, r.toString(), configuration.getSqlFragments())
+            .parse();
+      }
+    }
+  }
+
+  /**
+   * Get the MyBatis configuration.
+   * 
+   * @return the configuration
+   */
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Map a result set.
+   * 
+   * <p>
+   * With {@code resultOrdered} each mapped object is passed to {@code consumer} as soon as the
+   * result set moves past its last row, as with the application's streaming queries. Otherwise
+   * all mapped objects are collected in a list first, as with the application's paged queries.
+   * The result set is closed when mapping completes.
+   * </p>
+   * 
+   * @param resultMapId
+   *          the fully qualified ID of the result map to use
+   * @param resultOrdered
+   *          {@literal true} if the rows of each mapped object are adjacent in {@code rs}
+   * @param rs
+   *          the result set to map
+   * @param consumer
+   *          the consumer of mapped objects
+   * @return the number of mapped objects
+   * @throws IllegalArgumentException
+   *           if the result map does not exist
+   * @throws SQLException
+   *           if any SQL error occurs
+   */
+  public long map(String resultMapId, boolean resultOrdered, ResultSet rs,
+      Consumer<Object> consumer) throws SQLException {
+    final MappedStatement ms = mappedStatement(resultMapId, resultOrdered);
+    final Statement stmt = statement(rs);
+    if (resultOrdered) {
+      final long[] count = new long[] { 0 };
+      DefaultResultSetHandler handler = new DefaultResultSetHandler(null, ms, null, ctx -> {
+        count[0]++;
+        consumer.accept(ctx.getResultObject());
+      }, ms.getBoundSql(null), RowBounds.DEFAULT);
+      handler.handleResultSets(stmt);
+      return count[0];
+    }
+    DefaultResultSetHandler handler = new DefaultResultSetHandler(null, ms, null, null,
+        ms.getBoundSql(null), RowBounds.DEFAULT);
+    List<Object> results = handler.handleResultSets(stmt);
+    results.forEach(consumer);
+    return results.size();
+  }
+
+  private MappedStatement mappedStatement(String resultMapId, boolean resultOrdered) {
+    final String id = resultMapId + (resultOrdered ? "-ordered" : "");
+    MappedStatement ms = statements.get(id);
+    if (ms == null) {
+      // throws IllegalArgumentException if the result map does not exist
+      ms = new MappedStatement.Builder(configuration, id,
+          new StaticSqlSource(configuration, "SELECT"), SqlCommandType.SELECT)
+              .resultMaps(singletonList(configuration.getResultMap(resultMapId)))
+              .resultSetType(ResultSetType.FORWARD_ONLY).resultOrdered(resultOrdered).build();
+      statements.put(id, ms);
+    }
+    return ms;
+  }
+
+  private static Statement statement(ResultSet rs) {
+    // only what the result set handler needs of a statement with a single result set
+    return (Statement) Proxy.newProxyInstance(MyBatisMappingHarness.class.getClassLoader(),
+        new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getResultSet":
+              return rs;
+
+            case "getMoreResults":
+              return false;
+
+            case "getUpdateCount":
+              return -1;
+
+            case "getConnection":
+              return null;
+
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+}
@@ -0,0 +1,114 @@
+/* ==================================================================
+ * ResultMapBenchmarks.java - 18/10/2026 9:24:15 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.mybatis;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark mapping synthetic result sets with MyBatis result maps, without a database.
+ * 
+ * <p>
+ * Each operation maps all {@code rows} JDBC rows of a result set, so the per-row figures reported
+ * by the benchmark runner are per JDBC row, not per mapped object.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ResultMapBenchmarks {
+
+  /** The number of JDBC rows to map. */
+  @Param({ "100", "1000", "10000", "100000" })
+  public int rows;
+
+  /** The result map and result set to map. */
+  @Param
+  public MappingCase mapping;
+
+  /** Stream each object as soon as its rows are mapped, rather than collecting a list. */
+  @Param({ "true", "false" })
+  public boolean resultOrdered;
+
+  private MyBatisMappingHarness harness;
+  private ListResultSet resultSet;
+
+  /**
+   * Load the result maps and generate the result set.
+   * 
+   * @throws IOException
+   *           if the mapper XML cannot be loaded
+   * @throws SQLException
+   *           if the result set cannot be mapped
+   */
+  @Setup
+  public void setup() throws IOException, SQLException {
+    harness = new MyBatisMappingHarness(MappingCase.ALTERNATIVE_MAPPER_LOCATIONS);
+    resultSet = mapping.resultSet(rows);
+
+    // verify the whole result set maps, so a broken result map can't look fast
+    long count = harness.map(mapping.getResultMapId(), resultOrdered, resultSet, o -> {
+      // nothing to do
+    });
+    if (count != mapping.expectedCount(rows)) {
+      throw new IllegalStateException("Expected " + mapping.expectedCount(rows)
+          + " mapped objects but got " + count + ".");
+    }
+  }
+
+  /**
+   * Map the result set.
+   * 
+   * @param bh
+   *          the blackhole to consume mapped objects with
+   * @return the number of mapped objects
+   * @throws SQLException
+   *           if any SQL error occurs
+   */
+  @Benchmark
+  public long map(Blackhole bh) throws SQLException {
+    resultSet.reset();
+    return harness.map(mapping.getResultMapId(), resultOrdered, resultSet, bh::consume);
+  }
+
+}
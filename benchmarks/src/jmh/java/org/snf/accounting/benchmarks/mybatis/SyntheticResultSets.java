@@ -0,0 +1,278 @@
+/* ==================================================================
+ * SyntheticResultSets.java - 18/10/2026 9:17:02 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.mybatis;
+
+import static java.util.Arrays.asList;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.PaymentType;
+
+/**
+ * Synthetic JDBC result sets, with the columns of the application's invoice and payment queries.
+ * 
+ * <p>
+ * Each result set has a given number of rows, generated deterministically and ordered so all rows
+ * of one mapped object are adjacent. Accounts and addresses are repeated across rows as they would
+ * be in a join. Values are stored as the JDBC types PostgreSQL returns them as, so the cost of
+ * decoding values in the driver itself is not included.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SyntheticResultSets {
+
+  /** The number of item rows per invoice. */
+  public static final int ITEMS_PER_INVOICE = 3;
+
+  /** The number of invoice payment rows per payment. */
+  public static final int INVOICE_PAYMENTS_PER_PAYMENT = 2;
+
+  /** The number of invoices or payments per account. */
+  public static final int OBJECTS_PER_ACCOUNT = 4;
+
+  /** The invoice item metadata, as stored in the jmeta column. */
+  public static final String ITEM_METADATA = "{\"nodeId\":123,\"usage\":{\"datumPropertiesIn\":"
+      + "1234567,\"datumOut\":89012,\"datumDaysStored\":3456789},\"tiers\":[{\"quantity\":"
+      + "50000,\"cost\":\"0.000009\"},{\"quantity\":400000,\"cost\":\"0.000006\"},{\"quantity\":"
+      + "1000000,\"cost\":\"0.000004\"}]}";
+
+  private static final List<String> ACCOUNT_COLUMNS = asList("bill_account_id",
+      "bill_account_created", "bill_account_user_id", "bill_account_addr_id",
+      "bill_account_currency", "bill_account_locale");
+
+  private static final List<String> ADDRESS_COLUMNS = asList("bill_address_id",
+      "bill_address_created", "bill_address_disp_name", "bill_address_email",
+      "bill_address_country", "bill_address_time_zone", "bill_address_region",
+      "bill_address_state_prov", "bill_address_locality", "bill_address_postal_code",
+      "bill_address_address");
+
+  private static final List<String> INVOICE_COLUMNS = asList("bill_invoice_id",
+      "bill_invoice_created", "bill_invoice_acct_id", "bill_invoice_addr_id",
+      "bill_invoice_date_start", "bill_invoice_date_end", "bill_invoice_currency",
+      "bill_invoice_paid_amount");
+
+  private static final List<String> INVOICE_ITEM_COLUMNS = asList("bill_invoice_item_id",
+      "bill_invoice_item_created", "bill_invoice_item_inv_id", "bill_invoice_item_item_type",
+      "bill_invoice_item_item_key", "bill_invoice_item_amount", "bill_invoice_item_quantity",
+      "bill_invoice_item_jmeta");
+
+  private static final List<String> PAYMENT_COLUMNS = asList("bill_payment_id",
+      "bill_payment_created", "bill_payment_acct_id", "bill_payment_pay_type",
+      "bill_payment_amount", "bill_payment_currency", "bill_payment_ext_key", "bill_payment_ref");
+
+  private static final List<String> INVOICE_PAYMENT_COLUMNS = asList("bill_invoice_payment_id",
+      "bill_invoice_payment_created", "bill_invoice_payment_acct_id",
+      "bill_invoice_payment_pay_id", "bill_invoice_payment_inv_id",
+      "bill_invoice_payment_amount", "bill_invoice_payment_user_id");
+
+  private static final String[] CURRENCIES = new String[] { "NZD", "USD" };
+  private static final String[] TIME_ZONES = new String[] { "Pacific/Auckland",
+      "America/Los_Angeles" };
+  private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+  private static final LocalDate START_MONTH = LocalDate.of(2020, 1, 1);
+  private static final long USER_ID_OFFSET = 1000L;
+
+  private SyntheticResultSets() {
+    // not available
+  }
+
+  private static List<String> columns(List<List<String>> groups) {
+    List<String> result = new ArrayList<>();
+    for (List<String> g : groups) {
+      result.addAll(g);
+    }
+    return result;
+  }
+
+  private static Object[] row(List<Object[]> groups, int size) {
+    Object[] result = new Object[size];
+    int i = 0;
+    for (Object[] g : groups) {
+      System.arraycopy(g, 0, result, i, g.length);
+      i += g.length;
+    }
+    return result;
+  }
+
+  private static Object[] accountValues(long accountId) {
+    final long addrId = accountId;
+    final Array street = ListResultSet.array("text", Types.VARCHAR,
+        new String[] { accountId + " Main Street", "Level " + (accountId % 10 + 1) });
+    return new Object[] {
+        // account
+        accountId, Timestamp.from(START), accountId + USER_ID_OFFSET, addrId,
+        CURRENCIES[(int) (accountId % CURRENCIES.length)], "en_NZ",
+        // address
+        addrId, Timestamp.from(START), "Customer " + accountId,
+        "customer" + accountId + "@example.com", "NZ",
+        TIME_ZONES[(int) (accountId % TIME_ZONES.length)], "Region", "State", "Locality",
+        "1234", street };
+  }
+
+  /**
+   * Generate rows of invoices joined with their items.
+   * 
+   * <p>
+   * These are the columns of the {@code find-SnfInvoice-for-filter} query, with
+   * {@link #ITEMS_PER_INVOICE} rows per invoice.
+   * </p>
+   * 
+   * @param rows
+   *          the number of rows to generate
+   * @return the result set
+   */
+  public static ListResultSet invoiceWithItemRows(int rows) {
+    return invoiceRows(rows, ITEMS_PER_INVOICE, true);
+  }
+
+  /**
+   * Generate rows of invoices without their items.
+   * 
+   * <p>
+   * These are the columns of the {@code find-SnfInvoice-headers-for-filter} query, with one row
+   * per invoice.
+   * </p>
+   * 
+   * @param rows
+   *          the number of rows to generate
+   * @return the result set
+   */
+  public static ListResultSet invoiceRows(int rows) {
+    return invoiceRows(rows, 1, false);
+  }
+
+  private static ListResultSet invoiceRows(int rows, int rowsPerInvoice, boolean items) {
+    final List<String> cols = columns(items
+        ? asList(INVOICE_COLUMNS, ACCOUNT_COLUMNS, ADDRESS_COLUMNS, INVOICE_ITEM_COLUMNS)
+        : asList(INVOICE_COLUMNS, ACCOUNT_COLUMNS, ADDRESS_COLUMNS));
+    final List<Object[]> data = new ArrayList<>(rows);
+    Object[] account = null;
+    Object[] invoice = null;
+    for (int i = 0; i < rows; i++) {
+      final int invoiceIdx = i / rowsPerInvoice;
+      final long invoiceId = invoiceIdx + 1L;
+      final long accountId = (invoiceIdx / OBJECTS_PER_ACCOUNT) + 1L;
+      final int itemIdx = i % rowsPerInvoice;
+      if (account == null || !account[0].equals(accountId)) {
+        account = accountValues(accountId);
+      }
+      if (itemIdx == 0) {
+        final int month = invoiceIdx % OBJECTS_PER_ACCOUNT;
+        invoice = new Object[] { invoiceId, Timestamp.from(START.plusSeconds(invoiceId * 60L)),
+            accountId, accountId, Date.valueOf(START_MONTH.plusMonths(month)),
+            Date.valueOf(START_MONTH.plusMonths(month + 1)), account[4],
+            (invoiceIdx % 2 == 0 ? BigDecimal.valueOf(invoiceId % 97 * 300 + 174, 2)
+                : BigDecimal.ZERO) };
+      }
+      if (items) {
+        Object[] item = new Object[] { new UUID(invoiceId, itemIdx), invoice[1], invoiceId,
+            (itemIdx == 0 ? InvoiceItemType.Fixed : InvoiceItemType.Usage).getCode(),
+            "item-" + itemIdx, BigDecimal.valueOf(invoiceId % 97 * 100 + itemIdx * 25 + 99, 2),
+            BigDecimal.valueOf(itemIdx + 1), (itemIdx == 0 ? null : ITEM_METADATA) };
+        data.add(row(asList(invoice, account, item), cols.size()));
+      } else {
+        data.add(row(asList(invoice, account), cols.size()));
+      }
+    }
+    return new ListResultSet(cols, data);
+  }
+
+  /**
+   * Generate rows of invoice items.
+   * 
+   * <p>
+   * These are the columns of the {@code find-SnfInvoiceItem-for-invoices} query, with
+   * {@link #ITEMS_PER_INVOICE} rows per invoice.
+   * </p>
+   * 
+   * @param rows
+   *          the number of rows to generate
+   * @return the result set
+   */
+  public static ListResultSet invoiceItemRows(int rows) {
+    final List<Object[]> data = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      final long invoiceId = (i / ITEMS_PER_INVOICE) + 1L;
+      final int itemIdx = i % ITEMS_PER_INVOICE;
+      data.add(new Object[] { new UUID(invoiceId, itemIdx),
+          Timestamp.from(START.plusSeconds(invoiceId * 60L)), invoiceId,
+          (itemIdx == 0 ? InvoiceItemType.Fixed : InvoiceItemType.Usage).getCode(),
+          "item-" + itemIdx, BigDecimal.valueOf(invoiceId % 97 * 100 + itemIdx * 25 + 99, 2),
+          BigDecimal.valueOf(itemIdx + 1), (itemIdx == 0 ? null : ITEM_METADATA) });
+    }
+    return new ListResultSet(INVOICE_ITEM_COLUMNS, data);
+  }
+
+  /**
+   * Generate rows of payments joined with their invoice payments.
+   * 
+   * <p>
+   * These are the columns of the {@code find-Payment-for-filter} query, with
+   * {@link #INVOICE_PAYMENTS_PER_PAYMENT} rows per payment.
+   * </p>
+   * 
+   * @param rows
+   *          the number of rows to generate
+   * @return the result set
+   */
+  public static ListResultSet paymentWithInvoicePaymentRows(int rows) {
+    final List<String> cols = columns(
+        asList(PAYMENT_COLUMNS, ACCOUNT_COLUMNS, ADDRESS_COLUMNS, INVOICE_PAYMENT_COLUMNS));
+    final List<Object[]> data = new ArrayList<>(rows);
+    Object[] account = null;
+    Object[] payment = null;
+    for (int i = 0; i < rows; i++) {
+      final int paymentIdx = i / INVOICE_PAYMENTS_PER_PAYMENT;
+      final long accountId = (paymentIdx / OBJECTS_PER_ACCOUNT) + 1L;
+      final int invPayIdx = i % INVOICE_PAYMENTS_PER_PAYMENT;
+      if (account == null || !account[0].equals(accountId)) {
+        account = accountValues(accountId);
+      }
+      if (invPayIdx == 0) {
+        payment = new Object[] { new UUID(accountId, paymentIdx),
+            Timestamp.from(START.plusSeconds(paymentIdx * 60L)), accountId,
+            PaymentType.Payment.getCode(), BigDecimal.valueOf(paymentIdx % 89 * 200 + 52, 2),
+            account[4], "ext-" + paymentIdx, null };
+      }
+      final BigDecimal invPayAmount = BigDecimal
+          .valueOf(paymentIdx % 89 * 100 + invPayIdx * 50 + 1, 2);
+      Object[] invPay = new Object[] { new UUID(paymentIdx, invPayIdx), payment[1], accountId,
+          payment[0], (long) i + 1, invPayAmount, account[2] };
+      data.add(row(asList(payment, account, invPay), cols.size()));
+    }
+    return new ListResultSet(cols, data);
+  }
+
+}
@@ -0,0 +1,104 @@
+/* ==================================================================
+ * CommandMix.java - 18/10/2026 10:11:08 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A scripted mix of shell commands, replayed in order by each load session.
+ * 
+ * <p>
+ * Commands can contain {@literal {account}} and {@literal {invoice}} placeholders, which are
+ * replaced by a random account or invoice ID sampled from the database. A {@code next-page}
+ * command always follows a list command, so it is available when it runs.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public enum CommandMix {
+
+  /** An operator browsing accounts and their invoices. */
+  Browse("accounts-list --max 20", "next-page", "invoices-list --account-id {account} --max 20",
+      "next-page", "invoice-show {invoice}"),
+
+  /** An automation script looking up individual accounts and invoices. */
+  Lookup("invoice-show {invoice}", "accounts-list --account-id {account}",
+      "invoices-list --account-id {account} --max 50", "invoice-show {invoice}"),
+
+  /** Paging through all invoices, as an export script might. */
+  Paging("invoices-list --max 50 --count none", "next-page", "next-page", "next-page");
+
+  private final List<String> commands;
+
+  private CommandMix(String... commands) {
+    this.commands = unmodifiableList(asList(commands));
+  }
+
+  /**
+   * Get the commands of the mix, before placeholders are replaced.
+   * 
+   * @return the commands
+   */
+  public List<String> getCommands() {
+    return commands;
+  }
+
+  /**
+   * Get a command of the mix, with placeholders replaced.
+   * 
+   * @param step
+   *          the number of commands already run in the session, which selects the command to run
+   *          next
+   * @param rng
+   *          the random number generator to select IDs with
+   * @param ids
+   *          the IDs to select from
+   * @return the command
+   */
+  public String command(int step, Random rng, SampleIds ids) {
+    String cmd = commands.get(step % commands.size());
+    if (cmd.indexOf('{') < 0) {
+      return cmd;
+    }
+    return cmd.replace("{account}", String.valueOf(ids.randomAccountId(rng)))
+        .replace("{invoice}", String.valueOf(ids.randomInvoiceId(rng)));
+  }
+
+  /**
+   * Get the name of a command, which is its first word.
+   * 
+   * @param command
+   *          the command line
+   * @return the command name
+   */
+  public static String commandName(String command) {
+    int idx = command.indexOf(' ');
+    return (idx < 0 ? command : command.substring(0, idx));
+  }
+
+}
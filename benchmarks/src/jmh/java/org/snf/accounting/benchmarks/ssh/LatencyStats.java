@@ -0,0 +1,120 @@
+/* ==================================================================
+ * LatencyStats.java - 18/10/2026 10:31:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import java.util.Arrays;
+
+/**
+ * Latencies recorded by one thread, with percentile support.
+ * 
+ * <p>
+ * This class is not thread safe: each load session records into its own instance, and the
+ * instances are merged once the sessions have stopped.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class LatencyStats {
+
+  private long[] nanos = new long[64];
+  private int count;
+  private int errors;
+  private boolean sorted = true;
+
+  /**
+   * Record a latency.
+   * 
+   * @param latencyNanos
+   *          the latency, in nanoseconds
+   */
+  public void add(long latencyNanos) {
+    if (count == nanos.length) {
+      nanos = Arrays.copyOf(nanos, count * 2);
+    }
+    nanos[count++] = latencyNanos;
+    sorted = false;
+  }
+
+  /**
+   * Record an error.
+   */
+  public void addError() {
+    errors++;
+  }
+
+  /**
+   * Add all latencies and errors recorded in another instance.
+   * 
+   * @param other
+   *          the instance to add
+   */
+  public void addAll(LatencyStats other) {
+    if (count + other.count > nanos.length) {
+      nanos = Arrays.copyOf(nanos, count + other.count);
+    }
+    System.arraycopy(other.nanos, 0, nanos, count, other.count);
+    count += other.count;
+    errors += other.errors;
+    sorted = false;
+  }
+
+  /**
+   * Get the number of latencies recorded.
+   * 
+   * @return the count
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Get the number of errors recorded.
+   * 
+   * @return the error count
+   */
+  public int getErrors() {
+    return errors;
+  }
+
+  /**
+   * Get a latency percentile.
+   * 
+   * @param percentile
+   *          the percentile, from {@literal 0} to {@literal 100}
+   * @return the latency in milliseconds, or {@literal NaN} if no latencies have been recorded
+   */
+  public double percentileMillis(double percentile) {
+    if (count < 1) {
+      return Double.NaN;
+    }
+    if (!sorted) {
+      Arrays.sort(nanos, 0, count);
+      sorted = true;
+    }
+    // nearest rank
+    int rank = (int) Math.ceil(percentile / 100.0 * count);
+    return nanos[Math.max(0, Math.min(count, rank) - 1)] / 1_000_000.0;
+  }
+
+}
@@ -0,0 +1,194 @@
+/* ==================================================================
+ * LoadSession.java - 18/10/2026 10:19:52 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.channel.ChannelShell;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.channel.ChannelPipedInputStream;
+
+/**
+ * An interactive SSH shell session that runs one command at a time.
+ * 
+ * <p>
+ * A command is complete when the shell prints its prompt again. The prompt must be text that
+ * command output never contains, so the load driver configures a distinctive prompt on the server.
+ * Any prompt printed before the command line is echoed back, for example when the line is
+ * redrawn, is ignored.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class LoadSession implements Closeable {
+
+  /** The terminal width, wide enough that tables are not wrapped. */
+  public static final int TERMINAL_COLUMNS = 240;
+
+  private static final String[] ERROR_MARKERS = new String[] { "No command found",
+      "is not currently available", "Exception" };
+
+  private final ClientSession session;
+  private final ChannelShell channel;
+  private final InputStream in;
+  private final OutputStream out;
+  private final String prompt;
+  private final byte[] buf = new byte[8192];
+  private final StringBuilder output = new StringBuilder(4096);
+
+  private LoadSession(ClientSession session, ChannelShell channel, String prompt) {
+    super();
+    this.session = session;
+    this.channel = channel;
+    this.in = channel.getInvertedOut();
+    this.out = channel.getInvertedIn();
+    this.prompt = prompt;
+  }
+
+  /**
+   * Connect, authenticate, and open a shell, waiting for the first prompt.
+   * 
+   * @param client
+   *          the started client
+   * @param host
+   *          the host to connect to
+   * @param port
+   *          the port to connect to
+   * @param username
+   *          the username
+   * @param password
+   *          the password
+   * @param prompt
+   *          the shell prompt text
+   * @param timeoutMs
+   *          the maximum time to wait for any step, in milliseconds
+   * @return the session
+   * @throws IOException
+   *           if any communication error occurs, or the timeout is reached
+   */
+  public static LoadSession open(SshClient client, String host, int port, String username,
+      String password, String prompt, long timeoutMs) throws IOException {
+    ClientSession session = client.connect(username, host, port).verify(timeoutMs).getSession();
+    try {
+      session.addPasswordIdentity(password);
+      session.auth().verify(timeoutMs);
+      ChannelShell channel = session.createShellChannel();
+      channel.setPtyType("xterm");
+      channel.setPtyColumns(TERMINAL_COLUMNS);
+      channel.open().verify(timeoutMs);
+      if (channel.getInvertedOut() instanceof ChannelPipedInputStream) {
+        ((ChannelPipedInputStream) channel.getInvertedOut()).setTimeout(timeoutMs);
+      }
+      LoadSession result = new LoadSession(session, channel, prompt);
+      result.readToPrompt(false);
+      return result;
+    } catch (IOException | RuntimeException e) {
+      session.close(true);
+      throw e;
+    }
+  }
+
+  /**
+   * Run a command and wait for it to complete.
+   * 
+   * @param command
+   *          the command line to run
+   * @return the output of the command, including terminal control sequences
+   * @throws IOException
+   *           if any communication error occurs, or the timeout is reached
+   */
+  public String execute(String command) throws IOException {
+    // discard anything printed after the last prompt, like terminal control sequences
+    while (in.available() > 0) {
+      if (in.read(buf, 0, Math.min(buf.length, in.available())) < 0) {
+        throw new IOException("Session closed.");
+      }
+    }
+    out.write((command + "\r").getBytes(ISO_8859_1));
+    out.flush();
+    return readToPrompt(true);
+  }
+
+  private String readToPrompt(boolean afterLineBreak) throws IOException {
+    output.setLength(0);
+    int searchFrom = -1;
+    while (true) {
+      int len = in.read(buf);
+      if (len < 0) {
+        throw new IOException("Session closed.");
+      }
+      int start = output.length();
+      output.append(new String(buf, 0, len, ISO_8859_1));
+      if (searchFrom < 0) {
+        if (afterLineBreak) {
+          // the prompt can only follow the line break after the echoed command line
+          int nl = output.indexOf("\n", start);
+          if (nl < 0) {
+            continue;
+          }
+          searchFrom = nl + 1;
+        } else {
+          searchFrom = 0;
+        }
+        start = searchFrom;
+      }
+      if (output.indexOf(prompt, Math.max(searchFrom, start - prompt.length())) >= 0) {
+        return output.substring(searchFrom);
+      }
+    }
+  }
+
+  /**
+   * Test if command output reports an error running the command.
+   * 
+   * @param output
+   *          the command output
+   * @return {@literal true} if the output contains an error
+   */
+  public static boolean isError(String output) {
+    for (String marker : ERROR_MARKERS) {
+      if (output.contains(marker)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      channel.close(false).await(1, TimeUnit.SECONDS);
+    } finally {
+      session.close(true);
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+/* ==================================================================
+ * SampleIds.java - 18/10/2026 10:14:37 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Account and invoice IDs sampled from the database, to fill in command placeholders with.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SampleIds {
+
+  private static final String INVOICE_SAMPLE_SQL = "SELECT id, acct_id FROM solarbill.bill_invoice"
+      + " ORDER BY random() LIMIT ?";
+
+  private final long[] accountIds;
+  private final long[] invoiceIds;
+
+  private SampleIds(long[] accountIds, long[] invoiceIds) {
+    super();
+    this.accountIds = accountIds;
+    this.invoiceIds = invoiceIds;
+  }
+
+  /**
+   * Sample random invoices, and the accounts they belong to.
+   * 
+   * @param dataSource
+   *          the data source
+   * @param count
+   *          the maximum number of invoices to sample
+   * @return the sampled IDs
+   * @throws IllegalStateException
+   *           if there are no invoices in the database
+   */
+  public static SampleIds sample(DataSource dataSource, int count) {
+    List<long[]> rows = new JdbcTemplate(dataSource).query(INVOICE_SAMPLE_SQL,
+        (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) }, count);
+    if (rows.isEmpty()) {
+      throw new IllegalStateException("No invoices available to run commands with.");
+    }
+    long[] accountIds = new long[rows.size()];
+    long[] invoiceIds = new long[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      invoiceIds[i] = rows.get(i)[0];
+      accountIds[i] = rows.get(i)[1];
+    }
+    return new SampleIds(accountIds, invoiceIds);
+  }
+
+  /**
+   * Get a random account ID.
+   * 
+   * <p>
+   * Accounts are selected in proportion to their number of invoices, like operators tend to look
+   * at the busiest accounts.
+   * </p>
+   * 
+   * @param rng
+   *          the random number generator
+   * @return the account ID
+   */
+  public long randomAccountId(Random rng) {
+    return accountIds[rng.nextInt(accountIds.length)];
+  }
+
+  /**
+   * Get a random invoice ID.
+   * 
+   * @param rng
+   *          the random number generator
+   * @return the invoice ID
+   */
+  public long randomInvoiceId(Random rng) {
+    return invoiceIds[rng.nextInt(invoiceIds.length)];
+  }
+
+  /**
+   * Get the number of sampled invoices.
+   * 
+   * @return the count
+   */
+  public int size() {
+    return invoiceIds.length;
+  }
+
+}
@@ -0,0 +1,400 @@
+/* ==================================================================
+ * ServerSampler.java - 18/10/2026 10:36:45 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.snf.accounting.cli.TrackingSshShellCommandFactory;
+
+import com.github.fonimus.ssh.shell.SshShellCommandFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Sample what the SSH server threads are doing while a load stage runs.
+ * 
+ * <p>
+ * Three resources can limit how many commands the server completes per second: the SSH server
+ * NIO worker threads, which handle all session I/O and are measured by their CPU use; the Hikari
+ * connection pool, measured by the threads waiting for a connection; and the
+ * {@link TrackingSshShellCommandFactory} session bookkeeping, measured by the threads sampled in
+ * its methods, including waiting for its locks. Shell threads are also sampled while they run
+ * commands, to show how much of each command is spent in the database.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ServerSampler {
+
+  /** The thread name prefix of the SSH server NIO worker threads. */
+  public static final String SERVER_NIO_THREAD_PREFIX = "sshd-SshServer";
+
+  private static final String NIO_THREAD_MARKER = "-nio2";
+  private static final String SHELL_RUN_CLASS = SshShellCommandFactory.class.getName();
+  private static final String TRACKING_CLASS = TrackingSshShellCommandFactory.class.getName();
+  private static final String TRACKING_SHELL_CLASS = TRACKING_CLASS + "$TrackingShell";
+  private static final String HIKARI_POOL_CLASS = "com.zaxxer.hikari.pool.HikariPool";
+  private static final String JDBC_PACKAGE = "org.postgresql.";
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final Collection<HikariDataSource> pools;
+  private final long intervalMs;
+
+  // only the sampler thread updates the sample totals while it runs
+  private volatile boolean running;
+  private Thread sampler;
+  private long startNanos;
+  private Map<Long, Long> startNioCpu;
+
+  private int samples;
+  private long shellThreads;
+  private long busy;
+  private long inPool;
+  private long inJdbc;
+  private long inTracking;
+  private long poolActive;
+  private long poolAwaiting;
+
+  /**
+   * Constructor.
+   * 
+   * @param pools
+   *          the connection pools to sample
+   * @param intervalMs
+   *          the sample interval, in milliseconds
+   */
+  public ServerSampler(Collection<HikariDataSource> pools, long intervalMs) {
+    super();
+    this.pools = pools;
+    this.intervalMs = intervalMs;
+  }
+
+  /**
+   * Start sampling.
+   */
+  public void start() {
+    samples = 0;
+    shellThreads = 0;
+    busy = 0;
+    inPool = 0;
+    inJdbc = 0;
+    inTracking = 0;
+    poolActive = 0;
+    poolAwaiting = 0;
+    startNioCpu = nioThreadCpuNanos();
+    startNanos = System.nanoTime();
+    running = true;
+    sampler = new Thread(this::run, "SshLoadSampler");
+    sampler.setDaemon(true);
+    sampler.start();
+  }
+
+  /**
+   * Stop sampling.
+   * 
+   * @return the sampled results
+   * @throws InterruptedException
+   *           if interrupted waiting for the sampler to stop
+   */
+  public Result stop() throws InterruptedException {
+    running = false;
+    sampler.join();
+    final long wallNanos = System.nanoTime() - startNanos;
+    Map<Long, Long> endNioCpu = nioThreadCpuNanos();
+    long cpuNanos = 0;
+    for (Map.Entry<Long, Long> e : endNioCpu.entrySet()) {
+      Long start = startNioCpu.get(e.getKey());
+      cpuNanos += e.getValue() - (start != null ? start : 0L);
+    }
+    int poolMax = 0;
+    for (HikariDataSource ds : pools) {
+      poolMax += ds.getMaximumPoolSize();
+    }
+    Result r = new Result();
+    r.nioThreads = endNioCpu.size();
+    r.nioCpuPercent = (endNioCpu.isEmpty() ? Double.NaN
+        : 100.0 * cpuNanos / ((double) wallNanos * endNioCpu.size()));
+    r.shellThreads = average(shellThreads);
+    r.busy = average(busy);
+    r.inPool = average(inPool);
+    r.inJdbc = average(inJdbc);
+    r.inTracking = average(inTracking);
+    r.poolActive = average(poolActive);
+    r.poolAwaiting = average(poolAwaiting);
+    r.poolMax = poolMax;
+    return r;
+  }
+
+  private double average(long total) {
+    return (samples > 0 ? (double) total / samples : Double.NaN);
+  }
+
+  private void run() {
+    while (running) {
+      sample();
+      try {
+        Thread.sleep(intervalMs);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void sample() {
+    for (ThreadInfo info : threads.dumpAllThreads(false, false)) {
+      if (info == null) {
+        continue;
+      }
+      StackTraceElement[] stack = info.getStackTrace();
+      if (isTrackingFrame(firstApplicationFrame(stack))) {
+        inTracking++;
+      }
+      if (!hasFrame(stack, SHELL_RUN_CLASS, "run")) {
+        continue;
+      }
+      shellThreads++;
+      if (!hasFrame(stack, TRACKING_SHELL_CLASS, "evaluate")) {
+        // waiting for the next command
+        continue;
+      }
+      busy++;
+      if (hasFrame(stack, HIKARI_POOL_CLASS, "getConnection")) {
+        inPool++;
+      } else if (hasPackageFrame(stack, JDBC_PACKAGE)) {
+        inJdbc++;
+      }
+    }
+    for (HikariDataSource ds : pools) {
+      HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+      if (pool != null) {
+        poolActive += pool.getActiveConnections();
+        poolAwaiting += pool.getThreadsAwaitingConnection();
+      }
+    }
+    samples++;
+  }
+
+  private Map<Long, Long> nioThreadCpuNanos() {
+    Map<Long, Long> result = new HashMap<>(16);
+    for (Thread t : Thread.getAllStackTraces().keySet()) {
+      String name = t.getName();
+      if (name.startsWith(SERVER_NIO_THREAD_PREFIX) && name.contains(NIO_THREAD_MARKER)) {
+        long cpu = threads.getThreadCpuTime(t.getId());
+        if (cpu >= 0) {
+          result.put(t.getId(), cpu);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static StackTraceElement firstApplicationFrame(StackTraceElement[] stack) {
+    for (StackTraceElement frame : stack) {
+      String cls = frame.getClassName();
+      if (!(cls.startsWith("java.") || cls.startsWith("javax.") || cls.startsWith("sun.")
+          || cls.startsWith("jdk."))) {
+        return frame;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isTrackingFrame(StackTraceElement frame) {
+    if (frame == null) {
+      return false;
+    }
+    if (TRACKING_SHELL_CLASS.equals(frame.getClassName())) {
+      // the tracking shell delegates everything but the bookkeeping at the start of run()
+      return "run".equals(frame.getMethodName());
+    }
+    return TRACKING_CLASS.equals(frame.getClassName());
+  }
+
+  private static boolean hasFrame(StackTraceElement[] stack, String className, String method) {
+    for (StackTraceElement frame : stack) {
+      if (method.equals(frame.getMethodName()) && className.equals(frame.getClassName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasPackageFrame(StackTraceElement[] stack, String packagePrefix) {
+    for (StackTraceElement frame : stack) {
+      if (frame.getClassName().startsWith(packagePrefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sampled results, as averages over all samples.
+   */
+  public static final class Result {
+
+    private int nioThreads;
+    private double nioCpuPercent;
+    private double shellThreads;
+    private double busy;
+    private double inPool;
+    private double inJdbc;
+    private double inTracking;
+    private double poolActive;
+    private double poolAwaiting;
+    private int poolMax;
+
+    private Result() {
+      super();
+    }
+
+    /**
+     * Get the number of SSH server NIO worker threads.
+     * 
+     * @return the thread count
+     */
+    public int getNioThreads() {
+      return nioThreads;
+    }
+
+    /**
+     * Get the CPU use of the SSH server NIO worker threads, as a percentage of their capacity.
+     * 
+     * @return the CPU use percentage
+     */
+    public double getNioCpuPercent() {
+      return nioCpuPercent;
+    }
+
+    /**
+     * Get the average number of shell threads.
+     * 
+     * @return the average thread count
+     */
+    public double getShellThreads() {
+      return shellThreads;
+    }
+
+    /**
+     * Get the average number of shell threads running a command.
+     * 
+     * @return the average thread count
+     */
+    public double getBusy() {
+      return busy;
+    }
+
+    /**
+     * Get the average number of shell threads getting a pooled connection.
+     * 
+     * @return the average thread count
+     */
+    public double getInPool() {
+      return inPool;
+    }
+
+    /**
+     * Get the average number of shell threads in the JDBC driver.
+     * 
+     * @return the average thread count
+     */
+    public double getInJdbc() {
+      return inJdbc;
+    }
+
+    /**
+     * Get the average number of threads in the session tracking bookkeeping.
+     * 
+     * @return the average thread count
+     */
+    public double getInTracking() {
+      return inTracking;
+    }
+
+    /**
+     * Get the average number of active pooled connections.
+     * 
+     * @return the average connection count
+     */
+    public double getPoolActive() {
+      return poolActive;
+    }
+
+    /**
+     * Get the average number of threads waiting for a pooled connection, as reported by the pool.
+     * 
+     * @return the average thread count
+     */
+    public double getPoolAwaiting() {
+      return poolAwaiting;
+    }
+
+    /**
+     * Get the maximum number of pooled connections.
+     * 
+     * @return the maximum connection count
+     */
+    public int getPoolMax() {
+      return poolMax;
+    }
+
+    /**
+     * Get the resources that look saturated.
+     * 
+     * <p>
+     * The pool is saturated when threads wait for connections; the NIO threads when they are
+     * 75% busy; the session bookkeeping when a quarter of a thread, on average, is in it. When
+     * none of these apply but commands spend most of their time in the JDBC driver, the database
+     * is the limit.
+     * </p>
+     * 
+     * @return the saturated resources, or {@literal -} if none
+     */
+    public String getBottleneck() {
+      List<String> result = new ArrayList<>(3);
+      if (poolAwaiting >= 0.5 || (busy > 0 && inPool / busy >= 0.2)) {
+        result.add("hikari-pool");
+      }
+      if (nioCpuPercent >= 75.0) {
+        result.add("ssh-nio");
+      }
+      if (inTracking >= 0.25) {
+        result.add("session-tracking");
+      }
+      if (result.isEmpty() && busy > 0 && inJdbc / busy >= 0.5) {
+        result.add("database");
+      }
+      return (result.isEmpty() ? "-" : String.join(",", result));
+    }
+
+  }
+
+}
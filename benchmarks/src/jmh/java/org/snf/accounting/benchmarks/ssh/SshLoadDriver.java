@@ -0,0 +1,406 @@
+/* ==================================================================
+ * SshLoadDriver.java - 18/10/2026 10:52:03 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.benchmarks.ssh;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
+import org.apache.sshd.server.SshServer;
+import org.snf.accounting.cli.app.AccountingTool;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Drive concurrent SSH shell sessions against an in-process accounting server.
+ * 
+ * <p>
+ * The full application is started, including the SSH server from the application
+ * {@code SshConfig} and its connection pool, so it needs a database with ledger data. Then for
+ * each stage in {@code load.sessions} that many sessions connect, authenticate, and replay their
+ * {@link CommandMix} until the stage ends. Each stage reports the command latency percentiles and
+ * throughput, along with what the {@link ServerSampler} found the server threads doing, so the
+ * stage where throughput stops growing shows which resource ran out.
+ * </p>
+ * 
+ * <p>
+ * The {@code Busy}, {@code InPool}, {@code InJDBC}, and {@code Track} columns are the average
+ * number of server threads sampled running a command, waiting for a pooled connection, in the
+ * JDBC driver, and in the session tracking bookkeeping. The {@code Bottleneck} column names the
+ * resources that look saturated, as described in {@link ServerSampler.Result#getBottleneck()}.
+ * </p>
+ * 
+ * <p>
+ * Settings are passed as Spring Boot command line properties, for example
+ * {@code --load.sessions=1,8,32 --spring.datasource.url=jdbc:postgresql://localhost/test}:
+ * </p>
+ * 
+ * <dl>
+ * <dt>{@code load.sessions}</dt>
+ * <dd>comma-delimited concurrent session counts, one stage each; defaults to
+ * {@literal 1,4,16,64}</dd>
+ * <dt>{@code load.mix}</dt>
+ * <dd>comma-delimited command mixes, assigned to sessions in turn; defaults to all mixes</dd>
+ * <dt>{@code load.duration} and {@code load.warmup}</dt>
+ * <dd>the seconds to measure each stage for, after warming up; default to {@literal 30} and
+ * {@literal 10}</dd>
+ * <dt>{@code load.commands-per-session}</dt>
+ * <dd>the commands each session runs before reconnecting, so connection setup and session
+ * bookkeeping are part of the load, or {@literal 0} to never reconnect; defaults to
+ * {@literal 20}</dd>
+ * <dt>{@code load.think-ms}</dt>
+ * <dd>the pause between commands of a session; defaults to {@literal 0}</dd>
+ * </dl>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SshLoadDriver {
+
+  /** The shell prompt configured on the server, which command output must never contain. */
+  public static final String PROMPT = "snf-load> ";
+
+  /** The pseudo command name the connection setup latency is reported as. */
+  public static final String CONNECT_COMMAND = "(connect)";
+
+  private final SshClient client;
+  private final String host;
+  private final int port;
+  private final String username;
+  private final String password;
+  private final SampleIds ids;
+  private final ServerSampler sampler;
+  private final CommandMix[] mixes;
+  private final long timeoutMs;
+  private final int commandsPerSession;
+  private final long thinkMs;
+  private final long seed;
+
+  private SshLoadDriver(ConfigurableApplicationContext ctx, SshClient client) {
+    super();
+    final Environment env = ctx.getEnvironment();
+    this.client = client;
+    SshServer server = ctx.getBean(SshServer.class);
+    this.host = env.getProperty("ssh.shell.host");
+    this.port = server.getPort();
+    this.username = env.getProperty("ssh.shell.user");
+    this.password = env.getProperty("ssh.shell.password");
+    this.ids = SampleIds.sample(ctx.getBean(DataSource.class),
+        env.getProperty("load.ids", Integer.class, 1000));
+    this.sampler = new ServerSampler(ctx.getBeansOfType(HikariDataSource.class).values(),
+        env.getProperty("load.sample-ms", Long.class, 50L));
+    String[] mixNames = env.getProperty("load.mix", String[].class);
+    if (mixNames == null || mixNames.length < 1) {
+      this.mixes = CommandMix.values();
+    } else {
+      this.mixes = new CommandMix[mixNames.length];
+      for (int i = 0; i < mixNames.length; i++) {
+        this.mixes[i] = CommandMix.valueOf(mixNames[i].trim());
+      }
+    }
+    this.timeoutMs = env.getProperty("load.timeout-ms", Long.class, 60000L);
+    this.commandsPerSession = env.getProperty("load.commands-per-session", Integer.class, 20);
+    this.thinkMs = env.getProperty("load.think-ms", Long.class, 0L);
+    this.seed = env.getProperty("load.seed", Long.class, 1L);
+  }
+
+  /**
+   * Run the load stages.
+   * 
+   * @param args
+   *          Spring Boot command line arguments, for example {@code --load.sessions=1,8,32}
+   * @throws InterruptedException
+   *           if interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    Map<String, Object> overrides = new LinkedHashMap<>(8);
+    overrides.put("ssh.shell.host", "127.0.0.1");
+    overrides.put("ssh.shell.port", 9122);
+    overrides.put("ssh.shell.authentication", "simple");
+    overrides.put("ssh.shell.user", "load");
+    overrides.put("ssh.shell.password", UUID.randomUUID().toString());
+    overrides.put("ssh.shell.prompt.text", PROMPT);
+    overrides.put("app.health.port", 0);
+    overrides.put("logging.level.ROOT", "WARN");
+
+    // take precedence over the application configuration, but not the command line
+    ConfigurableEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("sshLoad", overrides));
+
+    ConfigurableApplicationContext ctx = new SpringApplicationBuilder()
+        .sources(AccountingTool.class).environment(environment).web(WebApplicationType.NONE)
+        .bannerMode(Banner.Mode.OFF).logStartupInfo(false).build().run(args);
+    SshClient client = SshClient.setUpDefaultClient();
+    client.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
+    client.start();
+    try {
+      SshLoadDriver driver = new SshLoadDriver(ctx, client);
+      int[] stages = ctx.getEnvironment().getProperty("load.sessions", int[].class,
+          new int[] { 1, 4, 16, 64 });
+      long warmupSecs = ctx.getEnvironment().getProperty("load.warmup", Long.class, 10L);
+      long durationSecs = ctx.getEnvironment().getProperty("load.duration", Long.class, 30L);
+      List<StageResult> results = new ArrayList<>(stages.length);
+      for (int sessions : stages) {
+        StageResult r = driver.runStage(sessions, warmupSecs, durationSecs);
+        results.add(r);
+        System.out.println(String.format("Completed %d session stage: %.1f commands/s",
+            sessions, r.commandsPerSecond()));
+      }
+      printSummary(results, System.out);
+    } finally {
+      client.stop();
+      System.exit(SpringApplication.exit(ctx));
+    }
+  }
+
+  private StageResult runStage(int sessions, long warmupSecs, long durationSecs)
+      throws InterruptedException {
+    final Stage stage = new Stage();
+    final List<SessionWorker> workers = new ArrayList<>(sessions);
+    final List<Thread> threads = new ArrayList<>(sessions);
+    for (int i = 0; i < sessions; i++) {
+      SessionWorker w = new SessionWorker(stage, mixes[i % mixes.length],
+          new Random(seed + i));
+      Thread t = new Thread(w, "SshLoad-" + i);
+      workers.add(w);
+      threads.add(t);
+      t.start();
+    }
+
+    Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSecs));
+    sampler.start();
+    final long start = System.nanoTime();
+    stage.measuring = true;
+    Thread.sleep(TimeUnit.SECONDS.toMillis(durationSecs));
+    stage.measuring = false;
+    final long elapsed = System.nanoTime() - start;
+    ServerSampler.Result server = sampler.stop();
+    stage.stopped = true;
+
+    StageResult result = new StageResult(sessions, elapsed, server);
+    for (int i = 0; i < sessions; i++) {
+      threads.get(i).join(timeoutMs);
+      SessionWorker w = workers.get(i);
+      if (threads.get(i).isAlive()) {
+        // closing the session fails the command it is waiting for
+        w.closeSession();
+        threads.get(i).join();
+      }
+      result.add(w);
+    }
+    return result;
+  }
+
+  private static final class Stage {
+
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+  }
+
+  private final class SessionWorker implements Runnable {
+
+    private final Stage stage;
+    private final CommandMix mix;
+    private final Random rng;
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>(8);
+    private volatile LoadSession session;
+
+    private SessionWorker(Stage stage, CommandMix mix, Random rng) {
+      super();
+      this.stage = stage;
+      this.mix = mix;
+      this.rng = rng;
+    }
+
+    @Override
+    public void run() {
+      int step = 0;
+      while (!stage.stopped) {
+        if (session == null) {
+          final boolean measured = stage.measuring;
+          final long start = System.nanoTime();
+          try {
+            session = LoadSession.open(client, host, port, username, password, PROMPT,
+                timeoutMs);
+            if (measured) {
+              stats(CONNECT_COMMAND).add(System.nanoTime() - start);
+            }
+          } catch (IOException | RuntimeException e) {
+            if (measured) {
+              stats(CONNECT_COMMAND).addError();
+            }
+            pause(1000);
+            continue;
+          }
+          step = 0;
+        }
+        final String cmd = mix.command(step, rng, ids);
+        final boolean measured = stage.measuring;
+        final long start = System.nanoTime();
+        try {
+          String output = session.execute(cmd);
+          if (measured) {
+            LatencyStats s = stats(CommandMix.commandName(cmd));
+            s.add(System.nanoTime() - start);
+            if (LoadSession.isError(output)) {
+              s.addError();
+            }
+          }
+        } catch (IOException | RuntimeException e) {
+          if (measured) {
+            stats(CommandMix.commandName(cmd)).addError();
+          }
+          closeSession();
+          continue;
+        }
+        step++;
+        if (commandsPerSession > 0 && step >= commandsPerSession) {
+          closeSession();
+        }
+        if (thinkMs > 0) {
+          pause(thinkMs);
+        }
+      }
+      closeSession();
+    }
+
+    private LatencyStats stats(String command) {
+      return stats.computeIfAbsent(command, k -> new LatencyStats());
+    }
+
+    private void pause(long ms) {
+      try {
+        Thread.sleep(ms);
+      } catch (InterruptedException e) {
+        // ignore
+      }
+    }
+
+    private void closeSession() {
+      LoadSession s = session;
+      session = null;
+      if (s != null) {
+        try {
+          s.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+
+  }
+
+  private static final class StageResult {
+
+    private final int sessions;
+    private final long elapsedNanos;
+    private final ServerSampler.Result server;
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>(8);
+    private final LatencyStats commands = new LatencyStats();
+
+    private StageResult(int sessions, long elapsedNanos, ServerSampler.Result server) {
+      super();
+      this.sessions = sessions;
+      this.elapsedNanos = elapsedNanos;
+      this.server = server;
+    }
+
+    private void add(SessionWorker worker) {
+      for (Map.Entry<String, LatencyStats> e : worker.stats.entrySet()) {
+        stats.computeIfAbsent(e.getKey(), k -> new LatencyStats()).addAll(e.getValue());
+        if (!CONNECT_COMMAND.equals(e.getKey())) {
+          commands.addAll(e.getValue());
+        }
+      }
+    }
+
+    private double perSecond(int count) {
+      return count / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private double commandsPerSecond() {
+      return perSecond(commands.getCount());
+    }
+
+    private double sessionsPerSecond() {
+      LatencyStats connects = stats.get(CONNECT_COMMAND);
+      return perSecond(connects != null ? connects.getCount() : 0);
+    }
+
+  }
+
+  private static void printSummary(List<StageResult> results, PrintStream out) {
+    if (!results.isEmpty()) {
+      ServerSampler.Result server = results.get(0).server;
+      out.println();
+      out.println(String.format("SSH server NIO threads: %d; connection pool size: %d",
+          server.getNioThreads(), server.getPoolMax()));
+    }
+
+    out.println();
+    out.println(String.format("%8s %9s %8s %9s %9s %7s %8s %6s %6s %6s %6s %11s  %s",
+        "Sessions", "Cmd/s", "Sess/s", "p50 ms", "p99 ms", "Errors", "NIO cpu%", "Busy",
+        "InPool", "InJDBC", "Track", "Pool act", "Bottleneck"));
+    for (StageResult r : results) {
+      ServerSampler.Result s = r.server;
+      out.println(String.format("%8d %9.1f %8.2f %9.1f %9.1f %7d %8.1f %6.2f %6.2f %6.2f %6.2f"
+          + " %11s  %s", r.sessions, r.commandsPerSecond(), r.sessionsPerSecond(),
+          r.commands.percentileMillis(50), r.commands.percentileMillis(99),
+          r.commands.getErrors(), s.getNioCpuPercent(), s.getBusy(), s.getInPool(),
+          s.getInJdbc(), s.getInTracking(),
+          String.format("%.1f/%d", s.getPoolActive(), s.getPoolMax()), s.getBottleneck()));
+    }
+
+    out.println();
+    out.println(String.format("%8s %-16s %8s %9s %9s %7s", "Sessions", "Command", "Count",
+        "p50 ms", "p99 ms", "Errors"));
+    for (StageResult r : results) {
+      for (Map.Entry<String, LatencyStats> e : r.stats.entrySet()) {
+        LatencyStats s = e.getValue();
+        out.println(String.format("%8d %-16s %8d %9.1f %9.1f %7d", r.sessions, e.getKey(),
+            s.getCount(), s.percentileMillis(50), s.percentileMillis(99), s.getErrors()));
+      }
+    }
+  }
+
+}
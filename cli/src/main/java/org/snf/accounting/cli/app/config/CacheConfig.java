@@ -22,17 +22,46 @@
 
 package org.snf.accounting.cli.app.config;
 
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Caching configuration.
  * 
+ * <p>
+ * The caches are configured in {@literal ehcache.xml}.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+  /**
+   * Make cache changes transaction aware.
+   * 
+   * <p>
+   * Cache evictions made within a transaction are deferred until the transaction commits, so a
+   * concurrent read cannot re-cache the old value between the eviction and the commit.
+   * </p>
+   * 
+   * @return the customizer
+   * @since 1.1
+   */
+  @Bean
+  public CacheManagerCustomizer<JCacheCacheManager> transactionAwareCacheManagerCustomizer() {
+    return new CacheManagerCustomizer<JCacheCacheManager>() {
+
+      @Override
+      public void customize(JCacheCacheManager cacheManager) {
+        cacheManager.setTransactionAware(true);
+      }
+    };
+  }
+
 }
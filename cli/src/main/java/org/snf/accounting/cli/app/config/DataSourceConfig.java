@@ -0,0 +1,121 @@
+/* ==================================================================
+ * DataSourceConfig.java - 18/10/2026 6:04:31 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.cli.app.config;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.snf.accounting.dao.jdbc.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Data source configuration for routing read-only transactions to read replicas.
+ * 
+ * <p>
+ * This is only active when {@code app.datasource.replica.urls} is configured; otherwise the
+ * standard Spring Boot data source is used. The primary and replica pools all use the
+ * {@code spring.datasource} credentials and {@code spring.datasource.hikari} settings.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "urls")
+public class DataSourceConfig {
+
+  private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+  @Value("${app.datasource.replica.urls}")
+  private String[] replicaUrls;
+
+  @Value("${app.datasource.replica.max-lag:10}")
+  private int replicaMaxLag = 10;
+
+  @Value("${app.datasource.replica.read-your-writes-window:30}")
+  private int readYourWritesWindow = 30;
+
+  /**
+   * Get the replica routing data source.
+   * 
+   * @param properties
+   *          the data source properties
+   * @param env
+   *          the environment
+   * @return the routing data source
+   */
+  @Bean(destroyMethod = "close")
+  public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+      Environment env) {
+    final Binder binder = Binder.get(env);
+    HikariDataSource primary = pool(properties, binder, properties.determineUrl(), "primary");
+    List<DataSource> replicas = new ArrayList<>(replicaUrls.length);
+    for (String url : replicaUrls) {
+      if (!url.trim().isEmpty()) {
+        replicas.add(pool(properties, binder, url.trim(), "replica-" + (replicas.size() + 1)));
+      }
+    }
+    ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(primary, replicas,
+        Clock.systemUTC());
+    ds.setMaxLagSeconds(replicaMaxLag);
+    ds.setReadYourWritesSeconds(readYourWritesWindow);
+    return ds;
+  }
+
+  private static HikariDataSource pool(DataSourceProperties properties, Binder binder, String url,
+      String name) {
+    HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+        .url(url).build();
+    ds.setPoolName(name);
+    binder.bind(HIKARI_PREFIX, Bindable.ofInstance(ds));
+    return ds;
+  }
+
+  /**
+   * Get the application data source.
+   * 
+   * @param replicaRoutingDataSource
+   *          the routing data source
+   * @return the data source
+   */
+  @Primary
+  @Bean
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+}
@@ -24,16 +24,18 @@ package org.snf.accounting.cli.app.config;
 
 import org.apache.ibatis.session.ExecutorType;
 import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import net.solarnetwork.central.dao.mybatis.type.UUIDTypeHandler;
 
 /**
  * Configuration for MyBatis.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 @Configuration
 public class MyBatisConfig {
@@ -55,4 +57,22 @@ public class MyBatisConfig {
     };
   }
 
+  /**
+   * Record the latency, row count, and error count of every mapped statement.
+   * 
+   * <p>
+   * Interceptor beans are added to the MyBatis configuration as plugins by the MyBatis
+   * auto-configuration.
+   * </p>
+   * 
+   * @param meterRegistry
+   *          the registry to record the metrics in
+   * @return the interceptor
+   * @since 1.1
+   */
+  @Bean
+  public StatementMetricsInterceptor statementMetricsInterceptor(MeterRegistry meterRegistry) {
+    return new StatementMetricsInterceptor(meterRegistry);
+  }
+
 }
@@ -22,26 +22,75 @@
 
 package org.snf.accounting.cli.app.config;
 
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snf.accounting.dao.AccountDao;
+import org.snf.accounting.dao.InvoiceDao;
+import org.snf.accounting.dao.jdbc.JdbcLedgerExportDao;
+import org.snf.accounting.dao.jdbc.JdbcPaymentImportDao;
+import org.snf.accounting.impl.AccountBalanceReconciler;
 import org.snf.accounting.impl.DefaultAccountService;
+import org.snf.accounting.impl.InvoiceNumberIndex;
+import org.snf.accounting.impl.InvoiceSnapshotJob;
+import org.snf.accounting.impl.ReportExecutor;
 import org.snf.accounting.impl.SocketHealthServer;
+import org.snf.accounting.service.AccountService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 /**
  * Service configuration.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.6
  */
 @Configuration
 @Import(DefaultAccountService.class)
 public class ServiceConfig {
 
+  /**
+   * The number of pooled connections to leave for interactive commands while reporting or verifying
+   * account balances.
+   */
+  private static final int REPORT_RESERVED_CONNECTIONS = 2;
+
+  /** The connection pool size to assume if it cannot be determined. */
+  private static final int DEFAULT_POOL_SIZE = 10;
+
+  private static final Logger log = LoggerFactory.getLogger(ServiceConfig.class);
+
   @Value("${app.health.port:9021}")
   private int healthPort = 9021;
 
+  @Value("${app.invoice-snapshot.period:MONTHS}")
+  private ChronoUnit invoiceSnapshotPeriod = ChronoUnit.MONTHS;
+
+  @Value("${app.invoice-snapshot.zone:UTC}")
+  private String invoiceSnapshotZone = "UTC";
+
+  @Value("${app.report.parallelism:0}")
+  private int reportParallelism = 0;
+
+  @Value("${app.balance-reconcile.parallelism:4}")
+  private int balanceReconcileParallelism = 4;
+
+  @Value("${app.invoice-index.direct-lookup-limit:"
+      + InvoiceNumberIndex.DEFAULT_DIRECT_LOOKUP_LIMIT + "}")
+  private int invoiceIndexDirectLookupLimit = InvoiceNumberIndex.DEFAULT_DIRECT_LOOKUP_LIMIT;
+
   /**
    * Get the socket health server.
    * 
@@ -56,4 +105,123 @@ public class ServiceConfig {
     return health;
   }
 
+  /**
+   * Get the invoice number index.
+   * 
+   * @param invoiceDao
+   *          the invoice DAO
+   * @return the index
+   * @since 1.5
+   */
+  @Bean
+  public InvoiceNumberIndex invoiceNumberIndex(InvoiceDao invoiceDao) {
+    InvoiceNumberIndex index = new InvoiceNumberIndex(invoiceDao);
+    index.setDirectLookupLimit(invoiceIndexDirectLookupLimit);
+    return index;
+  }
+
+  /**
+   * Get the invoice snapshot job.
+   * 
+   * @param accountService
+   *          the account service
+   * @return the job
+   */
+  @Bean
+  public InvoiceSnapshotJob invoiceSnapshotJob(AccountService accountService) {
+    return new InvoiceSnapshotJob(accountService, invoiceSnapshotPeriod,
+        Clock.system(ZoneId.of(invoiceSnapshotZone)));
+  }
+
+  /**
+   * Get the report executor.
+   * 
+   * <p>
+   * If {@code app.report.parallelism} is not configured, the executor is sized to the connection
+   * pool, less a few connections reserved for interactive commands.
+   * </p>
+   * 
+   * @param dataSource
+   *          the data source
+   * @return the executor
+   */
+  @Bean(destroyMethod = "close")
+  public ReportExecutor reportExecutor(DataSource dataSource) {
+    int parallelism = reportParallelism;
+    if (parallelism < 1) {
+      parallelism = Math.max(1, poolSize(dataSource) - REPORT_RESERVED_CONNECTIONS);
+    }
+    log.info("Running report queries on up to {} threads", parallelism);
+    return new ReportExecutor(parallelism);
+  }
+
+  /**
+   * Get the account balance reconciler.
+   * 
+   * <p>
+   * The {@code app.balance-reconcile.parallelism} setting is capped at the connection pool size,
+   * less a few connections reserved for interactive commands.
+   * </p>
+   * 
+   * @param accountDao
+   *          the account DAO
+   * @param dataSource
+   *          the data source
+   * @return the reconciler
+   * @since 1.6
+   */
+  @Bean(destroyMethod = "close")
+  public AccountBalanceReconciler accountBalanceReconciler(AccountDao accountDao,
+      DataSource dataSource) {
+    final int max = Math.max(1, poolSize(dataSource) - REPORT_RESERVED_CONNECTIONS);
+    int parallelism = Math.max(1, balanceReconcileParallelism);
+    if (parallelism > max) {
+      log.warn("Reducing account balance verification parallelism from {} to {} to fit the "
+          + "connection pool", parallelism, max);
+      parallelism = max;
+    }
+    log.info("Verifying account balances on up to {} threads", parallelism);
+    return new AccountBalanceReconciler(accountDao, parallelism);
+  }
+
+  /**
+   * Get the ledger export DAO.
+   * 
+   * @param dataSource
+   *          the data source
+   * @return the DAO
+   */
+  @Bean
+  public JdbcLedgerExportDao ledgerExportDao(DataSource dataSource) {
+    return new JdbcLedgerExportDao(dataSource);
+  }
+
+  /**
+   * Get the payment import DAO.
+   * 
+   * @param dataSource
+   *          the data source
+   * @param cacheManager
+   *          the cache manager, if available
+   * @return the DAO
+   */
+  @Bean
+  public JdbcPaymentImportDao paymentImportDao(DataSource dataSource,
+      ObjectProvider<CacheManager> cacheManager) {
+    JdbcPaymentImportDao dao = new JdbcPaymentImportDao(dataSource);
+    dao.setCacheManager(cacheManager.getIfAvailable());
+    return dao;
+  }
+
+  private static int poolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      log.warn("Unable to determine connection pool size: {}", e.getMessage());
+    }
+    return DEFAULT_POOL_SIZE;
+  }
+
 }
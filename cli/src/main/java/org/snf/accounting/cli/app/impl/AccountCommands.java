@@ -27,15 +27,25 @@ import static java.util.Arrays.asList;
 import static net.solarnetwork.javax.money.MoneyUtils.formattedMoneyAmountFormatWithSymbolCurrencyStyle;
 import static org.snf.accounting.cli.ResultPaginationCommands.setNavigationHandler;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 import org.snf.accounting.cli.BaseShellSupport;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceSummary;
 import org.snf.accounting.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.shell.standard.ShellCommandGroup;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
@@ -46,6 +56,8 @@ import com.github.fonimus.ssh.shell.SimpleTable.SimpleTableBuilder;
 import com.github.fonimus.ssh.shell.SshShellHelper;
 import com.github.fonimus.ssh.shell.commands.SshShellComponent;
 
+import net.solarnetwork.central.user.billing.snf.domain.PaymentFilter;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceFilter;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.dao.FilterResults;
 
@@ -53,7 +65,7 @@ import net.solarnetwork.dao.FilterResults;
  * Commands for accounts.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.3
  */
 @SshShellComponent
 @ShellCommandGroup("Accounts")
@@ -88,6 +100,8 @@ public class AccountCommands extends BaseShellSupport {
    *          the maximum number of results, or {@literal 0} for unlimited
    * @param page
    *          the page offset, starting from 1
+   * @param count
+   *          the method to count the total results with
    */
   @ShellMethod("List accounts.")
   public void accountsList(
@@ -97,7 +111,9 @@ public class AccountCommands extends BaseShellSupport {
       @ShellOption(help = "The maximum number of results to return, or 0 for unlimited.",
           defaultValue = "0") int max,
       @ShellOption(help = "The result page offset, starting from 1.",
-          defaultValue = "1") int page) {
+          defaultValue = "1") int page,
+      @ShellOption(help = "The total result count method: exact, window, estimate, or none.",
+          defaultValue = "window") String count) {
     AccountFilter f = new AccountFilter();
     if (accountId != null && accountId.longValue() > 0) {
       f.setAccountId(accountId);
@@ -114,6 +130,12 @@ public class AccountCommands extends BaseShellSupport {
     if (email != null && !email.isEmpty()) {
       f.setEmail(email);
     }
+    try {
+      f.setCountStrategy(CountStrategy.forKey(count));
+    } catch (IllegalArgumentException e) {
+      shell.printError("The --count value is not valid. Use exact, window, estimate, or none.");
+      return;
+    }
     doAccountWithBalanceSearch(f);
   }
 
@@ -167,6 +189,184 @@ public class AccountCommands extends BaseShellSupport {
         return c > 1 && c < 5 ? TOP_LEFT : TOP_RIGHT;
       }
     }, null)));
+    printPageSummary(f, result, f.getCountStrategy() == CountStrategy.Estimate);
+  }
+
+  /**
+   * The invoice and payment totals of an account over a statement period.
+   */
+  private static final class Statement {
+
+    private int invoiceCount;
+    private BigDecimal invoiced = BigDecimal.ZERO;
+    private int paymentCount;
+    private BigDecimal paid = BigDecimal.ZERO;
+  }
+
+  /**
+   * Show account statements for a month.
+   * 
+   * <p>
+   * The invoices and payments of each account are queried concurrently.
+   * </p>
+   * 
+   * @param email
+   *          an email substring to limit results to
+   * @param accountId
+   *          the account to limit results to
+   * @param userId
+   *          the SolarNetwork user ID to limit results to
+   * @param month
+   *          the statement month, in YYYY-MM format
+   */
+  @ShellMethod("Show the invoice and payment totals of accounts for a month.")
+  public void accountStatements(
+      @ShellOption(help = "Email to find (substring match)", defaultValue = "") String email,
+      @ShellOption(help = "The account ID to show.", defaultValue = "0") Long accountId,
+      @ShellOption(help = "The SolarNetwork user ID to show.", defaultValue = "0") Long userId,
+      @ShellOption(help = "The statement month, in YYYY-MM form.") String month) {
+    final YearMonth period;
+    try {
+      period = YearMonth.parse(month);
+    } catch (DateTimeParseException e) {
+      shell.printError("The --month value is not valid. Use YYYY-MM syntax.");
+      return;
+    }
+    AccountFilter f = new AccountFilter();
+    if (accountId != null && accountId.longValue() > 0) {
+      f.setAccountId(accountId);
+    }
+    if (userId != null && userId.longValue() > 0) {
+      f.setUserId(userId);
+    }
+    if (email != null && !email.isEmpty()) {
+      f.setEmail(email);
+    }
+    f.setCountStrategy(CountStrategy.None);
+    final List<AccountWithBalance> accounts = new ArrayList<>();
+    final List<Long> accountIds = new ArrayList<>();
+    final List<Statement> statements;
+    try {
+      for (AccountWithBalance account : accountService.findFilteredBalances(f)) {
+        accounts.add(account);
+        accountIds.add(account.getId().getId());
+      }
+      statements = accountService.queryAccounts(accountIds, id -> statement(id, period));
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+      return;
+    }
+    if (accounts.isEmpty()) {
+      shell.printWarning("No matching accounts found.");
+      return;
+    }
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("ID")
+        .column("Info")
+        .column("Curr")
+        .column("Invoices")
+        .column("Invoiced")
+        .column("Payments")
+        .column("Paid")
+        .column("Balance")
+        ;
+    Locale locale = Locale.forLanguageTag("en-NZ");
+    for (int i = 0, len = accounts.size(); i < len; i++) {
+      AccountWithBalance account = accounts.get(i);
+      Statement statement = statements.get(i);
+      String currencyCode = account.getAccount().getCurrencyCode();
+      t.line(asList(
+          account.getId().getId(),
+          format("%s\n%s", account.getAccount().getAddress().getName(),
+              account.getAccount().getAddress().getEmail()),
+          currencyCode,
+          statement.invoiceCount,
+          formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, currencyCode,
+              statement.invoiced),
+          statement.paymentCount,
+          formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, currencyCode,
+              statement.paid),
+          formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, currencyCode,
+              account.getBalance().getPaymentTotal()
+                .subtract(account.getBalance().getChargeTotal())
+                .add(account.getBalance().getAvailableCredit()))
+          ));
+    }
+    // @formatter:on
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return c > 0 && c < 3 ? TOP_LEFT : TOP_RIGHT;
+      }
+    }, null)));
+  }
+
+  private Statement statement(Long accountId, YearMonth period) {
+    final Statement result = new Statement();
+    SnfInvoiceFilter invoiceFilter = SnfInvoiceFilter.forAccount(accountId);
+    invoiceFilter.setStartDate(period.atDay(1));
+    invoiceFilter.setEndDate(period.plusMonths(1).atDay(1));
+    for (SnfInvoiceSummary invoice : accountService.findFilteredInvoiceSummaries(invoiceFilter)) {
+      result.invoiceCount++;
+      result.invoiced = result.invoiced.add(invoice.getTotalAmount());
+    }
+    PaymentFilter paymentFilter = PaymentFilter.forAccount(accountId);
+    paymentFilter.setStartDate(period.atDay(1));
+    paymentFilter.setEndDate(period.plusMonths(1).atDay(1));
+    for (PaymentWithInvoicePayments payment : accountService.findFilteredPayments(paymentFilter)) {
+      result.paymentCount++;
+      result.paid = result.paid.add(payment.getAmount());
+    }
+    return result;
+  }
+
+  /**
+   * Verify the account balances match the invoice items and payments of each account.
+   */
+  @ShellMethod("Verify the account balances match the invoice items and payments of each account.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void balancesVerify() {
+    List<AccountBalanceDiscrepancy> results;
+    try {
+      results = accountService.verifyAccountBalances((completed, total) -> {
+        shell.print(shell.progress(completed * 100 / total));
+      });
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+      return;
+    }
+    if (results.isEmpty()) {
+      shell.printSuccess("All account balances are correct.");
+      return;
+    }
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("Account ID")
+        .column("Charged")
+        .column("Actual Charged")
+        .column("Paid")
+        .column("Actual Paid")
+        ;
+    for (AccountBalanceDiscrepancy bal : results) {
+      t.line(asList(
+          bal.getAccountId(),
+          bal.isMissing() ? "-" : bal.getChargeTotal().toPlainString(),
+          bal.getActualChargeTotal().toPlainString(),
+          bal.isMissing() ? "-" : bal.getPaymentTotal().toPlainString(),
+          bal.getActualPaymentTotal().toPlainString()
+          ));
+    }
+    // @formatter:on
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return TOP_RIGHT;
+      }
+    }, null)));
+    shell.printWarning(format("%d account balances are not correct.", results.size()));
   }
 
 }
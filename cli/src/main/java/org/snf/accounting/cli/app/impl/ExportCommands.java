@@ -0,0 +1,476 @@
+/* ==================================================================
+ * ExportCommands.java - 18/10/2026 7:48:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.cli.app.impl;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.jline.terminal.Attributes;
+import org.jline.terminal.Attributes.OutputFlag;
+import org.jline.terminal.Terminal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snf.accounting.cli.BaseShellSupport;
+import org.snf.accounting.domain.ExportFormat;
+import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.LedgerExportProgress;
+import org.snf.accounting.domain.LedgerTable;
+import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+import org.snf.accounting.service.AccountService;
+import org.snf.accounting.util.ExportWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.shell.standard.ShellCommandGroup;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellMethodAvailability;
+import org.springframework.shell.standard.ShellOption;
+import org.springframework.util.StreamUtils;
+
+import com.github.fonimus.ssh.shell.SshShellHelper;
+import com.github.fonimus.ssh.shell.commands.SshShellComponent;
+
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceImpl;
+import net.solarnetwork.central.user.billing.snf.domain.InvoicePayment;
+import net.solarnetwork.central.user.billing.snf.domain.PaymentFilter;
+
+/**
+ * Commands for exporting data.
+ * 
+ * <p>
+ * Exports are written directly to the SSH channel, so they are meant to be run non-interactively
+ * with the output redirected to a file, for example
+ * {@literal ssh -T host invoices-export --gzip > invoices.csv.gz}.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.3
+ */
+@SshShellComponent
+@ShellCommandGroup("Export")
+public class ExportCommands extends BaseShellSupport {
+
+  private static final int GZIP_BUFFER_SIZE = 8192;
+
+  private static final int FILE_BUFFER_SIZE = 1 << 20;
+
+  private static final long PROGRESS_INTERVAL_MS = 1000L;
+
+  private static final double MB = 1024.0 * 1024.0;
+
+  /** The invoice export columns. */
+  public static final List<String> INVOICE_COLUMNS = asList("id", "number", "account_id", "email",
+      "created", "month", "currency", "item_count", "total", "paid", "due");
+
+  /** The payment export columns. */
+  public static final List<String> PAYMENT_COLUMNS = asList("id", "account_id", "created", "type",
+      "currency", "amount", "reference", "external_key", "invoice_ids");
+
+  private static final Logger log = LoggerFactory.getLogger(ExportCommands.class);
+
+  private final AccountService accountService;
+
+  /**
+   * Constructor.
+   * 
+   * @param shell
+   *          the shell
+   * @param accountService
+   *          the account service
+   */
+  @Autowired
+  public ExportCommands(SshShellHelper shell, AccountService accountService) {
+    super(shell);
+    this.accountService = accountService;
+  }
+
+  /**
+   * Export invoices.
+   * 
+   * @param accountId
+   *          the account to limit results to
+   * @param minMonth
+   *          a minimum invoice date (inclusive)
+   * @param maxMonth
+   *          a maximum invoice date (exclusive)
+   * @param unpaidOnly
+   *          only export invoices that are currently unpaid
+   * @param format
+   *          the export format
+   * @param gzip
+   *          {@literal true} to compress the output
+   */
+  @ShellMethod("Export invoices as CSV or NDJSON.")
+  public void invoicesExport(
+      @ShellOption(help = "The account ID to export invoices for.",
+          defaultValue = "0") Long accountId,
+      @ShellOption(help = "The minimum invoice month (inclusive) in YYYY-MM.",
+          defaultValue = "") String minMonth,
+      @ShellOption(help = "The maximum invoice month (exclusive) in YYYY-MM.",
+          defaultValue = "") String maxMonth,
+      @ShellOption(help = "Only include unpaid invoices.", arity = 0) boolean unpaidOnly,
+      @ShellOption(help = "The export format: csv or ndjson.", defaultValue = "csv") String format,
+      @ShellOption(help = "Compress the output with gzip.", arity = 0) boolean gzip) {
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    if (accountId != null && accountId.longValue() > 0) {
+      f.setAccountId(accountId);
+    }
+    if (minMonth != null && !minMonth.isEmpty()) {
+      try {
+        f.setStartDate(YearMonth.parse(minMonth).atDay(1));
+      } catch (DateTimeParseException e) {
+        shell.printError("The --min-month value is not valid. Use YYYY-MM syntax.");
+        return;
+      }
+    }
+    if (maxMonth != null && !maxMonth.isEmpty()) {
+      try {
+        f.setEndDate(YearMonth.parse(maxMonth).atDay(1));
+      } catch (DateTimeParseException e) {
+        shell.printError("The --max-month value is not valid. Use YYYY-MM syntax.");
+        return;
+      }
+    }
+    f.setUnpaidOnly(unpaidOnly);
+    ExportFormat fmt = exportFormat(format);
+    if (fmt == null) {
+      return;
+    }
+    export(fmt, gzip, INVOICE_COLUMNS, c -> accountService.streamInvoices(f, c),
+        new Function<SnfInvoiceWithBalance, List<?>>() {
+
+          @Override
+          public List<?> apply(SnfInvoiceWithBalance inv) {
+            // @formatter:off
+            return asList(
+                inv.getId().getId(),
+                new InvoiceImpl(inv).getInvoiceNumber(),
+                inv.getAccountId(),
+                inv.getAddress() != null ? inv.getAddress().getEmail() : null,
+                inv.getCreated(),
+                inv.getStartDate(),
+                inv.getCurrencyCode(),
+                inv.getItemCount(),
+                inv.getTotalAmount(),
+                inv.getPaidAmount(),
+                inv.getDueAmount());
+            // @formatter:on
+          }
+        });
+  }
+
+  /**
+   * Export payments.
+   * 
+   * @param accountId
+   *          the account to limit results to
+   * @param minDate
+   *          a minimum payment date (inclusive)
+   * @param maxDate
+   *          a maximum payment date (exclusive)
+   * @param format
+   *          the export format
+   * @param gzip
+   *          {@literal true} to compress the output
+   */
+  @ShellMethod("Export payments as CSV or NDJSON.")
+  public void paymentsExport(
+      @ShellOption(help = "The account ID to export payments for.",
+          defaultValue = "0") Long accountId,
+      @ShellOption(help = "The minimum payment date (inclusive) in YYYY-MM-DD.",
+          defaultValue = "") String minDate,
+      @ShellOption(help = "The maximum payment date (exclusive) in YYYY-MM-DD.",
+          defaultValue = "") String maxDate,
+      @ShellOption(help = "The export format: csv or ndjson.", defaultValue = "csv") String format,
+      @ShellOption(help = "Compress the output with gzip.", arity = 0) boolean gzip) {
+    PaymentFilter f = new PaymentFilter();
+    if (accountId != null && accountId.longValue() > 0) {
+      f.setAccountId(accountId);
+    }
+    if (minDate != null && !minDate.isEmpty()) {
+      try {
+        f.setStartDate(LocalDate.parse(minDate));
+      } catch (DateTimeParseException e) {
+        shell.printError("The --min-date value is not valid. Use YYYY-MM-DD syntax.");
+        return;
+      }
+    }
+    if (maxDate != null && !maxDate.isEmpty()) {
+      try {
+        f.setEndDate(LocalDate.parse(maxDate));
+      } catch (DateTimeParseException e) {
+        shell.printError("The --max-date value is not valid. Use YYYY-MM-DD syntax.");
+        return;
+      }
+    }
+    ExportFormat fmt = exportFormat(format);
+    if (fmt == null) {
+      return;
+    }
+    export(fmt, gzip, PAYMENT_COLUMNS, c -> accountService.streamPayments(f, c),
+        new Function<PaymentWithInvoicePayments, List<?>>() {
+
+          @Override
+          public List<?> apply(PaymentWithInvoicePayments pay) {
+            TreeSet<Long> invoiceIds = new TreeSet<>();
+            if (pay.getInvoicePayments() != null) {
+              for (InvoicePayment ip : pay.getInvoicePayments()) {
+                invoiceIds.add(ip.getInvoiceId());
+              }
+            }
+            // @formatter:off
+            return asList(
+                pay.getId().getId(),
+                pay.getAccountId(),
+                pay.getCreated(),
+                pay.getPaymentType(),
+                pay.getCurrencyCode(),
+                pay.getAmount(),
+                pay.getReference(),
+                pay.getExternalKey(),
+                invoiceIds);
+            // @formatter:on
+          }
+        });
+  }
+
+  private ExportFormat exportFormat(String format) {
+    try {
+      return ExportFormat.forKey(format);
+    } catch (IllegalArgumentException e) {
+      shell.printError("The --format value is not valid. Use csv or ndjson.");
+      return null;
+    }
+  }
+
+  /**
+   * Stream rows to the SSH channel.
+   * 
+   * <p>
+   * Terminal output processing is turned off while exporting, so line endings and compressed
+   * output pass through unchanged. Writes block while the channel window is full, so the database
+   * cursor is read only as fast as the client receives the rows.
+   * </p>
+   * 
+   * <p>
+   * A failure after the export starts is logged rather than printed, so no error text is written
+   * into the exported data. The client sees the output end early.
+   * </p>
+   */
+  private <T> void export(ExportFormat format, boolean gzip, List<String> columns,
+      Consumer<Consumer<T>> source, Function<T, List<?>> mapper) {
+    final Terminal terminal = shell.terminal();
+    final Attributes attributes = enterBinaryOutput(terminal);
+    final long start = System.currentTimeMillis();
+    long count = 0;
+    try {
+      OutputStream out = StreamUtils.nonClosing(terminal.output());
+      if (gzip) {
+        out = new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true);
+      }
+      try (ExportWriter writer = ExportWriter.forFormat(format, out, columns)) {
+        try {
+          source.accept(e -> {
+            try {
+              writer.row(mapper.apply(e));
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+          });
+        } finally {
+          count = writer.getRowCount();
+        }
+      }
+      log.info("Exported {} rows in {}ms", count, System.currentTimeMillis() - start);
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Export stopped after {} rows: {}", count, e.getMessage());
+    } catch (DataAccessException e) {
+      log.error("Export failed after {} rows: {}", count, e.getMessage(), e);
+    } finally {
+      terminal.setAttributes(attributes);
+    }
+  }
+
+  /**
+   * Turn off terminal output processing, so binary output passes through unchanged.
+   * 
+   * @param terminal
+   *          the terminal
+   * @return the original terminal attributes, to restore when done
+   */
+  private static Attributes enterBinaryOutput(Terminal terminal) {
+    terminal.flush();
+    final Attributes attributes = terminal.getAttributes();
+    final Attributes raw = new Attributes(attributes);
+    raw.setOutputFlag(OutputFlag.OPOST, false);
+    terminal.setAttributes(raw);
+    return attributes;
+  }
+
+  /**
+   * Export ledger tables in bulk.
+   * 
+   * @param tables
+   *          a comma-delimited list of the tables to export
+   * @param dir
+   *          a server directory to write one new file per table to, or empty to write a single
+   *          table to the SSH channel; existing files are never overwritten
+   * @param gzip
+   *          {@literal true} to compress the output
+   */
+  @ShellMethod("Export ledger tables in bulk as CSV, using database COPY.")
+  @ShellMethodAvailability("adminAvailability")
+  public void ledgerExport(
+      @ShellOption(help = "Comma-delimited tables to export: invoices, invoice-items, payments, "
+          + "invoice-payments.",
+          defaultValue = "invoices,invoice-items,payments,invoice-payments") String tables,
+      @ShellOption(help = "The server directory to write the table files to. Existing files are "
+          + "not overwritten. If not provided a single table is written to the SSH channel.",
+          defaultValue = "") String dir,
+      @ShellOption(help = "Compress the output with gzip.", arity = 0) boolean gzip) {
+    final List<LedgerTable> ledgerTables = new ArrayList<>(4);
+    for (String key : tables.split(",")) {
+      try {
+        ledgerTables.add(LedgerTable.forKey(key.trim()));
+      } catch (IllegalArgumentException e) {
+        shell.printError(format("The --tables value %s is not valid. Use invoices, "
+            + "invoice-items, payments, or invoice-payments.", key));
+        return;
+      }
+    }
+    if (dir == null || dir.isEmpty()) {
+      if (ledgerTables.size() != 1) {
+        shell.printError("Exactly one table can be exported without --dir.");
+        return;
+      }
+      ledgerExportToChannel(ledgerTables, gzip);
+      return;
+    }
+    final Path path = Paths.get(dir);
+    if (!Files.isDirectory(path)) {
+      shell.printError(format("The --dir value %s is not a directory.", dir));
+      return;
+    }
+    for (LedgerTable table : ledgerTables) {
+      Path file = ledgerExportFile(path, table, gzip);
+      if (Files.exists(file)) {
+        shell.printError(format("The file %s already exists.", file));
+        return;
+      }
+    }
+    try {
+      accountService.exportLedger(ledgerTables, table -> {
+        Path file = ledgerExportFile(path, table, gzip);
+        try {
+          OutputStream out = new BufferedOutputStream(
+              Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+              FILE_BUFFER_SIZE);
+          return (gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, new ProgressReporter(shell::print));
+    } catch (UncheckedIOException | DataAccessException e) {
+      shell.printError(format("Export failed: %s", e.getMessage()));
+    }
+  }
+
+  private static Path ledgerExportFile(Path dir, LedgerTable table, boolean gzip) {
+    return dir.resolve(table.getKey() + (gzip ? ".csv.gz" : ".csv"));
+  }
+
+  private void ledgerExportToChannel(List<LedgerTable> tables, boolean gzip) {
+    final Terminal terminal = shell.terminal();
+    final Attributes attributes = enterBinaryOutput(terminal);
+    try {
+      accountService.exportLedger(tables, table -> {
+        OutputStream out = StreamUtils.nonClosing(terminal.output());
+        try {
+          return (gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, new ProgressReporter(log::info));
+    } catch (UncheckedIOException e) {
+      log.warn("Ledger export stopped: {}", e.getMessage());
+    } catch (DataAccessException e) {
+      log.error("Ledger export failed: {}", e.getMessage(), e);
+    } finally {
+      terminal.setAttributes(attributes);
+    }
+  }
+
+  /**
+   * Report export throughput at most once per interval, and when each table completes.
+   */
+  private static final class ProgressReporter implements Consumer<LedgerExportProgress> {
+
+    private final Consumer<String> out;
+    private LedgerTable table;
+    private long start;
+    private long lastReport;
+
+    private ProgressReporter(Consumer<String> out) {
+      super();
+      this.out = out;
+    }
+
+    @Override
+    public void accept(LedgerExportProgress p) {
+      final long now = System.currentTimeMillis();
+      if (p.getTable() != table) {
+        table = p.getTable();
+        start = now;
+        lastReport = now;
+      }
+      if (!p.isComplete() && now - lastReport < PROGRESS_INTERVAL_MS) {
+        return;
+      }
+      lastReport = now;
+      final double secs = Math.max(1L, now - start) / 1000.0;
+      final double mb = p.getByteCount() / MB;
+      out.accept(format("%s%s: %,d rows, %.1f MB in %.1fs (%.1f MB/s, %,.0f rows/s)",
+          table.getKey(), p.isComplete() ? " done" : "", p.getRowCount(), mb, secs, mb / secs,
+          p.getRowCount() / secs));
+    }
+  }
+
+}
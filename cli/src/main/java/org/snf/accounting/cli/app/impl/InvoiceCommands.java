@@ -26,18 +26,22 @@ import static java.lang.String.format;
 import static java.time.format.DateTimeFormatter.ISO_DATE;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem.DEFAULT_ITEM_ORDER;
 import static net.solarnetwork.javax.money.MoneyUtils.formattedMoneyAmountFormatWithSymbolCurrencyStyle;
 import static org.snf.accounting.cli.ResultPaginationCommands.setNavigationHandler;
+import static org.snf.accounting.cli.ResultPaginationCommands.setPageToken;
 import static org.snf.accounting.cli.ShellUtils.ISO_MONTH;
 import static org.snf.accounting.cli.ShellUtils.getBold;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
@@ -47,14 +51,23 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 import org.snf.accounting.cli.BaseShellSupport;
+import org.snf.accounting.cli.StreamingTablePrinter;
+import org.snf.accounting.domain.AccountFilter;
+import org.snf.accounting.domain.CountStrategy;
 import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.InvoiceReferences;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceKeyset;
+import org.snf.accounting.domain.SnfInvoiceSummary;
 import org.snf.accounting.domain.SnfInvoiceWithBalance;
 import org.snf.accounting.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.shell.standard.ShellCommandGroup;
 import org.springframework.shell.standard.ShellMethod;
@@ -86,7 +99,7 @@ import net.solarnetwork.util.StringUtils;
  * Commands for accounts.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.8
  */
 @SshShellComponent
 @ShellCommandGroup("Invoices")
@@ -94,6 +107,9 @@ public class InvoiceCommands extends BaseShellSupport {
 
   private final AccountService accountService;
 
+  @Value("${app.invoice-snapshot.zone:UTC}")
+  private String invoiceSnapshotZone = "UTC";
+
   /**
    * Constructor.
    * 
@@ -125,6 +141,10 @@ public class InvoiceCommands extends BaseShellSupport {
    *          the maximum number of results, or {@literal 0} for unlimited
    * @param page
    *          the page offset, starting from 1
+   * @param count
+   *          the method to count the total results with
+   * @param invoices
+   *          a comma-delimited list of invoice IDs or numbers to limit results to
    */
   @ShellMethod("List invoices.")
   public void invoicesList(
@@ -144,11 +164,25 @@ public class InvoiceCommands extends BaseShellSupport {
       @ShellOption(help = "The maximum number of results to return, or 0 for unlimited.",
           defaultValue = "0") int max,
       @ShellOption(help = "The result page offset, starting from 1.",
-          defaultValue = "1") int page) {
+          defaultValue = "1") int page,
+      @ShellOption(help = "The total result count method: exact, window, estimate, or none.",
+          defaultValue = "window") String count,
+      @ShellOption(help = "Comma-delimited invoice IDs or numbers (INV-XYZ) to list.",
+          defaultValue = "") String invoices) {
     ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
     if (accountId != null && accountId.longValue() > 0) {
       f.setAccountId(accountId);
     }
+    if (invoices != null && !invoices.isEmpty()) {
+      InvoiceReferences refs = accountService.resolveInvoiceReferences(asList(invoices.split(",")),
+          f.getAccountId());
+      if (!checkInvoiceReferences(shell, refs, f.getAccountId())) {
+        return;
+      }
+      if (!refs.getInvoiceIds().isEmpty()) {
+        f.setInvoiceIds(refs.getInvoiceIds().values().toArray(new Long[0]));
+      }
+    }
     if (max >= 1) {
       f.setMax(max);
       if (page > 1) {
@@ -181,6 +215,12 @@ public class InvoiceCommands extends BaseShellSupport {
       }
     }
     f.setUnpaidOnly(unpaidOnly);
+    try {
+      f.setCountStrategy(CountStrategy.forKey(count));
+    } catch (IllegalArgumentException e) {
+      shell.printError("The --count value is not valid. Use exact, window, estimate, or none.");
+      return;
+    }
     if (sortBy != null && sortBy.length > 0) {
       List<SortDescriptor> sorts = new ArrayList<>(sortBy.length);
       for (String s : sortBy) {
@@ -222,17 +262,56 @@ public class InvoiceCommands extends BaseShellSupport {
    * Show details for one invoice.
    * 
    * @param invoiceId
-   *          the ID of the invoice to show
+   *          the ID or number of the invoice to show
    */
   @ShellMethod("Show invoice details.")
-  public void invoiceShow(@ShellOption(help = "The invoice ID to show.") Long invoiceId) {
-    SnfInvoiceWithBalance inv = accountService.invoiceForId(invoiceId);
+  public void invoiceShow(
+      @ShellOption(help = "The invoice ID or number (INV-XYZ) to show.") String invoiceId) {
+    InvoiceReferences refs = accountService.resolveInvoiceReferences(singletonList(invoiceId),
+        null);
+    if (!checkInvoiceReferences(shell, refs, null)) {
+      return;
+    }
+    SnfInvoiceWithBalance inv = (refs.getInvoiceIds().isEmpty() ? null
+        : accountService.invoiceForId(refs.getInvoiceIds().values().iterator().next()));
     if (inv == null) {
-      shell.printError(format("Invoice %d not found.", invoiceId));
+      shell.printError(format("Invoice %s not found.", invoiceId));
+      return;
     }
     renderInvoice(inv);
   }
 
+  /**
+   * Print the errors of a batch of invoice references.
+   * 
+   * @param shell
+   *          the shell
+   * @param refs
+   *          the resolved references
+   * @param accountId
+   *          the account the references were resolved for, or {@literal null} for any account
+   * @return {@literal true} if all references were resolved, so no errors were printed
+   * @since 1.6
+   */
+  public static boolean checkInvoiceReferences(SshShellHelper shell, InvoiceReferences refs,
+      Long accountId) {
+    if (!refs.getInvalid().isEmpty()) {
+      // CHECKSTYLE OFF: LineLength
+      shell.printError(format(
+          "Invalid invoice references %s.\nInvoices must be specified as either an integer ID or number like INV-XYZ.",
+          refs.getInvalid()));
+      // CHECKSTYLE ON: LineLength
+    }
+    if (!refs.getNotFound().isEmpty()) {
+      shell.printError(format("Invoices not found: %s.", refs.getNotFound()));
+    }
+    if (!refs.getOtherAccount().isEmpty()) {
+      shell.printError(
+          format("Invoices not for account %d: %s.", accountId, refs.getOtherAccount()));
+    }
+    return refs.isResolved();
+  }
+
   private void renderInvoice(SnfInvoiceWithBalance inv) {
     Locale locale = actorLocale();
     NumberFormat numFormat = DecimalFormat.getNumberInstance(locale);
@@ -322,17 +401,34 @@ public class InvoiceCommands extends BaseShellSupport {
     // @formatter:on
   }
 
-  private void doInvoiceSearch(SnfInvoiceFilter f) {
-    setNavigationHandler(f, new Consumer<SnfInvoiceFilter>() {
+  private void doInvoiceSearch(ExtendedSnfInvoiceFilter f) {
+    setNavigationHandler(f, new BiConsumer<ExtendedSnfInvoiceFilter, Object>() {
 
       @Override
-      public void accept(SnfInvoiceFilter next) {
+      public void accept(ExtendedSnfInvoiceFilter next, Object pageToken) {
+        // seek directly to the page if we have a keyset for it, otherwise fall back to offset
+        next.setKeyset(pageToken instanceof SnfInvoiceKeyset ? (SnfInvoiceKeyset) pageToken : null);
         doInvoiceSearch(next);
       }
     });
-    FilterResults<SnfInvoiceWithBalance, UserLongPK> result = accountService
-        .findFilteredInvoices(f);
+    if (f.getMax() == null) {
+      // stream unlimited results so they are not all held in memory
+      printInvoiceTable(shell, f, c -> accountService.streamInvoiceSummaries(f, c));
+      return;
+    }
+    FilterResults<SnfInvoiceSummary, UserLongPK> result = accountService
+        .findFilteredInvoiceSummaries(f);
+    if (f.getMax() != null && f.getMax().intValue() > 0
+        && result.getReturnedResultCount() >= f.getMax().intValue()) {
+      SnfInvoiceSummary last = null;
+      for (SnfInvoiceSummary inv : result) {
+        last = inv;
+      }
+      setPageToken(result.getStartingOffset() + f.getMax().intValue(),
+          SnfInvoiceKeyset.forInvoice(last));
+    }
     renderInvoiceTable(shell, f, result);
+    printPageSummary(f, result, f.getCountStrategy() == CountStrategy.Estimate);
   }
 
   /**
@@ -344,7 +440,7 @@ public class InvoiceCommands extends BaseShellSupport {
    *          the results
    */
   public static void renderInvoiceTable(SshShellHelper shell,
-      FilterResults<SnfInvoiceWithBalance, UserLongPK> result) {
+      FilterResults<? extends SnfInvoiceWithBalance, UserLongPK> result) {
     renderInvoiceTable(shell, null, result);
   }
 
@@ -353,14 +449,37 @@ public class InvoiceCommands extends BaseShellSupport {
    * 
    * @param shell
    *          the shell
-   * @filter the filter that produced the results, to use for grouping/subtotals
+   * @param filter
+   *          the filter that produced the results, to use for grouping/subtotals
    * @param result
    *          the results
    */
   public static void renderInvoiceTable(SshShellHelper shell, SnfInvoiceFilter filter,
-      FilterResults<SnfInvoiceWithBalance, UserLongPK> result) {
+      FilterResults<? extends SnfInvoiceWithBalance, UserLongPK> result) {
+    renderInvoiceTable(shell, filter, result::forEach);
+  }
+
+  /**
+   * Render an invoice table from a source of invoices.
+   * 
+   * <p>
+   * Each invoice is reduced to a table row as soon as the source provides it, so the invoices are
+   * not held in memory, but all rows are held until the table is rendered. Use
+   * {@link #printInvoiceTable(SshShellHelper, SnfInvoiceFilter, Consumer)} for a source with an
+   * unbounded number of invoices.
+   * </p>
+   * 
+   * @param shell
+   *          the shell
+   * @param filter
+   *          the filter that produced the results, to use for grouping/subtotals
+   * @param source
+   *          the source of invoices, which must pass all invoices to the given consumer
+   */
+  public static void renderInvoiceTable(SshShellHelper shell, SnfInvoiceFilter filter,
+      Consumer<Consumer<SnfInvoiceWithBalance>> source) {
     // @formatter:off
-    SimpleTableBuilder t = SimpleTable.builder()
+    final SimpleTableBuilder table = SimpleTable.builder()
         .column("ID")
         .column("Num")
         .column("Date")
@@ -370,20 +489,78 @@ public class InvoiceCommands extends BaseShellSupport {
         .column("Due")
         ;
     // @formatter:on
-    Locale locale = actorLocale();
-    String currCode = "NZD";
-    boolean accountSubtotals = false;
-    Long lastAccountId = null;
-    if (filter != null && filter.getSorts() != null && !filter.getSorts().isEmpty()
-        && InvoiceSortKey.ACCOUNT.toString().equals(filter.getSorts().get(0).getSortKey())) {
-      accountSubtotals = true;
-    }
-    SortedMap<String, BigDecimal> subtotals = new TreeMap<>();
-    SortedMap<String, BigDecimal> subdues = new TreeMap<>();
-    SortedMap<String, BigDecimal> totals = new TreeMap<>();
-    SortedMap<String, BigDecimal> dues = new TreeMap<>();
-    for (SnfInvoiceWithBalance inv : result) {
-      currCode = inv.getCurrencyCode();
+    InvoiceTableLines lines = new InvoiceTableLines(filter, table::line);
+    source.accept(lines);
+    lines.finish();
+    shell.print(shell.renderTable(
+        BaseShellSupport.buildTable(shell, table.build(), new IntFunction<Iterable<Aligner>>() {
+
+          @Override
+          public Iterable<Aligner> apply(int c) {
+            return c == 2 || c == 3 ? TOP_LEFT : TOP_RIGHT;
+          }
+        }, null)));
+  }
+
+  /**
+   * Print an invoice table from a source of invoices, one row at a time.
+   * 
+   * <p>
+   * Each row is printed as soon as the source provides its invoice, using fixed column widths, so
+   * the source can stream any number of invoices without them or their rows being held in memory.
+   * </p>
+   * 
+   * @param shell
+   *          the shell
+   * @param filter
+   *          the filter that produced the results, to use for grouping/subtotals
+   * @param source
+   *          the source of invoices, which must pass all invoices to the given consumer
+   * @since 1.8
+   */
+  public static void printInvoiceTable(SshShellHelper shell, SnfInvoiceFilter filter,
+      Consumer<Consumer<SnfInvoiceWithBalance>> source) {
+    // @formatter:off
+    final StreamingTablePrinter table = new StreamingTablePrinter(shell::print)
+        .column("ID", 8, true)
+        .column("Num", 11, true)
+        .column("Date", 20, false)
+        .column("Acct", 40, false)
+        .column("Items", 5, true)
+        .column("Amount", 16, true)
+        .column("Due", 16, true)
+        .printHeaders();
+    // @formatter:on
+    InvoiceTableLines lines = new InvoiceTableLines(filter, table::line);
+    source.accept(lines);
+    lines.finish();
+  }
+
+  /**
+   * Incrementally produce the lines of an invoice table, one invoice at a time.
+   */
+  private static final class InvoiceTableLines implements Consumer<SnfInvoiceWithBalance> {
+
+    private final Locale locale = actorLocale();
+    private final boolean accountSubtotals;
+    private final Consumer<List<Object>> table;
+    private final SortedMap<String, BigDecimal> subtotals = new TreeMap<>();
+    private final SortedMap<String, BigDecimal> subdues = new TreeMap<>();
+    private final SortedMap<String, BigDecimal> totals = new TreeMap<>();
+    private final SortedMap<String, BigDecimal> dues = new TreeMap<>();
+    private Long lastAccountId = null;
+
+    private InvoiceTableLines(SnfInvoiceFilter filter, Consumer<List<Object>> table) {
+      super();
+      this.table = table;
+      accountSubtotals = (filter != null && filter.getSorts() != null
+          && !filter.getSorts().isEmpty()
+          && InvoiceSortKey.ACCOUNT.toString().equals(filter.getSorts().get(0).getSortKey()));
+    }
+
+    @Override
+    public void accept(SnfInvoiceWithBalance inv) {
+      final String currCode = inv.getCurrencyCode();
       totals.compute(currCode, (k, v) -> {
         if (v == null) {
           return inv.getTotalAmount();
@@ -399,7 +576,7 @@ public class InvoiceCommands extends BaseShellSupport {
       if (accountSubtotals && lastAccountId != null && !inv.getAccountId().equals(lastAccountId)) {
         for (String cc : subtotals.keySet()) {
           // @formatter:off
-          t.line(asList(
+          table.accept(asList(
               "",
               "",
               "",
@@ -432,7 +609,7 @@ public class InvoiceCommands extends BaseShellSupport {
       });
       InvoiceImpl invoice = new InvoiceImpl(inv);
       // @formatter:off
-      t.line(asList(
+      table.accept(asList(
           inv.getId().getId(), 
           invoice.getInvoiceNumber(),
           format("%s (%s)",
@@ -446,15 +623,16 @@ public class InvoiceCommands extends BaseShellSupport {
               inv.getTotalAmount().subtract(inv.getPaidAmount()))));
       // @formatter:on
     }
-    if (!totals.isEmpty()) {
+
+    private void finish() {
       for (String cc : totals.keySet()) {
         // @formatter:off
-        t.line(asList(
-            "",
+        table.accept(asList(
             "",
             "",
             "",
             "Total " + cc,
+            "",
             formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, 
               cc, 
               totals.get(cc)),
@@ -465,15 +643,6 @@ public class InvoiceCommands extends BaseShellSupport {
         // @formatter:on
       }
     }
-
-    shell.print(shell.renderTable(
-        BaseShellSupport.buildTable(shell, t.build(), new IntFunction<Iterable<Aligner>>() {
-
-          @Override
-          public Iterable<Aligner> apply(int c) {
-            return c == 2 || c == 3 ? TOP_LEFT : TOP_RIGHT;
-          }
-        }, null)));
   }
 
   /**
@@ -500,6 +669,56 @@ public class InvoiceCommands extends BaseShellSupport {
     }
   }
 
+  /**
+   * Generate invoices for all accounts for a month.
+   * 
+   * @param month
+   *          the month, in YYYY-MM format
+   * @param email
+   *          an optional email to restrict the accounts to
+   * @param accountId
+   *          an optional account ID to restrict the accounts to
+   * @param userId
+   *          an optional user ID to restrict the accounts to
+   */
+  @ShellMethod("Generate invoices for all accounts without an invoice for a month.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void generateInvoicesForMonth(
+      @ShellOption(help = "The month to generate, in YYYY-MM form.") String month,
+      @ShellOption(help = "Email to find (substring match)", defaultValue = "") String email,
+      @ShellOption(help = "The account ID to generate for.", defaultValue = "0") Long accountId,
+      @ShellOption(help = "The SolarNetwork user ID to generate for.",
+          defaultValue = "0") Long userId) {
+    final YearMonth ym;
+    try {
+      ym = YearMonth.parse(month);
+    } catch (DateTimeParseException e) {
+      shell.printError("The --month value is not valid. Use YYYY-MM syntax.");
+      return;
+    }
+    AccountFilter f = new AccountFilter();
+    if (accountId != null && accountId.longValue() > 0) {
+      f.setAccountId(accountId);
+    }
+    if (userId != null && userId.longValue() > 0) {
+      f.setUserId(userId);
+    }
+    if (email != null && !email.isEmpty()) {
+      f.setEmail(email);
+    }
+    try {
+      List<AccountTask> tasks = accountService.createInvoiceGenerationTasks(ym, f);
+      if (tasks.isEmpty()) {
+        shell.printWarning(format("No accounts without an invoice for %s found.", ym));
+      } else {
+        shell.printSuccess(format("Created %d invoice generation tasks for %s.", tasks.size(),
+            ym));
+      }
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+    }
+  }
+
   /**
    * Deliver an invoice for an account.
    * 
@@ -519,6 +738,61 @@ public class InvoiceCommands extends BaseShellSupport {
     }
   }
 
+  /**
+   * Deliver all invoices for a month.
+   * 
+   * @param month
+   *          the month, in YYYY-MM format
+   * @param accountId
+   *          an optional account ID to restrict the invoices to
+   * @param userId
+   *          an optional user ID to restrict the invoices to
+   * @param window
+   *          the number of minutes to spread the deliveries over
+   */
+  @ShellMethod("Deliver all invoices for a month.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void deliverInvoicesForMonth(
+      @ShellOption(help = "The month to deliver, in YYYY-MM form.") String month,
+      @ShellOption(help = "The account ID to deliver for.", defaultValue = "0") Long accountId,
+      @ShellOption(help = "The SolarNetwork user ID to deliver for.",
+          defaultValue = "0") Long userId,
+      @ShellOption(help = "The number of minutes to spread the deliveries over.",
+          defaultValue = "60") int window) {
+    final YearMonth ym;
+    try {
+      ym = YearMonth.parse(month);
+    } catch (DateTimeParseException e) {
+      shell.printError("The --month value is not valid. Use YYYY-MM syntax.");
+      return;
+    }
+    if (window < 0) {
+      shell.printError("The --window value must not be negative.");
+      return;
+    }
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    f.setStartDate(ym.atDay(1));
+    f.setEndDate(ym.plusMonths(1).atDay(1));
+    if (accountId != null && accountId.longValue() > 0) {
+      f.setAccountId(accountId);
+    }
+    if (userId != null && userId.longValue() > 0) {
+      f.setUserId(userId);
+    }
+    try {
+      List<AccountTask> tasks = accountService.createInvoiceDeliverTasks(f,
+          Duration.ofMinutes(window));
+      if (tasks.isEmpty()) {
+        shell.printWarning(format("No invoices for %s found without a deliver task.", ym));
+      } else {
+        shell.printSuccess(format("Created %d invoice deliver tasks for %s, over %d minutes.",
+            tasks.size(), ym, window));
+      }
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+    }
+  }
+
   /**
    * Create a new credit invoice.
    * 
@@ -572,4 +846,215 @@ public class InvoiceCommands extends BaseShellSupport {
     }
   }
 
+  /**
+   * Verify the maintained invoice balances match the invoice items and payments.
+   * 
+   * @param accountId
+   *          the account ID to verify, or {@literal 0} for all accounts
+   */
+  @ShellMethod("Verify the maintained invoice balances match the invoice items and payments.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void invoiceBalancesVerify(
+      @ShellOption(help = "The account ID to verify, or omit for all accounts.",
+          defaultValue = "0") Long accountId) {
+    List<SnfInvoiceBalance> results;
+    try {
+      results = accountService
+          .verifyInvoiceBalances(accountId != null && accountId.longValue() > 0 ? accountId : null);
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+      return;
+    }
+    if (results.isEmpty()) {
+      shell.printSuccess("All invoice balances are correct.");
+      return;
+    }
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("Invoice ID")
+        .column("Account ID")
+        .column("Total")
+        .column("Actual Total")
+        .column("Paid")
+        .column("Actual Paid")
+        ;
+    for (SnfInvoiceBalance bal : results) {
+      t.line(asList(
+          bal.getInvoiceId(),
+          bal.getAccountId(),
+          bal.isMissing() ? "-" : bal.getTotalAmount().toPlainString(),
+          bal.getActualTotalAmount().toPlainString(),
+          bal.isMissing() ? "-" : bal.getPaidAmount().toPlainString(),
+          bal.getActualPaidAmount().toPlainString()
+          ));
+    }
+    // @formatter:on
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return TOP_RIGHT;
+      }
+    }, null)));
+    shell.printWarning(format("%d invoice balances are not correct; "
+        + "run invoice-balances-rebuild to correct them.", results.size()));
+  }
+
+  /**
+   * Rebuild the maintained invoice balances from the invoice items and payments.
+   * 
+   * @param accountId
+   *          the account ID to rebuild, or {@literal 0} for all accounts
+   */
+  @ShellMethod("Rebuild the maintained invoice balances from the invoice items and payments.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void invoiceBalancesRebuild(
+      @ShellOption(help = "The account ID to rebuild, or omit for all accounts.",
+          defaultValue = "0") Long accountId) {
+    try {
+      int count = accountService.rebuildInvoiceBalances(
+          accountId != null && accountId.longValue() > 0 ? accountId : null);
+      shell.printSuccess(format("Updated %d invoice balances.", count));
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+    }
+  }
+
+  /**
+   * Snapshot the invoice balances as of a date.
+   * 
+   * <p>
+   * The date starts at midnight in the {@code app.invoice-snapshot.zone} time zone, as used by the
+   * scheduled snapshot job.
+   * </p>
+   * 
+   * @param date
+   *          the snapshot date (exclusive), in YYYY-MM-DD form
+   */
+  @ShellMethod("Snapshot the invoice balances as of a date, to speed up unpaid at date queries.")
+  @org.springframework.shell.standard.ShellMethodAvailability("adminAvailability")
+  public void invoiceSnapshotCreate(
+      @ShellOption(help = "The snapshot date (exclusive) in YYYY-MM-DD.") String date) {
+    final ZoneId zone = ZoneId.of(invoiceSnapshotZone);
+    final Instant ts;
+    try {
+      ts = LocalDate.parse(date, ISO_DATE).atStartOfDay(zone).toInstant();
+    } catch (DateTimeParseException e) {
+      shell.printError("The --date value is not valid. Use YYYY-MM-DD syntax.");
+      return;
+    }
+    try {
+      int count = accountService.createInvoiceSnapshot(ts);
+      shell.printSuccess(format("Created invoice snapshot for %s with %d invoices.",
+          ISO_LOCAL_DATE.format(ts.atZone(zone)), count));
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+    }
+  }
+
+  /**
+   * List the invoice snapshot dates, in the {@code app.invoice-snapshot.zone} time zone.
+   */
+  @ShellMethod("List the invoice snapshot dates.")
+  public void invoiceSnapshotList() {
+    List<Instant> dates;
+    try {
+      dates = accountService.invoiceSnapshotDates();
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+      return;
+    }
+    if (dates.isEmpty()) {
+      shell.print("No invoice snapshots available.");
+      return;
+    }
+    final ZoneId zone = ZoneId.of(invoiceSnapshotZone);
+    for (Instant date : dates) {
+      shell.print(ISO_LOCAL_DATE.format(date.atZone(zone)));
+    }
+  }
+
+  /**
+   * Show an accounts-receivable aging report.
+   * 
+   * <p>
+   * The {@code asOf} date starts at midnight in the {@code app.invoice-snapshot.zone} time zone,
+   * so it matches the dates of the invoice snapshots the report can start from.
+   * </p>
+   * 
+   * @param asOf
+   *          the date to compute the aging at (exclusive), in YYYY-MM-DD form, or empty for now
+   * @param currency
+   *          the currency code to restrict the report to, or empty for all currencies
+   */
+  @ShellMethod("Show accounts-receivable aging of unpaid invoices.")
+  public void arAging(
+      @ShellOption(help = "The date to compute the aging at (exclusive) in YYYY-MM-DD, "
+          + "or omit for now.", defaultValue = "") String asOf,
+      @ShellOption(help = "The currency code to show, or omit for all currencies.",
+          defaultValue = "") String currency) {
+    Instant date = null;
+    if (asOf != null && !asOf.isEmpty()) {
+      try {
+        date = LocalDate.parse(asOf, ISO_DATE).atStartOfDay(ZoneId.of(invoiceSnapshotZone))
+            .toInstant();
+      } catch (DateTimeParseException e) {
+        shell.printError("The --as-of value is not valid. Use YYYY-MM-DD syntax.");
+        return;
+      }
+    }
+    final Locale locale = actorLocale();
+    // @formatter:off
+    final SimpleTableBuilder t = SimpleTable.builder()
+        .column("Acct")
+        .column("Email")
+        .column("Invoices")
+        .column("Current")
+        .column("30 Days")
+        .column("60 Days")
+        .column("90+ Days")
+        .column("Total")
+        ;
+    // @formatter:on
+    final long count;
+    try {
+      count = accountService.agingReport(date,
+          currency != null && !currency.isEmpty() ? currency.toUpperCase(Locale.ENGLISH) : null,
+          aging -> {
+            final String cc = aging.getCurrencyCode();
+            // @formatter:off
+            t.line(asList(
+                aging.isCurrencyTotal() ? "Total " + cc : aging.getAccountId(),
+                aging.isCurrencyTotal() ? "" : aging.getEmail(),
+                aging.getInvoiceCount(),
+                formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, cc,
+                    aging.getCurrentAmount()),
+                formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, cc,
+                    aging.getDays30Amount()),
+                formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, cc,
+                    aging.getDays60Amount()),
+                formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, cc,
+                    aging.getDays90Amount()),
+                formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, cc,
+                    aging.getTotalAmount())
+                ));
+            // @formatter:on
+          });
+    } catch (DataAccessException e) {
+      shell.printError(e.getMessage());
+      return;
+    }
+    if (count < 1) {
+      shell.printSuccess("No unpaid invoices.");
+      return;
+    }
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return c == 1 ? TOP_LEFT : TOP_RIGHT;
+      }
+    }, null)));
+  }
+
 }
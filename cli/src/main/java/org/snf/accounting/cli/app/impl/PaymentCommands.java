@@ -30,22 +30,40 @@ import static java.util.Arrays.asList;
 import static net.solarnetwork.javax.money.MoneyUtils.formattedMoneyAmountFormatWithSymbolCurrencyStyle;
 import static org.snf.accounting.cli.ResultPaginationCommands.setNavigationHandler;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 import org.snf.accounting.cli.BaseShellSupport;
 import org.snf.accounting.cli.CoordinateVisitor;
+import org.snf.accounting.cli.StreamingTablePrinter;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.ExtendedPaymentFilter;
 import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.InvoiceReferences;
+import org.snf.accounting.domain.PaymentImportConflict;
+import org.snf.accounting.domain.PaymentImportResult;
 import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceSummary;
 import org.snf.accounting.domain.SnfInvoiceWithBalance;
 import org.snf.accounting.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,8 +85,6 @@ import com.github.fonimus.ssh.shell.commands.SshShellComponent;
 
 import net.solarnetwork.central.user.billing.snf.domain.Account;
 import net.solarnetwork.central.user.billing.snf.domain.InvoicePayment;
-import net.solarnetwork.central.user.billing.snf.domain.PaymentFilter;
-import net.solarnetwork.central.user.billing.snf.util.SnfBillingUtils;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.central.user.domain.UserUuidPK;
 import net.solarnetwork.dao.BasicFilterResults;
@@ -78,12 +94,18 @@ import net.solarnetwork.dao.FilterResults;
  * Commands for payments.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.5
  */
 @SshShellComponent
 @ShellCommandGroup("Payments")
 public class PaymentCommands extends BaseShellSupport {
 
+  /** The maximum number of import conflicts to show. */
+  private static final int MAX_IMPORT_CONFLICTS = 100;
+
+  /** The buffer size to read import files with. */
+  private static final int IMPORT_BUFFER_SIZE = 1 << 16;
+
   private final AccountService accountService;
 
   /**
@@ -105,6 +127,12 @@ public class PaymentCommands extends BaseShellSupport {
    * 
    * @param accountId
    *          the account ID to show payments for
+   * @param max
+   *          the maximum number of results, or {@literal 0} for unlimited
+   * @param page
+   *          the page offset, starting from 1
+   * @param count
+   *          the method to count the total results with
    */
   @ShellMethod("List payments for account.")
   public void paymentsForAccount(
@@ -112,28 +140,43 @@ public class PaymentCommands extends BaseShellSupport {
       @ShellOption(help = "The maximum number of results to return, or 0 for unlimited.",
           defaultValue = "0") int max,
       @ShellOption(help = "The result page offset, starting from 1.",
-          defaultValue = "1") int page) {
-    PaymentFilter f = PaymentFilter.forAccount(accountId);
+          defaultValue = "1") int page,
+      @ShellOption(help = "The total result count method: exact, window, estimate, or none.",
+          defaultValue = "window") String count) {
+    ExtendedPaymentFilter f = new ExtendedPaymentFilter();
+    f.setAccountId(accountId);
     if (max >= 1) {
       f.setMax(max);
       if (page > 1) {
         f.setOffset((page - 1) * max);
       }
     }
+    try {
+      f.setCountStrategy(CountStrategy.forKey(count));
+    } catch (IllegalArgumentException e) {
+      shell.printError("The --count value is not valid. Use exact, window, estimate, or none.");
+      return;
+    }
     doPaymentSearch(f);
   }
 
-  private void doPaymentSearch(PaymentFilter f) {
-    setNavigationHandler(f, new Consumer<PaymentFilter>() {
+  private void doPaymentSearch(ExtendedPaymentFilter f) {
+    setNavigationHandler(f, new Consumer<ExtendedPaymentFilter>() {
 
       @Override
-      public void accept(PaymentFilter next) {
+      public void accept(ExtendedPaymentFilter next) {
         doPaymentSearch(next);
       }
     });
+    if (f.getMax() == null) {
+      // stream unlimited results so they are not all held in memory
+      printPaymentWithInvoicePaymentsTable(shell, c -> accountService.streamPayments(f, c));
+      return;
+    }
     FilterResults<PaymentWithInvoicePayments, UserUuidPK> result = accountService
         .findFilteredPayments(f);
     renderPaymentWithInvoicePaymentsTable(shell, result);
+    printPageSummary(f, result, f.getCountStrategy() == CountStrategy.Estimate);
   }
 
   /**
@@ -146,6 +189,26 @@ public class PaymentCommands extends BaseShellSupport {
    */
   public static void renderPaymentWithInvoicePaymentsTable(SshShellHelper shell,
       FilterResults<PaymentWithInvoicePayments, UserUuidPK> result) {
+    renderPaymentWithInvoicePaymentsTable(shell, result::forEach);
+  }
+
+  /**
+   * Render a table of payment with invoice payment details from a source of payments.
+   * 
+   * <p>
+   * Each payment is reduced to a table row as soon as the source provides it, so the payments are
+   * not held in memory, but all rows are held until the table is rendered. Use
+   * {@link #printPaymentWithInvoicePaymentsTable(SshShellHelper, Consumer)} for a source with an
+   * unbounded number of payments.
+   * </p>
+   * 
+   * @param shell
+   *          the shell
+   * @param source
+   *          the source of payments, which must pass all payments to the given consumer
+   */
+  public static void renderPaymentWithInvoicePaymentsTable(SshShellHelper shell,
+      Consumer<Consumer<PaymentWithInvoicePayments>> source) {
     // @formatter:off
     SimpleTableBuilder t = SimpleTable.builder()
         .column("ID")
@@ -155,35 +218,13 @@ public class PaymentCommands extends BaseShellSupport {
         .column("Invoice")
         ;
     Locale locale = actorLocale();
-    for (PaymentWithInvoicePayments pay : result) {
-      ZoneId tz = pay.getAccount().getTimeZone();
+    source.accept(pay -> {
       StringBuilder buf = new StringBuilder();
-      if (pay.getInvoicePayments() != null) {
-        pay.getInvoicePayments().stream().sorted(InvoicePayment.SORT_BY_DATE).forEachOrdered(
-            new Consumer<InvoicePayment>() {
-
-              @Override
-              public void accept(InvoicePayment ip) {
-                buf.append(format("INV-%s", toUnsignedString(ip.getInvoiceId(), 36).toUpperCase()))
-                  .append(" ")
-                  .append(ip.getInvoiceId())
-                  .append(": ")
-                  .append(formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, 
-                      pay.getCurrencyCode(), ip.getAmount()))
-                  .append("\n");
-            
-              }
-            });
+      for (String ip : invoicePaymentDescriptions(locale, pay)) {
+        buf.append(ip).append("\n");
       }
-      t.line(asList(
-          pay.getId().getId(),
-          ISO_DATE.format(pay.getCreated().atZone(tz).toLocalDate()),
-          pay.getPaymentType().toString(),
-          formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, 
-              pay.getCurrencyCode(), pay.getAmount()),
-          buf.toString()
-          ));
-    }
+      t.line(paymentLine(locale, pay, buf.toString()));
+    });
     // @formatter:on
     KeyValueSizeConstraints invPayConstraints = new KeyValueSizeConstraints(":");
     KeyValueHorizontalAligner invPayAligner = new KeyValueHorizontalAligner(":");
@@ -206,6 +247,71 @@ public class PaymentCommands extends BaseShellSupport {
         })));
   }
 
+  /**
+   * Print a table of payment with invoice payment details from a source of payments, one row at a
+   * time.
+   * 
+   * <p>
+   * Each row is printed as soon as the source provides its payment, using fixed column widths, so
+   * the source can stream any number of payments without them or their rows being held in memory.
+   * Each invoice payment after the first is printed on its own line.
+   * </p>
+   * 
+   * @param shell
+   *          the shell
+   * @param source
+   *          the source of payments, which must pass all payments to the given consumer
+   * @since 1.5
+   */
+  public static void printPaymentWithInvoicePaymentsTable(SshShellHelper shell,
+      Consumer<Consumer<PaymentWithInvoicePayments>> source) {
+    // @formatter:off
+    final StreamingTablePrinter t = new StreamingTablePrinter(shell::print)
+        .column("ID", 36, false)
+        .column("Date", 10, false)
+        .column("Type", 8, true)
+        .column("Amount", 16, true)
+        .column("Invoice", 40, false)
+        .printHeaders();
+    // @formatter:on
+    final Locale locale = actorLocale();
+    source.accept(pay -> {
+      List<String> invoicePayments = invoicePaymentDescriptions(locale, pay);
+      t.line(paymentLine(locale, pay, invoicePayments.isEmpty() ? "" : invoicePayments.get(0)));
+      for (int i = 1, len = invoicePayments.size(); i < len; i++) {
+        t.line(asList("", "", "", "", invoicePayments.get(i)));
+      }
+    });
+  }
+
+  private static List<Object> paymentLine(Locale locale, PaymentWithInvoicePayments pay,
+      String invoicePayments) {
+    ZoneId tz = pay.getAccount().getTimeZone();
+    // @formatter:off
+    return asList(
+        pay.getId().getId(),
+        ISO_DATE.format(pay.getCreated().atZone(tz).toLocalDate()),
+        pay.getPaymentType().toString(),
+        formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale,
+            pay.getCurrencyCode(), pay.getAmount()),
+        invoicePayments
+        );
+    // @formatter:on
+  }
+
+  private static List<String> invoicePaymentDescriptions(Locale locale,
+      PaymentWithInvoicePayments pay) {
+    if (pay.getInvoicePayments() == null) {
+      return Collections.emptyList();
+    }
+    return pay.getInvoicePayments().stream().sorted(InvoicePayment.SORT_BY_DATE)
+        .map(ip -> format("INV-%s %d: %s",
+            toUnsignedString(ip.getInvoiceId(), 36).toUpperCase(), ip.getInvoiceId(),
+            formattedMoneyAmountFormatWithSymbolCurrencyStyle(locale, pay.getCurrencyCode(),
+                ip.getAmount())))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Add payment.
    * 
@@ -222,39 +328,26 @@ public class PaymentCommands extends BaseShellSupport {
       // CHECKSTYLE OFF: LineLength
       @ShellOption(help = "The account ID to add payment to.") Long accountId,
       @ShellOption(help = "The payment amount.") BigDecimal amount,
-      @ShellOption(help = "The invoice IDs to associate the payment with.") String invoices,
+      @ShellOption(help = "The invoice IDs or numbers (INV-XYZ) to associate the payment with.") String invoices,
       @ShellOption(help = "The payment date, or omit for the current date (YYYY-MM-DD).",
           defaultValue = "") String paymentDate,
       @ShellOption(help = "A reference to save with the payment.", defaultValue = "") String ref,
       @ShellOption(help = "An external key to save with the payment.",
           defaultValue = "") String externalKey) {
     // CHECKSTYLE ON: LineLength
-    Set<Long> invoiceIds = new TreeSet<>();
-    String[] invoiceComponents = invoices.split(",");
-    for (int i = 0; i < invoiceComponents.length; i++) {
-      Long id = SnfBillingUtils.invoiceIdForNum(invoiceComponents[i]);
-      if (id == null) {
-        try {
-          id = Long.valueOf(invoiceComponents[i]);
-        } catch (NumberFormatException e) {
-          // CHECKSTYLE OFF: LineLength
-          String err = format(
-              "Invalid invoice reference [%s].\nInvoices must be specified as either an integer ID or number like INV-XYZ.",
-              invoiceComponents[i]);
-          // CHECKSTYLE ON: LineLength
-          shell.printError(err);
-          return;
-        }
-      }
-      invoiceIds.add(id);
+    InvoiceReferences refs = accountService.resolveInvoiceReferences(asList(invoices.split(",")),
+        accountId);
+    if (!InvoiceCommands.checkInvoiceReferences(shell, refs, accountId)) {
+      return;
     }
+    Set<Long> invoiceIds = new TreeSet<>(refs.getInvoiceIds().values());
 
     // get specified invoices to prompt for confirmation
     ExtendedSnfInvoiceFilter invoiceFilter = new ExtendedSnfInvoiceFilter();
     invoiceFilter.setAccountId(accountId);
     invoiceFilter.setInvoiceIds(invoiceIds.toArray(new Long[invoiceIds.size()]));
-    FilterResults<SnfInvoiceWithBalance, UserLongPK> invoiceResults = accountService
-        .findFilteredInvoices(invoiceFilter);
+    FilterResults<SnfInvoiceSummary, UserLongPK> invoiceResults = accountService
+        .findFilteredInvoiceSummaries(invoiceFilter);
     if (invoiceResults.getReturnedResultCount() < 1) {
       shell.printError(i18n("payment.noInvoices", "No invoices."));
       return;
@@ -310,4 +403,92 @@ public class PaymentCommands extends BaseShellSupport {
         Collections.singleton(result));
     renderPaymentWithInvoicePaymentsTable(shell, list);
   }
+
+  /**
+   * Import payments from a CSV file.
+   * 
+   * @param file
+   *          the path of the CSV file on the server, which can be gzip compressed
+   * @param dryRun
+   *          {@literal true} to only validate the payments
+   */
+  @ShellMethod("Import payments from a CSV file.")
+  @ShellMethodAvailability("adminAvailability")
+  public void paymentsImport(
+      @ShellOption(help = "The server path of the CSV file to import, with the columns account_id, "
+          + "amount, date, invoices, ref, ext_key. Files ending in .gz are decompressed.")
+          String file,
+      @ShellOption(help = "Validate the payments without adding them.", arity = 0) boolean dryRun) {
+    final Path path = Paths.get(file);
+    if (!Files.isReadable(path)) {
+      shell.printError(format("The --file value %s is not a readable file.", file));
+      return;
+    }
+    final long start = System.currentTimeMillis();
+    final PaymentImportResult result;
+    try (InputStream in = importInputStream(path)) {
+      result = accountService.importPayments(in, dryRun);
+    } catch (IOException | UncheckedIOException | DataAccessException e) {
+      shell.printError(format("Import failed: %s", e.getMessage()));
+      return;
+    }
+    final double secs = (System.currentTimeMillis() - start) / 1000.0;
+    if (!result.getConflicts().isEmpty()) {
+      renderPaymentImportConflictsTable(result.getConflicts());
+      shell.printError(format("%d problems found in %d payments; no payments imported.",
+          result.getConflicts().size(), result.getRowCount()));
+    } else if (!result.isApplied()) {
+      shell.printSuccess(format("%d payments totaling %s are valid (%.1fs).",
+          result.getRowCount(), result.getTotalAmount().toPlainString(), secs));
+    } else {
+      shell.printSuccess(format("Imported %d payments totaling %s in %.1fs (%.0f/s).",
+          result.getRowCount(), result.getTotalAmount().toPlainString(), secs,
+          secs > 0 ? result.getRowCount() / secs : 0.0));
+    }
+  }
+
+  private static InputStream importInputStream(Path path) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(path), IMPORT_BUFFER_SIZE);
+    if (path.getFileName().toString().endsWith(".gz")) {
+      try {
+        return new GZIPInputStream(in, IMPORT_BUFFER_SIZE);
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+    }
+    return in;
+  }
+
+  private void renderPaymentImportConflictsTable(List<PaymentImportConflict> conflicts) {
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("Line")
+        .column("Account")
+        .column("Problem")
+        ;
+    int count = 0;
+    for (PaymentImportConflict conflict : conflicts) {
+      if (++count > MAX_IMPORT_CONFLICTS) {
+        break;
+      }
+      t.line(asList(
+          conflict.getLineNumber(),
+          conflict.getAccountId() != null ? conflict.getAccountId() : "-",
+          conflict.getMessage()
+          ));
+    }
+    // @formatter:on
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return (c < 2 ? TOP_RIGHT : TOP_LEFT);
+      }
+    }, null)));
+    if (conflicts.size() > MAX_IMPORT_CONFLICTS) {
+      shell.printWarning(format("Only the first %d of %d problems are shown.",
+          MAX_IMPORT_CONFLICTS, conflicts.size()));
+    }
+  }
 }
@@ -0,0 +1,300 @@
+/* ==================================================================
+ * SystemCommands.java - 18/10/2026 6:31:48 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.cli.app.impl;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.snf.accounting.cli.BaseShellSupport;
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.shell.standard.ShellCommandGroup;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellMethodAvailability;
+import org.springframework.shell.standard.ShellOption;
+import org.springframework.shell.table.Aligner;
+
+import com.github.fonimus.ssh.shell.SimpleTable;
+import com.github.fonimus.ssh.shell.SimpleTable.SimpleTableBuilder;
+import com.github.fonimus.ssh.shell.SshShellHelper;
+import com.github.fonimus.ssh.shell.commands.SshShellComponent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Commands for the application itself.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@SshShellComponent
+@ShellCommandGroup("System")
+public class SystemCommands extends BaseShellSupport {
+
+  /** The JSR-107 cache statistics MBean name pattern. */
+  private static final String CACHE_STATISTICS_PATTERN = "javax.cache:type=CacheStatistics,*";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Constructor.
+   * 
+   * @param shell
+   *          the shell
+   * @param meterRegistry
+   *          the meter registry
+   */
+  @Autowired
+  public SystemCommands(SshShellHelper shell, MeterRegistry meterRegistry) {
+    super(shell);
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Show cache statistics.
+   */
+  @ShellMethod("Show cache hit and miss statistics.")
+  public void cacheStats() {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final TreeMap<String, ObjectName> caches = new TreeMap<>();
+    try {
+      Set<ObjectName> names = server.queryNames(new ObjectName(CACHE_STATISTICS_PATTERN), null);
+      for (ObjectName name : names) {
+        caches.put(name.getKeyProperty("Cache"), name);
+      }
+    } catch (JMException e) {
+      shell.printError(format("Error querying cache statistics: %s", e.getMessage()));
+      return;
+    }
+    if (caches.isEmpty()) {
+      shell.printWarning("No cache statistics are available.");
+      return;
+    }
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("Cache")
+        .column("Gets")
+        .column("Hits")
+        .column("Misses")
+        .column("Hit %")
+        .column("Puts")
+        .column("Removals")
+        .column("Evictions")
+        ;
+    // @formatter:on
+    try {
+      for (ObjectName name : caches.values()) {
+        // @formatter:off
+        t.line(asList(
+            name.getKeyProperty("Cache"),
+            server.getAttribute(name, "CacheGets"),
+            server.getAttribute(name, "CacheHits"),
+            server.getAttribute(name, "CacheMisses"),
+            format("%.1f", ((Number) server.getAttribute(name, "CacheHitPercentage")).floatValue()),
+            server.getAttribute(name, "CachePuts"),
+            server.getAttribute(name, "CacheRemovals"),
+            server.getAttribute(name, "CacheEvictions")
+            ));
+        // @formatter:on
+      }
+    } catch (JMException e) {
+      shell.printError(format("Error reading cache statistics: %s", e.getMessage()));
+      return;
+    }
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return c == 0 ? TOP_LEFT : TOP_RIGHT;
+      }
+    }, null)));
+  }
+
+  private static final class StatementStats {
+
+    private final String statement;
+    private final long calls;
+    private final long errors;
+    private final double rows;
+    private final double meanMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+    private final double totalMs;
+
+    private StatementStats(Timer timer, DistributionSummary rows, Counter errors) {
+      super();
+      this.statement = timer.getId().getTag(StatementMetricsInterceptor.STATEMENT_TAG);
+      HistogramSnapshot snap = timer.takeSnapshot();
+      this.calls = snap.count();
+      this.errors = (errors != null ? (long) errors.count() : 0L);
+      this.rows = (rows != null ? rows.totalAmount() : 0.0);
+      this.meanMs = snap.mean(TimeUnit.MILLISECONDS);
+      this.maxMs = snap.max(TimeUnit.MILLISECONDS);
+      this.totalMs = snap.total(TimeUnit.MILLISECONDS);
+      double p50 = Double.NaN;
+      double p99 = Double.NaN;
+      for (ValueAtPercentile p : snap.percentileValues()) {
+        if (p.percentile() == 0.5) {
+          p50 = p.value(TimeUnit.MILLISECONDS);
+        } else if (p.percentile() == 0.99) {
+          p99 = p.value(TimeUnit.MILLISECONDS);
+        }
+      }
+      this.p50Ms = p50;
+      this.p99Ms = p99;
+    }
+
+  }
+
+  /**
+   * Show database statement statistics.
+   * 
+   * <p>
+   * The calls, errors, rows, and total time are counted since the application started. The
+   * percentiles and maximum latency only cover the last few minutes.
+   * </p>
+   * 
+   * @param sort
+   *          the statistic to sort by
+   * @param statement
+   *          a substring of the statement IDs to show, or empty for all statements
+   * @since 1.1
+   */
+  @ShellMethod("Show database statement latency, row, and error statistics.")
+  @ShellMethodAvailability("adminAvailability")
+  public void dbStats(
+      @ShellOption(help = "Sort by total, mean, p99, calls, errors, or statement.",
+          defaultValue = "total") String sort,
+      @ShellOption(help = "Only show statements with IDs containing this text.",
+          defaultValue = "") String statement) {
+    final Comparator<StatementStats> order;
+    switch (sort.toLowerCase()) {
+      case "total":
+        order = Comparator.comparingDouble((StatementStats s) -> s.totalMs).reversed();
+        break;
+
+      case "mean":
+        order = Comparator.comparingDouble((StatementStats s) -> s.meanMs).reversed();
+        break;
+
+      case "p99":
+        order = Comparator.comparingDouble((StatementStats s) -> s.p99Ms).reversed();
+        break;
+
+      case "calls":
+        order = Comparator.comparingLong((StatementStats s) -> s.calls).reversed();
+        break;
+
+      case "errors":
+        order = Comparator.comparingLong((StatementStats s) -> s.errors).reversed();
+        break;
+
+      case "statement":
+        order = Comparator.comparing((StatementStats s) -> s.statement);
+        break;
+
+      default:
+        shell.printError(
+            "The --sort value is not valid. Use total, mean, p99, calls, errors, or statement.");
+        return;
+    }
+
+    List<StatementStats> stats = new ArrayList<>(64);
+    for (Timer timer : meterRegistry.find(StatementMetricsInterceptor.LATENCY_METER_NAME)
+        .timers()) {
+      String id = timer.getId().getTag(StatementMetricsInterceptor.STATEMENT_TAG);
+      if (id == null || (!statement.isEmpty() && !id.contains(statement))) {
+        continue;
+      }
+      StatementStats s = new StatementStats(timer,
+          meterRegistry.find(StatementMetricsInterceptor.ROWS_METER_NAME)
+              .tag(StatementMetricsInterceptor.STATEMENT_TAG, id).summary(),
+          meterRegistry.find(StatementMetricsInterceptor.ERRORS_METER_NAME)
+              .tag(StatementMetricsInterceptor.STATEMENT_TAG, id).counter());
+      if (s.calls > 0 || s.errors > 0) {
+        stats.add(s);
+      }
+    }
+    if (stats.isEmpty()) {
+      shell.printWarning("No database statement statistics are available.");
+      return;
+    }
+    stats.sort(order);
+
+    // @formatter:off
+    SimpleTableBuilder t = SimpleTable.builder()
+        .column("Statement")
+        .column("Calls")
+        .column("Errors")
+        .column("Rows")
+        .column("Rows/call")
+        .column("Mean ms")
+        .column("p50 ms")
+        .column("p99 ms")
+        .column("Max ms")
+        .column("Total s")
+        ;
+    for (StatementStats s : stats) {
+      t.line(asList(
+          s.statement,
+          s.calls,
+          s.errors,
+          format("%.0f", s.rows),
+          format("%.1f", s.calls > 0 ? s.rows / s.calls : 0.0),
+          format("%.1f", s.meanMs),
+          format("%.1f", s.p50Ms),
+          format("%.1f", s.p99Ms),
+          format("%.1f", s.maxMs),
+          format("%.1f", s.totalMs / 1000.0)
+          ));
+    }
+    // @formatter:on
+    shell.print(shell.renderTable(buildTable(t.build(), new IntFunction<Iterable<Aligner>>() {
+
+      @Override
+      public Iterable<Aligner> apply(int c) {
+        return c == 0 ? TOP_LEFT : TOP_RIGHT;
+      }
+    }, null)));
+  }
+
+}
@@ -61,13 +61,15 @@ import com.github.fonimus.ssh.shell.SimpleTable;
 import com.github.fonimus.ssh.shell.SimpleTable.SimpleTableBuilderListener;
 import com.github.fonimus.ssh.shell.SshShellHelper;
 
+import net.solarnetwork.dao.FilterResults;
+import net.solarnetwork.domain.SimplePagination;
 import net.solarnetwork.util.StringUtils;
 
 /**
  * Base shell support class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class BaseShellSupport extends BaseMessageSourceSupport {
 
@@ -461,6 +463,44 @@ public class BaseShellSupport extends BaseMessageSourceSupport {
     return shell.buildTable(simpleTable);
   }
 
+  /**
+   * Print a summary of the position of a page of results within all results.
+   * 
+   * <p>
+   * The summary is like <i>Page 2 of 10 (95 results)</i>. Nothing is printed if {@code filter} is
+   * not paginated, and only the page number is printed if the total result count is not known.
+   * </p>
+   * 
+   * @param filter
+   *          the filter that produced the results
+   * @param results
+   *          the results
+   * @param estimated
+   *          {@literal true} if the total result count of {@code results} is an estimate
+   * @since 1.1
+   */
+  protected void printPageSummary(SimplePagination filter, FilterResults<?, ?> results,
+      boolean estimated) {
+    if (filter == null || filter.getMax() == null || filter.getMax().intValue() < 1) {
+      return;
+    }
+    final int pageSize = filter.getMax().intValue();
+    final int page = (results.getStartingOffset() / pageSize) + 1;
+    final Long total = results.getTotalResults();
+    if (total == null) {
+      shell.print(i18n("page.summary.unknown", "Page {0}", page));
+      return;
+    }
+    // an estimate can be too low to include the current page
+    final long pageCount = Math.max(estimated ? page : 1, (total + pageSize - 1) / pageSize);
+    if (estimated) {
+      shell.print(i18n("page.summary.estimate", "Page {0} of ~{1} (~{2} results)", page,
+          pageCount, total));
+    } else {
+      shell.print(i18n("page.summary", "Page {0} of {1} ({2} results)", page, pageCount, total));
+    }
+  }
+
   /**
    * Get the locale of the current actor (logged in user).
    * 
@@ -22,6 +22,9 @@
 
 package org.snf.accounting.cli;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.springframework.shell.Availability;
@@ -37,8 +40,15 @@ import net.solarnetwork.domain.SimplePagination;
 /**
  * Commands for result pagination.
  * 
+ * <p>
+ * Navigation handlers can register opaque page tokens via {@link #setPageToken(int, Object)}, for
+ * example a keyset that allows the page starting at a given offset to be queried without skipping
+ * over all the rows before it. The {@link #nextPage(int, int)} command passes any token available
+ * for the page being navigated to back to the navigation handler.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 @SshShellComponent
 @ShellCommandGroup("Result Pagination")
@@ -46,7 +56,8 @@ public class ResultPaginationCommands {
 
   // CHECKSTYLE OFF: LineLength
   private static final ThreadLocal<SimplePagination> FILTER = new ThreadLocal<>();
-  private static final ThreadLocal<Consumer<? extends SimplePagination>> NAV_HANDLER = new ThreadLocal<>();
+  private static final ThreadLocal<BiConsumer<? extends SimplePagination, Object>> NAV_HANDLER = new ThreadLocal<>();
+  private static final ThreadLocal<Map<Integer, Object>> PAGE_TOKENS = new ThreadLocal<>();
   // CHECKSTYLE ON: LineLength
 
   /**
@@ -59,18 +70,88 @@ public class ResultPaginationCommands {
    */
   public static synchronized void setNavigationHandler(SimplePagination filter,
       Consumer<? extends SimplePagination> handler) {
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    final Consumer<SimplePagination> h = (Consumer) handler;
+    setNavigationHandler(filter, h != null ? new BiConsumer<SimplePagination, Object>() {
+
+      @Override
+      public void accept(SimplePagination next, Object token) {
+        h.accept(next);
+      }
+    } : null);
+  }
+
+  /**
+   * Set the navigation results, with a handler that accepts page tokens.
+   * 
+   * <p>
+   * Any page tokens previously registered are discarded unless {@code filter} is the same instance
+   * as the filter previously registered, which is the case while navigating a single result set.
+   * </p>
+   * 
+   * @param filter
+   *          the filter that produced the results
+   * @param handler
+   *          the navigation handler, which is passed the filter for the page to navigate to and
+   *          the token registered for that page via {@link #setPageToken(int, Object)}, or
+   *          {@literal null} if none is available
+   * @since 1.1
+   */
+  public static synchronized void setNavigationHandler(SimplePagination filter,
+      BiConsumer<? extends SimplePagination, Object> handler) {
     if (filter != null) {
       if (handler == null) {
         throw new IllegalArgumentException("The handler must not be null.");
       }
+      if (filter != FILTER.get()) {
+        PAGE_TOKENS.remove();
+      }
       FILTER.set(filter);
       NAV_HANDLER.set(handler);
     } else {
       FILTER.remove();
       NAV_HANDLER.remove();
+      PAGE_TOKENS.remove();
     }
   }
 
+  /**
+   * Register a token that can be used to navigate to the page starting at a given offset.
+   * 
+   * @param offset
+   *          the result offset of the first result of the page
+   * @param token
+   *          the token, or {@literal null} to remove any token for {@code offset}
+   * @since 1.1
+   */
+  public static synchronized void setPageToken(int offset, Object token) {
+    Map<Integer, Object> tokens = PAGE_TOKENS.get();
+    if (token == null) {
+      if (tokens != null) {
+        tokens.remove(offset);
+      }
+      return;
+    }
+    if (tokens == null) {
+      tokens = new HashMap<>(8);
+      PAGE_TOKENS.set(tokens);
+    }
+    tokens.put(offset, token);
+  }
+
+  /**
+   * Get the token registered for the page starting at a given offset.
+   * 
+   * @param offset
+   *          the result offset of the first result of the page
+   * @return the token, or {@literal null} if none registered
+   * @since 1.1
+   */
+  public static synchronized Object pageToken(int offset) {
+    Map<Integer, Object> tokens = PAGE_TOKENS.get();
+    return (tokens != null ? tokens.get(offset) : null);
+  }
+
   /**
    * Navigate to another page of results.
    * 
@@ -88,7 +169,8 @@ public class ResultPaginationCommands {
           defaultValue = "0") int page) {
     final SimplePagination lastFilter = FILTER.get();
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    final Consumer<SimplePagination> navigationHandler = (Consumer) NAV_HANDLER.get();
+    final BiConsumer<SimplePagination, Object> navigationHandler = (BiConsumer) NAV_HANDLER
+        .get();
     if (lastFilter == null || navigationHandler == null || lastFilter.getMax() == null
         || lastFilter.getMax().intValue() < 1) {
       return;
@@ -103,8 +185,9 @@ public class ResultPaginationCommands {
         nextPage = 1;
       }
     }
-    lastFilter.setOffset((nextPage - 1) * pageSize);
-    navigationHandler.accept(lastFilter);
+    final int nextOffset = (nextPage - 1) * pageSize;
+    lastFilter.setOffset(nextOffset);
+    navigationHandler.accept(lastFilter, pageToken(nextOffset));
   }
 
   /**
@@ -114,7 +197,7 @@ public class ResultPaginationCommands {
    */
   public Availability nextPageAvailability() {
     final SimplePagination lastFilter = FILTER.get();
-    final Consumer<? extends SimplePagination> navigationHandler = NAV_HANDLER.get();
+    final BiConsumer<? extends SimplePagination, Object> navigationHandler = NAV_HANDLER.get();
     if (lastFilter == null || navigationHandler == null) {
       return Availability.unavailable("No navigable results available.");
     }
@@ -0,0 +1,151 @@
+/* ==================================================================
+ * StreamingTablePrinter.java - 19/10/2026 3:05:12 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Print a table one line at a time, with fixed column widths.
+ * 
+ * <p>
+ * A {@link com.github.fonimus.ssh.shell.SimpleTable} must hold all of its lines to size its
+ * columns before it can be rendered. This class instead prints each line as soon as it is added,
+ * so a table with any number of lines can be printed without holding them in memory. Values
+ * longer than their column width are truncated.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class StreamingTablePrinter {
+
+  /** The text to end a truncated value with. */
+  public static final String TRUNCATED_SUFFIX = "...";
+
+  private static final String COLUMN_SEPARATOR = "  ";
+
+  private final Consumer<String> out;
+  private final List<String> headers = new ArrayList<>(8);
+  private final List<Integer> widths = new ArrayList<>(8);
+  private final List<Boolean> rightAligned = new ArrayList<>(8);
+
+  /**
+   * Constructor.
+   * 
+   * @param out
+   *          the destination to print each line of text to
+   */
+  public StreamingTablePrinter(Consumer<String> out) {
+    super();
+    this.out = out;
+  }
+
+  /**
+   * Add a column.
+   * 
+   * @param header
+   *          the column header
+   * @param width
+   *          the column width, in characters
+   * @param alignRight
+   *          {@literal true} to align values to the right of the column, {@literal false} for the
+   *          left
+   * @return this object
+   */
+  public StreamingTablePrinter column(String header, int width, boolean alignRight) {
+    headers.add(header);
+    widths.add(Math.max(width, TRUNCATED_SUFFIX.length() + 1));
+    rightAligned.add(alignRight);
+    return this;
+  }
+
+  /**
+   * Print the column headers, followed by a separator line.
+   * 
+   * @return this object
+   */
+  public StreamingTablePrinter printHeaders() {
+    out.accept(format(headers));
+    final StringBuilder buf = new StringBuilder();
+    for (int i = 0, len = widths.size(); i < len; i++) {
+      if (i > 0) {
+        buf.append(COLUMN_SEPARATOR);
+      }
+      for (int j = 0, w = widths.get(i); j < w; j++) {
+        buf.append('-');
+      }
+    }
+    out.accept(buf.toString());
+    return this;
+  }
+
+  /**
+   * Print a line.
+   * 
+   * @param values
+   *          the column values; {@literal null} values are printed as empty, and values beyond the
+   *          configured columns are ignored
+   * @return this object
+   */
+  public StreamingTablePrinter line(List<?> values) {
+    out.accept(format(values));
+    return this;
+  }
+
+  private String format(List<?> values) {
+    final StringBuilder buf = new StringBuilder();
+    for (int i = 0, len = widths.size(); i < len; i++) {
+      if (i > 0) {
+        buf.append(COLUMN_SEPARATOR);
+      }
+      Object v = (i < values.size() ? values.get(i) : null);
+      appendCell(buf, v != null ? v.toString() : "", widths.get(i), rightAligned.get(i));
+    }
+    // trailing padding serves no purpose
+    int end = buf.length();
+    while (end > 0 && buf.charAt(end - 1) == ' ') {
+      end--;
+    }
+    buf.setLength(end);
+    return buf.toString();
+  }
+
+  private static void appendCell(StringBuilder buf, String value, int width, boolean right) {
+    String s = value;
+    if (s.length() > width) {
+      s = s.substring(0, width - TRUNCATED_SUFFIX.length()) + TRUNCATED_SUFFIX;
+    }
+    if (!right) {
+      buf.append(s);
+    }
+    for (int i = s.length(); i < width; i++) {
+      buf.append(' ');
+    }
+    if (right) {
+      buf.append(s);
+    }
+  }
+
+}
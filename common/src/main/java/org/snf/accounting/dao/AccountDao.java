@@ -23,13 +23,18 @@
 package org.snf.accounting.dao;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.List;
 
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.AccountDate;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.IdRange;
 
 import net.solarnetwork.central.user.billing.snf.domain.Account;
 import net.solarnetwork.central.user.billing.snf.domain.AccountTask;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.dao.FilterResults;
 import net.solarnetwork.dao.GenericDao;
@@ -39,7 +44,7 @@ import net.solarnetwork.domain.SortDescriptor;
  * DAO API for accounts.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.3
  */
 public interface AccountDao extends GenericDao<Account, UserLongPK> {
 
@@ -67,6 +72,43 @@ public interface AccountDao extends GenericDao<Account, UserLongPK> {
    */
   void saveTask(AccountTask task);
 
+  /**
+   * Save a list of tasks.
+   * 
+   * <p>
+   * The tasks are inserted with multi-row statements, in batches, rather than one statement per
+   * task.
+   * </p>
+   * 
+   * @param tasks
+   *          the tasks to save
+   * @return the number of tasks saved; tasks that already exist are not counted
+   * @since 1.3
+   */
+  int saveTasks(List<AccountTask> tasks);
+
+  /**
+   * Find accounts that do not have an invoice for a month.
+   * 
+   * <p>
+   * Accounts that already have a task of the given type for the start of the month are also
+   * excluded, so that tasks are not created twice.
+   * </p>
+   * 
+   * @param filter
+   *          an optional filter to restrict the accounts to, using its account ID, user ID, and
+   *          email criteria
+   * @param month
+   *          the month
+   * @param taskType
+   *          the task type
+   * @return the accounts without an invoice, each with the start of the month in the account's
+   *         time zone, ordered by account ID, never {@literal null}
+   * @since 1.3
+   */
+  List<AccountDate> findAccountsWithoutInvoice(AccountFilter filter, YearMonth month,
+      AccountTaskType taskType);
+
   /**
    * Add a credit amount to an account's balance.
    * 
@@ -77,4 +119,25 @@ public interface AccountDao extends GenericDao<Account, UserLongPK> {
    */
   void addCredit(Long accountId, BigDecimal amount);
 
+  /**
+   * Partition all account IDs into ranges with roughly equal numbers of accounts.
+   * 
+   * @param count
+   *          the maximum number of ranges to return
+   * @return the ranges, ordered by ID, never {@literal null}
+   * @since 1.2
+   */
+  List<IdRange> findIdRanges(int count);
+
+  /**
+   * Find accounts whose balance charge or payment total does not match their invoice items or
+   * payments.
+   * 
+   * @param range
+   *          the range of account IDs to verify
+   * @return the discrepancies, ordered by account ID, never {@literal null}
+   * @since 1.2
+   */
+  List<AccountBalanceDiscrepancy> findBalanceDiscrepancies(IdRange range);
+
 }
@@ -0,0 +1,277 @@
+/* ==================================================================
+ * InvoiceDao.java - 18/10/2026 11:04:36 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.snf.accounting.domain.AccountAging;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceSummary;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+
+import net.solarnetwork.central.user.billing.snf.dao.SnfInvoiceDao;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceFilter;
+import net.solarnetwork.central.user.domain.UserLongPK;
+import net.solarnetwork.dao.FilterResults;
+import net.solarnetwork.domain.SortDescriptor;
+
+/**
+ * Extended DAO API for invoices.
+ * 
+ * @author matt
+ * @version 1.8
+ */
+public interface InvoiceDao extends SnfInvoiceDao {
+
+  /**
+   * Stream a filtered set of invoices to a consumer.
+   * 
+   * <p>
+   * Unlike {@link #findFiltered(SnfInvoiceFilter, java.util.List, Integer, Integer)} the results
+   * are not collected into memory: each invoice, fully populated with its items, is passed to
+   * {@code consumer} as soon as it has been read from the database and is then discarded. The
+   * filter's sorts, offset, and maximum result count are honoured.
+   * </p>
+   * 
+   * <p>
+   * This method must be called within a transaction, so the underlying database cursor can be
+   * read incrementally.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param consumer
+   *          the consumer to pass each matching invoice to
+   * @return the number of invoices passed to {@code consumer}
+   */
+  long streamFiltered(SnfInvoiceFilter filter, Consumer<SnfInvoiceWithBalance> consumer);
+
+  /**
+   * Find a filtered set of invoice summaries.
+   * 
+   * <p>
+   * This returns the same invoices as
+   * {@link #findFiltered(SnfInvoiceFilter, List, Integer, Integer)}, but the invoice item count and
+   * total amount are computed by the database and the invoice items themselves are not returned.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param sorts
+   *          the sort descriptors
+   * @param offset
+   *          the result offset
+   * @param max
+   *          the maximum result count
+   * @return the results, never {@literal null}
+   * @since 1.1
+   */
+  FilterResults<SnfInvoiceSummary, UserLongPK> findFilteredSummaries(SnfInvoiceFilter filter,
+      List<SortDescriptor> sorts, Integer offset, Integer max);
+
+  /**
+   * Stream a filtered set of invoice summaries to a consumer.
+   * 
+   * <p>
+   * This method must be called within a transaction, so the underlying database cursor can be
+   * read incrementally.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param consumer
+   *          the consumer to pass each matching invoice summary to
+   * @return the number of invoice summaries passed to {@code consumer}
+   * @since 1.1
+   * @see #streamFiltered(SnfInvoiceFilter, Consumer)
+   */
+  long streamFilteredSummaries(SnfInvoiceFilter filter,
+      Consumer<? super SnfInvoiceSummary> consumer);
+
+  /**
+   * Rebuild the maintained invoice balances from the invoice items and payments.
+   * 
+   * @param accountId
+   *          the ID of the account to rebuild the invoice balances of, or {@literal null} for all
+   *          accounts
+   * @return the number of invoice balances that were changed
+   * @since 1.2
+   */
+  int rebuildBalances(Long accountId);
+
+  /**
+   * Find invoices whose maintained balance is missing or does not match the invoice items and
+   * payments.
+   * 
+   * @param accountId
+   *          the ID of the account to verify the invoice balances of, or {@literal null} for all
+   *          accounts
+   * @return the invoice balance discrepancies, never {@literal null}
+   * @since 1.2
+   */
+  List<SnfInvoiceBalance> findBalanceDiscrepancies(Long accountId);
+
+  /**
+   * Snapshot the balance of every invoice as of a date.
+   * 
+   * <p>
+   * Only the invoice items and payments created before {@code date} are included. Any existing
+   * snapshot for the same date is replaced.
+   * </p>
+   * 
+   * @param date
+   *          the snapshot date
+   * @return the number of invoices included in the snapshot
+   * @since 1.3
+   */
+  int createSnapshot(Instant date);
+
+  /**
+   * Find the dates of all invoice snapshots.
+   * 
+   * @return the snapshot dates, most recent first, never {@literal null}
+   * @since 1.3
+   */
+  List<Instant> findSnapshotDates();
+
+  /**
+   * Stream accounts-receivable aging totals to a consumer.
+   * 
+   * <p>
+   * The totals of each account with unpaid invoices are passed to {@code consumer}, ordered by
+   * currency and account ID, followed by the total of all accounts in that currency.
+   * </p>
+   * 
+   * <p>
+   * This method must be called within a transaction, so the underlying database cursor can be
+   * read incrementally.
+   * </p>
+   * 
+   * @param date
+   *          the date to compute the aging at (exclusive), or {@literal null} for the current date
+   * @param currencyCode
+   *          the currency code to restrict the results to, or {@literal null} for all currencies
+   * @param consumer
+   *          the consumer to pass each aging result to
+   * @return the number of aging results passed to {@code consumer}
+   * @since 1.4
+   */
+  long streamAging(Instant date, String currencyCode, Consumer<? super AccountAging> consumer);
+
+  /**
+   * Stream the account of every invoice with an ID greater than a given ID.
+   * 
+   * <p>
+   * Only the invoice ID, account ID, and creation date of each invoice are populated. This method
+   * must be called within a transaction, so the underlying database cursor can be read
+   * incrementally.
+   * </p>
+   * 
+   * @param afterInvoiceId
+   *          the invoice ID to stream invoices after, or {@literal 0} for all invoices
+   * @param consumer
+   *          the consumer to pass each invoice to, ordered by invoice ID
+   * @return the number of invoices passed to {@code consumer}
+   * @since 1.5
+   */
+  long streamInvoiceAccounts(long afterInvoiceId, Consumer<? super SnfInvoice> consumer);
+
+  /**
+   * Stream the account of every invoice matching a filter.
+   * 
+   * <p>
+   * This is the same as calling
+   * {@link #streamFilteredAccounts(SnfInvoiceFilter, AccountTaskType, Consumer)} without a task
+   * type.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param consumer
+   *          the consumer to pass each invoice to, ordered by invoice ID
+   * @return the number of invoices passed to {@code consumer}
+   * @since 1.6
+   */
+  long streamFilteredAccounts(SnfInvoiceFilter filter, Consumer<? super SnfInvoice> consumer);
+
+  /**
+   * Stream the account of every invoice matching a filter, without an account task of a given
+   * type.
+   * 
+   * <p>
+   * Only the invoice ID, user ID, account ID, and creation date of each invoice are populated. The
+   * filter's sorts, offset, and maximum result count are ignored. This method must be called
+   * within a transaction, so the underlying database cursor can be read incrementally.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param withoutTaskType
+   *          if not {@literal null}, exclude invoices that already have an account task of this
+   *          type for the invoice, so tasks are not created twice
+   * @param consumer
+   *          the consumer to pass each invoice to, ordered by invoice ID
+   * @return the number of invoices passed to {@code consumer}
+   * @since 1.8
+   */
+  long streamFilteredAccounts(SnfInvoiceFilter filter, AccountTaskType withoutTaskType,
+      Consumer<? super SnfInvoice> consumer);
+
+  /**
+   * Count the invoices matching a filter, without an account task of a given type.
+   * 
+   * <p>
+   * This counts the invoices that
+   * {@link #streamFilteredAccounts(SnfInvoiceFilter, AccountTaskType, Consumer)} would stream with
+   * the same arguments.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param withoutTaskType
+   *          if not {@literal null}, exclude invoices that already have an account task of this
+   *          type for the invoice
+   * @return the number of matching invoices
+   * @since 1.8
+   */
+  long countFilteredAccounts(SnfInvoiceFilter filter, AccountTaskType withoutTaskType);
+
+  /**
+   * Get the account of a set of invoices.
+   * 
+   * <p>
+   * Only the invoice ID, account ID, and creation date of each invoice are populated.
+   * </p>
+   * 
+   * @param invoiceIds
+   *          the IDs of the invoices to get
+   * @return the invoices that exist, ordered by invoice ID, never {@literal null}
+   * @since 1.7
+   */
+  List<SnfInvoice> findInvoiceAccounts(Long[] invoiceIds);
+
+}
@@ -0,0 +1,62 @@
+/* ==================================================================
+ * LedgerExportDao.java - 18/10/2026 8:05:41 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import org.snf.accounting.domain.LedgerExportProgress;
+import org.snf.accounting.domain.LedgerTable;
+
+/**
+ * DAO API for bulk export of the ledger tables.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface LedgerExportDao {
+
+  /**
+   * Copy all rows of a ledger table to an output stream as CSV, with a header row.
+   * 
+   * <p>
+   * The rows are copied as the database produces them, without mapping them to domain objects. If
+   * called within a transaction, the rows are those visible to that transaction.
+   * </p>
+   * 
+   * @param table
+   *          the table to export
+   * @param out
+   *          the stream to write to; it is flushed but not closed
+   * @param progress
+   *          an optional consumer of the export progress, called when the export starts,
+   *          periodically, and when complete
+   * @return the number of rows exported, not including the header row
+   * @throws IOException
+   *           if any IO error occurs writing to {@code out}
+   */
+  long copyOut(LedgerTable table, OutputStream out, Consumer<LedgerExportProgress> progress)
+      throws IOException;
+
+}
@@ -22,6 +22,8 @@
 
 package org.snf.accounting.dao;
 
+import java.util.function.Consumer;
+
 import org.snf.accounting.domain.PaymentWithInvoicePayments;
 
 import net.solarnetwork.central.user.billing.snf.domain.Payment;
@@ -34,7 +36,7 @@ import net.solarnetwork.dao.GenericDao;
  * DAO API for {@link Payment} entities.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface PaymentDao extends GenericDao<PaymentWithInvoicePayments, UserUuidPK>,
     FilterableDao<PaymentWithInvoicePayments, UserUuidPK, PaymentFilter> {
@@ -50,4 +52,28 @@ public interface PaymentDao extends GenericDao<PaymentWithInvoicePayments, UserU
    */
   PaymentWithInvoicePayments addPayment(Payment payment, Iterable<Long> invoiceIds);
 
+  /**
+   * Stream a filtered set of payments to a consumer.
+   * 
+   * <p>
+   * Unlike {@link #findFiltered(PaymentFilter, java.util.List, Integer, Integer)} the results are
+   * not collected into memory: each payment, fully populated with its invoice payments, is passed
+   * to {@code consumer} as soon as it has been read from the database and is then discarded. The
+   * filter's sorts, offset, and maximum result count are honoured.
+   * </p>
+   * 
+   * <p>
+   * This method must be called within a transaction, so the underlying database cursor can be
+   * read incrementally.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter
+   * @param consumer
+   *          the consumer to pass each matching payment to
+   * @return the number of payments passed to {@code consumer}
+   * @since 1.1
+   */
+  long streamFiltered(PaymentFilter filter, Consumer<PaymentWithInvoicePayments> consumer);
+
 }
@@ -0,0 +1,87 @@
+/* ==================================================================
+ * PaymentImportDao.java - 18/10/2026 8:22:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.snf.accounting.domain.PaymentImportConflict;
+
+/**
+ * DAO API for bulk import of payments.
+ * 
+ * <p>
+ * Payments are first loaded into a staging area, where they can be validated as a set, and then
+ * applied. The staging area lasts until the end of the current transaction, so all methods must be
+ * called within the same transaction.
+ * </p>
+ * 
+ * <p>
+ * The import data is CSV with a header row and the columns {@code account_id}, {@code amount},
+ * {@code date}, {@code invoices}, {@code ref}, and {@code ext_key}. The {@code amount} can have
+ * at most 2 decimal places. The {@code date} is an ISO 8601 date, and the payment is dated at noon
+ * of that day in the account's time zone. The {@code invoices} are invoice IDs or numbers
+ * separated by semicolons or spaces; if none are provided the payment is applied to the account's
+ * unpaid invoices, oldest first.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface PaymentImportDao {
+
+  /**
+   * Load payments to import into the staging area.
+   * 
+   * @param csv
+   *          the CSV payment data; it is not closed
+   * @return the number of payments loaded
+   * @throws IOException
+   *           if any IO error occurs reading {@code csv}
+   */
+  long load(InputStream csv) throws IOException;
+
+  /**
+   * Get the total amount of the loaded payments.
+   * 
+   * @return the total amount, never {@literal null}
+   */
+  BigDecimal totalAmount();
+
+  /**
+   * Find problems with the loaded payments that prevent them from being imported.
+   * 
+   * @return the conflicts, ordered by line number, never {@literal null}
+   */
+  List<PaymentImportConflict> findConflicts();
+
+  /**
+   * Add all loaded payments, in file order.
+   * 
+   * @return the number of payments added
+   */
+  long apply();
+
+}
@@ -0,0 +1,234 @@
+/* ==================================================================
+ * JdbcPaymentImportDao.java - 18/10/2026 8:22:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc;
+
+import static org.snf.accounting.util.Utils.getResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.snf.accounting.dao.PaymentImportDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.domain.PaymentImportConflict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+/**
+ * PostgreSQL {@code COPY} implementation of {@link PaymentImportDao}.
+ * 
+ * <p>
+ * The payments are loaded with a {@code COPY FROM STDIN} statement through the PgJDBC
+ * {@code CopyManager} into temporary tables that are dropped when the transaction ends. The
+ * invoice references are resolved and validated with set-based queries over all payments at once,
+ * and the payments are added with one {@code add_invoice_payments} call per payment, a batch of
+ * payments per statement. The data source must provide PgJDBC connections, which can be wrapped
+ * by a connection pool.
+ * </p>
+ * 
+ * <p>
+ * If a cache manager is configured, the invoices the payments are applied to are evicted from the
+ * {@link MyBatisInvoiceDao#INVOICE_CACHE} cache, as their paid amount has changed.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class JdbcPaymentImportDao implements PaymentImportDao {
+
+  /** The default number of payments to add per statement. */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  /** The COPY statement to load the payments with. */
+  public static final String COPY_SQL = "COPY payment_import"
+      + " (acct_id, amount, pay_date, inv_refs, ref, ext_key)"
+      + " FROM STDIN WITH (FORMAT csv, HEADER)";
+
+  private static final String CREATE_SQL = getResource("payment-import-create.sql",
+      JdbcPaymentImportDao.class);
+  private static final String RESOLVE_SQL = getResource("payment-import-resolve.sql",
+      JdbcPaymentImportDao.class);
+  private static final String CONFLICTS_SQL = getResource("payment-import-conflicts.sql",
+      JdbcPaymentImportDao.class);
+  private static final String APPLY_SQL = getResource("payment-import-apply.sql",
+      JdbcPaymentImportDao.class);
+  private static final String KEYS_SQL = getResource("payment-import-keys.sql",
+      JdbcPaymentImportDao.class);
+  private static final String TOTAL_SQL = "SELECT coalesce(sum(amount), 0) FROM payment_import";
+  private static final String LINES_SQL = "SELECT min(line_num), max(line_num)"
+      + " FROM payment_import";
+
+  private final DataSource dataSource;
+  private final SQLExceptionTranslator exceptionTranslator = new SQLStateSQLExceptionTranslator();
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private Cache invoiceCache;
+
+  /**
+   * Constructor.
+   * 
+   * @param dataSource
+   *          the data source
+   */
+  public JdbcPaymentImportDao(DataSource dataSource) {
+    super();
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public long load(InputStream csv) throws IOException {
+    final Connection con = DataSourceUtils.getConnection(dataSource);
+    String sql = CREATE_SQL;
+    try {
+      try (Statement stmt = con.createStatement()) {
+        stmt.execute(sql);
+      }
+      sql = COPY_SQL;
+      final long count = con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, csv);
+      sql = RESOLVE_SQL;
+      try (Statement stmt = con.createStatement()) {
+        stmt.execute(sql);
+        stmt.execute("ANALYZE payment_import");
+        stmt.execute("ANALYZE payment_import_inv");
+      }
+      return count;
+    } catch (SQLException e) {
+      throw exceptionTranslator.translate("Load payments", sql, e);
+    } finally {
+      DataSourceUtils.releaseConnection(con, dataSource);
+    }
+  }
+
+  @Override
+  public BigDecimal totalAmount() {
+    final Connection con = DataSourceUtils.getConnection(dataSource);
+    try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery(TOTAL_SQL)) {
+      return (rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO);
+    } catch (SQLException e) {
+      throw exceptionTranslator.translate("Total payments", TOTAL_SQL, e);
+    } finally {
+      DataSourceUtils.releaseConnection(con, dataSource);
+    }
+  }
+
+  @Override
+  public List<PaymentImportConflict> findConflicts() {
+    final Connection con = DataSourceUtils.getConnection(dataSource);
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery(CONFLICTS_SQL)) {
+      List<PaymentImportConflict> result = new ArrayList<>();
+      while (rs.next()) {
+        long accountId = rs.getLong(2);
+        result.add(new PaymentImportConflict(rs.getLong(1), rs.wasNull() ? null : accountId,
+            rs.getString(3)));
+      }
+      return result;
+    } catch (SQLException e) {
+      throw exceptionTranslator.translate("Find payment conflicts", CONFLICTS_SQL, e);
+    } finally {
+      DataSourceUtils.releaseConnection(con, dataSource);
+    }
+  }
+
+  @Override
+  public long apply() {
+    final Connection con = DataSourceUtils.getConnection(dataSource);
+    String sql = LINES_SQL;
+    try {
+      long min;
+      long max;
+      try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        rs.next();
+        min = rs.getLong(1);
+        max = rs.getLong(2);
+        if (rs.wasNull()) {
+          return 0;
+        }
+      }
+      long count = 0;
+      sql = APPLY_SQL;
+      try (PreparedStatement stmt = con.prepareStatement(sql)) {
+        for (long start = min; start <= max; start += batchSize) {
+          stmt.setLong(1, start);
+          stmt.setLong(2, start + batchSize);
+          count += stmt.executeUpdate();
+        }
+      }
+      sql = KEYS_SQL;
+      try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        final Cache cache = this.invoiceCache;
+        while (rs.next()) {
+          if (cache != null) {
+            cache.evict(rs.getLong(1));
+          }
+        }
+      }
+      return count;
+    } catch (SQLException e) {
+      throw exceptionTranslator.translate("Apply payments", sql, e);
+    } finally {
+      DataSourceUtils.releaseConnection(con, dataSource);
+    }
+  }
+
+  /**
+   * Set the number of payments to add per statement.
+   * 
+   * @param batchSize
+   *          the batch size to set; defaults to {@link #DEFAULT_BATCH_SIZE}
+   * @throws IllegalArgumentException
+   *           if {@code batchSize} is less than 1
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1.");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Set the cache manager.
+   * 
+   * @param cacheManager
+   *          the cache manager to evict invoices from, or {@literal null} if invoices are not
+   *          cached
+   */
+  public void setCacheManager(CacheManager cacheManager) {
+    this.invoiceCache = (cacheManager != null
+        ? cacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE)
+        : null);
+  }
+
+}
@@ -0,0 +1,243 @@
+/* ==================================================================
+ * ReplicaRoutingDataSource.java - 18/10/2026 6:04:31 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing data source that sends read-only transactions to a pool of read replicas.
+ * 
+ * <p>
+ * Connections for read-only transactions are spread over the replicas whose replication lag was
+ * within {@code maxLagSeconds} at the last {@link #checkReplicas()} run. Everything else, including
+ * read-only transactions when no replica is available, uses the primary. Until the first check
+ * completes no replica is considered available.
+ * </p>
+ * 
+ * <p>
+ * After a thread writes to the primary in a transaction, its read-only transactions stay on the
+ * primary for {@code readYourWritesSeconds}, so for example an invoice list following
+ * {@code addPayment()} or {@code addCredit()} in the same shell session shows the change even if
+ * the replicas are lagging.
+ * </p>
+ * 
+ * <p>
+ * The read-only flag of a transaction is only known after the transaction manager has obtained its
+ * connection, so this data source must be wrapped in a {@link LazyConnectionDataSourceProxy} to
+ * defer the routing decision until the first statement is executed.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  /**
+   * The query used to determine the replication lag of a replica, in seconds.
+   * 
+   * <p>
+   * A replica that has replayed everything it has received is not lagging, no matter how long ago
+   * the last transaction was replayed. A server that is not in recovery is not a replica, and is
+   * treated as not lagging.
+   * </p>
+   */
+  public static final String REPLICA_LAG_QUERY = "SELECT CASE"
+      + " WHEN NOT pg_is_in_recovery() THEN 0"
+      + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+      + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+  private static final int LAG_QUERY_TIMEOUT_SECONDS = 5;
+
+  private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final Clock clock;
+  private final AtomicInteger counter = new AtomicInteger();
+  private int maxLagSeconds = 10;
+  private int readYourWritesSeconds = 30;
+  private volatile List<Integer> availableReplicas = Collections.emptyList();
+
+  /**
+   * Constructor.
+   * 
+   * @param primary
+   *          the primary data source
+   * @param replicas
+   *          the replica data sources
+   * @param clock
+   *          the clock to use for the read-your-writes window
+   * @throws IllegalArgumentException
+   *           if any argument is {@literal null}
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Clock clock) {
+    super();
+    if (primary == null || replicas == null || clock == null) {
+      throw new IllegalArgumentException("The primary, replicas, and clock must be provided.");
+    }
+    this.primary = primary;
+    this.replicas = replicas;
+    this.clock = clock;
+    Map<Object, Object> targets = new HashMap<>(replicas.size());
+    for (int i = 0, len = replicas.size(); i < len; i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        LAST_WRITE.set(clock.millis());
+      }
+      return null;
+    }
+    final Long lastWrite = LAST_WRITE.get();
+    if (lastWrite != null) {
+      if (clock.millis() - lastWrite < readYourWritesSeconds * 1000L) {
+        return null;
+      }
+      LAST_WRITE.remove();
+    }
+    final List<Integer> available = availableReplicas;
+    if (available.isEmpty()) {
+      return null;
+    }
+    return available.get(Math.floorMod(counter.getAndIncrement(), available.size()));
+  }
+
+  /**
+   * Check the replication lag of every replica, and update the replicas available for routing.
+   * 
+   * <p>
+   * A replica is available if its lag could be queried and is no more than
+   * {@code maxLagSeconds}.
+   * </p>
+   */
+  @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:10000}")
+  public void checkReplicas() {
+    final List<Integer> available = new ArrayList<>(replicas.size());
+    for (int i = 0, len = replicas.size(); i < len; i++) {
+      Double lag = replicaLag(replicas.get(i));
+      if (lag == null) {
+        continue;
+      }
+      if (lag.doubleValue() > maxLagSeconds) {
+        log.warn("Replica {} replication lag {}s exceeds {}s; routing reads to primary.", i + 1,
+            lag, maxLagSeconds);
+        continue;
+      }
+      available.add(i);
+    }
+    if (!available.equals(availableReplicas)) {
+      log.info("Available read replicas changed to {} of {}.", available.size(), replicas.size());
+    }
+    availableReplicas = Collections.unmodifiableList(available);
+  }
+
+  private Double replicaLag(DataSource replica) {
+    try (Connection conn = replica.getConnection(); Statement stmt = conn.createStatement()) {
+      stmt.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+      try (ResultSet rs = stmt.executeQuery(REPLICA_LAG_QUERY)) {
+        return (rs.next() ? rs.getDouble(1) : null);
+      }
+    } catch (SQLException e) {
+      log.warn("Error checking replica replication lag: {}", e.toString());
+      return null;
+    }
+  }
+
+  /**
+   * Close the primary and replica data sources, if they support closing.
+   */
+  @Override
+  public void close() {
+    closeDataSource(primary);
+    for (DataSource replica : replicas) {
+      closeDataSource(replica);
+    }
+  }
+
+  private static void closeDataSource(DataSource dataSource) {
+    if (dataSource instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) dataSource).close();
+      } catch (Exception e) {
+        log.warn("Error closing data source {}: {}", dataSource, e.toString());
+      }
+    }
+  }
+
+  /**
+   * Get the number of replicas currently available for routing.
+   * 
+   * @return the available replica count
+   */
+  public int getAvailableReplicaCount() {
+    return availableReplicas.size();
+  }
+
+  /**
+   * Set the maximum replication lag a replica can have to be used.
+   * 
+   * @param maxLagSeconds
+   *          the maximum lag, in seconds; defaults to {@literal 10}
+   */
+  public void setMaxLagSeconds(int maxLagSeconds) {
+    this.maxLagSeconds = maxLagSeconds;
+  }
+
+  /**
+   * Set the amount of time read-only transactions stay on the primary after a thread writes.
+   * 
+   * @param readYourWritesSeconds
+   *          the window, in seconds; defaults to {@literal 30}
+   */
+  public void setReadYourWritesSeconds(int readYourWritesSeconds) {
+    this.readYourWritesSeconds = readYourWritesSeconds;
+  }
+
+}
@@ -0,0 +1,149 @@
+/* ==================================================================
+ * CountStrategySupport.java - 18/10/2026 10:58:06 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.ResultCountAware;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.solarnetwork.domain.SimplePagination;
+
+/**
+ * Helper methods for DAOs to support {@link CountStrategy} options.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class CountStrategySupport {
+
+  private static final Logger log = LoggerFactory.getLogger(CountStrategySupport.class);
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * The count strategy used when none is configured.
+   * 
+   * @since 1.1
+   */
+  public static final CountStrategy DEFAULT_COUNT_STRATEGY = CountStrategy.Window;
+
+  private CountStrategySupport() {
+    // can't construct me
+  }
+
+  /**
+   * Resolve the count strategy to use for a paginated query.
+   * 
+   * @param strategy
+   *          the configured strategy, or {@literal null} for {@link #DEFAULT_COUNT_STRATEGY}
+   * @param max
+   *          the maximum result count of the query; {@literal -1} disables counting
+   * @return the strategy to use, never {@literal null}
+   */
+  public static CountStrategy resolveCountStrategy(CountStrategy strategy, Integer max) {
+    if (max != null && max.intValue() == -1) {
+      return CountStrategy.None;
+    }
+    return (strategy != null ? strategy : DEFAULT_COUNT_STRATEGY);
+  }
+
+  /**
+   * Prepare a query filter for a paginated query.
+   * 
+   * <p>
+   * A filter with a maximum result count is paged. A paged filter without an offset is for the
+   * first page, so its offset is set to {@literal 0} for the query to apply the limit, rather than
+   * relying on the default offset of {@link SimplePagination}.
+   * </p>
+   * 
+   * @param filter
+   *          the query filter, which may be modified
+   * @return {@literal true} if the query is paged
+   * @since 1.1
+   */
+  public static boolean preparePagedFilter(SimplePagination filter) {
+    if (filter.getMax() == null) {
+      return false;
+    }
+    if (filter.getOffset() == null) {
+      filter.setOffset(0);
+    }
+    return true;
+  }
+
+  /**
+   * Get the total result count from the first result of a window-counted query.
+   * 
+   * @param results
+   *          the query results
+   * @return the total count, or {@literal null} if {@code results} is empty or the count is not
+   *         available
+   */
+  public static Long windowCount(List<?> results) {
+    if (results == null || results.isEmpty()) {
+      return null;
+    }
+    Object first = results.get(0);
+    return (first instanceof ResultCountAware ? ((ResultCountAware) first).getTotalResultCount()
+        : null);
+  }
+
+  /**
+   * Get an estimated result count from the query planner.
+   * 
+   * <p>
+   * The {@code statement} must return the JSON output of an {@code EXPLAIN (FORMAT JSON)} statement
+   * over the query to estimate. The estimate is the plan's top-level row estimate.
+   * </p>
+   * 
+   * @param session
+   *          the session to use
+   * @param statement
+   *          the name of the {@code EXPLAIN} statement to execute
+   * @param parameter
+   *          the statement parameter
+   * @return the estimated count, or {@literal null} if the estimate is not available
+   */
+  public static Long estimatedCount(SqlSession session, String statement, Object parameter) {
+    String plan = session.selectOne(statement, parameter);
+    if (plan == null) {
+      return null;
+    }
+    try {
+      JsonNode rows = OBJECT_MAPPER.readTree(plan).path(0).path("Plan").path("Plan Rows");
+      return (rows.isNumber() ? rows.asLong() : null);
+    } catch (IOException e) {
+      log.warn("Error parsing query plan from [{}]: {}", statement, e.toString());
+      return null;
+    }
+  }
+
+}
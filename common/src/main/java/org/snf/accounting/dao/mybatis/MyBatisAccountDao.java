@@ -22,21 +22,37 @@
 
 package org.snf.accounting.dao.mybatis;
 
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.estimatedCount;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.preparePagedFilter;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.resolveCountStrategy;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.windowCount;
+
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.SqlSession;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.snf.accounting.dao.AccountDao;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.AccountDate;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.IdRange;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Repository;
 
 import net.solarnetwork.central.dao.mybatis.support.BaseMyBatisGenericDaoSupport;
 import net.solarnetwork.central.user.billing.snf.domain.Account;
 import net.solarnetwork.central.user.billing.snf.domain.AccountTask;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.dao.BasicFilterResults;
 import net.solarnetwork.dao.FilterResults;
@@ -45,13 +61,34 @@ import net.solarnetwork.domain.SortDescriptor;
 /**
  * JDBC implementation of {@code AccountDao}.
  * 
+ * <p>
+ * If a cache manager is configured, accounts returned by {@link #get(UserLongPK)} are cached by
+ * account ID in the {@link #ACCOUNT_CACHE} cache, and evicted when saved or deleted. Each call
+ * returns a copy of the cached account and its address, so callers can modify them without
+ * changing the cached account.
+ * </p>
+ * 
  * @author matt
- * @version 1.1
+ * @version 1.6
  */
 @Repository
 public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, UserLongPK>
     implements AccountDao {
 
+  /**
+   * The name of the account cache.
+   * 
+   * @since 1.4
+   */
+  public static final String ACCOUNT_CACHE = "account";
+
+  /**
+   * The maximum number of tasks to insert per statement.
+   * 
+   * @since 1.5
+   */
+  public static final int TASK_INSERT_BATCH_SIZE = 500;
+
   /** Query name enumeration. */
   public enum QueryName {
 
@@ -59,7 +96,35 @@ public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, Use
 
     FindFilteredBalance("find-AccountWithBalance-for-filter"),
 
-    SaveTask("insert-AccountTask");
+    /**
+     * Partition account IDs into ranges.
+     * 
+     * @since 1.3
+     */
+    FindIdRanges("find-Account-id-ranges"),
+
+    /**
+     * Find account balance discrepancies within an ID range.
+     * 
+     * @since 1.3
+     */
+    FindBalanceDiscrepancies("find-AccountBalance-discrepancies-for-range"),
+
+    /**
+     * Find accounts without an invoice for a month.
+     * 
+     * @since 1.5
+     */
+    FindWithoutInvoiceForMonth("find-Account-without-invoice-for-month"),
+
+    SaveTask("insert-AccountTask"),
+
+    /**
+     * Insert a list of tasks.
+     * 
+     * @since 1.5
+     */
+    SaveTaskList("insert-AccountTask-list");
 
     private final String queryName;
 
@@ -85,8 +150,20 @@ public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, Use
       return queryName + "-count";
     }
 
+    /**
+     * Get the query name to use for an estimated count-only result.
+     * 
+     * @return the estimate query name
+     * @since 1.2
+     */
+    public String getEstimateQueryName() {
+      return queryName + "-estimate";
+    }
+
   }
 
+  private Cache accountCache;
+
   /**
    * Constructor.
    * 
@@ -99,6 +176,72 @@ public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, Use
     setSqlSessionTemplate(template);
   }
 
+  /**
+   * Set the cache manager.
+   * 
+   * @param cacheManager
+   *          the cache manager to cache accounts in, or {@literal null} if accounts are not cached
+   * @since 1.6
+   */
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.accountCache = (cacheManager != null ? cacheManager.getCache(ACCOUNT_CACHE) : null);
+  }
+
+  @Override
+  public Account get(UserLongPK id) {
+    final Cache cache = this.accountCache;
+    final Long key = (id != null ? id.getId() : null);
+    if (cache == null || key == null) {
+      return super.get(id);
+    }
+    Account account = cache.get(key, Account.class);
+    if (account == null) {
+      account = super.get(id);
+      if (account == null) {
+        return null;
+      }
+      cache.put(key, account);
+    }
+    return copyOf(account);
+  }
+
+  /**
+   * Copy an account, including its address.
+   * 
+   * <p>
+   * All the properties loaded by {@link #get(UserLongPK)} are copied.
+   * </p>
+   * 
+   * @param account
+   *          the account to copy
+   * @return the copy, or {@literal null} if {@code account} is {@literal null}
+   * @since 1.6
+   */
+  public static Account copyOf(Account account) {
+    if (account == null) {
+      return null;
+    }
+    Account copy = new Account(account.getId().getId(), account.getUserId(),
+        account.getCreated());
+    copy.setCurrencyCode(account.getCurrencyCode());
+    copy.setLocale(account.getLocale());
+    copy.setAddress(MyBatisAddressDao.copyOf(account.getAddress()));
+    return copy;
+  }
+
+  @CacheEvict(cacheNames = ACCOUNT_CACHE, key = "#p0.id.id", condition = "#p0.id?.id != null")
+  @Override
+  public UserLongPK save(Account entity) {
+    return super.save(entity);
+  }
+
+  @CacheEvict(cacheNames = ACCOUNT_CACHE, key = "#p0.id.id", condition = "#p0.id?.id != null")
+  @Override
+  public void delete(Account entity) {
+    super.delete(entity);
+  }
+
   @Override
   public FilterResults<AccountWithBalance, UserLongPK> findFilteredBalances(AccountFilter filter,
       List<SortDescriptor> sorts, Integer offset, Integer max) {
@@ -114,30 +257,90 @@ public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, Use
       }
     }
 
-    // attempt count first, if max NOT specified as -1 and NOT a mostRecent query
+    filter = filter.clone();
+    final CountStrategy countStrategy = resolveCountStrategy(filter.getCountStrategy(), max);
+    final boolean paged = preparePagedFilter(filter);
+    filter.setCountStrategy(countStrategy);
+
     Long totalCount = null;
-    if (max == null || max.intValue() != -1) {
-      AccountFilter countFilter = filter.clone();
-      countFilter.setOffset(null);
-      countFilter.setMax(null);
-      Number n = getSqlSession().selectOne(QueryName.FindFilteredBalance.getCountQueryName(),
-          countFilter);
-      if (n != null) {
-        totalCount = n.longValue();
-      }
+    if (paged && countStrategy == CountStrategy.Exact) {
+      totalCount = count(filter);
+    } else if (paged && countStrategy == CountStrategy.Estimate) {
+      totalCount = estimatedCount(getSqlSession(),
+          QueryName.FindFilteredBalance.getEstimateQueryName(), countFilter(filter));
     }
 
+    // limit applied by the query itself, so the window count covers all results
     List<AccountWithBalance> results = selectList(QueryName.FindFilteredBalance.getQueryName(),
-        filter, filter.getOffset(), filter.getMax());
+        filter, null, null);
+    if (!paged && countStrategy != CountStrategy.None) {
+      // unlimited results are their own count
+      totalCount = (long) results.size();
+    } else if (paged && countStrategy == CountStrategy.Window) {
+      totalCount = windowCount(results);
+      if (totalCount == null) {
+        // no results to take the count from, so the page is either past the end or empty
+        totalCount = (filter.getOffset().intValue() > 0 ? count(filter) : 0L);
+      }
+    }
     return new BasicFilterResults<>(results, totalCount, offset != null ? offset.intValue() : 0,
         results.size());
   }
 
+  private Long count(AccountFilter filter) {
+    Number n = getSqlSession().selectOne(QueryName.FindFilteredBalance.getCountQueryName(),
+        countFilter(filter));
+    return (n != null ? n.longValue() : null);
+  }
+
+  private static AccountFilter countFilter(AccountFilter filter) {
+    AccountFilter countFilter = filter.clone();
+    countFilter.setOffset(null);
+    countFilter.setMax(null);
+    return countFilter;
+  }
+
   @Override
   public void saveTask(AccountTask task) {
     getSqlSessionTemplate().insert(QueryName.SaveTask.getQueryName(), task);
   }
 
+  @Override
+  public int saveTasks(List<AccountTask> tasks) {
+    if (tasks == null || tasks.isEmpty()) {
+      return 0;
+    }
+    final SqlSession session = getSqlSession();
+    for (int i = 0, len = tasks.size(); i < len; i += TASK_INSERT_BATCH_SIZE) {
+      session.insert(QueryName.SaveTaskList.getQueryName(),
+          tasks.subList(i, Math.min(len, i + TASK_INSERT_BATCH_SIZE)));
+    }
+    final String statementIdSuffix = "." + QueryName.SaveTaskList.getQueryName();
+    int count = 0;
+    for (BatchResult result : session.flushStatements()) {
+      if (!result.getMappedStatement().getId().endsWith(statementIdSuffix)) {
+        continue;
+      }
+      for (int n : result.getUpdateCounts()) {
+        if (n > 0) {
+          count += n;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public List<AccountDate> findAccountsWithoutInvoice(AccountFilter filter, YearMonth month,
+      AccountTaskType taskType) {
+    Map<String, Object> params = new HashMap<>(4);
+    params.put("filter", filter);
+    params.put("month", month.atDay(1));
+    params.put("nextMonth", month.plusMonths(1).atDay(1));
+    params.put("taskType", taskType);
+    return getSqlSession().selectList(QueryName.FindWithoutInvoiceForMonth.getQueryName(), params);
+  }
+
   @Override
   public void addCredit(Long accountId, BigDecimal amount) {
     BigDecimal creditAmount = amount;
@@ -151,4 +354,14 @@ public class MyBatisAccountDao extends BaseMyBatisGenericDaoSupport<Account, Use
     getSqlSession().insert(QueryName.AddCredit.getQueryName(), params);
   }
 
+  @Override
+  public List<IdRange> findIdRanges(int count) {
+    return getSqlSession().selectList(QueryName.FindIdRanges.getQueryName(), count);
+  }
+
+  @Override
+  public List<AccountBalanceDiscrepancy> findBalanceDiscrepancies(IdRange range) {
+    return getSqlSession().selectList(QueryName.FindBalanceDiscrepancies.getQueryName(), range);
+  }
+
 }
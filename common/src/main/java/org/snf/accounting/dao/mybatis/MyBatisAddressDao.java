@@ -25,6 +25,10 @@ package org.snf.accounting.dao.mybatis;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.snf.accounting.dao.AddressDao;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Repository;
 
 import net.solarnetwork.central.dao.mybatis.support.BaseMyBatisGenericDaoSupport;
@@ -33,13 +37,28 @@ import net.solarnetwork.central.user.billing.snf.domain.Address;
 /**
  * MyBatis implementation of {@link AddressDao}.
  * 
+ * <p>
+ * If a cache manager is configured, addresses returned by {@link #get(Long)} are cached by ID in
+ * the {@link #ADDRESS_CACHE} cache, and evicted when saved or deleted. Each call returns a copy of
+ * the cached address, so callers can modify it without changing the cached address. As accounts
+ * include their address, saving or deleting an address also clears the
+ * {@link MyBatisAccountDao#ACCOUNT_CACHE} cache.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 @Repository
 public class MyBatisAddressDao extends BaseMyBatisGenericDaoSupport<Address, Long>
     implements AddressDao {
 
+  /**
+   * The name of the address cache.
+   * 
+   * @since 1.1
+   */
+  public static final String ADDRESS_CACHE = "address";
+
   /**
    * Constructor.
    * 
@@ -52,4 +71,83 @@ public class MyBatisAddressDao extends BaseMyBatisGenericDaoSupport<Address, Lon
     setSqlSessionTemplate(template);
   }
 
+  private Cache addressCache;
+
+  /**
+   * Set the cache manager.
+   * 
+   * @param cacheManager
+   *          the cache manager to cache addresses in, or {@literal null} if addresses are not
+   *          cached
+   * @since 1.2
+   */
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.addressCache = (cacheManager != null ? cacheManager.getCache(ADDRESS_CACHE) : null);
+  }
+
+  @Override
+  public Address get(Long id) {
+    final Cache cache = this.addressCache;
+    if (cache == null || id == null) {
+      return super.get(id);
+    }
+    Address address = cache.get(id, Address.class);
+    if (address == null) {
+      address = super.get(id);
+      if (address == null) {
+        return null;
+      }
+      cache.put(id, address);
+    }
+    return copyOf(address);
+  }
+
+  /**
+   * Copy an address.
+   * 
+   * <p>
+   * All the properties loaded by {@link #get(Long)} are copied.
+   * </p>
+   * 
+   * @param address
+   *          the address to copy
+   * @return the copy, or {@literal null} if {@code address} is {@literal null}
+   * @since 1.2
+   */
+  public static Address copyOf(Address address) {
+    if (address == null) {
+      return null;
+    }
+    Address copy = new Address(address.getId(), address.getCreated());
+    copy.setName(address.getName());
+    copy.setEmail(address.getEmail());
+    copy.setCountry(address.getCountry());
+    copy.setTimeZoneId(address.getTimeZoneId());
+    copy.setRegion(address.getRegion());
+    copy.setStateOrProvince(address.getStateOrProvince());
+    copy.setLocality(address.getLocality());
+    copy.setPostalCode(address.getPostalCode());
+    String[] street = address.getStreet();
+    copy.setStreet(street != null ? street.clone() : null);
+    return copy;
+  }
+
+  @Caching(evict = {
+      @CacheEvict(cacheNames = ADDRESS_CACHE, key = "#p0.id", condition = "#p0.id != null"),
+      @CacheEvict(cacheNames = MyBatisAccountDao.ACCOUNT_CACHE, allEntries = true,
+          condition = "#p0.id != null") })
+  @Override
+  public Long save(Address entity) {
+    return super.save(entity);
+  }
+
+  @Caching(evict = {
+      @CacheEvict(cacheNames = ADDRESS_CACHE, key = "#p0.id", condition = "#p0.id != null"),
+      @CacheEvict(cacheNames = MyBatisAccountDao.ACCOUNT_CACHE, allEntries = true) })
+  @Override
+  public void delete(Address entity) {
+    super.delete(entity);
+  }
+
 }
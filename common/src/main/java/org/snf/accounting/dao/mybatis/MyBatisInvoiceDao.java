@@ -22,36 +22,244 @@
 
 package org.snf.accounting.dao.mybatis;
 
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.estimatedCount;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.preparePagedFilter;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.resolveCountStrategy;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.windowCount;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.mybatis.spring.SqlSessionTemplate;
+import org.snf.accounting.dao.InvoiceDao;
+import org.snf.accounting.domain.AccountAging;
+import org.snf.accounting.domain.CountStrategy;
 import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceSummary;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.stereotype.Repository;
 
 import net.solarnetwork.central.dao.mybatis.support.BaseMyBatisGenericDaoSupport;
 import net.solarnetwork.central.user.billing.snf.dao.SnfInvoiceDao;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
 import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
 import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceFilter;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.dao.BasicFilterResults;
 import net.solarnetwork.dao.FilterResults;
 import net.solarnetwork.domain.SortDescriptor;
 
 /**
- * MyBatis implementation of {@link SnfInvoiceDao}.
+ * MyBatis implementation of {@link SnfInvoiceDao} and {@link InvoiceDao}.
+ * 
+ * <p>
+ * If the filter passed to {@link #findFiltered(SnfInvoiceFilter, List, Integer, Integer)} is an
+ * {@link ExtendedSnfInvoiceFilter} with a keyset configured, results are paged by seeking past the
+ * keyset rather than by offset, so that all pages can be found in roughly the same time.
+ * </p>
+ * 
+ * <p>
+ * The total result count is computed according to the filter's {@link CountStrategy}, if it is an
+ * {@link ExtendedSnfInvoiceFilter}. Unlimited queries are counted from their results, without any
+ * additional query.
+ * </p>
+ * 
+ * <p>
+ * The summary query methods return the same invoices as their full counterparts, but compute the
+ * invoice item totals in SQL so that no invoice item rows are returned.
+ * </p>
+ * 
+ * <p>
+ * The {@link FetchMode} determines how {@link #get(UserLongPK)} and
+ * {@link #findFiltered(SnfInvoiceFilter, List, Integer, Integer)} load invoice items. The
+ * streaming methods always use {@link FetchMode#Joined}, so invoices can be released as soon as
+ * they have been read.
+ * </p>
+ * 
+ * <p>
+ * If the maintained invoice balance table is available, unpaid invoice queries use it rather
+ * than summing the items and payments of every invoice. Its availability is detected the first
+ * time it is needed, unless configured via {@link #setInvoiceBalancesAvailable(Boolean)}, and
+ * detected again once {@link #setAvailabilityTtl(long)} has passed, so a table created or dropped
+ * while running is noticed.
+ * </p>
+ * 
+ * <p>
+ * Similarly, if the invoice snapshot table is available, queries for invoices unpaid at a past
+ * date start from the latest snapshot at or before that date, so only the items and payments
+ * created after the snapshot are summed. Its availability is detected in the same way, unless
+ * configured via {@link #setInvoiceSnapshotsAvailable(Boolean)}.
+ * </p>
+ * 
+ * <p>
+ * The aging report uses the maintained invoice balance table for the current date, or a snapshot
+ * for a past date, if they are available.
+ * </p>
+ * 
+ * <p>
+ * Invoices returned by {@link #get(UserLongPK)} are cached by invoice ID in the
+ * {@link #INVOICE_CACHE} cache, and evicted when saved or deleted. An invoice's total amount
+ * changes when its items change, so {@link MyBatisInvoiceItemDao} evicts the invoice of the items
+ * it saves or deletes. An invoice's paid amount changes when a payment is applied to it, so
+ * {@link MyBatisPaymentDao} evicts the invoices it applies payments to. The cached invoices are
+ * shared, so must not be modified other than to be saved.
+ * </p>
  * 
  * @author matt
- * @version 1.0
+ * @version 1.13
  */
 @Repository
 public class MyBatisInvoiceDao extends BaseMyBatisGenericDaoSupport<SnfInvoice, UserLongPK>
-    implements SnfInvoiceDao {
+    implements InvoiceDao {
+
+  /**
+   * The name of the invoice cache.
+   * 
+   * @since 1.9
+   */
+  public static final String INVOICE_CACHE = "invoice";
 
   /** Query name enumeration. */
   public enum QueryName {
 
-    FindFiltered("find-SnfInvoice-for-filter");
+    FindFiltered("find-SnfInvoice-for-filter"),
+
+    FindFilteredStream("find-SnfInvoice-for-filter-stream"),
+
+    /**
+     * Find invoice summaries; the count queries of {@link #FindFiltered} apply.
+     * 
+     * @since 1.4
+     */
+    FindFilteredSummary("find-SnfInvoiceSummary-for-filter"),
+
+    /**
+     * Stream invoice summaries.
+     * 
+     * @since 1.4
+     */
+    FindFilteredSummaryStream("find-SnfInvoiceSummary-for-filter-stream"),
+
+    /**
+     * Get an invoice without its items.
+     * 
+     * @since 1.5
+     */
+    GetHeader("get-SnfInvoice-header-for-id"),
+
+    /**
+     * Find invoices without their items; the count queries of {@link #FindFiltered} apply.
+     * 
+     * @since 1.5
+     */
+    FindFilteredHeaders("find-SnfInvoice-headers-for-filter"),
+
+    /**
+     * Find the items of a set of invoices.
+     * 
+     * @since 1.5
+     */
+    FindItemsForInvoices("find-SnfInvoiceItem-for-invoices"),
+
+    /**
+     * Test if the maintained invoice balance table is available.
+     * 
+     * @since 1.6
+     */
+    InvoiceBalancesAvailable("invoice-balances-available"),
+
+    /**
+     * Rebuild maintained invoice balances.
+     * 
+     * @since 1.6
+     */
+    RebuildBalances("rebuild-SnfInvoiceBalance"),
+
+    /**
+     * Find maintained invoice balance discrepancies.
+     * 
+     * @since 1.6
+     */
+    FindBalanceDiscrepancies("find-SnfInvoiceBalance-discrepancies"),
+
+    /**
+     * Test if the invoice snapshot table is available.
+     * 
+     * @since 1.7
+     */
+    InvoiceSnapshotsAvailable("invoice-snapshots-available"),
+
+    /**
+     * Find the latest invoice snapshot date at or before a date.
+     * 
+     * @since 1.7
+     */
+    FindSnapshotDateForDate("find-SnfInvoiceSnapshot-date-for-date"),
+
+    /**
+     * Find all invoice snapshot dates.
+     * 
+     * @since 1.7
+     */
+    FindSnapshotDates("find-SnfInvoiceSnapshot-dates"),
+
+    /**
+     * Create an invoice snapshot.
+     * 
+     * @since 1.7
+     */
+    CreateSnapshot("create-SnfInvoiceSnapshot"),
+
+    /**
+     * Delete an invoice snapshot.
+     * 
+     * @since 1.7
+     */
+    DeleteSnapshot("delete-SnfInvoiceSnapshot"),
+
+    /**
+     * Find accounts-receivable aging at a date.
+     * 
+     * @since 1.8
+     */
+    FindAging("find-AccountAging-for-date"),
+
+    /**
+     * Find the account of each invoice after an invoice ID.
+     * 
+     * @since 1.10
+     */
+    FindInvoiceAccounts("find-SnfInvoice-accounts-after-id"),
+
+    /**
+     * Find the accounts of invoices matching a filter.
+     * 
+     * @since 1.11
+     */
+    FindFilteredAccounts("find-SnfInvoice-accounts-for-filter"),
+
+    /**
+     * Find the account of each invoice in a set of invoice IDs.
+     * 
+     * @since 1.12
+     */
+    FindInvoiceAccountsForIds("find-SnfInvoice-accounts-for-ids");
 
     private final String queryName;
 
@@ -76,8 +284,52 @@ public class MyBatisInvoiceDao extends BaseMyBatisGenericDaoSupport<SnfInvoice,
     public String getCountQueryName() {
       return queryName + "-count";
     }
+
+    /**
+     * Get the query name to use for an estimated count-only result.
+     * 
+     * @return the estimate query name
+     * @since 1.3
+     */
+    public String getEstimateQueryName() {
+      return queryName + "-estimate";
+    }
+  }
+
+  /**
+   * Strategy for loading invoice items along with invoices.
+   * 
+   * @since 1.5
+   */
+  public enum FetchMode {
+
+    /**
+     * Join invoice items to the invoice query, so each invoice is returned once per item with all
+     * invoice, account, and address columns repeated on every row.
+     */
+    Joined,
+
+    /**
+     * Query the invoices without their items, then load the items of all returned invoices with a
+     * second query and associate them with their invoices in memory.
+     */
+    TwoPhase;
   }
 
+  /**
+   * The default time detected table availability is cached for, in milliseconds.
+   * 
+   * @since 1.13
+   */
+  public static final long DEFAULT_AVAILABILITY_TTL = 300_000L;
+
+  private FetchMode fetchMode = FetchMode.Joined;
+  private long availabilityTtl = DEFAULT_AVAILABILITY_TTL;
+  private volatile Boolean invoiceBalancesAvailable;
+  private volatile long invoiceBalancesAvailableExpires;
+  private volatile Boolean invoiceSnapshotsAvailable;
+  private volatile long invoiceSnapshotsAvailableExpires;
+
   /**
    * Constructor.
    * 
@@ -90,9 +342,52 @@ public class MyBatisInvoiceDao extends BaseMyBatisGenericDaoSupport<SnfInvoice,
     setSqlSessionTemplate(template);
   }
 
+  @Cacheable(cacheNames = INVOICE_CACHE, key = "#p0.id", condition = "#p0?.id != null",
+      unless = "#result == null")
+  @Override
+  public SnfInvoice get(UserLongPK id) {
+    if (fetchMode != FetchMode.TwoPhase) {
+      return super.get(id);
+    }
+    SnfInvoice invoice = getSqlSession().selectOne(QueryName.GetHeader.getQueryName(), id);
+    if (invoice != null) {
+      populateItems(Collections.singletonList(invoice));
+    }
+    return invoice;
+  }
+
+  @CacheEvict(cacheNames = INVOICE_CACHE, key = "#p0.id.id", condition = "#p0.id?.id != null")
+  @Override
+  public UserLongPK save(SnfInvoice entity) {
+    return super.save(entity);
+  }
+
+  @CacheEvict(cacheNames = INVOICE_CACHE, key = "#p0.id.id", condition = "#p0.id?.id != null")
+  @Override
+  public void delete(SnfInvoice entity) {
+    super.delete(entity);
+  }
+
   @Override
   public FilterResults<SnfInvoice, UserLongPK> findFiltered(SnfInvoiceFilter filter,
       List<SortDescriptor> sorts, Integer offset, Integer max) {
+    if (fetchMode != FetchMode.TwoPhase) {
+      return selectFiltered(QueryName.FindFiltered, filter, sorts, offset, max);
+    }
+    FilterResults<SnfInvoice, UserLongPK> results = selectFiltered(QueryName.FindFilteredHeaders,
+        filter, sorts, offset, max);
+    populateItems(results);
+    return results;
+  }
+
+  @Override
+  public FilterResults<SnfInvoiceSummary, UserLongPK> findFilteredSummaries(
+      SnfInvoiceFilter filter, List<SortDescriptor> sorts, Integer offset, Integer max) {
+    return selectFiltered(QueryName.FindFilteredSummary, filter, sorts, offset, max);
+  }
+
+  private <T extends SnfInvoice> FilterResults<T, UserLongPK> selectFiltered(QueryName query,
+      SnfInvoiceFilter filter, List<SortDescriptor> sorts, Integer offset, Integer max) {
     if (offset != null || max != null || sorts != null) {
       filter = filter.clone();
       filter.setSorts(sorts);
@@ -105,27 +400,300 @@ public class MyBatisInvoiceDao extends BaseMyBatisGenericDaoSupport<SnfInvoice,
       }
     }
 
+    final ExtendedSnfInvoiceFilter extFilter = queryFilter(filter);
+    final CountStrategy countStrategy = resolveCountStrategy(extFilter.getCountStrategy(), max);
+    final boolean paged = preparePagedFilter(extFilter);
+    extFilter.setCountStrategy(countStrategy);
+
+    Long totalCount = null;
+    if (paged && countStrategy == CountStrategy.Exact) {
+      totalCount = count(extFilter);
+    } else if (paged && countStrategy == CountStrategy.Estimate) {
+      totalCount = estimatedCount(getSqlSession(), QueryName.FindFiltered.getEstimateQueryName(),
+          countFilter(extFilter));
+    }
+
+    List<T> results = getSqlSession().selectList(query.getQueryName(), extFilter);
+    if (!paged && countStrategy != CountStrategy.None) {
+      // unlimited results are their own count
+      totalCount = (long) results.size();
+    } else if (paged && countStrategy == CountStrategy.Window) {
+      totalCount = windowCount(results);
+      if (totalCount == null) {
+        // no results to take the count from, so the page is either past the end or empty
+        totalCount = (extFilter.getOffset().intValue() > 0 ? count(extFilter) : 0L);
+      } else if (extFilter.getKeyset() != null) {
+        // keyset queries only count the results after the keyset
+        totalCount += extFilter.getOffset().longValue();
+      }
+    }
+    return new BasicFilterResults<>(results, totalCount, offset != null ? offset.intValue() : 0,
+        results.size());
+  }
+
+  @Override
+  public long streamFiltered(SnfInvoiceFilter filter, Consumer<SnfInvoiceWithBalance> consumer) {
+    return streamSelected(QueryName.FindFilteredStream, queryFilter(filter), consumer);
+  }
+
+  @Override
+  public long streamFilteredSummaries(SnfInvoiceFilter filter,
+      Consumer<? super SnfInvoiceSummary> consumer) {
+    return streamSelected(QueryName.FindFilteredSummaryStream, queryFilter(filter), consumer);
+  }
+
+  private <T> long streamSelected(QueryName query, Object parameter,
+      Consumer<? super T> consumer) {
+    long count = 0;
+    try (Cursor<T> cursor = getSqlSession().selectCursor(query.getQueryName(), parameter)) {
+      for (T result : cursor) {
+        consumer.accept(result);
+        count++;
+      }
+    } catch (IOException e) {
+      throw new DataAccessResourceFailureException("Error closing invoice cursor.", e);
+    }
+    return count;
+  }
+
+  @Override
+  public long streamAging(Instant date, String currencyCode,
+      Consumer<? super AccountAging> consumer) {
+    final Map<String, Object> params = new HashMap<>(4);
+    if (date == null) {
+      params.put("date", Instant.now());
+      params.put("balances", isInvoiceBalancesAvailable());
+    } else {
+      params.put("date", date);
+      params.put("balances", false);
+      if (isInvoiceSnapshotsAvailable()) {
+        params.put("snapshotDate",
+            getSqlSession().selectOne(QueryName.FindSnapshotDateForDate.getQueryName(), date));
+      }
+    }
+    params.put("currencyCode", currencyCode);
+    return streamSelected(QueryName.FindAging, params, consumer);
+  }
+
+  @Override
+  public long streamInvoiceAccounts(long afterInvoiceId, Consumer<? super SnfInvoice> consumer) {
+    return streamSelected(QueryName.FindInvoiceAccounts, afterInvoiceId, consumer);
+  }
+
+  @Override
+  public List<SnfInvoice> findInvoiceAccounts(Long[] invoiceIds) {
+    if (invoiceIds == null || invoiceIds.length < 1) {
+      return Collections.emptyList();
+    }
+    return getSqlSession().selectList(QueryName.FindInvoiceAccountsForIds.getQueryName(),
+        Collections.singletonMap("invoiceIds", invoiceIds));
+  }
+
+  @Override
+  public long streamFilteredAccounts(SnfInvoiceFilter filter,
+      Consumer<? super SnfInvoice> consumer) {
+    return streamFilteredAccounts(filter, null, consumer);
+  }
+
+  @Override
+  public long streamFilteredAccounts(SnfInvoiceFilter filter, AccountTaskType withoutTaskType,
+      Consumer<? super SnfInvoice> consumer) {
+    final ExtendedSnfInvoiceFilter f = countFilter(queryFilter(filter));
+    f.setWithoutTaskType(withoutTaskType);
+    return streamSelected(QueryName.FindFilteredAccounts, f, consumer);
+  }
+
+  @Override
+  public long countFilteredAccounts(SnfInvoiceFilter filter, AccountTaskType withoutTaskType) {
+    final ExtendedSnfInvoiceFilter f = queryFilter(filter);
+    f.setWithoutTaskType(withoutTaskType);
+    final Long count = count(f);
+    return (count != null ? count.longValue() : 0L);
+  }
+
+  @Override
+  public int rebuildBalances(Long accountId) {
+    Integer count = getSqlSession().selectOne(QueryName.RebuildBalances.getQueryName(),
+        Collections.singletonMap("accountId", accountId));
+    return (count != null ? count.intValue() : 0);
+  }
+
+  @Override
+  public List<SnfInvoiceBalance> findBalanceDiscrepancies(Long accountId) {
+    return getSqlSession().selectList(QueryName.FindBalanceDiscrepancies.getQueryName(),
+        Collections.singletonMap("accountId", accountId));
+  }
+
+  @Override
+  public int createSnapshot(Instant date) {
+    final Map<String, Object> params = Collections.singletonMap("snapshotDate", date);
+    getSqlSession().delete(QueryName.DeleteSnapshot.getQueryName(), params);
+    Integer count = getSqlSession().selectOne(QueryName.CreateSnapshot.getQueryName(), params);
+    return (count != null ? count.intValue() : 0);
+  }
+
+  @Override
+  public List<Instant> findSnapshotDates() {
+    return getSqlSession().selectList(QueryName.FindSnapshotDates.getQueryName());
+  }
+
+  /**
+   * Load the items of a set of invoices with a single query and add them to their invoices.
+   * 
+   * @param invoices
+   *          the invoices to load the items for
+   */
+  private void populateItems(Iterable<SnfInvoice> invoices) {
+    final Map<Long, SnfInvoice> invoicesById = new LinkedHashMap<>();
+    for (SnfInvoice invoice : invoices) {
+      invoicesById.put(invoice.getId().getId(), invoice);
+    }
+    if (invoicesById.isEmpty()) {
+      return;
+    }
+    ExtendedSnfInvoiceFilter itemFilter = new ExtendedSnfInvoiceFilter();
+    itemFilter.setInvoiceIds(invoicesById.keySet().toArray(new Long[invoicesById.size()]));
+    List<SnfInvoiceItem> items = getSqlSession()
+        .selectList(QueryName.FindItemsForInvoices.getQueryName(), itemFilter);
+    final Map<Long, Set<SnfInvoiceItem>> itemsByInvoiceId = new HashMap<>(invoicesById.size());
+    for (SnfInvoiceItem item : items) {
+      itemsByInvoiceId.computeIfAbsent(item.getInvoiceId(), k -> new LinkedHashSet<>()).add(item);
+    }
+    for (Map.Entry<Long, Set<SnfInvoiceItem>> e : itemsByInvoiceId.entrySet()) {
+      SnfInvoice invoice = invoicesById.get(e.getKey());
+      if (invoice != null) {
+        invoice.setItems(e.getValue());
+      }
+    }
+  }
+
+  private Long count(ExtendedSnfInvoiceFilter filter) {
+    Number n = getSqlSession().selectOne(QueryName.FindFiltered.getCountQueryName(),
+        countFilter(filter));
+    return (n != null ? n.longValue() : null);
+  }
+
+  private static ExtendedSnfInvoiceFilter countFilter(ExtendedSnfInvoiceFilter filter) {
+    ExtendedSnfInvoiceFilter countFilter = filter.clone();
+    countFilter.setOffset(null);
+    countFilter.setMax(null);
+    countFilter.setKeyset(null);
+    return countFilter;
+  }
+
+  private ExtendedSnfInvoiceFilter queryFilter(SnfInvoiceFilter filter) {
     final ExtendedSnfInvoiceFilter extFilter = ExtendedSnfInvoiceFilter.forFilter(filter).clone();
     if (extFilter.getUnpaidAtDate() != null) {
       extFilter.setUnpaidOnly(true);
+      if (isInvoiceSnapshotsAvailable()) {
+        extFilter.setUnpaidSnapshotDate(getSqlSession().selectOne(
+            QueryName.FindSnapshotDateForDate.getQueryName(), extFilter.getUnpaidAtDate()));
+      }
+    }
+    if (Boolean.TRUE.equals(extFilter.getUnpaidOnly())) {
+      extFilter.setInvoiceBalancesAvailable(isInvoiceBalancesAvailable());
     }
+    return extFilter;
+  }
 
-    // attempt count first, if max NOT specified as -1 and NOT a mostRecent query
-    Long totalCount = null;
-    if (max == null || max.intValue() != -1) {
-      SnfInvoiceFilter countFilter = extFilter.clone();
-      countFilter.setOffset(null);
-      countFilter.setMax(null);
-      Number n = getSqlSession().selectOne(QueryName.FindFiltered.getCountQueryName(), countFilter);
-      if (n != null) {
-        totalCount = n.longValue();
-      }
+  private boolean isInvoiceBalancesAvailable() {
+    Boolean available = invoiceBalancesAvailable;
+    final long now = System.currentTimeMillis();
+    if (available == null || now >= invoiceBalancesAvailableExpires) {
+      available = Boolean.TRUE
+          .equals(getSqlSession().selectOne(QueryName.InvoiceBalancesAvailable.getQueryName()));
+      invoiceBalancesAvailableExpires = now + availabilityTtl;
+      invoiceBalancesAvailable = available;
     }
+    return available;
+  }
 
-    List<SnfInvoice> results = selectList(QueryName.FindFiltered.getQueryName(), extFilter, null,
-        null);
-    return new BasicFilterResults<>(results, totalCount, offset != null ? offset.intValue() : 0,
-        results.size());
+  private boolean isInvoiceSnapshotsAvailable() {
+    Boolean available = invoiceSnapshotsAvailable;
+    final long now = System.currentTimeMillis();
+    if (available == null || now >= invoiceSnapshotsAvailableExpires) {
+      available = Boolean.TRUE
+          .equals(getSqlSession().selectOne(QueryName.InvoiceSnapshotsAvailable.getQueryName()));
+      invoiceSnapshotsAvailableExpires = now + availabilityTtl;
+      invoiceSnapshotsAvailable = available;
+    }
+    return available;
+  }
+
+  /**
+   * Get the invoice item fetch mode.
+   * 
+   * @return the fetch mode, never {@literal null}
+   * @since 1.5
+   */
+  public FetchMode getFetchMode() {
+    return fetchMode;
+  }
+
+  /**
+   * Set the invoice item fetch mode.
+   * 
+   * @param fetchMode
+   *          the fetch mode to set; {@literal null} is treated as {@link FetchMode#Joined}
+   * @since 1.5
+   */
+  @Value("${app.dao.invoice.fetch-mode:Joined}")
+  public void setFetchMode(FetchMode fetchMode) {
+    this.fetchMode = (fetchMode != null ? fetchMode : FetchMode.Joined);
+  }
+
+  /**
+   * Get the time detected table availability is cached for.
+   * 
+   * @return the time, in milliseconds
+   * @since 1.13
+   */
+  public long getAvailabilityTtl() {
+    return availabilityTtl;
+  }
+
+  /**
+   * Set the time detected table availability is cached for.
+   * 
+   * <p>
+   * Availability configured explicitly, rather than detected, does not expire.
+   * </p>
+   * 
+   * @param availabilityTtl
+   *          the time to set, in milliseconds
+   * @since 1.13
+   */
+  @Value("${app.dao.invoice.availability-ttl-ms:" + DEFAULT_AVAILABILITY_TTL + "}")
+  public void setAvailabilityTtl(long availabilityTtl) {
+    this.availabilityTtl = availabilityTtl;
+  }
+
+  /**
+   * Set the maintained invoice balance table availability.
+   * 
+   * @param invoiceBalancesAvailable
+   *          {@literal true} if the maintained invoice balance table is available, or
+   *          {@literal null} to detect its availability the next time it is needed
+   * @since 1.6
+   */
+  public void setInvoiceBalancesAvailable(Boolean invoiceBalancesAvailable) {
+    this.invoiceBalancesAvailableExpires = (invoiceBalancesAvailable != null ? Long.MAX_VALUE
+        : 0L);
+    this.invoiceBalancesAvailable = invoiceBalancesAvailable;
+  }
+
+  /**
+   * Set the invoice snapshot table availability.
+   * 
+   * @param invoiceSnapshotsAvailable
+   *          {@literal true} if the invoice snapshot table is available, or {@literal null} to
+   *          detect its availability the next time it is needed
+   * @since 1.7
+   */
+  public void setInvoiceSnapshotsAvailable(Boolean invoiceSnapshotsAvailable) {
+    this.invoiceSnapshotsAvailableExpires = (invoiceSnapshotsAvailable != null ? Long.MAX_VALUE
+        : 0L);
+    this.invoiceSnapshotsAvailable = invoiceSnapshotsAvailable;
   }
 
 }
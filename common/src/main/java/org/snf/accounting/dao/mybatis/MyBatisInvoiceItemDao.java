@@ -26,6 +26,7 @@ import java.util.UUID;
 
 import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Repository;
 
 import net.solarnetwork.central.dao.mybatis.support.BaseMyBatisGenericDaoSupport;
@@ -36,8 +37,13 @@ import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
 /**
  * MyBatis implementation of {@link SnfInvoiceDao}.
  * 
+ * <p>
+ * An invoice's total amount changes when its items change, so saving or deleting an item evicts
+ * its invoice from the {@link MyBatisInvoiceDao#INVOICE_CACHE} cache.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 @Repository
 public class MyBatisInvoiceItemDao extends BaseMyBatisGenericDaoSupport<SnfInvoiceItem, UUID>
@@ -55,4 +61,18 @@ public class MyBatisInvoiceItemDao extends BaseMyBatisGenericDaoSupport<SnfInvoi
     setSqlSessionTemplate(template);
   }
 
+  @CacheEvict(cacheNames = MyBatisInvoiceDao.INVOICE_CACHE, key = "#p0.invoiceId",
+      condition = "#p0.invoiceId != null")
+  @Override
+  public UUID save(SnfInvoiceItem entity) {
+    return super.save(entity);
+  }
+
+  @CacheEvict(cacheNames = MyBatisInvoiceDao.INVOICE_CACHE, key = "#p0.invoiceId",
+      condition = "#p0.invoiceId != null")
+  @Override
+  public void delete(SnfInvoiceItem entity) {
+    super.delete(entity);
+  }
+
 }
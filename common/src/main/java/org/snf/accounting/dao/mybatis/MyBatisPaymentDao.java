@@ -22,20 +22,33 @@
 
 package org.snf.accounting.dao.mybatis;
 
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.estimatedCount;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.preparePagedFilter;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.resolveCountStrategy;
+import static org.snf.accounting.dao.mybatis.CountStrategySupport.windowCount;
+
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.StreamSupport;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.snf.accounting.dao.PaymentDao;
+import org.snf.accounting.domain.CountStrategy;
 import org.snf.accounting.domain.ExtendedPaymentFilter;
 import org.snf.accounting.domain.PaymentWithInvoicePayments;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.stereotype.Repository;
 
 import net.solarnetwork.central.dao.mybatis.support.BaseMyBatisGenericDaoSupport;
+import net.solarnetwork.central.user.billing.snf.domain.InvoicePayment;
 import net.solarnetwork.central.user.billing.snf.domain.Payment;
 import net.solarnetwork.central.user.billing.snf.domain.PaymentFilter;
 import net.solarnetwork.central.user.domain.UserUuidPK;
@@ -46,8 +59,19 @@ import net.solarnetwork.domain.SortDescriptor;
 /**
  * MyBatis implementatino of {@link PaymentDao}.
  * 
+ * <p>
+ * The total result count is computed according to the filter's {@link CountStrategy}, if it is an
+ * {@link ExtendedPaymentFilter}. Unlimited queries are counted from their results, without any
+ * additional query.
+ * </p>
+ * 
+ * <p>
+ * If a cache manager is configured, the invoices a payment is applied to are evicted from the
+ * {@link MyBatisInvoiceDao#INVOICE_CACHE} cache, as their paid amount has changed.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.3
  */
 @Repository
 public class MyBatisPaymentDao extends
@@ -58,6 +82,8 @@ public class MyBatisPaymentDao extends
 
     FindFiltered("find-Payment-for-filter"),
 
+    FindFilteredStream("find-Payment-for-filter-stream"),
+
     AddPayment("add-payment");
 
     private final String queryName;
@@ -83,8 +109,20 @@ public class MyBatisPaymentDao extends
     public String getCountQueryName() {
       return queryName + "-count";
     }
+
+    /**
+     * Get the query name to use for an estimated count-only result.
+     * 
+     * @return the estimate query name
+     * @since 1.2
+     */
+    public String getEstimateQueryName() {
+      return queryName + "-estimate";
+    }
   }
 
+  private Cache invoiceCache;
+
   /**
    * Constructor.
    * 
@@ -97,6 +135,21 @@ public class MyBatisPaymentDao extends
     setSqlSessionTemplate(template);
   }
 
+  /**
+   * Set the cache manager.
+   * 
+   * @param cacheManager
+   *          the cache manager to evict invoices from, or {@literal null} if invoices are not
+   *          cached
+   * @since 1.3
+   */
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.invoiceCache = (cacheManager != null
+        ? cacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE)
+        : null);
+  }
+
   @Override
   public FilterResults<PaymentWithInvoicePayments, UserUuidPK> findFiltered(PaymentFilter filter,
       List<SortDescriptor> sorts, Integer offset, Integer max) {
@@ -112,26 +165,65 @@ public class MyBatisPaymentDao extends
       }
     }
 
-    final ExtendedPaymentFilter extFilter = ExtendedPaymentFilter.forFilter(filter);
+    final ExtendedPaymentFilter extFilter = ExtendedPaymentFilter.forFilter(filter).clone();
+    final CountStrategy countStrategy = resolveCountStrategy(extFilter.getCountStrategy(), max);
+    final boolean paged = preparePagedFilter(extFilter);
+    extFilter.setCountStrategy(countStrategy);
 
-    // attempt count first, if max NOT specified as -1 and NOT a mostRecent query
     Long totalCount = null;
-    if (max == null || max.intValue() != -1) {
-      PaymentFilter countFilter = extFilter.clone();
-      countFilter.setOffset(null);
-      countFilter.setMax(null);
-      Number n = getSqlSession().selectOne(QueryName.FindFiltered.getCountQueryName(), countFilter);
-      if (n != null) {
-        totalCount = n.longValue();
-      }
+    if (paged && countStrategy == CountStrategy.Exact) {
+      totalCount = count(extFilter);
+    } else if (paged && countStrategy == CountStrategy.Estimate) {
+      totalCount = estimatedCount(getSqlSession(), QueryName.FindFiltered.getEstimateQueryName(),
+          countFilter(extFilter));
     }
 
     List<PaymentWithInvoicePayments> results = selectList(QueryName.FindFiltered.getQueryName(),
         extFilter, null, null);
+    if (!paged && countStrategy != CountStrategy.None) {
+      // unlimited results are their own count
+      totalCount = (long) results.size();
+    } else if (paged && countStrategy == CountStrategy.Window) {
+      totalCount = windowCount(results);
+      if (totalCount == null) {
+        // no results to take the count from, so the page is either past the end or empty
+        totalCount = (extFilter.getOffset().intValue() > 0 ? count(extFilter) : 0L);
+      }
+    }
     return new BasicFilterResults<>(results, totalCount, offset != null ? offset.intValue() : 0,
         results.size());
   }
 
+  @Override
+  public long streamFiltered(PaymentFilter filter,
+      Consumer<PaymentWithInvoicePayments> consumer) {
+    final ExtendedPaymentFilter extFilter = ExtendedPaymentFilter.forFilter(filter).clone();
+    long count = 0;
+    try (Cursor<PaymentWithInvoicePayments> cursor = getSqlSession()
+        .selectCursor(QueryName.FindFilteredStream.getQueryName(), extFilter)) {
+      for (PaymentWithInvoicePayments payment : cursor) {
+        consumer.accept(payment);
+        count++;
+      }
+    } catch (IOException e) {
+      throw new DataAccessResourceFailureException("Error closing payment cursor.", e);
+    }
+    return count;
+  }
+
+  private Long count(ExtendedPaymentFilter filter) {
+    Number n = getSqlSession().selectOne(QueryName.FindFiltered.getCountQueryName(),
+        countFilter(filter));
+    return (n != null ? n.longValue() : null);
+  }
+
+  private static ExtendedPaymentFilter countFilter(ExtendedPaymentFilter filter) {
+    ExtendedPaymentFilter countFilter = filter.clone();
+    countFilter.setOffset(null);
+    countFilter.setMax(null);
+    return countFilter;
+  }
+
   @Override
   public PaymentWithInvoicePayments addPayment(Payment payment, Iterable<Long> invoiceIds) {
     Map<String, Object> params = new HashMap<>(2);
@@ -149,10 +241,21 @@ public class MyBatisPaymentDao extends
     FilterResults<PaymentWithInvoicePayments, UserUuidPK> results = findFiltered(filter, null, null,
         null);
     if (results.getReturnedResultCount() > 0) {
-      return results.iterator().next();
+      PaymentWithInvoicePayments result = results.iterator().next();
+      if (invoiceCache != null && result.getInvoicePayments() != null) {
+        for (InvoicePayment invoicePayment : result.getInvoicePayments()) {
+          invoiceCache.evict(invoicePayment.getInvoiceId());
+        }
+      }
+      return result;
     }
 
     // shouldn't really arrive here
+    if (invoiceCache != null && invoiceIds != null) {
+      for (Long invoiceId : invoiceIds) {
+        invoiceCache.evict(invoiceId);
+      }
+    }
     PaymentWithInvoicePayments result = new PaymentWithInvoicePayments(entity.getId(),
         entity.getAccountId(), entity.getCreated());
     result.setAmount(entity.getAmount());
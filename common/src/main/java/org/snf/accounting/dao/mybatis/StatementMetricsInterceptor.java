@@ -0,0 +1,275 @@
+/* ==================================================================
+ * StatementMetricsInterceptor.java - 18/10/2026 11:04:26 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * MyBatis plugin that records the latency, row count, and error count of every mapped statement.
+ * 
+ * <p>
+ * Three meters are registered per mapped statement, each with a {@link #STATEMENT_TAG} tag of the
+ * full statement ID including its namespace, like
+ * {@literal org.snf.accounting.dao.mybatis.SnfInvoice.find-SnfInvoice-for-filter}, so statements
+ * with the same ID in different namespaces are kept apart: a
+ * {@link #LATENCY_METER_NAME} timer, a {@link #ROWS_METER_NAME} summary of the rows returned or
+ * updated per call, and a {@link #ERRORS_METER_NAME} counter. The meters are created on the first
+ * call of each statement and cached, so recording a call does not allocate anything, apart from a
+ * row counting wrapper around the result handler of streaming queries.
+ * </p>
+ * 
+ * <p>
+ * With the batch executor, updates are only executed when the batch is flushed. Deferred updates
+ * are recorded when an explicit flush or a commit executes them, as one call per batch with the
+ * flush time split evenly between the statements in it. Batches flushed implicitly before a query
+ * are counted in the latency of that query.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+// CHECKSTYLE OFF: LineLength
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+    @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }),
+    @Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class }),
+    @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+    @Signature(type = Executor.class, method = "flushStatements", args = {}),
+    @Signature(type = Executor.class, method = "commit", args = { boolean.class }) })
+// CHECKSTYLE ON: LineLength
+public class StatementMetricsInterceptor implements Interceptor {
+
+  /** The timer meter name. */
+  public static final String LATENCY_METER_NAME = "snf.mybatis.statement";
+
+  /** The row count distribution summary meter name. */
+  public static final String ROWS_METER_NAME = LATENCY_METER_NAME + ".rows";
+
+  /** The error counter meter name. */
+  public static final String ERRORS_METER_NAME = LATENCY_METER_NAME + ".errors";
+
+  /** The meter tag name for the mapped statement ID. */
+  public static final String STATEMENT_TAG = "statement";
+
+  private static final int RESULT_HANDLER_ARG = 3;
+
+  private final MeterRegistry registry;
+  private final ConcurrentMap<String, StatementMeters> meters = new ConcurrentHashMap<>(64);
+  private final Function<String, StatementMeters> meterFactory = this::createMeters;
+
+  /**
+   * Constructor.
+   * 
+   * @param registry
+   *          the registry to register meters with
+   */
+  public StatementMetricsInterceptor(MeterRegistry registry) {
+    super();
+    this.registry = registry;
+  }
+
+  private static final class StatementMeters {
+
+    private final Timer latency;
+    private final DistributionSummary rows;
+    private final Counter errors;
+
+    private StatementMeters(Timer latency, DistributionSummary rows, Counter errors) {
+      super();
+      this.latency = latency;
+      this.rows = rows;
+      this.errors = errors;
+    }
+
+    private void record(long nanos, long rowCount) {
+      latency.record(nanos, TimeUnit.NANOSECONDS);
+      rows.record(rowCount);
+    }
+
+  }
+
+  private StatementMeters createMeters(String statementId) {
+    // @formatter:off
+    return new StatementMeters(
+        Timer.builder(LATENCY_METER_NAME)
+            .description("MyBatis mapped statement latency.")
+            .tag(STATEMENT_TAG, statementId)
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(registry),
+        DistributionSummary.builder(ROWS_METER_NAME)
+            .description("Rows returned or updated per MyBatis mapped statement call.")
+            .tag(STATEMENT_TAG, statementId)
+            .baseUnit("rows")
+            .register(registry),
+        Counter.builder(ERRORS_METER_NAME)
+            .description("MyBatis mapped statement errors.")
+            .tag(STATEMENT_TAG, statementId)
+            .register(registry));
+    // @formatter:on
+  }
+
+  private StatementMeters meters(String statementId) {
+    StatementMeters m = meters.get(statementId);
+    return (m != null ? m : meters.computeIfAbsent(statementId, meterFactory));
+  }
+
+  /**
+   * A result handler that counts the rows it handles.
+   */
+  private static final class CountingResultHandler implements ResultHandler<Object> {
+
+    private final ResultHandler<Object> delegate;
+    private long count;
+
+    private CountingResultHandler(ResultHandler<Object> delegate) {
+      super();
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends Object> resultContext) {
+      count++;
+      delegate.handleResult(resultContext);
+    }
+
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    final Object[] args = invocation.getArgs();
+    if (args.length == 0) {
+      return flush(invocation);
+    }
+    if (!(args[0] instanceof MappedStatement)) {
+      // commit, which flushes any batch first: flush it here to record it
+      flush((Executor) invocation.getTarget());
+      return invocation.proceed();
+    }
+    final StatementMeters m = meters(((MappedStatement) args[0]).getId());
+
+    // streaming queries return no results, so count the rows passed to their handler
+    CountingResultHandler counter = null;
+    if (args.length > RESULT_HANDLER_ARG && args[RESULT_HANDLER_ARG] != null) {
+      counter = new CountingResultHandler((ResultHandler<Object>) args[RESULT_HANDLER_ARG]);
+      args[RESULT_HANDLER_ARG] = counter;
+    }
+
+    final long start = System.nanoTime();
+    final Object result;
+    try {
+      result = invocation.proceed();
+    } catch (Throwable t) {
+      m.errors.increment();
+      throw t;
+    }
+    final long elapsed = System.nanoTime() - start;
+    if (counter != null) {
+      m.record(elapsed, counter.count);
+    } else if (result instanceof List<?>) {
+      m.record(elapsed, ((List<?>) result).size());
+    } else if (result instanceof Integer) {
+      final int count = (Integer) result;
+      if (count != BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+        m.record(elapsed, count);
+      }
+    } else {
+      // a cursor, whose rows are fetched later
+      m.latency.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+    return result;
+  }
+
+  private Object flush(Invocation invocation) throws Throwable {
+    final long start = System.nanoTime();
+    final Object result;
+    try {
+      result = invocation.proceed();
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof BatchExecutorException) {
+        meters(((BatchExecutorException) e.getCause()).getFailingStatementId()).errors.increment();
+      }
+      throw e;
+    }
+    @SuppressWarnings("unchecked")
+    List<BatchResult> results = (List<BatchResult>) result;
+    recordBatches(results, System.nanoTime() - start);
+    return result;
+  }
+
+  private void flush(Executor executor) throws SQLException {
+    final long start = System.nanoTime();
+    final List<BatchResult> results;
+    try {
+      results = executor.flushStatements();
+    } catch (BatchExecutorException e) {
+      meters(e.getFailingStatementId()).errors.increment();
+      throw e;
+    }
+    recordBatches(results, System.nanoTime() - start);
+  }
+
+  private void recordBatches(List<BatchResult> results, long elapsed) {
+    if (results == null || results.isEmpty()) {
+      return;
+    }
+    final long share = elapsed / results.size();
+    for (BatchResult r : results) {
+      long rows = 0;
+      for (int count : r.getUpdateCounts()) {
+        if (count > 0) {
+          rows += count;
+        }
+      }
+      meters(r.getMappedStatement().getId()).record(share, rows);
+    }
+  }
+
+}
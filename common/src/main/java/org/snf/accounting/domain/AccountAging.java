@@ -0,0 +1,253 @@
+/* ==================================================================
+ * AccountAging.java - 18/10/2026 4:52:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Accounts-receivable aging totals for an account, or for all accounts, in one currency.
+ * 
+ * <p>
+ * The amount due on each unpaid invoice is assigned to a bucket based on the age of the invoice:
+ * current (less than 30 days), 30 days, 60 days, or 90 days and older.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class AccountAging {
+
+  private Long accountId;
+  private String email;
+  private String currencyCode;
+  private long invoiceCount;
+  private BigDecimal currentAmount;
+  private BigDecimal days30Amount;
+  private BigDecimal days60Amount;
+  private BigDecimal days90Amount;
+  private BigDecimal totalAmount;
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("AccountAging{accountId=");
+    builder.append(accountId);
+    builder.append(", currencyCode=");
+    builder.append(currencyCode);
+    builder.append(", invoiceCount=");
+    builder.append(invoiceCount);
+    builder.append(", currentAmount=");
+    builder.append(currentAmount);
+    builder.append(", days30Amount=");
+    builder.append(days30Amount);
+    builder.append(", days60Amount=");
+    builder.append(days60Amount);
+    builder.append(", days90Amount=");
+    builder.append(days90Amount);
+    builder.append(", totalAmount=");
+    builder.append(totalAmount);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Test if this is the total of all accounts in the currency.
+   * 
+   * @return {@literal true} if there is no account ID
+   */
+  public boolean isCurrencyTotal() {
+    return accountId == null;
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID, or {@literal null} for the total of all accounts in the currency
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Set the account ID.
+   * 
+   * @param accountId
+   *          the account ID to set
+   */
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  /**
+   * Get the account email.
+   * 
+   * @return the email
+   */
+  public String getEmail() {
+    return email;
+  }
+
+  /**
+   * Set the account email.
+   * 
+   * @param email
+   *          the email to set
+   */
+  public void setEmail(String email) {
+    this.email = email;
+  }
+
+  /**
+   * Get the currency code.
+   * 
+   * @return the currency code
+   */
+  public String getCurrencyCode() {
+    return currencyCode;
+  }
+
+  /**
+   * Set the currency code.
+   * 
+   * @param currencyCode
+   *          the currency code to set
+   */
+  public void setCurrencyCode(String currencyCode) {
+    this.currencyCode = currencyCode;
+  }
+
+  /**
+   * Get the count of unpaid invoices.
+   * 
+   * @return the invoice count
+   */
+  public long getInvoiceCount() {
+    return invoiceCount;
+  }
+
+  /**
+   * Set the count of unpaid invoices.
+   * 
+   * @param invoiceCount
+   *          the invoice count to set
+   */
+  public void setInvoiceCount(long invoiceCount) {
+    this.invoiceCount = invoiceCount;
+  }
+
+  /**
+   * Get the amount due on invoices less than 30 days old.
+   * 
+   * @return the amount
+   */
+  public BigDecimal getCurrentAmount() {
+    return currentAmount;
+  }
+
+  /**
+   * Set the amount due on invoices less than 30 days old.
+   * 
+   * @param currentAmount
+   *          the amount to set
+   */
+  public void setCurrentAmount(BigDecimal currentAmount) {
+    this.currentAmount = currentAmount;
+  }
+
+  /**
+   * Get the amount due on invoices at least 30 but less than 60 days old.
+   * 
+   * @return the amount
+   */
+  public BigDecimal getDays30Amount() {
+    return days30Amount;
+  }
+
+  /**
+   * Set the amount due on invoices at least 30 but less than 60 days old.
+   * 
+   * @param days30Amount
+   *          the amount to set
+   */
+  public void setDays30Amount(BigDecimal days30Amount) {
+    this.days30Amount = days30Amount;
+  }
+
+  /**
+   * Get the amount due on invoices at least 60 but less than 90 days old.
+   * 
+   * @return the amount
+   */
+  public BigDecimal getDays60Amount() {
+    return days60Amount;
+  }
+
+  /**
+   * Set the amount due on invoices at least 60 but less than 90 days old.
+   * 
+   * @param days60Amount
+   *          the amount to set
+   */
+  public void setDays60Amount(BigDecimal days60Amount) {
+    this.days60Amount = days60Amount;
+  }
+
+  /**
+   * Get the amount due on invoices at least 90 days old.
+   * 
+   * @return the amount
+   */
+  public BigDecimal getDays90Amount() {
+    return days90Amount;
+  }
+
+  /**
+   * Set the amount due on invoices at least 90 days old.
+   * 
+   * @param days90Amount
+   *          the amount to set
+   */
+  public void setDays90Amount(BigDecimal days90Amount) {
+    this.days90Amount = days90Amount;
+  }
+
+  /**
+   * Get the total amount due.
+   * 
+   * @return the total amount
+   */
+  public BigDecimal getTotalAmount() {
+    return totalAmount;
+  }
+
+  /**
+   * Set the total amount due.
+   * 
+   * @param totalAmount
+   *          the total amount to set
+   */
+  public void setTotalAmount(BigDecimal totalAmount) {
+    this.totalAmount = totalAmount;
+  }
+
+}
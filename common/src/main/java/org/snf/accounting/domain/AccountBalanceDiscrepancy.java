@@ -0,0 +1,168 @@
+/* ==================================================================
+ * AccountBalanceDiscrepancy.java - 18/10/2026 5:24:09 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * The stored balance of an account, compared to its actual balance.
+ * 
+ * <p>
+ * The stored balance is the charge and payment totals of the account balance table. The actual
+ * balance is computed from the invoice items and payments of the account.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class AccountBalanceDiscrepancy {
+
+  private final Long accountId;
+  private BigDecimal chargeTotal;
+  private BigDecimal paymentTotal;
+  private BigDecimal actualChargeTotal;
+  private BigDecimal actualPaymentTotal;
+
+  /**
+   * Constructor.
+   * 
+   * @param accountId
+   *          the account ID
+   */
+  public AccountBalanceDiscrepancy(Long accountId) {
+    super();
+    this.accountId = accountId;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("AccountBalanceDiscrepancy{accountId=");
+    builder.append(accountId);
+    builder.append(", chargeTotal=");
+    builder.append(chargeTotal);
+    builder.append(", paymentTotal=");
+    builder.append(paymentTotal);
+    builder.append(", actualChargeTotal=");
+    builder.append(actualChargeTotal);
+    builder.append(", actualPaymentTotal=");
+    builder.append(actualPaymentTotal);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Test if the stored balance is missing.
+   * 
+   * @return {@literal true} if there is no stored balance
+   */
+  public boolean isMissing() {
+    return (chargeTotal == null);
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Get the stored charge total.
+   * 
+   * @return the charge total, or {@literal null} if the stored balance is missing
+   */
+  public BigDecimal getChargeTotal() {
+    return chargeTotal;
+  }
+
+  /**
+   * Set the stored charge total.
+   * 
+   * @param chargeTotal
+   *          the charge total to set
+   */
+  public void setChargeTotal(BigDecimal chargeTotal) {
+    this.chargeTotal = chargeTotal;
+  }
+
+  /**
+   * Get the stored payment total.
+   * 
+   * @return the payment total, or {@literal null} if the stored balance is missing
+   */
+  public BigDecimal getPaymentTotal() {
+    return paymentTotal;
+  }
+
+  /**
+   * Set the stored payment total.
+   * 
+   * @param paymentTotal
+   *          the payment total to set
+   */
+  public void setPaymentTotal(BigDecimal paymentTotal) {
+    this.paymentTotal = paymentTotal;
+  }
+
+  /**
+   * Get the actual charge total, computed from the invoice items.
+   * 
+   * @return the actual charge total
+   */
+  public BigDecimal getActualChargeTotal() {
+    return actualChargeTotal;
+  }
+
+  /**
+   * Set the actual charge total, computed from the invoice items.
+   * 
+   * @param actualChargeTotal
+   *          the actual charge total to set
+   */
+  public void setActualChargeTotal(BigDecimal actualChargeTotal) {
+    this.actualChargeTotal = actualChargeTotal;
+  }
+
+  /**
+   * Get the actual payment total, computed from the payments.
+   * 
+   * @return the actual payment total
+   */
+  public BigDecimal getActualPaymentTotal() {
+    return actualPaymentTotal;
+  }
+
+  /**
+   * Set the actual payment total, computed from the payments.
+   * 
+   * @param actualPaymentTotal
+   *          the actual payment total to set
+   */
+  public void setActualPaymentTotal(BigDecimal actualPaymentTotal) {
+    this.actualPaymentTotal = actualPaymentTotal;
+  }
+
+}
@@ -0,0 +1,80 @@
+/* ==================================================================
+ * AccountDate.java - 18/10/2026 8:41:27 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.time.Instant;
+
+/**
+ * A date for an account, as an instant in the account's time zone.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class AccountDate {
+
+  private final Long accountId;
+  private final Instant date;
+
+  /**
+   * Constructor.
+   * 
+   * @param accountId
+   *          the account ID
+   * @param date
+   *          the date
+   * @throws IllegalArgumentException
+   *           if any argument is {@literal null}
+   */
+  public AccountDate(Long accountId, Instant date) {
+    super();
+    if (accountId == null || date == null) {
+      throw new IllegalArgumentException("The account ID and date must be provided.");
+    }
+    this.accountId = accountId;
+    this.date = date;
+  }
+
+  @Override
+  public String toString() {
+    return "AccountDate{" + accountId + "@" + date + "}";
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Get the date.
+   * 
+   * @return the date
+   */
+  public Instant getDate() {
+    return date;
+  }
+
+}
@@ -28,13 +28,14 @@ import net.solarnetwork.domain.SimplePagination;
  * Filter for accounts.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class AccountFilter extends SimplePagination {
 
   private Long userId;
   private Long accountId;
   private String email;
+  private CountStrategy countStrategy;
 
   @Override
   public AccountFilter clone() {
@@ -98,4 +99,30 @@ public class AccountFilter extends SimplePagination {
     this.email = email;
   }
 
+  /**
+   * Get the count strategy.
+   * 
+   * @return the count strategy, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.1
+   */
+  public CountStrategy getCountStrategy() {
+    return countStrategy;
+  }
+
+  /**
+   * Set the count strategy.
+   * 
+   * <p>
+   * This controls how the total result count is computed when the filter is used for a paginated
+   * query.
+   * </p>
+   * 
+   * @param countStrategy
+   *          the count strategy to set, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.1
+   */
+  public void setCountStrategy(CountStrategy countStrategy) {
+    this.countStrategy = countStrategy;
+  }
+
 }
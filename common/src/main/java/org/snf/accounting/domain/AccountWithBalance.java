@@ -34,12 +34,13 @@ import net.solarnetwork.domain.Identity;
  * Combination of account and account balance details.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
-public class AccountWithBalance implements Identity<UserLongPK> {
+public class AccountWithBalance implements Identity<UserLongPK>, ResultCountAware {
 
   private Account account;
   private AccountBalance balance;
+  private Long totalResultCount;
 
   /**
    * Default constructor.
@@ -142,4 +143,24 @@ public class AccountWithBalance implements Identity<UserLongPK> {
     this.balance = balance;
   }
 
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public Long getTotalResultCount() {
+    return totalResultCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public void setTotalResultCount(Long totalResultCount) {
+    this.totalResultCount = totalResultCount;
+  }
+
 }
@@ -0,0 +1,82 @@
+/* ==================================================================
+ * CountStrategy.java - 18/10/2026 10:41:17 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * Strategy for computing the total result count of a paginated filter query.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public enum CountStrategy {
+
+  /**
+   * An exact count, computed by a separate count query before the results are queried.
+   */
+  Exact,
+
+  /**
+   * An exact count, computed with a window function in the same statement as the results.
+   * 
+   * <p>
+   * The count is taken from the returned results, so the filter conditions are evaluated only once.
+   * If a page beyond the last result is requested no results are available to take the count from,
+   * and a separate count query is used instead.
+   * </p>
+   */
+  Window,
+
+  /**
+   * An estimated count, taken from the query planner's row estimate for the count query.
+   * 
+   * <p>
+   * The estimate is derived from table statistics by {@code EXPLAIN} without executing the query,
+   * so it is cheap but can be wrong by a large margin for selective filters.
+   * </p>
+   */
+  Estimate,
+
+  /**
+   * No count is computed.
+   */
+  None;
+
+  /**
+   * Get an enum value for a key, ignoring case.
+   * 
+   * @param key
+   *          the key, for example {@literal estimate}
+   * @return the enum value
+   * @throws IllegalArgumentException
+   *           if {@code key} is not a supported value
+   */
+  public static CountStrategy forKey(String key) {
+    for (CountStrategy s : values()) {
+      if (s.name().equalsIgnoreCase(key)) {
+        return s;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported CountStrategy [" + key + "]");
+  }
+
+}
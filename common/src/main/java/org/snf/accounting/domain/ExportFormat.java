@@ -0,0 +1,61 @@
+/* ==================================================================
+ * ExportFormat.java - 18/10/2026 7:48:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * A data export format.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public enum ExportFormat {
+
+  /**
+   * Comma separated values, with a header row of column names.
+   */
+  Csv,
+
+  /**
+   * Newline delimited JSON, with one JSON object per row keyed by column name.
+   */
+  Ndjson;
+
+  /**
+   * Get an enum value for a key, ignoring case.
+   * 
+   * @param key
+   *          the key, for example {@literal csv}
+   * @return the enum value
+   * @throws IllegalArgumentException
+   *           if {@code key} is not a supported value
+   */
+  public static ExportFormat forKey(String key) {
+    for (ExportFormat s : values()) {
+      if (s.name().equalsIgnoreCase(key)) {
+        return s;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported ExportFormat [" + key + "]");
+  }
+
+}
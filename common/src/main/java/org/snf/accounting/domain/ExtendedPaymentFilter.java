@@ -22,18 +22,35 @@
 
 package org.snf.accounting.domain;
 
+import static org.snf.accounting.util.Utils.sortsWithIdTiebreaker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import net.solarnetwork.central.user.billing.snf.domain.PaymentFilter;
+import net.solarnetwork.dao.GenericDao.StandardSortKey;
+import net.solarnetwork.domain.SimpleSortDescriptor;
+import net.solarnetwork.domain.SortDescriptor;
 
 /**
  * Extended version of {@link PaymentFilter}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 public class ExtendedPaymentFilter extends PaymentFilter {
 
+  /**
+   * The default sort order, used when no sorts are specified.
+   * 
+   * @since 1.1
+   */
+  public static final List<SortDescriptor> DEFAULT_SORTS = Collections.unmodifiableList(
+      Arrays.asList(new SimpleSortDescriptor("DATE", true),
+          new SimpleSortDescriptor(StandardSortKey.ID.toString(), false)));
+
   /**
    * Get an extended filter instance based on a filter instance.
    * 
@@ -57,6 +74,12 @@ public class ExtendedPaymentFilter extends PaymentFilter {
   }
 
   private UUID[] paymentIds;
+  private CountStrategy countStrategy;
+
+  @Override
+  public ExtendedPaymentFilter clone() {
+    return (ExtendedPaymentFilter) super.clone();
+  }
 
   /**
    * Get the payment IDs.
@@ -77,4 +100,40 @@ public class ExtendedPaymentFilter extends PaymentFilter {
     this.paymentIds = paymentIds;
   }
 
+  /**
+   * Get the sorts to apply, including a final payment ID sort so the result order is total.
+   * 
+   * @return the sorts, never {@literal null}
+   * @since 1.1
+   */
+  public List<SortDescriptor> getEffectiveSorts() {
+    return sortsWithIdTiebreaker(getSorts(), DEFAULT_SORTS);
+  }
+
+  /**
+   * Get the count strategy.
+   * 
+   * @return the count strategy, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.2
+   */
+  public CountStrategy getCountStrategy() {
+    return countStrategy;
+  }
+
+  /**
+   * Set the count strategy.
+   * 
+   * <p>
+   * This controls how the total result count is computed when the filter is used for a paginated
+   * query.
+   * </p>
+   * 
+   * @param countStrategy
+   *          the count strategy to set, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.2
+   */
+  public void setCountStrategy(CountStrategy countStrategy) {
+    this.countStrategy = countStrategy;
+  }
+
 }
@@ -22,18 +22,37 @@
 
 package org.snf.accounting.domain;
 
+import static org.snf.accounting.util.Utils.sortsWithIdTiebreaker;
+
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import net.solarnetwork.central.user.billing.snf.dao.SnfInvoiceDao.InvoiceSortKey;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
 import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceFilter;
+import net.solarnetwork.dao.GenericDao.StandardSortKey;
+import net.solarnetwork.domain.SimpleSortDescriptor;
+import net.solarnetwork.domain.SortDescriptor;
 
 /**
  * Extension of {@link SnfInvoiceFilter}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.5
  */
 public class ExtendedSnfInvoiceFilter extends SnfInvoiceFilter {
 
+  /**
+   * The default sort order, used when no sorts are specified.
+   * 
+   * @since 1.1
+   */
+  public static final List<SortDescriptor> DEFAULT_SORTS = Collections.unmodifiableList(
+      Arrays.asList(new SimpleSortDescriptor(InvoiceSortKey.DATE.toString(), true),
+          new SimpleSortDescriptor(StandardSortKey.ID.toString(), false)));
+
   /**
    * Get an extended filter instance based on a filter instance.
    * 
@@ -59,6 +78,11 @@ public class ExtendedSnfInvoiceFilter extends SnfInvoiceFilter {
 
   private Long[] invoiceIds;
   private Instant unpaidAtDate;
+  private SnfInvoiceKeyset keyset;
+  private CountStrategy countStrategy;
+  private boolean invoiceBalancesAvailable;
+  private Instant unpaidSnapshotDate;
+  private AccountTaskType withoutTaskType;
 
   @Override
   public ExtendedSnfInvoiceFilter clone() {
@@ -103,4 +127,154 @@ public class ExtendedSnfInvoiceFilter extends SnfInvoiceFilter {
     this.unpaidAtDate = unpaidAtDate;
   }
 
+  /**
+   * Get the sorts to apply, including a final invoice ID sort so the result order is total.
+   * 
+   * <p>
+   * If no sorts have been configured then {@link #DEFAULT_SORTS} is returned. Keyset pagination
+   * requires a total order, so the returned list always includes an {@code ID} sort.
+   * </p>
+   * 
+   * @return the sorts, never {@literal null}
+   * @since 1.1
+   */
+  public List<SortDescriptor> getEffectiveSorts() {
+    return sortsWithIdTiebreaker(getSorts(), DEFAULT_SORTS);
+  }
+
+  /**
+   * Get the keyset pagination token.
+   * 
+   * @return the keyset, or {@literal null} to page by offset
+   * @since 1.1
+   */
+  public SnfInvoiceKeyset getKeyset() {
+    return keyset;
+  }
+
+  /**
+   * Set the keyset pagination token.
+   * 
+   * <p>
+   * When configured along with a maximum result count, results start immediately after the invoice
+   * the keyset was created from, according to {@link #getEffectiveSorts()}, and the offset is
+   * ignored by the query.
+   * </p>
+   * 
+   * @param keyset
+   *          the keyset to set, or {@literal null} to page by offset
+   * @since 1.1
+   */
+  public void setKeyset(SnfInvoiceKeyset keyset) {
+    this.keyset = keyset;
+  }
+
+  /**
+   * Get the count strategy.
+   * 
+   * @return the count strategy, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.2
+   */
+  public CountStrategy getCountStrategy() {
+    return countStrategy;
+  }
+
+  /**
+   * Set the count strategy.
+   * 
+   * <p>
+   * This controls how the total result count is computed when the filter is used for a paginated
+   * query. When used with a keyset, a {@link CountStrategy#Window} count is relative to
+   * the offset, which must therefore be the offset of the page the keyset starts.
+   * </p>
+   * 
+   * @param countStrategy
+   *          the count strategy to set, or {@literal null} for {@link CountStrategy#Window}
+   * @since 1.2
+   */
+  public void setCountStrategy(CountStrategy countStrategy) {
+    this.countStrategy = countStrategy;
+  }
+
+  /**
+   * Get the maintained invoice balances availability flag.
+   * 
+   * @return {@literal true} if the maintained invoice balance table can be used by the query
+   * @since 1.3
+   */
+  public boolean isInvoiceBalancesAvailable() {
+    return invoiceBalancesAvailable;
+  }
+
+  /**
+   * Set the maintained invoice balances availability flag.
+   * 
+   * <p>
+   * This is a query hint set by the DAO, not a filter criteria. When {@literal true}, unpaid
+   * invoices are found from the maintained invoice balance table rather than by summing the items
+   * and payments of every invoice.
+   * </p>
+   * 
+   * @param invoiceBalancesAvailable
+   *          {@literal true} if the maintained invoice balance table can be used by the query
+   * @since 1.3
+   */
+  public void setInvoiceBalancesAvailable(boolean invoiceBalancesAvailable) {
+    this.invoiceBalancesAvailable = invoiceBalancesAvailable;
+  }
+
+  /**
+   * Get the date of the invoice snapshot to start unpaid at date queries from.
+   * 
+   * @return the snapshot date, or {@literal null} if no snapshot is to be used
+   * @since 1.4
+   */
+  public Instant getUnpaidSnapshotDate() {
+    return unpaidSnapshotDate;
+  }
+
+  /**
+   * Set the date of the invoice snapshot to start unpaid at date queries from.
+   * 
+   * <p>
+   * This is a query hint set by the DAO, not a filter criteria. It must be the date of an existing
+   * snapshot that is not after the unpaid at date. The unpaid state is then computed from the
+   * snapshot amounts plus the items and payments created between the snapshot date and the unpaid
+   * at date.
+   * </p>
+   * 
+   * @param unpaidSnapshotDate
+   *          the snapshot date to set
+   * @since 1.4
+   */
+  public void setUnpaidSnapshotDate(Instant unpaidSnapshotDate) {
+    this.unpaidSnapshotDate = unpaidSnapshotDate;
+  }
+
+  /**
+   * Get the type of task the matching invoices must not already have.
+   * 
+   * @return the task type, or {@literal null} to not exclude any invoices by task
+   * @since 1.5
+   */
+  public AccountTaskType getWithoutTaskType() {
+    return withoutTaskType;
+  }
+
+  /**
+   * Set the type of task the matching invoices must not already have.
+   * 
+   * <p>
+   * Invoices with an account task of this type whose {@literal id} task data property is the
+   * invoice ID are excluded.
+   * </p>
+   * 
+   * @param withoutTaskType
+   *          the task type to set
+   * @since 1.5
+   */
+  public void setWithoutTaskType(AccountTaskType withoutTaskType) {
+    this.withoutTaskType = withoutTaskType;
+  }
+
 }
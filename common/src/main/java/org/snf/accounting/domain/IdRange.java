@@ -0,0 +1,78 @@
+/* ==================================================================
+ * IdRange.java - 18/10/2026 5:20:44 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * An inclusive range of entity IDs.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class IdRange {
+
+  private final Long minId;
+  private final Long maxId;
+
+  /**
+   * Constructor.
+   * 
+   * @param minId
+   *          the minimum ID (inclusive)
+   * @param maxId
+   *          the maximum ID (inclusive)
+   * @throws IllegalArgumentException
+   *           if any argument is {@literal null}
+   */
+  public IdRange(Long minId, Long maxId) {
+    super();
+    if (minId == null || maxId == null) {
+      throw new IllegalArgumentException("The minimum and maximum IDs must be provided.");
+    }
+    this.minId = minId;
+    this.maxId = maxId;
+  }
+
+  @Override
+  public String toString() {
+    return "IdRange{" + minId + "-" + maxId + "}";
+  }
+
+  /**
+   * Get the minimum ID.
+   * 
+   * @return the minimum ID (inclusive)
+   */
+  public Long getMinId() {
+    return minId;
+  }
+
+  /**
+   * Get the maximum ID.
+   * 
+   * @return the maximum ID (inclusive)
+   */
+  public Long getMaxId() {
+    return maxId;
+  }
+
+}
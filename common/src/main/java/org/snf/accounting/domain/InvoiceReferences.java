@@ -0,0 +1,129 @@
+/* ==================================================================
+ * InvoiceReferences.java - 18/10/2026 7:02:15 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of resolving a batch of invoice references, such as {@literal 123} or
+ * {@literal INV-3F}, to invoice IDs.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class InvoiceReferences {
+
+  private final Map<String, Long> invoiceIds;
+  private final List<String> invalid;
+  private final List<String> notFound;
+  private final List<String> otherAccount;
+
+  /**
+   * Constructor.
+   * 
+   * @param invoiceIds
+   *          the resolved references, mapped to their invoice IDs
+   * @param invalid
+   *          the references that are neither an invoice ID nor an invoice number
+   * @param notFound
+   *          the references to invoices that do not exist
+   * @param otherAccount
+   *          the references to invoices of an account other than the one requested
+   * @throws IllegalArgumentException
+   *           if any argument is {@literal null}
+   */
+  public InvoiceReferences(Map<String, Long> invoiceIds, List<String> invalid,
+      List<String> notFound, List<String> otherAccount) {
+    super();
+    if (invoiceIds == null || invalid == null || notFound == null || otherAccount == null) {
+      throw new IllegalArgumentException("All reference collections must be provided.");
+    }
+    this.invoiceIds = Collections.unmodifiableMap(invoiceIds);
+    this.invalid = Collections.unmodifiableList(invalid);
+    this.notFound = Collections.unmodifiableList(notFound);
+    this.otherAccount = Collections.unmodifiableList(otherAccount);
+  }
+
+  /**
+   * Test if all references were resolved.
+   * 
+   * @return {@literal true} if there are no invalid, not found, or other account references
+   */
+  public boolean isResolved() {
+    return invalid.isEmpty() && notFound.isEmpty() && otherAccount.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("InvoiceReferences{invoiceIds=");
+    builder.append(invoiceIds);
+    builder.append(", invalid=");
+    builder.append(invalid);
+    builder.append(", notFound=");
+    builder.append(notFound);
+    builder.append(", otherAccount=");
+    builder.append(otherAccount);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the resolved references.
+   * 
+   * @return the resolved references mapped to their invoice IDs, in the order given
+   */
+  public Map<String, Long> getInvoiceIds() {
+    return invoiceIds;
+  }
+
+  /**
+   * Get the references that are neither an invoice ID nor an invoice number.
+   * 
+   * @return the invalid references
+   */
+  public List<String> getInvalid() {
+    return invalid;
+  }
+
+  /**
+   * Get the references to invoices that do not exist.
+   * 
+   * @return the references not found
+   */
+  public List<String> getNotFound() {
+    return notFound;
+  }
+
+  /**
+   * Get the references to invoices of an account other than the one requested.
+   * 
+   * @return the other account references
+   */
+  public List<String> getOtherAccount() {
+    return otherAccount;
+  }
+
+}
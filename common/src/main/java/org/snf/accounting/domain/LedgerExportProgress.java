@@ -0,0 +1,110 @@
+/* ==================================================================
+ * LedgerExportProgress.java - 18/10/2026 8:05:41 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * The progress of a ledger table export.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class LedgerExportProgress {
+
+  private final LedgerTable table;
+  private final long rowCount;
+  private final long byteCount;
+  private final boolean complete;
+
+  /**
+   * Constructor.
+   * 
+   * @param table
+   *          the table being exported
+   * @param rowCount
+   *          the number of rows exported so far
+   * @param byteCount
+   *          the number of bytes exported so far
+   * @param complete
+   *          {@literal true} if the table export is complete
+   */
+  public LedgerExportProgress(LedgerTable table, long rowCount, long byteCount,
+      boolean complete) {
+    super();
+    this.table = table;
+    this.rowCount = rowCount;
+    this.byteCount = byteCount;
+    this.complete = complete;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("LedgerExportProgress{table=");
+    builder.append(table);
+    builder.append(", rowCount=");
+    builder.append(rowCount);
+    builder.append(", byteCount=");
+    builder.append(byteCount);
+    builder.append(", complete=");
+    builder.append(complete);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the table.
+   * 
+   * @return the table being exported
+   */
+  public LedgerTable getTable() {
+    return table;
+  }
+
+  /**
+   * Get the row count.
+   * 
+   * @return the number of rows exported so far
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Get the byte count.
+   * 
+   * @return the number of bytes exported so far
+   */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  /**
+   * Get the complete flag.
+   * 
+   * @return {@literal true} if the table export is complete
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+}
@@ -0,0 +1,78 @@
+/* ==================================================================
+ * LedgerTable.java - 18/10/2026 8:05:41 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * The ledger tables available for bulk export.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public enum LedgerTable {
+
+  /** The invoices. */
+  Invoices("invoices"),
+
+  /** The invoice items. */
+  InvoiceItems("invoice-items"),
+
+  /** The payments. */
+  Payments("payments"),
+
+  /** The payment amounts applied to invoices. */
+  InvoicePayments("invoice-payments");
+
+  private final String key;
+
+  private LedgerTable(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Get the key value.
+   * 
+   * @return the key, for example {@literal invoice-items}
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Get an enum value for a key or name, ignoring case.
+   * 
+   * @param key
+   *          the key, for example {@literal invoice-items}
+   * @return the enum value
+   * @throws IllegalArgumentException
+   *           if {@code key} is not a supported value
+   */
+  public static LedgerTable forKey(String key) {
+    for (LedgerTable t : values()) {
+      if (t.key.equalsIgnoreCase(key) || t.name().equalsIgnoreCase(key)) {
+        return t;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported LedgerTable [" + key + "]");
+  }
+
+}
@@ -0,0 +1,94 @@
+/* ==================================================================
+ * PaymentImportConflict.java - 18/10/2026 8:22:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * A problem with a payment to import, that prevents the import.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class PaymentImportConflict {
+
+  private final long lineNumber;
+  private final Long accountId;
+  private final String message;
+
+  /**
+   * Constructor.
+   * 
+   * @param lineNumber
+   *          the line number of the payment in the import file, starting from 1
+   * @param accountId
+   *          the account ID of the payment, or {@literal null} if not provided
+   * @param message
+   *          the problem description
+   */
+  public PaymentImportConflict(long lineNumber, Long accountId, String message) {
+    super();
+    this.lineNumber = lineNumber;
+    this.accountId = accountId;
+    this.message = message;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("PaymentImportConflict{lineNumber=");
+    builder.append(lineNumber);
+    builder.append(", accountId=");
+    builder.append(accountId);
+    builder.append(", message=");
+    builder.append(message);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the line number.
+   * 
+   * @return the line number of the payment in the import file, starting from 1
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID of the payment, or {@literal null} if not provided
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Get the message.
+   * 
+   * @return the problem description
+   */
+  public String getMessage() {
+    return message;
+  }
+
+}
@@ -0,0 +1,115 @@
+/* ==================================================================
+ * PaymentImportResult.java - 18/10/2026 8:22:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a payment import.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class PaymentImportResult {
+
+  private final long rowCount;
+  private final BigDecimal totalAmount;
+  private final List<PaymentImportConflict> conflicts;
+  private final boolean applied;
+
+  /**
+   * Constructor.
+   * 
+   * @param rowCount
+   *          the number of payments in the import file
+   * @param totalAmount
+   *          the total amount of the payments in the import file
+   * @param conflicts
+   *          the conflicts found, or {@literal null} if none
+   * @param applied
+   *          {@literal true} if the payments have been added
+   */
+  public PaymentImportResult(long rowCount, BigDecimal totalAmount,
+      List<PaymentImportConflict> conflicts, boolean applied) {
+    super();
+    this.rowCount = rowCount;
+    this.totalAmount = (totalAmount != null ? totalAmount : BigDecimal.ZERO);
+    this.conflicts = (conflicts != null ? Collections.unmodifiableList(conflicts)
+        : Collections.emptyList());
+    this.applied = applied;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("PaymentImportResult{rowCount=");
+    builder.append(rowCount);
+    builder.append(", totalAmount=");
+    builder.append(totalAmount);
+    builder.append(", conflicts=");
+    builder.append(conflicts.size());
+    builder.append(", applied=");
+    builder.append(applied);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the row count.
+   * 
+   * @return the number of payments in the import file
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Get the total amount.
+   * 
+   * @return the total amount of the payments in the import file, never {@literal null}
+   */
+  public BigDecimal getTotalAmount() {
+    return totalAmount;
+  }
+
+  /**
+   * Get the conflicts.
+   * 
+   * @return the conflicts found, never {@literal null}
+   */
+  public List<PaymentImportConflict> getConflicts() {
+    return conflicts;
+  }
+
+  /**
+   * Get the applied flag.
+   * 
+   * @return {@literal true} if the payments have been added
+   */
+  public boolean isApplied() {
+    return applied;
+  }
+
+}
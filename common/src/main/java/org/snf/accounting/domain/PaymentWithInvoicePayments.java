@@ -35,14 +35,15 @@ import net.solarnetwork.central.user.domain.UserUuidPK;
  * Extension of {@link Payment} with a set of associated {@link InvoicePayment}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
-public class PaymentWithInvoicePayments extends Payment {
+public class PaymentWithInvoicePayments extends Payment implements ResultCountAware {
 
   private static final long serialVersionUID = 3023440128831208563L;
 
   private Account account;
   private Set<InvoicePayment> invoicePayments;
+  private transient Long totalResultCount;
 
   /**
    * Constructor.
@@ -122,4 +123,24 @@ public class PaymentWithInvoicePayments extends Payment {
     this.account = account;
   }
 
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public Long getTotalResultCount() {
+    return totalResultCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public void setTotalResultCount(Long totalResultCount) {
+    this.totalResultCount = totalResultCount;
+  }
+
 }
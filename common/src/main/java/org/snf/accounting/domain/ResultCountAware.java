@@ -0,0 +1,53 @@
+/* ==================================================================
+ * ResultCountAware.java - 18/10/2026 10:43:52 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+/**
+ * API for a query result that can carry the total count of results matching the query.
+ * 
+ * <p>
+ * This supports the {@link CountStrategy#Window} strategy, where the total count is returned on
+ * every result row rather than by a separate query.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface ResultCountAware {
+
+  /**
+   * Get the total count of results matching the query that returned this result.
+   * 
+   * @return the total result count, or {@literal null} if not known
+   */
+  Long getTotalResultCount();
+
+  /**
+   * Set the total count of results matching the query that returned this result.
+   * 
+   * @param totalResultCount
+   *          the total result count to set
+   */
+  void setTotalResultCount(Long totalResultCount);
+
+}
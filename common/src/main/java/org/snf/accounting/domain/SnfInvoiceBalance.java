@@ -0,0 +1,184 @@
+/* ==================================================================
+ * SnfInvoiceBalance.java - 18/10/2026 3:34:52 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * The maintained balance of an invoice, compared to its actual balance.
+ * 
+ * <p>
+ * The maintained balance is stored in a table kept current as invoice items and payments are
+ * added, so unpaid invoices can be found without summing the items and payments of every
+ * invoice. The actual balance is computed from the invoice items and payments themselves.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SnfInvoiceBalance {
+
+  private final Long invoiceId;
+  private final Long accountId;
+  private BigDecimal totalAmount;
+  private BigDecimal paidAmount;
+  private BigDecimal actualTotalAmount;
+  private BigDecimal actualPaidAmount;
+
+  /**
+   * Constructor.
+   * 
+   * @param invoiceId
+   *          the invoice ID
+   * @param accountId
+   *          the account ID
+   */
+  public SnfInvoiceBalance(Long invoiceId, Long accountId) {
+    super();
+    this.invoiceId = invoiceId;
+    this.accountId = accountId;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("SnfInvoiceBalance{invoiceId=");
+    builder.append(invoiceId);
+    builder.append(", accountId=");
+    builder.append(accountId);
+    builder.append(", totalAmount=");
+    builder.append(totalAmount);
+    builder.append(", paidAmount=");
+    builder.append(paidAmount);
+    builder.append(", actualTotalAmount=");
+    builder.append(actualTotalAmount);
+    builder.append(", actualPaidAmount=");
+    builder.append(actualPaidAmount);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Test if the maintained balance is missing.
+   * 
+   * @return {@literal true} if there is no maintained balance for the invoice
+   */
+  public boolean isMissing() {
+    return (totalAmount == null || paidAmount == null);
+  }
+
+  /**
+   * Get the invoice ID.
+   * 
+   * @return the invoice ID
+   */
+  public Long getInvoiceId() {
+    return invoiceId;
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Get the maintained total amount.
+   * 
+   * @return the total amount, or {@literal null} if the maintained balance is missing
+   */
+  public BigDecimal getTotalAmount() {
+    return totalAmount;
+  }
+
+  /**
+   * Set the maintained total amount.
+   * 
+   * @param totalAmount
+   *          the total amount to set
+   */
+  public void setTotalAmount(BigDecimal totalAmount) {
+    this.totalAmount = totalAmount;
+  }
+
+  /**
+   * Get the maintained paid amount.
+   * 
+   * @return the paid amount, or {@literal null} if the maintained balance is missing
+   */
+  public BigDecimal getPaidAmount() {
+    return paidAmount;
+  }
+
+  /**
+   * Set the maintained paid amount.
+   * 
+   * @param paidAmount
+   *          the paid amount to set
+   */
+  public void setPaidAmount(BigDecimal paidAmount) {
+    this.paidAmount = paidAmount;
+  }
+
+  /**
+   * Get the actual total amount, computed from the invoice items.
+   * 
+   * @return the actual total amount
+   */
+  public BigDecimal getActualTotalAmount() {
+    return actualTotalAmount;
+  }
+
+  /**
+   * Set the actual total amount.
+   * 
+   * @param actualTotalAmount
+   *          the actual total amount to set
+   */
+  public void setActualTotalAmount(BigDecimal actualTotalAmount) {
+    this.actualTotalAmount = actualTotalAmount;
+  }
+
+  /**
+   * Get the actual paid amount, computed from the invoice payments.
+   * 
+   * @return the actual paid amount
+   */
+  public BigDecimal getActualPaidAmount() {
+    return actualPaidAmount;
+  }
+
+  /**
+   * Set the actual paid amount.
+   * 
+   * @param actualPaidAmount
+   *          the actual paid amount to set
+   */
+  public void setActualPaidAmount(BigDecimal actualPaidAmount) {
+    this.actualPaidAmount = actualPaidAmount;
+  }
+
+}
@@ -0,0 +1,142 @@
+/* ==================================================================
+ * SnfInvoiceKeyset.java - 18/10/2026 9:12:04 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+
+/**
+ * A keyset pagination continuation token for invoice queries.
+ * 
+ * <p>
+ * The token holds the value of every supported invoice sort key taken from the last invoice of a
+ * result page, so the next page can be found by seeking past that invoice rather than by skipping
+ * over an offset of rows.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SnfInvoiceKeyset {
+
+  private final Long accountId;
+  private final Instant created;
+  private final LocalDate startDate;
+  private final Long invoiceId;
+
+  /**
+   * Constructor.
+   * 
+   * @param accountId
+   *          the account ID
+   * @param created
+   *          the creation date
+   * @param startDate
+   *          the invoice start date
+   * @param invoiceId
+   *          the invoice ID
+   * @throws IllegalArgumentException
+   *           if any argument is {@literal null}
+   */
+  public SnfInvoiceKeyset(Long accountId, Instant created, LocalDate startDate, Long invoiceId) {
+    super();
+    if (accountId == null || created == null || startDate == null || invoiceId == null) {
+      throw new IllegalArgumentException("All keyset values must be provided.");
+    }
+    this.accountId = accountId;
+    this.created = created;
+    this.startDate = startDate;
+    this.invoiceId = invoiceId;
+  }
+
+  /**
+   * Create a keyset from an invoice.
+   * 
+   * @param invoice
+   *          the invoice, typically the last invoice of a result page
+   * @return the keyset
+   * @throws IllegalArgumentException
+   *           if {@code invoice} is {@literal null} or missing any keyset value
+   */
+  public static SnfInvoiceKeyset forInvoice(SnfInvoice invoice) {
+    if (invoice == null || invoice.getId() == null) {
+      throw new IllegalArgumentException("The invoice must be provided.");
+    }
+    return new SnfInvoiceKeyset(invoice.getAccountId(), invoice.getCreated(),
+        invoice.getStartDate(), invoice.getId().getId());
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("SnfInvoiceKeyset{accountId=");
+    builder.append(accountId);
+    builder.append(", created=");
+    builder.append(created);
+    builder.append(", startDate=");
+    builder.append(startDate);
+    builder.append(", invoiceId=");
+    builder.append(invoiceId);
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the account ID.
+   * 
+   * @return the account ID
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * Get the creation date.
+   * 
+   * @return the creation date
+   */
+  public Instant getCreated() {
+    return created;
+  }
+
+  /**
+   * Get the invoice start date.
+   * 
+   * @return the start date
+   */
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Get the invoice ID.
+   * 
+   * @return the invoice ID
+   */
+  public Long getInvoiceId() {
+    return invoiceId;
+  }
+
+}
@@ -0,0 +1,105 @@
+/* ==================================================================
+ * SnfInvoiceSummary.java - 18/10/2026 1:22:40 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Summary projection of an invoice, for list views.
+ * 
+ * <p>
+ * The item count and total amount are computed by the query that returns the summary, so no
+ * invoice items are loaded. The {@link #getItems()} set is therefore always empty.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SnfInvoiceSummary extends SnfInvoiceWithBalance {
+
+  private static final long serialVersionUID = -3720448118231985716L;
+
+  private int itemCount;
+  private BigDecimal totalAmount = BigDecimal.ZERO;
+
+  /**
+   * Constructor.
+   * 
+   * @param id
+   *          the ID
+   * @param userId
+   *          the user ID
+   * @param accountId
+   *          the account ID
+   * @param created
+   *          the creation date
+   */
+  public SnfInvoiceSummary(Long id, Long userId, Long accountId, Instant created) {
+    super(id, userId, accountId, created);
+  }
+
+  /**
+   * Get the count of items in the invoice.
+   * 
+   * @return the item count
+   */
+  @Override
+  public int getItemCount() {
+    return itemCount;
+  }
+
+  /**
+   * Set the count of items in the invoice.
+   * 
+   * @param itemCount
+   *          the item count to set
+   */
+  public void setItemCount(int itemCount) {
+    this.itemCount = itemCount;
+  }
+
+  /**
+   * Get the total amount of all items in the invoice.
+   * 
+   * @return the total amount, never {@literal null}
+   */
+  @Override
+  public BigDecimal getTotalAmount() {
+    return totalAmount;
+  }
+
+  /**
+   * Set the total amount of all items in the invoice.
+   * 
+   * @param totalAmount
+   *          the total amount to set; {@literal null} is treated as zero
+   */
+  public void setTotalAmount(BigDecimal totalAmount) {
+    if (totalAmount == null) {
+      totalAmount = BigDecimal.ZERO;
+    }
+    this.totalAmount = totalAmount;
+  }
+
+}
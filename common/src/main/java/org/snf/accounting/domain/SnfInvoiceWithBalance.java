@@ -32,13 +32,14 @@ import net.solarnetwork.central.user.domain.UserLongPK;
  * Extension of {@link SnfInvoice} with balance information.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
-public class SnfInvoiceWithBalance extends SnfInvoice {
+public class SnfInvoiceWithBalance extends SnfInvoice implements ResultCountAware {
 
   private static final long serialVersionUID = 2434501509560277928L;
 
   private BigDecimal paidAmount = BigDecimal.ZERO;
+  private transient Long totalResultCount;
 
   /**
    * Default constructor.
@@ -127,4 +128,24 @@ public class SnfInvoiceWithBalance extends SnfInvoice {
     this.paidAmount = paidAmount;
   }
 
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public Long getTotalResultCount() {
+    return totalResultCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * @since 1.1
+   */
+  @Override
+  public void setTotalResultCount(Long totalResultCount) {
+    this.totalResultCount = totalResultCount;
+  }
+
 }
@@ -0,0 +1,176 @@
+/* ==================================================================
+ * AccountBalanceReconciler.java - 18/10/2026 5:31:50 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snf.accounting.dao.AccountDao;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.IdRange;
+
+/**
+ * Verify account balances against the invoice items and payments of each account, in parallel.
+ * 
+ * <p>
+ * The accounts are partitioned into ranges of account IDs with roughly equal numbers of accounts,
+ * and each range is verified by a separate query on one of {@code parallelism} threads. Each
+ * thread uses its own database connection, so {@code parallelism} should be less than the number
+ * of connections in the connection pool. There are several partitions per thread, so that threads
+ * finishing early can take on more of the work.
+ * </p>
+ * 
+ * <p>
+ * All verifications share one pool of {@code parallelism} threads, so concurrent verifications
+ * queue their partitions rather than using more connections.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class AccountBalanceReconciler implements AutoCloseable {
+
+  /** The number of partitions to create per thread. */
+  public static final int PARTITIONS_PER_THREAD = 4;
+
+  private static final Logger log = LoggerFactory.getLogger(AccountBalanceReconciler.class);
+
+  private final AccountDao accountDao;
+  private final ExecutorService executor;
+  private final int parallelism;
+
+  /**
+   * Constructor.
+   * 
+   * @param accountDao
+   *          the account DAO
+   * @param parallelism
+   *          the number of partitions to verify in parallel
+   * @throws IllegalArgumentException
+   *           if {@code parallelism} is less than {@literal 1}
+   */
+  public AccountBalanceReconciler(AccountDao accountDao, int parallelism) {
+    super();
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1.");
+    }
+    this.accountDao = accountDao;
+    this.parallelism = parallelism;
+    this.executor = Executors.newFixedThreadPool(parallelism, new ReconcilerThreadFactory());
+  }
+
+  /**
+   * Verify all account balances.
+   * 
+   * @param progress
+   *          an optional consumer of the number of completed partitions and the total number of
+   *          partitions, called on the calling thread each time a partition completes
+   * @return the discrepancies, ordered by account ID, never {@literal null}
+   */
+  public List<AccountBalanceDiscrepancy> reconcile(BiConsumer<Integer, Integer> progress) {
+    final List<IdRange> ranges = accountDao.findIdRanges(parallelism * PARTITIONS_PER_THREAD);
+    final List<AccountBalanceDiscrepancy> results = new ArrayList<>();
+    if (ranges.isEmpty()) {
+      return results;
+    }
+    log.debug("Verifying account balances in {} partitions on up to {} threads", ranges.size(),
+        parallelism);
+    final CompletionService<List<AccountBalanceDiscrepancy>> completion;
+    completion = new ExecutorCompletionService<>(executor);
+    final List<Future<List<AccountBalanceDiscrepancy>>> futures = new ArrayList<>(ranges.size());
+    int completed = 0;
+    try {
+      for (IdRange range : ranges) {
+        futures.add(completion.submit(() -> accountDao.findBalanceDiscrepancies(range)));
+      }
+      while (completed < ranges.size()) {
+        results.addAll(completion.take().get());
+        completed++;
+        if (progress != null) {
+          progress.accept(completed, ranges.size());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted verifying account balances.", e);
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      }
+      throw new IllegalStateException("Error verifying account balances.", t);
+    } finally {
+      if (completed < futures.size()) {
+        for (Future<List<AccountBalanceDiscrepancy>> f : futures) {
+          f.cancel(true);
+        }
+      }
+    }
+    results.sort(Comparator.comparing(AccountBalanceDiscrepancy::getAccountId));
+    return results;
+  }
+
+  private static final class ReconcilerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "AccountBalanceReconciler-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+
+  /**
+   * Stop the executor, interrupting any running verifications.
+   * 
+   * @since 1.1
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Get the parallelism.
+   * 
+   * @return the number of partitions verified in parallel
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+}
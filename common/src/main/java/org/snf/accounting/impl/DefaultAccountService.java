@@ -26,33 +26,56 @@ import static net.solarnetwork.central.user.billing.snf.domain.AccountTask.newTa
 import static net.solarnetwork.central.user.billing.snf.domain.AccountTaskType.DeliverInvoice;
 import static net.solarnetwork.central.user.billing.snf.domain.AccountTaskType.GenerateInvoice;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.snf.accounting.dao.AccountDao;
 import org.snf.accounting.dao.AddressDao;
+import org.snf.accounting.dao.InvoiceDao;
+import org.snf.accounting.dao.LedgerExportDao;
 import org.snf.accounting.dao.PaymentDao;
+import org.snf.accounting.dao.PaymentImportDao;
+import org.snf.accounting.domain.AccountAging;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.AccountDate;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.InvoiceReferences;
+import org.snf.accounting.domain.LedgerExportProgress;
+import org.snf.accounting.domain.LedgerTable;
+import org.snf.accounting.domain.PaymentImportConflict;
+import org.snf.accounting.domain.PaymentImportResult;
 import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceSummary;
 import org.snf.accounting.domain.SnfInvoiceWithBalance;
 import org.snf.accounting.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import net.solarnetwork.central.user.billing.snf.dao.SnfInvoiceDao;
 import net.solarnetwork.central.user.billing.snf.dao.SnfInvoiceItemDao;
 import net.solarnetwork.central.user.billing.snf.domain.Account;
 import net.solarnetwork.central.user.billing.snf.domain.AccountBalance;
@@ -72,7 +95,7 @@ import net.solarnetwork.dao.FilterResults;
  * Default implementation of {@link AccountService}.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.15
  */
 @Service
 public class DefaultAccountService implements AccountService {
@@ -80,9 +103,14 @@ public class DefaultAccountService implements AccountService {
   @SuppressWarnings("unused")
   private final AddressDao addressDao;
   private final AccountDao accountDao;
-  private final SnfInvoiceDao invoiceDao;
+  private final InvoiceDao invoiceDao;
   private final SnfInvoiceItemDao invoiceItemDao;
   private final PaymentDao paymentDao;
+  private final InvoiceNumberIndex invoiceNumberIndex;
+  private AccountBalanceReconciler accountBalanceReconciler;
+  private ReportExecutor reportExecutor;
+  private LedgerExportDao ledgerExportDao;
+  private PaymentImportDao paymentImportDao;
 
   /**
    * Constructor.
@@ -97,16 +125,20 @@ public class DefaultAccountService implements AccountService {
    *          the item DAO
    * @param paymentDao
    *          the payment DAO
+   * @param invoiceNumberIndex
+   *          the invoice number index
    */
   @Autowired
   public DefaultAccountService(AddressDao addressDao, AccountDao accountDao,
-      SnfInvoiceDao invoiceDao, SnfInvoiceItemDao invoiceItemDao, PaymentDao paymentDao) {
+      InvoiceDao invoiceDao, SnfInvoiceItemDao invoiceItemDao, PaymentDao paymentDao,
+      InvoiceNumberIndex invoiceNumberIndex) {
     super();
     this.addressDao = addressDao;
     this.accountDao = accountDao;
     this.invoiceDao = invoiceDao;
     this.invoiceItemDao = invoiceItemDao;
     this.paymentDao = paymentDao;
+    this.invoiceNumberIndex = invoiceNumberIndex;
   }
 
   @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
@@ -142,6 +174,76 @@ public class DefaultAccountService implements AccountService {
         filter.getMax());
   }
 
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+  @Override
+  public long streamInvoices(SnfInvoiceFilter filter, Consumer<SnfInvoiceWithBalance> consumer) {
+    return invoiceDao.streamFiltered(filter, consumer);
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  @Override
+  public FilterResults<SnfInvoiceSummary, UserLongPK> findFilteredInvoiceSummaries(
+      SnfInvoiceFilter filter) {
+    return invoiceDao.findFilteredSummaries(filter, filter.getSorts(), filter.getOffset(),
+        filter.getMax());
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+  @Override
+  public long streamInvoiceSummaries(SnfInvoiceFilter filter,
+      Consumer<? super SnfInvoiceSummary> consumer) {
+    return invoiceDao.streamFilteredSummaries(filter, consumer);
+  }
+
+  @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+  @Override
+  public int rebuildInvoiceBalances(Long accountId) {
+    return invoiceDao.rebuildBalances(accountId);
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  @Override
+  public List<SnfInvoiceBalance> verifyInvoiceBalances(Long accountId) {
+    return invoiceDao.findBalanceDiscrepancies(accountId);
+  }
+
+  @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+  @Override
+  public int createInvoiceSnapshot(Instant date) {
+    return invoiceDao.createSnapshot(date);
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  @Override
+  public List<Instant> invoiceSnapshotDates() {
+    return invoiceDao.findSnapshotDates();
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+  @Override
+  public long agingReport(Instant asOf, String currencyCode,
+      Consumer<? super AccountAging> consumer) {
+    return invoiceDao.streamAging(asOf, currencyCode, consumer);
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * Each partition is verified on its own connection, outside of any transaction.
+   * </p>
+   */
+  @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
+  @Override
+  public List<AccountBalanceDiscrepancy> verifyAccountBalances(
+      BiConsumer<Integer, Integer> progress) {
+    final AccountBalanceReconciler reconciler = this.accountBalanceReconciler;
+    if (reconciler == null) {
+      throw new IllegalStateException("No AccountBalanceReconciler configured.");
+    }
+    return reconciler.reconcile(progress);
+  }
+
   @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   @Override
   public SnfInvoiceWithBalance invoiceForId(Long invoiceId) {
@@ -149,6 +251,76 @@ public class DefaultAccountService implements AccountService {
     return (SnfInvoiceWithBalance) invoiceDao.get(id);
   }
 
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+  @Override
+  public InvoiceReferences resolveInvoiceReferences(Iterable<String> references,
+      Long accountId) {
+    return invoiceNumberIndex.resolve(references, accountId);
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * <p>
+   * If no report executor is configured, the queries run one after another on the calling thread.
+   * </p>
+   */
+  @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
+  @Override
+  public <T> List<T> queryAccounts(List<Long> accountIds, Function<Long, ? extends T> query) {
+    final ReportExecutor executor = this.reportExecutor;
+    if (executor != null) {
+      return executor.invokeAll(accountIds, query);
+    }
+    final List<T> results = new ArrayList<>(accountIds.size());
+    for (Long accountId : accountIds) {
+      results.add(query.apply(accountId));
+    }
+    return results;
+  }
+
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED,
+      isolation = Isolation.REPEATABLE_READ)
+  @Override
+  public long exportLedger(List<LedgerTable> tables, Function<LedgerTable, OutputStream> outputs,
+      Consumer<LedgerExportProgress> progress) {
+    final LedgerExportDao dao = this.ledgerExportDao;
+    if (dao == null) {
+      throw new IllegalStateException("No LedgerExportDao configured.");
+    }
+    long count = 0;
+    for (LedgerTable table : tables) {
+      try (OutputStream out = outputs.apply(table)) {
+        count += dao.copyOut(table, out, progress);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return count;
+  }
+
+  @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+  @Override
+  public PaymentImportResult importPayments(InputStream csv, boolean dryRun) {
+    final PaymentImportDao dao = this.paymentImportDao;
+    if (dao == null) {
+      throw new IllegalStateException("No PaymentImportDao configured.");
+    }
+    final long count;
+    try {
+      count = dao.load(csv);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    final BigDecimal total = dao.totalAmount();
+    final List<PaymentImportConflict> conflicts = dao.findConflicts();
+    if (dryRun || !conflicts.isEmpty()) {
+      return new PaymentImportResult(count, total, conflicts, false);
+    }
+    dao.apply();
+    return new PaymentImportResult(count, total, null, true);
+  }
+
   @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   @Override
   public FilterResults<PaymentWithInvoicePayments, UserUuidPK> findFilteredPayments(
@@ -156,6 +328,13 @@ public class DefaultAccountService implements AccountService {
     return paymentDao.findFiltered(filter, filter.getSorts(), filter.getOffset(), filter.getMax());
   }
 
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+  @Override
+  public long streamPayments(PaymentFilter filter,
+      Consumer<PaymentWithInvoicePayments> consumer) {
+    return paymentDao.streamFiltered(filter, consumer);
+  }
+
   @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
   @Override
   public AccountTask createInvoiceGenerationTask(final Long accountId, final YearMonth month) {
@@ -165,9 +344,9 @@ public class DefaultAccountService implements AccountService {
     SnfInvoiceFilter f = SnfInvoiceFilter.forAccount(account);
     f.setStartDate(date);
     f.setEndDate(date.plusMonths(1));
-    FilterResults<SnfInvoiceWithBalance, UserLongPK> existing = findFilteredInvoices(f);
+    FilterResults<SnfInvoiceSummary, UserLongPK> existing = findFilteredInvoiceSummaries(f);
     if (existing.getReturnedResultCount() > 0) {
-      SnfInvoiceWithBalance inv = existing.iterator().next();
+      SnfInvoiceSummary inv = existing.iterator().next();
       InvoiceImpl invoice = new InvoiceImpl(inv);
       String err = String.format("Account %d already has invoice %d (%s) for %s.", accountId,
           inv.getId().getId(), invoice.getInvoiceNumber(), month.toString());
@@ -180,6 +359,23 @@ public class DefaultAccountService implements AccountService {
     return task;
   }
 
+  @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+  @Override
+  public List<AccountTask> createInvoiceGenerationTasks(final YearMonth month,
+      final AccountFilter filter) {
+    final List<AccountDate> accounts = accountDao.findAccountsWithoutInvoice(filter, month,
+        GenerateInvoice);
+    if (accounts.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<AccountTask> tasks = new ArrayList<>(accounts.size());
+    for (AccountDate account : accounts) {
+      tasks.add(newTask(account.getDate(), GenerateInvoice, account.getAccountId()));
+    }
+    accountDao.saveTasks(tasks);
+    return tasks;
+  }
+
   @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
   @Override
   public AccountTask createInvoiceDeliverTask(final Long invoiceId) {
@@ -196,6 +392,31 @@ public class DefaultAccountService implements AccountService {
     return task;
   }
 
+  @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+  @Override
+  public List<AccountTask> createInvoiceDeliverTasks(final SnfInvoiceFilter filter,
+      final Duration window) {
+    // count first, so the task dates can be spread over the window as the invoices are streamed
+    final long count = invoiceDao.countFilteredAccounts(filter, DeliverInvoice);
+    if (count < 1) {
+      return Collections.emptyList();
+    }
+    final Instant start = Instant.now();
+    final long windowMs = (window != null && !window.isNegative() ? window.toMillis() : 0);
+    final List<AccountTask> tasks = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+    invoiceDao.streamFilteredAccounts(filter, DeliverInvoice, invoice -> {
+      Map<String, Object> taskData = new LinkedHashMap<>(2);
+      taskData.put("userId", invoice.getUserId());
+      taskData.put("id", invoice.getId().getId());
+      // invoices added since the count are dated at the end of the window
+      long i = Math.min(tasks.size(), count);
+      Instant date = start.plusMillis(windowMs * i / count);
+      tasks.add(newTask(date, DeliverInvoice, invoice.getAccountId(), taskData));
+    });
+    accountDao.saveTasks(tasks);
+    return tasks;
+  }
+
   @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
   @Override
   public PaymentWithInvoicePayments addPayment(Long accountId, Set<Long> invoiceIds,
@@ -239,4 +460,52 @@ public class DefaultAccountService implements AccountService {
     return (SnfInvoiceWithBalance) invoiceDao.get(invoice.getId());
   }
 
+  /**
+   * Set the reconciler to verify account balances with.
+   * 
+   * @param accountBalanceReconciler
+   *          the reconciler to set
+   * @since 1.15
+   */
+  @Autowired(required = false)
+  public void setAccountBalanceReconciler(AccountBalanceReconciler accountBalanceReconciler) {
+    this.accountBalanceReconciler = accountBalanceReconciler;
+  }
+
+  /**
+   * Set the executor to run report sub-queries with.
+   * 
+   * @param reportExecutor
+   *          the executor to set
+   * @since 1.9
+   */
+  @Autowired(required = false)
+  public void setReportExecutor(ReportExecutor reportExecutor) {
+    this.reportExecutor = reportExecutor;
+  }
+
+  /**
+   * Set the DAO to export ledger tables with.
+   * 
+   * @param ledgerExportDao
+   *          the DAO to set
+   * @since 1.10
+   */
+  @Autowired(required = false)
+  public void setLedgerExportDao(LedgerExportDao ledgerExportDao) {
+    this.ledgerExportDao = ledgerExportDao;
+  }
+
+  /**
+   * Set the DAO to import payments with.
+   * 
+   * @param paymentImportDao
+   *          the DAO to set
+   * @since 1.11
+   */
+  @Autowired(required = false)
+  public void setPaymentImportDao(PaymentImportDao paymentImportDao) {
+    this.paymentImportDao = paymentImportDao;
+  }
+
 }
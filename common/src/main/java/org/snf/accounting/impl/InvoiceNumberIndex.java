@@ -0,0 +1,363 @@
+/* ==================================================================
+ * InvoiceNumberIndex.java - 18/10/2026 7:02:15 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.snf.accounting.dao.InvoiceDao;
+import org.snf.accounting.domain.InvoiceReferences;
+
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.util.SnfBillingUtils;
+
+/**
+ * In-memory index of the account of every invoice, for validating batches of invoice references.
+ * 
+ * <p>
+ * Batches of up to {@link #getDirectLookupLimit()} invoices are validated by looking up the
+ * referenced invoices directly, with a single query by primary key, so resolving a few references
+ * does not load the index. The index is only loaded and used for larger batches.
+ * </p>
+ * 
+ * <p>
+ * The index holds the invoice IDs in a sorted {@code long} array with a parallel array of account
+ * IDs, so each invoice uses 16 bytes. Invoices do not move between accounts, so the index is loaded
+ * incrementally: it is refreshed with the invoices created since the last refresh whenever a
+ * reference to an invoice beyond the highest indexed ID is resolved. Invoice IDs are assigned by a
+ * sequence but can be committed out of order, or be missing from a lagging read replica when the
+ * index is refreshed, so references to IDs below the highest indexed ID that are not in the index
+ * are looked up with a single query and added to the index when found.
+ * </p>
+ * 
+ * <p>
+ * Deleted invoices are not removed from the index, so a reference to an invoice deleted after it
+ * was indexed is resolved. The index only validates references: callers must still load the
+ * invoices they act on.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.2
+ */
+public class InvoiceNumberIndex {
+
+  /**
+   * The default value for the {@code directLookupLimit} property.
+   * 
+   * @since 1.2
+   */
+  public static final int DEFAULT_DIRECT_LOOKUP_LIMIT = 100;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final InvoiceDao invoiceDao;
+  private volatile Entries entries = new Entries(new long[0], new long[0], 0);
+  private int directLookupLimit = DEFAULT_DIRECT_LOOKUP_LIMIT;
+
+  /**
+   * An immutable view of the index.
+   * 
+   * <p>
+   * Refreshes append to the shared arrays beyond {@code size}, so a view never sees entries added
+   * after it was published.
+   * </p>
+   */
+  private static final class Entries {
+
+    private final long[] invoiceIds;
+    private final long[] accountIds;
+    private final int size;
+
+    private Entries(long[] invoiceIds, long[] accountIds, int size) {
+      super();
+      this.invoiceIds = invoiceIds;
+      this.accountIds = accountIds;
+      this.size = size;
+    }
+
+    private long maxInvoiceId() {
+      return (size > 0 ? invoiceIds[size - 1] : 0L);
+    }
+
+    private long accountId(long invoiceId) {
+      int idx = Arrays.binarySearch(invoiceIds, 0, size, invoiceId);
+      return (idx < 0 ? -1L : accountIds[idx]);
+    }
+  }
+
+  private static final class Appender implements Consumer<SnfInvoice> {
+
+    private long[] invoiceIds;
+    private long[] accountIds;
+    private int size;
+
+    private Appender(Entries entries) {
+      super();
+      this.invoiceIds = entries.invoiceIds;
+      this.accountIds = entries.accountIds;
+      this.size = entries.size;
+    }
+
+    @Override
+    public void accept(SnfInvoice invoice) {
+      if (size == invoiceIds.length) {
+        int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+        invoiceIds = Arrays.copyOf(invoiceIds, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+      }
+      invoiceIds[size] = invoice.getId().getId();
+      accountIds[size] = invoice.getAccountId();
+      size++;
+    }
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param invoiceDao
+   *          the invoice DAO
+   */
+  public InvoiceNumberIndex(InvoiceDao invoiceDao) {
+    super();
+    this.invoiceDao = invoiceDao;
+  }
+
+  /**
+   * Get the invoice ID for an invoice reference.
+   * 
+   * @param reference
+   *          the reference, either an invoice ID or an invoice number like {@literal INV-3F}
+   * @return the invoice ID, or {@literal null} if {@code reference} is not a valid reference
+   */
+  public static Long invoiceIdForReference(String reference) {
+    if (reference == null) {
+      return null;
+    }
+    try {
+      Long id = SnfBillingUtils.invoiceIdForNum(reference);
+      if (id == null) {
+        id = Long.valueOf(reference);
+      }
+      return (id.longValue() > 0 ? id : null);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Add the invoices created since the last refresh to the index.
+   * 
+   * <p>
+   * This method must be called within a transaction, so the underlying database cursor can be read
+   * incrementally.
+   * </p>
+   * 
+   * @return the number of invoices added
+   */
+  public synchronized int refresh() {
+    final Entries curr = entries;
+    final Appender appender = new Appender(curr);
+    invoiceDao.streamInvoiceAccounts(curr.maxInvoiceId(), appender);
+    entries = new Entries(appender.invoiceIds, appender.accountIds, appender.size);
+    return appender.size - curr.size;
+  }
+
+  /**
+   * Look up a set of invoices missing from the index and add the ones that exist.
+   * 
+   * <p>
+   * New arrays are created for the merged entries, because published views share the current
+   * arrays.
+   * </p>
+   * 
+   * @param invoiceIds
+   *          the IDs of the invoices to look up, all below the highest indexed ID
+   * @return the number of invoices added
+   * @since 1.1
+   */
+  private synchronized int addMissing(Set<Long> invoiceIds) {
+    final List<SnfInvoice> found = invoiceDao
+        .findInvoiceAccounts(invoiceIds.toArray(new Long[invoiceIds.size()]));
+    if (found.isEmpty()) {
+      return 0;
+    }
+    final Entries curr = entries;
+    final int capacity = Math.max(curr.invoiceIds.length, curr.size + found.size());
+    final long[] invoiceIds2 = new long[capacity];
+    final long[] accountIds2 = new long[capacity];
+    int i = 0;
+    int size = 0;
+    for (SnfInvoice invoice : found) {
+      final long id = invoice.getId().getId();
+      while (i < curr.size && curr.invoiceIds[i] < id) {
+        invoiceIds2[size] = curr.invoiceIds[i];
+        accountIds2[size++] = curr.accountIds[i++];
+      }
+      if (i < curr.size && curr.invoiceIds[i] == id) {
+        // added by a concurrent lookup
+        continue;
+      }
+      invoiceIds2[size] = id;
+      accountIds2[size++] = invoice.getAccountId();
+    }
+    final int remaining = curr.size - i;
+    System.arraycopy(curr.invoiceIds, i, invoiceIds2, size, remaining);
+    System.arraycopy(curr.accountIds, i, accountIds2, size, remaining);
+    size += remaining;
+    entries = new Entries(invoiceIds2, accountIds2, size);
+    return size - curr.size;
+  }
+
+  /**
+   * Resolve a batch of invoice references.
+   * 
+   * <p>
+   * If the references are to no more than {@link #getDirectLookupLimit()} invoices, the invoices
+   * are looked up directly with one query. Otherwise each reference is validated against the
+   * index, which is refreshed at most once if any reference is to an invoice beyond the highest
+   * indexed ID. References to invoices at or below the highest indexed ID that are not in the index
+   * are then looked up with at most one query. Blank references are ignored.
+   * </p>
+   * 
+   * @param references
+   *          the references, each either an invoice ID or an invoice number like {@literal INV-3F}
+   * @param accountId
+   *          the account the invoices must belong to, or {@literal null} for any account
+   * @return the result, never {@literal null}
+   */
+  public InvoiceReferences resolve(Iterable<String> references, Long accountId) {
+    final Map<String, Long> refIds = new LinkedHashMap<>();
+    final List<String> invalid = new ArrayList<>(4);
+    Entries index = entries;
+    boolean refresh = false;
+    for (String reference : references) {
+      final String ref = (reference != null ? reference.trim() : "");
+      if (ref.isEmpty()) {
+        continue;
+      }
+      final Long id = invoiceIdForReference(ref);
+      if (id == null) {
+        invalid.add(ref);
+        continue;
+      }
+      refIds.put(ref, id);
+      if (id.longValue() > index.maxInvoiceId()) {
+        refresh = true;
+      }
+    }
+
+    final Set<Long> distinctIds = new LinkedHashSet<>(refIds.values());
+    if (distinctIds.size() <= directLookupLimit) {
+      return resolveDirect(refIds, distinctIds, invalid, accountId);
+    }
+
+    if (refresh) {
+      refresh();
+      index = entries;
+    }
+
+    Set<Long> missing = null;
+    for (Long id : refIds.values()) {
+      if (id.longValue() <= index.maxInvoiceId() && index.accountId(id) < 0) {
+        if (missing == null) {
+          missing = new LinkedHashSet<>(4);
+        }
+        missing.add(id);
+      }
+    }
+    if (missing != null && addMissing(missing) > 0) {
+      index = entries;
+    }
+
+    return classify(refIds, invalid, accountId, index::accountId);
+  }
+
+  private InvoiceReferences resolveDirect(Map<String, Long> refIds, Set<Long> distinctIds,
+      List<String> invalid, Long accountId) {
+    final Map<Long, Long> accountIds = new HashMap<>(distinctIds.size());
+    if (!distinctIds.isEmpty()) {
+      for (SnfInvoice invoice : invoiceDao
+          .findInvoiceAccounts(distinctIds.toArray(new Long[distinctIds.size()]))) {
+        accountIds.put(invoice.getId().getId(), invoice.getAccountId());
+      }
+    }
+    return classify(refIds, invalid, accountId, id -> accountIds.getOrDefault(id, -1L));
+  }
+
+  private static InvoiceReferences classify(Map<String, Long> refIds, List<String> invalid,
+      Long accountId, ToLongFunction<Long> invoiceAccounts) {
+    final Map<String, Long> ids = new LinkedHashMap<>(refIds.size());
+    final List<String> notFound = new ArrayList<>(4);
+    final List<String> otherAccount = new ArrayList<>(4);
+    for (Map.Entry<String, Long> e : refIds.entrySet()) {
+      final long invoiceAccountId = invoiceAccounts.applyAsLong(e.getValue());
+      if (invoiceAccountId < 0) {
+        notFound.add(e.getKey());
+      } else if (accountId != null && invoiceAccountId != accountId.longValue()) {
+        otherAccount.add(e.getKey());
+      } else {
+        ids.put(e.getKey(), e.getValue());
+      }
+    }
+    return new InvoiceReferences(ids, invalid, notFound, otherAccount);
+  }
+
+  /**
+   * Get the number of indexed invoices.
+   * 
+   * @return the number of invoices
+   */
+  public int size() {
+    return entries.size;
+  }
+
+  /**
+   * Get the maximum number of invoices to look up directly, rather than with the index.
+   * 
+   * @return the limit; defaults to {@link #DEFAULT_DIRECT_LOOKUP_LIMIT}
+   * @since 1.2
+   */
+  public int getDirectLookupLimit() {
+    return directLookupLimit;
+  }
+
+  /**
+   * Set the maximum number of invoices to look up directly, rather than with the index.
+   * 
+   * @param directLookupLimit
+   *          the limit to set, or {@literal 0} to always use the index
+   * @since 1.2
+   */
+  public void setDirectLookupLimit(int directLookupLimit) {
+    this.directLookupLimit = directLookupLimit;
+  }
+
+}
@@ -0,0 +1,136 @@
+/* ==================================================================
+ * InvoiceSnapshotJob.java - 18/10/2026 4:12:37 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snf.accounting.service.AccountService;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Job to snapshot the invoice balances at the end of each accounting period.
+ * 
+ * <p>
+ * Each time the job runs it snapshots the end of the most recently completed period, unless a
+ * snapshot for that date already exists. The job can thus be scheduled more often than the period,
+ * so a missed run is caught up the next time it runs. Period boundaries are determined by the time
+ * zone of the configured clock.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class InvoiceSnapshotJob implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(InvoiceSnapshotJob.class);
+
+  private final AccountService accountService;
+  private final ChronoUnit period;
+  private final Clock clock;
+
+  /**
+   * Constructor.
+   * 
+   * @param accountService
+   *          the account service
+   * @param period
+   *          the accounting period; one of {@code DAYS}, {@code WEEKS}, {@code MONTHS}, or
+   *          {@code YEARS}
+   * @param clock
+   *          the clock, whose time zone determines the period boundaries
+   * @throws IllegalArgumentException
+   *           if {@code period} is not supported
+   */
+  public InvoiceSnapshotJob(AccountService accountService, ChronoUnit period, Clock clock) {
+    super();
+    // validate period
+    periodStart(ZonedDateTime.now(clock), period);
+    this.accountService = accountService;
+    this.period = period;
+    this.clock = clock;
+  }
+
+  /**
+   * Get the start of the period that contains a date.
+   * 
+   * <p>
+   * Weeks start on Monday.
+   * </p>
+   * 
+   * @param date
+   *          the date
+   * @param period
+   *          the period; one of {@code DAYS}, {@code WEEKS}, {@code MONTHS}, or {@code YEARS}
+   * @return the start of the period that contains {@code date}, in the same time zone
+   * @throws IllegalArgumentException
+   *           if {@code period} is not supported
+   */
+  public static ZonedDateTime periodStart(ZonedDateTime date, ChronoUnit period) {
+    if (period == null) {
+      throw new IllegalArgumentException("The period must be provided.");
+    }
+    final ZonedDateTime day = date.truncatedTo(ChronoUnit.DAYS);
+    switch (period) {
+      case DAYS:
+        return day;
+
+      case WEEKS:
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+      case MONTHS:
+        return day.with(TemporalAdjusters.firstDayOfMonth());
+
+      case YEARS:
+        return day.with(TemporalAdjusters.firstDayOfYear());
+
+      default:
+        throw new IllegalArgumentException("Unsupported snapshot period [" + period + "]");
+    }
+  }
+
+  @Scheduled(cron = "${app.invoice-snapshot.cron:-}")
+  @Override
+  public void run() {
+    final Instant date = periodStart(ZonedDateTime.now(clock), period).toInstant();
+    try {
+      List<Instant> existing = accountService.invoiceSnapshotDates();
+      if (existing.contains(date)) {
+        log.debug("Invoice snapshot for {} already exists.", date);
+        return;
+      }
+      int count = accountService.createInvoiceSnapshot(date);
+      log.info("Created invoice snapshot for {} with {} invoices.", date, count);
+    } catch (RuntimeException e) {
+      log.error("Error creating invoice snapshot for {}: {}", date, e.toString(), e);
+    }
+  }
+
+}
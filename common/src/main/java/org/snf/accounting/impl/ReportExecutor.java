@@ -0,0 +1,167 @@
+/* ==================================================================
+ * ReportExecutor.java - 18/10/2026 7:34:52 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A bounded executor for running report sub-queries concurrently.
+ * 
+ * <p>
+ * All reports share one pool of {@code parallelism} threads. Each sub-query uses its own database
+ * connection while it runs, so {@code parallelism} should be less than the number of connections
+ * in the connection pool, leaving some connections for interactive commands. Reports that fan out
+ * to more sub-queries than there are threads queue the remainder, so a report over many accounts
+ * takes roughly the sum of its query times divided by {@code parallelism}.
+ * </p>
+ * 
+ * <p>
+ * Sub-queries that themselves fan out run their tasks on their own thread, so nested reports
+ * cannot exhaust the pool waiting on each other.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ReportExecutor implements AutoCloseable {
+
+  private static final ThreadLocal<Boolean> REPORT_THREAD = new ThreadLocal<>();
+
+  private final ExecutorService executor;
+  private final int parallelism;
+
+  /**
+   * Constructor.
+   * 
+   * @param parallelism
+   *          the maximum number of sub-queries to run at once
+   * @throws IllegalArgumentException
+   *           if {@code parallelism} is less than {@literal 1}
+   */
+  public ReportExecutor(int parallelism) {
+    super();
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1.");
+    }
+    this.parallelism = parallelism;
+    this.executor = Executors.newFixedThreadPool(parallelism, new ReportThreadFactory());
+  }
+
+  private static final class ReportThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(() -> {
+        REPORT_THREAD.set(Boolean.TRUE);
+        r.run();
+      }, "ReportExecutor-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+
+  /**
+   * Run a task for each of a list of keys concurrently, and wait for all of them to complete.
+   * 
+   * <p>
+   * If any task fails, the remaining tasks are cancelled and the exception of the first failed
+   * task, in key order, is thrown.
+   * </p>
+   * 
+   * @param <K>
+   *          the key type
+   * @param <T>
+   *          the result type
+   * @param keys
+   *          the keys to run the task for
+   * @param task
+   *          the task to run for each key
+   * @return the results, in the same order as {@code keys}
+   * @throws IllegalStateException
+   *           if the calling thread is interrupted, or a task throws a checked exception
+   */
+  public <K, T> List<T> invokeAll(List<K> keys, Function<? super K, ? extends T> task) {
+    final List<T> results = new ArrayList<>(keys.size());
+    if (keys.size() < 2 || REPORT_THREAD.get() != null) {
+      for (K key : keys) {
+        results.add(task.apply(key));
+      }
+      return results;
+    }
+    final List<Future<? extends T>> futures = new ArrayList<>(keys.size());
+    try {
+      for (K key : keys) {
+        futures.add(executor.submit(() -> task.apply(key)));
+      }
+      for (Future<? extends T> f : futures) {
+        results.add(f.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted running report queries.", e);
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw new IllegalStateException("Error running report queries.", t);
+    } finally {
+      if (results.size() < futures.size()) {
+        for (Future<? extends T> f : futures) {
+          f.cancel(true);
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Stop the executor, interrupting any running tasks.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Get the parallelism.
+   * 
+   * @return the maximum number of sub-queries run at once
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+}
@@ -22,14 +22,29 @@
 
 package org.snf.accounting.service;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.YearMonth;
+import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.snf.accounting.domain.AccountAging;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.InvoiceReferences;
+import org.snf.accounting.domain.LedgerExportProgress;
+import org.snf.accounting.domain.LedgerTable;
+import org.snf.accounting.domain.PaymentImportResult;
 import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceSummary;
 import org.snf.accounting.domain.SnfInvoiceWithBalance;
 
 import net.solarnetwork.central.user.billing.snf.domain.Account;
@@ -44,7 +59,7 @@ import net.solarnetwork.dao.FilterResults;
  * Service for dealing with accounts.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.13
  */
 public interface AccountService {
 
@@ -84,6 +99,135 @@ public interface AccountService {
    */
   FilterResults<SnfInvoiceWithBalance, UserLongPK> findFilteredInvoices(SnfInvoiceFilter filter);
 
+  /**
+   * Stream invoices to a consumer.
+   * 
+   * <p>
+   * This is designed for processing large result sets, as the matching invoices are not all held
+   * in memory at once. The filter's pagination settings are honoured, but no total result count
+   * is computed.
+   * </p>
+   * 
+   * @param filter
+   *          the filter
+   * @param consumer
+   *          the consumer to pass each matching invoice to, in the order defined by the filter
+   * @return the number of invoices passed to {@code consumer}
+   * @since 1.2
+   */
+  long streamInvoices(SnfInvoiceFilter filter, Consumer<SnfInvoiceWithBalance> consumer);
+
+  /**
+   * Find invoice summaries.
+   * 
+   * <p>
+   * Invoice summaries include the invoice item count and total amount, but not the invoice items
+   * themselves, making them more efficient than
+   * {@link #findFilteredInvoices(SnfInvoiceFilter)} for list views.
+   * </p>
+   * 
+   * @param filter
+   *          the filter
+   * @return the results, never {@literal null}
+   * @since 1.3
+   */
+  FilterResults<SnfInvoiceSummary, UserLongPK> findFilteredInvoiceSummaries(
+      SnfInvoiceFilter filter);
+
+  /**
+   * Stream invoice summaries to a consumer.
+   * 
+   * @param filter
+   *          the filter
+   * @param consumer
+   *          the consumer to pass each matching invoice summary to, in the order defined by the
+   *          filter
+   * @return the number of invoice summaries passed to {@code consumer}
+   * @since 1.3
+   * @see #streamInvoices(SnfInvoiceFilter, Consumer)
+   */
+  long streamInvoiceSummaries(SnfInvoiceFilter filter,
+      Consumer<? super SnfInvoiceSummary> consumer);
+
+  /**
+   * Rebuild the maintained invoice balances from the invoice items and payments.
+   * 
+   * @param accountId
+   *          the ID of the account to rebuild the invoice balances of, or {@literal null} for all
+   *          accounts
+   * @return the number of invoice balances that were changed
+   * @since 1.4
+   */
+  int rebuildInvoiceBalances(Long accountId);
+
+  /**
+   * Verify the maintained invoice balances match the invoice items and payments.
+   * 
+   * @param accountId
+   *          the ID of the account to verify the invoice balances of, or {@literal null} for all
+   *          accounts
+   * @return the invoice balances that do not match, never {@literal null}
+   * @since 1.4
+   */
+  List<SnfInvoiceBalance> verifyInvoiceBalances(Long accountId);
+
+  /**
+   * Snapshot the balance of every invoice as of a date, to speed up queries for invoices unpaid at
+   * that date or later.
+   * 
+   * @param date
+   *          the snapshot date, typically the end of an accounting period
+   * @return the number of invoices included in the snapshot
+   * @since 1.5
+   */
+  int createInvoiceSnapshot(Instant date);
+
+  /**
+   * Get the dates of all invoice snapshots.
+   * 
+   * @return the snapshot dates, most recent first, never {@literal null}
+   * @since 1.5
+   */
+  List<Instant> invoiceSnapshotDates();
+
+  /**
+   * Compute an accounts-receivable aging report.
+   * 
+   * <p>
+   * The aging totals of each account with unpaid invoices are passed to {@code consumer}, ordered
+   * by currency and account ID, followed by the total of all accounts in that currency. The
+   * results are streamed, rather than collected into memory.
+   * </p>
+   * 
+   * @param asOf
+   *          the date to compute the aging at (exclusive), or {@literal null} for the current date
+   * @param currencyCode
+   *          the currency code to restrict the report to, or {@literal null} for all currencies
+   * @param consumer
+   *          the consumer to pass each aging result to
+   * @return the number of aging results passed to {@code consumer}
+   * @since 1.6
+   */
+  long agingReport(Instant asOf, String currencyCode, Consumer<? super AccountAging> consumer);
+
+  /**
+   * Verify the charge and payment totals of all account balances match the invoice items and
+   * payments of each account.
+   * 
+   * <p>
+   * The accounts are verified in partitions, in parallel.
+   * </p>
+   * 
+   * @param progress
+   *          an optional consumer of the number of completed partitions and the total number of
+   *          partitions
+   * @return the account balances that do not match, ordered by account ID, never {@literal null}
+   * @throws IllegalStateException
+   *           if no account balance reconciler is configured
+   * @since 1.7
+   */
+  List<AccountBalanceDiscrepancy> verifyAccountBalances(BiConsumer<Integer, Integer> progress);
+
   /**
    * Get a specific invoice.
    * 
@@ -93,6 +237,94 @@ public interface AccountService {
    */
   SnfInvoiceWithBalance invoiceForId(Long invoiceId);
 
+  /**
+   * Resolve a batch of invoice references to invoice IDs.
+   * 
+   * <p>
+   * The references are validated in one query for the distinct invoice IDs they decode to. Larger
+   * batches are validated in one pass against an in-memory index of the account of every invoice
+   * instead, in which case a reference to an invoice deleted after it was indexed may still be
+   * resolved.
+   * </p>
+   * 
+   * @param references
+   *          the references, each either an invoice ID or an invoice number like {@literal INV-3F}
+   * @param accountId
+   *          the account the invoices must belong to, or {@literal null} for any account
+   * @return the result, never {@literal null}
+   * @since 1.8
+   */
+  InvoiceReferences resolveInvoiceReferences(Iterable<String> references, Long accountId);
+
+  /**
+   * Run a query for each of a list of accounts concurrently.
+   * 
+   * <p>
+   * The queries run on a shared, bounded pool of threads sized to the connection pool, so a report
+   * over many accounts takes a fraction of the sum of its query times. Each query runs on its own
+   * connection, outside of any transaction of the caller, so {@code query} should call other
+   * methods of this service rather than DAOs directly.
+   * </p>
+   * 
+   * @param <T>
+   *          the query result type
+   * @param accountIds
+   *          the IDs of the accounts to query
+   * @param query
+   *          the query to run for each account ID
+   * @return the query results, in the same order as {@code accountIds}
+   * @since 1.9
+   */
+  <T> List<T> queryAccounts(List<Long> accountIds, Function<Long, ? extends T> query);
+
+  /**
+   * Export ledger tables in bulk, as CSV.
+   * 
+   * <p>
+   * All tables are exported from the same consistent snapshot of the database. Each table is
+   * written to the stream returned by {@code outputs} for that table, which is closed once the
+   * table has been exported.
+   * </p>
+   * 
+   * @param tables
+   *          the tables to export
+   * @param outputs
+   *          a function to get the stream to write each table to
+   * @param progress
+   *          an optional consumer of the export progress
+   * @return the total number of rows exported
+   * @throws java.io.UncheckedIOException
+   *           if any IO error occurs
+   * @throws IllegalStateException
+   *           if the service is not configured to export ledger tables
+   * @since 1.10
+   */
+  long exportLedger(List<LedgerTable> tables, Function<LedgerTable, OutputStream> outputs,
+      Consumer<LedgerExportProgress> progress);
+
+  /**
+   * Import payments in bulk, from CSV.
+   * 
+   * <p>
+   * All payments are validated before any are added, and are then added in a single transaction,
+   * so either all payments are imported or none are. If any conflicts are found, no payments are
+   * added and the conflicts are returned in the result. See
+   * {@link org.snf.accounting.dao.PaymentImportDao} for the CSV format.
+   * </p>
+   * 
+   * @param csv
+   *          the CSV payment data; it is not closed
+   * @param dryRun
+   *          {@literal true} to only validate the payments, without adding them
+   * @return the import result
+   * @throws java.io.UncheckedIOException
+   *           if any IO error occurs
+   * @throws IllegalStateException
+   *           if the service is not configured to import payments
+   * @since 1.11
+   */
+  PaymentImportResult importPayments(InputStream csv, boolean dryRun);
+
   /**
    * Find payments.
    * 
@@ -102,6 +334,24 @@ public interface AccountService {
    */
   FilterResults<PaymentWithInvoicePayments, UserUuidPK> findFilteredPayments(PaymentFilter filter);
 
+  /**
+   * Stream payments to a consumer.
+   * 
+   * <p>
+   * This is designed for processing large result sets, as the matching payments are not all held
+   * in memory at once. The filter's pagination settings are honoured, but no total result count
+   * is computed.
+   * </p>
+   * 
+   * @param filter
+   *          the filter
+   * @param consumer
+   *          the consumer to pass each matching payment to, in the order defined by the filter
+   * @return the number of payments passed to {@code consumer}
+   * @since 1.2
+   */
+  long streamPayments(PaymentFilter filter, Consumer<PaymentWithInvoicePayments> consumer);
+
   /**
    * Create an invoice generation task for a given account and month.
    * 
@@ -113,6 +363,25 @@ public interface AccountService {
    */
   AccountTask createInvoiceGenerationTask(Long accountId, YearMonth month);
 
+  /**
+   * Create invoice generation tasks for all accounts without an invoice for a given month.
+   * 
+   * <p>
+   * Accounts that already have an invoice for the month, or an invoice generation task for the
+   * month, are skipped. The accounts are found with a single query and the tasks are saved in
+   * batches, so tasks can be created for many accounts at once.
+   * </p>
+   * 
+   * @param month
+   *          the month
+   * @param filter
+   *          an optional filter to restrict the accounts to, using its account ID, user ID, and
+   *          email criteria
+   * @return the created tasks, ordered by account ID, never {@literal null}
+   * @since 1.12
+   */
+  List<AccountTask> createInvoiceGenerationTasks(YearMonth month, AccountFilter filter);
+
   /**
    * Create an invoice deliver task for a given invoice.
    * 
@@ -122,6 +391,27 @@ public interface AccountService {
    */
   AccountTask createInvoiceDeliverTask(final Long invoiceId);
 
+  /**
+   * Create invoice deliver tasks for all invoices matching a filter.
+   * 
+   * <p>
+   * The matching invoices are counted and then streamed, so they are not held in memory, and the
+   * tasks are saved in batches. The task dates are spread evenly over {@code window}, in invoice ID
+   * order, starting from the current time, so the invoices are delivered at a steady rate rather
+   * than all at once. Invoices that already have a pending deliver task are skipped, so this can be
+   * run again after a partial failure without delivering any invoice twice.
+   * </p>
+   * 
+   * @param filter
+   *          the filter of the invoices to deliver
+   * @param window
+   *          the period to spread the task dates over, or {@literal null} or zero to date all tasks
+   *          with the current time
+   * @return the created tasks, ordered by date, never {@literal null}
+   * @since 1.13
+   */
+  List<AccountTask> createInvoiceDeliverTasks(SnfInvoiceFilter filter, Duration window);
+
   /**
    * Add payment to an account, associated with invoices.
    * 
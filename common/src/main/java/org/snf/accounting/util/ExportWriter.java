@@ -0,0 +1,275 @@
+/* ==================================================================
+ * ExportWriter.java - 18/10/2026 7:48:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.snf.accounting.domain.ExportFormat;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Write rows of data to an output stream, one row at a time.
+ * 
+ * <p>
+ * Rows are buffered only up to a fixed size before being written to the stream, so any number of
+ * rows can be written in constant memory, and writing blocks whenever the stream does. Row values
+ * are written as numbers for {@link Number} values, as lists for {@link Collection} values, and
+ * as strings otherwise. The first row is flushed as soon as it is written, so the output starts
+ * immediately.
+ * </p>
+ * 
+ * <p>
+ * Closing the writer closes the output stream.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public abstract class ExportWriter implements Closeable, Flushable {
+
+  /** The delimiter of collection values in CSV output. */
+  public static final char CSV_COLLECTION_DELIMITER = ';';
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /** The column names. */
+  protected final List<String> columns;
+
+  private long rowCount;
+
+  /**
+   * Constructor.
+   * 
+   * @param columns
+   *          the column names
+   */
+  protected ExportWriter(List<String> columns) {
+    super();
+    this.columns = new ArrayList<>(columns);
+  }
+
+  /**
+   * Create a new writer.
+   * 
+   * @param format
+   *          the format to write
+   * @param out
+   *          the stream to write to
+   * @param columns
+   *          the column names
+   * @return the writer
+   * @throws IOException
+   *           if any IO error occurs
+   */
+  public static ExportWriter forFormat(ExportFormat format, OutputStream out,
+      List<String> columns) throws IOException {
+    switch (format) {
+      case Ndjson:
+        return new NdjsonExportWriter(out, columns);
+
+      default:
+        return new CsvExportWriter(out, columns);
+    }
+  }
+
+  /**
+   * Write a row.
+   * 
+   * @param values
+   *          the row values, in column order
+   * @throws IllegalArgumentException
+   *           if the number of values does not match the number of columns
+   * @throws IOException
+   *           if any IO error occurs
+   */
+  public void row(List<?> values) throws IOException {
+    if (values.size() != columns.size()) {
+      throw new IllegalArgumentException("Expected " + columns.size() + " row values but got "
+          + values.size() + ".");
+    }
+    writeRow(values);
+    if (++rowCount == 1) {
+      flush();
+    }
+  }
+
+  /**
+   * Write a row.
+   * 
+   * @param values
+   *          the row values, in column order, with the same number of values as columns
+   * @throws IOException
+   *           if any IO error occurs
+   */
+  protected abstract void writeRow(List<?> values) throws IOException;
+
+  /**
+   * Get the number of rows written.
+   * 
+   * @return the row count
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  private static final class CsvExportWriter extends ExportWriter {
+
+    private final Writer out;
+
+    private CsvExportWriter(OutputStream out, List<String> columns) throws IOException {
+      super(columns);
+      this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      writeRow(columns);
+    }
+
+    @Override
+    protected void writeRow(List<?> values) throws IOException {
+      for (int i = 0, len = values.size(); i < len; i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        Object v = values.get(i);
+        if (v instanceof Collection<?>) {
+          StringBuilder buf = new StringBuilder();
+          for (Iterator<?> itr = ((Collection<?>) v).iterator(); itr.hasNext();) {
+            buf.append(text(itr.next()));
+            if (itr.hasNext()) {
+              buf.append(CSV_COLLECTION_DELIMITER);
+            }
+          }
+          writeField(buf.toString());
+        } else {
+          writeField(text(v));
+        }
+      }
+      out.write('\n');
+    }
+
+    private void writeField(String s) throws IOException {
+      if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0
+          && s.indexOf('\r') < 0) {
+        out.write(s);
+        return;
+      }
+      out.write('"');
+      out.write(s.replace("\"", "\"\""));
+      out.write('"');
+    }
+
+    private static String text(Object v) {
+      if (v == null) {
+        return "";
+      } else if (v instanceof BigDecimal) {
+        return ((BigDecimal) v).toPlainString();
+      }
+      return v.toString();
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  private static final class NdjsonExportWriter extends ExportWriter {
+
+    private final JsonGenerator generator;
+
+    private NdjsonExportWriter(OutputStream out, List<String> columns) throws IOException {
+      super(columns);
+      this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+      this.generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+      this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    protected void writeRow(List<?> values) throws IOException {
+      generator.writeStartObject();
+      for (int i = 0, len = values.size(); i < len; i++) {
+        generator.writeFieldName(columns.get(i));
+        Object v = values.get(i);
+        if (v instanceof Collection<?>) {
+          generator.writeStartArray();
+          for (Object e : (Collection<?>) v) {
+            writeValue(e);
+          }
+          generator.writeEndArray();
+        } else {
+          writeValue(v);
+        }
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    private void writeValue(Object v) throws IOException {
+      if (v == null) {
+        generator.writeNull();
+      } else if (v instanceof BigDecimal) {
+        generator.writeNumber((BigDecimal) v);
+      } else if (v instanceof BigInteger) {
+        generator.writeNumber((BigInteger) v);
+      } else if (v instanceof Double || v instanceof Float) {
+        generator.writeNumber(((Number) v).doubleValue());
+      } else if (v instanceof Number) {
+        generator.writeNumber(((Number) v).longValue());
+      } else if (v instanceof Boolean) {
+        generator.writeBoolean((Boolean) v);
+      } else {
+        generator.writeString(v.toString());
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+  }
+
+}
@@ -24,14 +24,20 @@ package org.snf.accounting.util;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.util.FileCopyUtils;
 
+import net.solarnetwork.dao.GenericDao.StandardSortKey;
+import net.solarnetwork.domain.SimpleSortDescriptor;
+import net.solarnetwork.domain.SortDescriptor;
+
 /**
  * General utilities.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public final class Utils {
 
@@ -59,4 +65,37 @@ public final class Utils {
     }
   }
 
+  /**
+   * Get a list of sorts that includes a unique ID sort, so the resulting order is total.
+   * 
+   * <p>
+   * A total order is required for keyset pagination and for streaming results that have nested
+   * collections, where all the rows of one entity must be adjacent.
+   * </p>
+   * 
+   * @param sorts
+   *          the configured sorts, or {@literal null}
+   * @param defaultSorts
+   *          the sorts to return if {@code sorts} is {@literal null} or empty; must include an
+   *          {@code ID} sort
+   * @return {@code sorts} if it already includes an {@code ID} sort, otherwise a new list with an
+   *         ascending {@code ID} sort appended
+   * @since 1.1
+   */
+  public static List<SortDescriptor> sortsWithIdTiebreaker(List<SortDescriptor> sorts,
+      List<SortDescriptor> defaultSorts) {
+    if (sorts == null || sorts.isEmpty()) {
+      return defaultSorts;
+    }
+    for (SortDescriptor sort : sorts) {
+      if (StandardSortKey.ID.toString().equals(sort.getSortKey())) {
+        return sorts;
+      }
+    }
+    List<SortDescriptor> result = new ArrayList<>(sorts.size() + 1);
+    result.addAll(sorts);
+    result.add(new SimpleSortDescriptor(StandardSortKey.ID.toString(), false));
+    return result;
+  }
+
 }
@@ -0,0 +1,33 @@
+/**
+ * Add the staged payments within a range of line numbers, in line order, each dated at noon in
+ * the account's time zone. Payments without invoice references are allocated to unpaid invoices
+ * by add_invoice_payments. The ID of each added payment is saved in payment_import_added.
+ *
+ * The parameters are the first line number to add, and the line number to stop before.
+ */
+INSERT INTO payment_import_added (line_num, pay_id)
+SELECT s.line_num, pay.id
+FROM (
+	SELECT i.line_num
+		, i.acct_id
+		, i.amount
+		, (i.pay_date + TIME '12:00') AT TIME ZONE addr.time_zone AS pay_ts
+		, inv.inv_ids
+	FROM payment_import i
+	INNER JOIN solarbill.bill_account acct ON acct.id = i.acct_id
+	INNER JOIN solarbill.bill_address addr ON addr.id = acct.addr_id
+	LEFT JOIN LATERAL (
+		SELECT array_agg(DISTINCT ii.inv_id) AS inv_ids
+		FROM payment_import_inv ii
+		WHERE ii.line_num = i.line_num
+	) inv ON TRUE
+	WHERE i.line_num >= ? AND i.line_num < ?
+	ORDER BY i.line_num
+	OFFSET 0
+) s
+CROSS JOIN LATERAL solarbill.add_invoice_payments(
+	accountid => s.acct_id
+	, pay_amount => s.amount
+	, pay_date => s.pay_ts
+	, inv_ids => s.inv_ids
+) pay
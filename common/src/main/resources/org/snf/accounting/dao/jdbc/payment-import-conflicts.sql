@@ -0,0 +1,107 @@
+/**
+ * Find the staged payments that cannot be imported, ordered by line number. A payment that is
+ * more than the amount due of its invoices, less the amounts staged for those invoices by earlier
+ * lines, is a conflict, as is an external key that is repeated or has already been imported for
+ * the account. The full amount of a line is counted against each of its invoices, so lines that
+ * share invoices are checked conservatively. An amount that does not fit the NUMERIC(11,2) payment
+ * amount, because it has more than 2 decimal places or is too large, is also a conflict.
+ */
+WITH inv_due AS (
+	SELECT ii.inv_id, coalesce(itm.total, 0) - coalesce(pay.paid, 0) AS due
+	FROM (SELECT DISTINCT inv_id FROM payment_import_inv WHERE inv_id IS NOT NULL) ii
+	INNER JOIN solarbill.bill_invoice inv ON inv.id = ii.inv_id
+	INNER JOIN LATERAL (
+		SELECT sum(invi.amount) AS total
+		FROM solarbill.bill_invoice_item invi
+		WHERE invi.inv_id = ii.inv_id
+	) itm ON TRUE
+	LEFT JOIN LATERAL (
+		SELECT sum(ipay.amount) AS paid
+		FROM solarbill.bill_invoice_payment ipay
+		WHERE ipay.inv_id = ii.inv_id
+	) pay ON TRUE
+)
+, staged AS (
+	SELECT ii.line_num, ii.inv_id
+		, coalesce(sum(i.amount) OVER (PARTITION BY ii.inv_id ORDER BY ii.line_num
+			ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS prior
+	FROM (SELECT DISTINCT line_num, inv_id FROM payment_import_inv WHERE inv_id IS NOT NULL) ii
+	INNER JOIN payment_import i ON i.line_num = ii.line_num
+)
+, due AS (
+	SELECT s.line_num
+		, sum(greatest(d.due - s.prior, 0)) AS due
+		, bool_or(s.prior > 0) AS prior_staged
+	FROM staged s
+	INNER JOIN inv_due d ON d.inv_id = s.inv_id
+	GROUP BY s.line_num
+)
+SELECT line_num, acct_id, problem
+FROM (
+	SELECT i.line_num, i.acct_id, 'Account, amount, and date are required.' AS problem
+	FROM payment_import i
+	WHERE i.acct_id IS NULL OR i.amount IS NULL OR i.pay_date IS NULL
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'Amount ' || i.amount || ' is not positive.'
+	FROM payment_import i
+	WHERE i.amount <= 0
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'Amount ' || i.amount || ' has more than 2 decimal places.'
+	FROM payment_import i
+	WHERE i.amount <> round(i.amount, 2)
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'Amount ' || i.amount || ' is too large.'
+	FROM payment_import i
+	WHERE i.amount >= 1000000000
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'Account not found.'
+	FROM payment_import i
+	WHERE i.acct_id IS NOT NULL
+		AND NOT EXISTS (SELECT 1 FROM solarbill.bill_account acct WHERE acct.id = i.acct_id)
+
+	UNION ALL
+	SELECT ii.line_num, i.acct_id, 'Invoice reference ' || ii.ref || ' is not valid.'
+	FROM payment_import_inv ii
+	INNER JOIN payment_import i ON i.line_num = ii.line_num
+	WHERE ii.inv_id IS NULL
+
+	UNION ALL
+	SELECT ii.line_num, i.acct_id, 'Invoice ' || ii.ref || ' not found for account.'
+	FROM payment_import_inv ii
+	INNER JOIN payment_import i ON i.line_num = ii.line_num
+	WHERE ii.inv_id IS NOT NULL
+		AND NOT EXISTS (
+			SELECT 1 FROM solarbill.bill_invoice inv
+			WHERE inv.id = ii.inv_id AND inv.acct_id = i.acct_id
+		)
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'Amount ' || i.amount || ' is more than invoices due ' || d.due
+		|| CASE WHEN d.prior_staged THEN ' after earlier lines' ELSE '' END || '.'
+	FROM payment_import i
+	INNER JOIN due d ON d.line_num = i.line_num
+	WHERE i.amount > d.due
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'External key ' || i.ext_key || ' is repeated.'
+	FROM payment_import i
+	WHERE i.ext_key IS NOT NULL
+		AND EXISTS (
+			SELECT 1 FROM payment_import o
+			WHERE o.acct_id = i.acct_id AND o.ext_key = i.ext_key AND o.line_num < i.line_num
+		)
+
+	UNION ALL
+	SELECT i.line_num, i.acct_id, 'External key ' || i.ext_key || ' already imported.'
+	FROM payment_import i
+	WHERE i.ext_key IS NOT NULL
+		AND EXISTS (
+			SELECT 1 FROM solarbill.bill_payment pay
+			WHERE pay.acct_id = i.acct_id AND pay.ext_key = i.ext_key
+		)
+) c
+ORDER BY line_num, problem
@@ -0,0 +1,21 @@
+/**
+ * Staging table for a payment import, in CSV column order after line_num. The line number of
+ * each row is assigned in file order, starting from 2 to account for the CSV header row. The
+ * amount keeps the scale given in the file, so amounts that do not fit a payment are reported as
+ * conflicts rather than rounded.
+ */
+CREATE TEMPORARY TABLE payment_import (
+	line_num		BIGINT GENERATED ALWAYS AS IDENTITY (START WITH 2) PRIMARY KEY,
+	acct_id			BIGINT,
+	amount			NUMERIC,
+	pay_date		DATE,
+	inv_refs		TEXT,
+	ref				TEXT,
+	ext_key			TEXT
+) ON COMMIT DROP;
+
+/* The IDs of the payments added for each staged row. */
+CREATE TEMPORARY TABLE payment_import_added (
+	line_num		BIGINT NOT NULL PRIMARY KEY,
+	pay_id			UUID NOT NULL
+) ON COMMIT DROP;
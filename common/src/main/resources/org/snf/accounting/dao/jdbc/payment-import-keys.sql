@@ -0,0 +1,15 @@
+/**
+ * Save the reference and external key of the imported payments, and return the IDs of the
+ * invoices the payments were applied to.
+ */
+WITH upd AS (
+	UPDATE solarbill.bill_payment pay
+	SET ref = i.ref, ext_key = i.ext_key
+	FROM payment_import_added a
+	INNER JOIN payment_import i ON i.line_num = a.line_num
+	WHERE pay.id = a.pay_id
+		AND (i.ref IS NOT NULL OR i.ext_key IS NOT NULL)
+)
+SELECT DISTINCT ipay.inv_id
+FROM payment_import_added a
+INNER JOIN solarbill.bill_invoice_payment ipay ON ipay.pay_id = a.pay_id
@@ -0,0 +1,19 @@
+/**
+ * Resolve the invoice references of each staged payment, separated by semicolons or spaces, to
+ * invoice IDs. References are either invoice IDs or invoice numbers like INV-3F, where the part
+ * after INV- is the invoice ID in base 36. Invalid references have a NULL inv_id.
+ */
+CREATE TEMPORARY TABLE payment_import_inv ON COMMIT DROP AS
+SELECT i.line_num
+	, r.ref
+	, CASE
+		WHEN r.ref ~ '^[0-9]{1,18}$' THEN r.ref::BIGINT
+		WHEN upper(r.ref) ~ '^INV-[0-9A-Z]{1,12}$' THEN (
+			SELECT sum((strpos('0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ', substr(n.num, p, 1)) - 1)
+				* power(36::NUMERIC, length(n.num) - p))::BIGINT
+			FROM (SELECT substr(upper(r.ref), 5) AS num) n, generate_series(1, length(n.num)) p
+		)
+	END AS inv_id
+FROM payment_import i
+CROSS JOIN LATERAL regexp_split_to_table(trim(i.inv_refs), '[\s;]+') r(ref)
+WHERE trim(i.inv_refs) <> ''
@@ -0,0 +1,106 @@
+/**
+ * Maintained per-invoice balance, so unpaid invoices can be found without summing the items and
+ * payments of every invoice.
+ *
+ * The balance rows are maintained by triggers on the invoice, invoice item, and invoice payment
+ * tables, so they stay current regardless of which application modifies those tables. The rows
+ * are adjusted by the amount of each change, rather than recalculated, so concurrent changes to
+ * the same invoice are serialized by the balance row lock.
+ *
+ * After creating the table, the balances of existing invoices are populated at the end of this
+ * script. They can be verified with the invoice-balances-verify command, and rebuilt with the
+ * invoice-balances-rebuild command.
+ */
+CREATE TABLE IF NOT EXISTS solarbill.bill_invoice_bal (
+	inv_id			BIGINT NOT NULL,
+	acct_id			BIGINT NOT NULL,
+	total_amount	NUMERIC(11,2) NOT NULL DEFAULT 0,
+	paid_amount		NUMERIC(11,2) NOT NULL DEFAULT 0,
+	CONSTRAINT bill_invoice_bal_pkey PRIMARY KEY (inv_id),
+	CONSTRAINT bill_invoice_bal_inv_fk FOREIGN KEY (inv_id)
+		REFERENCES solarbill.bill_invoice (id) MATCH SIMPLE
+		ON UPDATE NO ACTION ON DELETE CASCADE
+);
+
+/* Supports unpaid invoice queries, optionally by account, as an index scan. */
+CREATE INDEX IF NOT EXISTS bill_invoice_bal_unpaid_idx ON solarbill.bill_invoice_bal (acct_id, inv_id)
+	WHERE paid_amount < total_amount;
+
+/**
+ * Adjust the balance of an invoice.
+ *
+ * @param invid the ID of the invoice to adjust
+ * @param acctid if not NULL, only adjust if the invoice belongs to this account
+ * @param total_delta the amount to add to the invoice total
+ * @param paid_delta the amount to add to the invoice paid amount
+ */
+CREATE OR REPLACE FUNCTION solarbill.adjust_invoice_bal(
+	invid BIGINT, acctid BIGINT, total_delta NUMERIC, paid_delta NUMERIC)
+	RETURNS VOID LANGUAGE SQL VOLATILE AS
+$$
+	INSERT INTO solarbill.bill_invoice_bal AS bal (inv_id, acct_id, total_amount, paid_amount)
+	SELECT inv.id, inv.acct_id, total_delta, paid_delta
+	FROM solarbill.bill_invoice inv
+	WHERE inv.id = invid AND (acctid IS NULL OR inv.acct_id = acctid)
+	ON CONFLICT (inv_id) DO UPDATE
+	SET total_amount = bal.total_amount + EXCLUDED.total_amount,
+		paid_amount = bal.paid_amount + EXCLUDED.paid_amount
+$$;
+
+CREATE OR REPLACE FUNCTION solarbill.maintain_invoice_bal()
+	RETURNS TRIGGER LANGUAGE plpgsql VOLATILE AS
+$$
+BEGIN
+	IF TG_TABLE_NAME = 'bill_invoice' THEN
+		PERFORM solarbill.adjust_invoice_bal(NEW.id, NULL, 0, 0);
+	ELSIF TG_TABLE_NAME = 'bill_invoice_item' THEN
+		IF TG_OP IN ('UPDATE', 'DELETE') THEN
+			PERFORM solarbill.adjust_invoice_bal(OLD.inv_id, NULL, -OLD.amount, 0);
+		END IF;
+		IF TG_OP IN ('INSERT', 'UPDATE') THEN
+			PERFORM solarbill.adjust_invoice_bal(NEW.inv_id, NULL, NEW.amount, 0);
+		END IF;
+	ELSE
+		-- only payments for the invoice's own account count towards its balance
+		IF TG_OP IN ('UPDATE', 'DELETE') THEN
+			PERFORM solarbill.adjust_invoice_bal(OLD.inv_id, OLD.acct_id, 0, -OLD.amount);
+		END IF;
+		IF TG_OP IN ('INSERT', 'UPDATE') THEN
+			PERFORM solarbill.adjust_invoice_bal(NEW.inv_id, NEW.acct_id, 0, NEW.amount);
+		END IF;
+	END IF;
+	RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS maintain_invoice_bal ON solarbill.bill_invoice;
+CREATE TRIGGER maintain_invoice_bal
+	AFTER INSERT ON solarbill.bill_invoice
+	FOR EACH ROW EXECUTE PROCEDURE solarbill.maintain_invoice_bal();
+
+DROP TRIGGER IF EXISTS maintain_invoice_bal ON solarbill.bill_invoice_item;
+CREATE TRIGGER maintain_invoice_bal
+	AFTER INSERT OR UPDATE OF inv_id, amount OR DELETE ON solarbill.bill_invoice_item
+	FOR EACH ROW EXECUTE PROCEDURE solarbill.maintain_invoice_bal();
+
+DROP TRIGGER IF EXISTS maintain_invoice_bal ON solarbill.bill_invoice_payment;
+CREATE TRIGGER maintain_invoice_bal
+	AFTER INSERT OR UPDATE OF inv_id, acct_id, amount OR DELETE ON solarbill.bill_invoice_payment
+	FOR EACH ROW EXECUTE PROCEDURE solarbill.maintain_invoice_bal();
+
+/* Populate the balances of existing invoices. */
+INSERT INTO solarbill.bill_invoice_bal (inv_id, acct_id, total_amount, paid_amount)
+SELECT inv.id
+	, inv.acct_id
+	, COALESCE((
+		SELECT SUM(invi.amount)
+		FROM solarbill.bill_invoice_item invi
+		WHERE invi.inv_id = inv.id
+		), 0)
+	, COALESCE((
+		SELECT SUM(ipay.amount)
+		FROM solarbill.bill_invoice_payment ipay
+		WHERE ipay.inv_id = inv.id AND ipay.acct_id = inv.acct_id
+		), 0)
+FROM solarbill.bill_invoice inv
+ON CONFLICT (inv_id) DO NOTHING;
@@ -0,0 +1,38 @@
+/**
+ * Accounts-receivable snapshots: the billed and paid amounts of each invoice as of a point in
+ * time, typically the end of an accounting period.
+ *
+ * Unpaid invoice queries for a past date start from the nearest snapshot at or before that date,
+ * and only sum the invoice items and payments created between the snapshot and that date.
+ *
+ * Snapshots are taken by the scheduled invoice snapshot job, or by the invoice-snapshot-create
+ * command. A snapshot only reflects the items and payments created before its date at the time
+ * it was taken; if items or payments are later added with an earlier creation date, the snapshot
+ * must be taken again to include them.
+ *
+ * Invoices whose billed and paid amounts are both zero at the snapshot date are not included,
+ * as they are equivalent to having no snapshot row.
+ */
+CREATE TABLE IF NOT EXISTS solarbill.bill_invoice_snap (
+	snap_date		TIMESTAMP WITH TIME ZONE NOT NULL,
+	inv_id			BIGINT NOT NULL,
+	acct_id			BIGINT NOT NULL,
+	total_amount	NUMERIC(11,2) NOT NULL,
+	paid_amount		NUMERIC(11,2) NOT NULL,
+	CONSTRAINT bill_invoice_snap_pkey PRIMARY KEY (snap_date, inv_id),
+	CONSTRAINT bill_invoice_snap_inv_fk FOREIGN KEY (inv_id)
+		REFERENCES solarbill.bill_invoice (id) MATCH SIMPLE
+		ON UPDATE NO ACTION ON DELETE CASCADE
+);
+
+/* Supports deleting invoices, via the foreign key. */
+CREATE INDEX IF NOT EXISTS bill_invoice_snap_inv_idx ON solarbill.bill_invoice_snap (inv_id);
+
+/*
+ * Support summing only the items and payments of an invoice created after a snapshot, rather than
+ * reading all of them and filtering by creation date.
+ */
+CREATE INDEX IF NOT EXISTS bill_invoice_item_inv_created_idx
+	ON solarbill.bill_invoice_item (inv_id, created);
+CREATE INDEX IF NOT EXISTS bill_invoice_payment_inv_created_idx
+	ON solarbill.bill_invoice_payment (inv_id, created);
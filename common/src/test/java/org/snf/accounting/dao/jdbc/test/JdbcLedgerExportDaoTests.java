@@ -0,0 +1,154 @@
+/* ==================================================================
+ * JdbcLedgerExportDaoTests.java - 18/10/2026 8:05:41 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc.test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.snf.accounting.dao.jdbc.JdbcLedgerExportDao;
+import org.snf.accounting.domain.LedgerExportProgress;
+import org.snf.accounting.domain.LedgerTable;
+
+/**
+ * Test cases for the {@link JdbcLedgerExportDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class JdbcLedgerExportDaoTests {
+
+  private Connection con;
+  private CopyManager copyManager;
+  private CopyOut copyOut;
+  private JdbcLedgerExportDao dao;
+
+  @Before
+  public void setup() throws SQLException {
+    final DataSource dataSource = mock(DataSource.class);
+    con = mock(Connection.class);
+    final PGConnection pgCon = mock(PGConnection.class);
+    copyManager = mock(CopyManager.class);
+    copyOut = mock(CopyOut.class);
+    when(dataSource.getConnection()).thenReturn(con);
+    when(con.unwrap(PGConnection.class)).thenReturn(pgCon);
+    when(pgCon.getCopyAPI()).thenReturn(copyManager);
+    dao = new JdbcLedgerExportDao(dataSource);
+  }
+
+  private static byte[] utf8(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void copySql() {
+    assertThat("Payments COPY", JdbcLedgerExportDao.copySql(LedgerTable.Payments),
+        equalTo("COPY (SELECT id, created, acct_id, pay_type, amount, currency, ext_key, ref"
+            + " FROM solarbill.bill_payment) TO STDOUT WITH (FORMAT csv, HEADER)"));
+  }
+
+  @Test
+  public void copyOut() throws Exception {
+    when(copyManager.copyOut(JdbcLedgerExportDao.copySql(LedgerTable.Invoices)))
+        .thenReturn(copyOut);
+    when(copyOut.readFromCopy()).thenReturn(utf8("id,acct_id\n"), utf8("1,2\n"), utf8("3,4\n"),
+        null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<LedgerExportProgress> progress = new ArrayList<>();
+
+    long count = dao.copyOut(LedgerTable.Invoices, out, progress::add);
+
+    assertThat("Row count excludes header", count, equalTo(2L));
+    assertThat("Rows copied", new String(out.toByteArray(), StandardCharsets.UTF_8),
+        equalTo("id,acct_id\n1,2\n3,4\n"));
+    assertThat("Start and completion progress", progress.size(), equalTo(2));
+    LedgerExportProgress done = progress.get(1);
+    assertThat("Complete", done.isComplete(), equalTo(true));
+    assertThat("Complete row count", done.getRowCount(), equalTo(2L));
+    assertThat("Complete byte count", done.getByteCount(), equalTo(19L));
+    verify(con).close();
+  }
+
+  @Test
+  public void copyOut_periodicProgress() throws Exception {
+    when(copyManager.copyOut(JdbcLedgerExportDao.copySql(LedgerTable.Payments)))
+        .thenReturn(copyOut);
+    final int rowCount = JdbcLedgerExportDao.PROGRESS_ROW_COUNT * 2 + 1;
+    final byte[] row = utf8("x\n");
+    final int[] read = new int[] { 0 };
+    when(copyOut.readFromCopy()).then(invocation -> {
+      return (read[0]++ <= rowCount ? row : null);
+    });
+    List<Long> progressRows = new ArrayList<>();
+
+    long count = dao.copyOut(LedgerTable.Payments, new ByteArrayOutputStream(),
+        p -> progressRows.add(p.getRowCount()));
+
+    assertThat("Row count", count, equalTo((long) rowCount));
+    assertThat("Progress rows", progressRows, contains(0L,
+        (long) JdbcLedgerExportDao.PROGRESS_ROW_COUNT,
+        (long) JdbcLedgerExportDao.PROGRESS_ROW_COUNT * 2, (long) rowCount));
+  }
+
+  @Test
+  public void copyOut_ioError() throws Exception {
+    when(copyManager.copyOut(JdbcLedgerExportDao.copySql(LedgerTable.InvoiceItems)))
+        .thenReturn(copyOut);
+    when(copyOut.readFromCopy()).thenReturn(utf8("id\n"));
+    when(copyOut.isActive()).thenReturn(true);
+    OutputStream out = mock(OutputStream.class);
+    doThrow(new IOException("Broken pipe")).when(out).write(any(byte[].class));
+
+    try {
+      dao.copyOut(LedgerTable.InvoiceItems, out, null);
+      fail("IOException should be thrown");
+    } catch (IOException e) {
+      assertThat("IO error", e.getMessage(), equalTo("Broken pipe"));
+    }
+    verify(copyOut).cancelCopy();
+    verify(con).close();
+  }
+
+}
@@ -0,0 +1,242 @@
+/* ==================================================================
+ * JdbcPaymentImportDaoDatabaseTests.java - 19/10/2026 9:12:40 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc.test;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.jdbc.JdbcPaymentImportDao;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceItemDao;
+import org.snf.accounting.dao.mybatis.test.AbstractMyBatisTest;
+import org.snf.accounting.dao.mybatis.test.TestApplication;
+import org.snf.accounting.domain.PaymentImportConflict;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+
+/**
+ * Database test cases for the {@link JdbcPaymentImportDao} class, that run the import SQL.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@ContextConfiguration(classes = TestApplication.class)
+@Import({ MyBatisAddressDao.class, MyBatisAccountDao.class, MyBatisInvoiceDao.class,
+    MyBatisInvoiceItemDao.class })
+public class JdbcPaymentImportDaoDatabaseTests extends AbstractMyBatisTest {
+
+  private static final String CSV_HEADER = "account_id,amount,date,invoices,ref,ext_key\n";
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao accountDao;
+
+  @Autowired
+  private MyBatisInvoiceDao invoiceDao;
+
+  @Autowired
+  private MyBatisInvoiceItemDao itemDao;
+
+  private JdbcPaymentImportDao dao;
+  private Account account;
+
+  @Before
+  public void setup() {
+    dao = new JdbcPaymentImportDao(dataSource);
+    Address address = addressDao.get(addressDao.save(createTestAddress()));
+    account = accountDao.get(accountDao.save(createTestAccount(address)));
+  }
+
+  private Long setupTestInvoice(String amount) {
+    SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(),
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    inv.setAddress(account.getAddress());
+    inv.setCurrencyCode(account.getCurrencyCode());
+    inv.setStartDate(LocalDate.of(2026, 9, 1));
+    inv.setEndDate(LocalDate.of(2026, 10, 1));
+    Long invoiceId = invoiceDao.save(inv).getId();
+    SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId,
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    item.setItemType(InvoiceItemType.Fixed);
+    item.setKey("test");
+    item.setAmount(new BigDecimal(amount));
+    item.setQuantity(BigDecimal.ONE);
+    itemDao.save(item);
+    getSqlSessionTemplate().flushStatements();
+    return invoiceId;
+  }
+
+  private static String invoiceNum(Long invoiceId) {
+    return "INV-" + Long.toString(invoiceId, 36).toUpperCase();
+  }
+
+  private long load(String... lines) throws IOException {
+    StringBuilder buf = new StringBuilder(CSV_HEADER);
+    for (String line : lines) {
+      buf.append(line).append('\n');
+    }
+    return dao.load(new ByteArrayInputStream(buf.toString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private BigDecimal invoicePaid(Long invoiceId) {
+    return getJdbcTemplate().queryForObject("SELECT coalesce(sum(amount), 0)"
+        + " FROM solarbill.bill_invoice_payment WHERE inv_id = ?", BigDecimal.class, invoiceId);
+  }
+
+  @Test
+  public void findConflicts() throws IOException {
+    // GIVEN
+    final Long acctId = account.getId().getId();
+    final Long inv1 = setupTestInvoice("100.00");
+    final Long inv2 = setupTestInvoice("50.00");
+    load(format("%d,60.00,2026-10-01,%s,,key-1", acctId, invoiceNum(inv1)),
+        format("%d,60.00,2026-10-02,%d,,key-2", acctId, inv1),
+        format("%d,50.00,2026-10-02,%s;%d,,key-1", acctId, invoiceNum(inv2), inv2),
+        format("%d,10.00,2026-10-03,foo,,", acctId),
+        format("%d,-1.00,2026-10-03,%d,,", acctId, inv2),
+        format("%d,10.00,2026-10-03,,,", -acctId),
+        format("%d,10.00,2026-10-03,999999999999,,", acctId));
+
+    // WHEN
+    List<PaymentImportConflict> conflicts = dao.findConflicts();
+
+    // THEN
+    assertThat("Conflict lines", conflicts.stream().map(PaymentImportConflict::getLineNumber)
+        .collect(toList()), contains(3L, 4L, 5L, 6L, 7L, 8L));
+    assertThat("Invoice over-allocated across lines", conflicts.get(0).getMessage(),
+        containsString("after earlier lines"));
+    assertThat("Repeated external key", conflicts.get(1).getMessage(),
+        equalTo("External key key-1 is repeated."));
+    assertThat("Invalid reference", conflicts.get(2).getMessage(),
+        equalTo("Invoice reference foo is not valid."));
+    assertThat("Not positive", conflicts.get(3).getMessage(),
+        equalTo("Amount -1.00 is not positive."));
+    assertThat("Unknown account", conflicts.get(4).getMessage(), equalTo("Account not found."));
+    assertThat("Unknown invoice", conflicts.get(5).getMessage(), containsString("not found"));
+  }
+
+  @Test
+  public void findConflicts_sharedInvoiceWithinDue() throws IOException {
+    // GIVEN
+    final Long acctId = account.getId().getId();
+    final Long inv = setupTestInvoice("100.00");
+    load(format("%d,40.00,2026-10-01,%s,,", acctId, invoiceNum(inv)),
+        format("%d,60.00,2026-10-02,%d,,", acctId, inv));
+
+    // WHEN
+    List<PaymentImportConflict> conflicts = dao.findConflicts();
+
+    // THEN
+    assertThat("Lines within invoice due in total", conflicts, empty());
+  }
+
+  @Test
+  public void findConflicts_amountNotRounded() throws IOException {
+    // GIVEN
+    final Long acctId = account.getId().getId();
+    final Long inv = setupTestInvoice("100.00");
+    load(format("%d,10.005,2026-10-01,%d,,", acctId, inv),
+        format("%d,10.50,2026-10-01,%d,,", acctId, inv),
+        format("%d,1000000000.00,2026-10-01,,,", acctId));
+
+    // WHEN
+    List<PaymentImportConflict> conflicts = dao.findConflicts();
+
+    // THEN
+    assertThat("Conflict lines", conflicts.stream().map(PaymentImportConflict::getLineNumber)
+        .collect(toList()), contains(2L, 4L));
+    assertThat("Extra decimal places", conflicts.get(0).getMessage(),
+        equalTo("Amount 10.005 has more than 2 decimal places."));
+    assertThat("Too large", conflicts.get(1).getMessage(),
+        equalTo("Amount 1000000000.00 is too large."));
+    assertThat("Total amount not rounded", dao.totalAmount(),
+        comparesEqualTo(new BigDecimal("1000000020.505")));
+  }
+
+  @Test
+  public void apply() throws IOException {
+    // GIVEN
+    final Long acctId = account.getId().getId();
+    final Long inv1 = setupTestInvoice("100.00");
+    final Long inv2 = setupTestInvoice("50.00");
+    final long loaded = load(
+        format("%d,40.00,2026-10-01,%s,Ref A,key-1", acctId, invoiceNum(inv1)),
+        format("%d,60.00,2026-10-02,%d,,key-2", acctId, inv1),
+        format("%d,50.00,2026-10-03,%s %d,,", acctId, invoiceNum(inv2), inv2));
+    assertThat("Loaded", loaded, equalTo(3L));
+    assertThat("No conflicts", dao.findConflicts(), empty());
+    assertThat("Total amount", dao.totalAmount(), comparesEqualTo(new BigDecimal("150.00")));
+
+    // WHEN
+    dao.setBatchSize(2);
+    final long added = dao.apply();
+
+    // THEN
+    assertThat("Payments added over batches", added, equalTo(3L));
+    assertThat("Invoice 1 paid", invoicePaid(inv1), comparesEqualTo(new BigDecimal("100.00")));
+    assertThat("Invoice 2 paid", invoicePaid(inv2), comparesEqualTo(new BigDecimal("50.00")));
+    List<Map<String, Object>> payments = getJdbcTemplate().queryForList(
+        "SELECT amount, ref, ext_key FROM solarbill.bill_payment WHERE acct_id = ?"
+            + " ORDER BY amount",
+        acctId);
+    assertThat("Payment count", payments.size(), equalTo(3));
+    assertThat("Payment ref saved", payments.get(0).get("ref"), equalTo("Ref A"));
+    assertThat("Payment key saved", payments.get(0).get("ext_key"), equalTo("key-1"));
+    assertThat("Payment key saved", payments.get(2).get("ext_key"), equalTo("key-2"));
+  }
+
+}
@@ -0,0 +1,178 @@
+/* ==================================================================
+ * JdbcPaymentImportDaoTests.java - 18/10/2026 8:22:10 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc.test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.snf.accounting.dao.jdbc.JdbcPaymentImportDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.domain.PaymentImportConflict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Test cases for the {@link JdbcPaymentImportDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class JdbcPaymentImportDaoTests {
+
+  private Connection con;
+  private Statement stmt;
+  private CopyManager copyManager;
+  private JdbcPaymentImportDao dao;
+
+  @Before
+  public void setup() throws SQLException {
+    final DataSource dataSource = mock(DataSource.class);
+    con = mock(Connection.class);
+    stmt = mock(Statement.class);
+    final PGConnection pgCon = mock(PGConnection.class);
+    copyManager = mock(CopyManager.class);
+    when(dataSource.getConnection()).thenReturn(con);
+    when(con.createStatement()).thenReturn(stmt);
+    when(con.unwrap(PGConnection.class)).thenReturn(pgCon);
+    when(pgCon.getCopyAPI()).thenReturn(copyManager);
+    dao = new JdbcPaymentImportDao(dataSource);
+  }
+
+  @Test
+  public void load() throws Exception {
+    InputStream in = new ByteArrayInputStream(
+        "account_id,amount,date,invoices,ref,ext_key\n1,10.00,2026-10-01,INV-1,,\n"
+            .getBytes(StandardCharsets.UTF_8));
+    when(copyManager.copyIn(JdbcPaymentImportDao.COPY_SQL, in)).thenReturn(1L);
+
+    long count = dao.load(in);
+
+    assertThat("Loaded count", count, equalTo(1L));
+    ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+    verify(stmt, times(4)).execute(sqlCaptor.capture());
+    List<String> sql = sqlCaptor.getAllValues();
+    assertThat("Staging table created first",
+        sql.get(0).contains("CREATE TEMPORARY TABLE payment_import ("), equalTo(true));
+    assertThat("References resolved",
+        sql.get(1).contains("CREATE TEMPORARY TABLE payment_import_inv"), equalTo(true));
+    verify(con).close();
+  }
+
+  @Test
+  public void findConflicts() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    when(stmt.executeQuery(anyString())).thenReturn(rs);
+    when(rs.next()).thenReturn(true, true, false);
+    when(rs.getLong(1)).thenReturn(2L, 3L);
+    when(rs.getLong(2)).thenReturn(123L, 0L);
+    when(rs.wasNull()).thenReturn(false, true);
+    when(rs.getString(3)).thenReturn("Account not found.",
+        "Account, amount, and date are required.");
+
+    List<PaymentImportConflict> conflicts = dao.findConflicts();
+
+    assertThat("Conflict count", conflicts.size(), equalTo(2));
+    assertThat("Conflict line", conflicts.get(0).getLineNumber(), equalTo(2L));
+    assertThat("Conflict account", conflicts.get(0).getAccountId(), equalTo(123L));
+    assertThat("Conflict message", conflicts.get(0).getMessage(),
+        equalTo("Account not found."));
+    assertThat("Missing account", conflicts.get(1).getAccountId(), nullValue());
+  }
+
+  @Test
+  public void apply_batches() throws Exception {
+    dao.setBatchSize(1000);
+    CacheManager cacheManager = mock(CacheManager.class);
+    Cache cache = mock(Cache.class);
+    when(cacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE)).thenReturn(cache);
+    dao.setCacheManager(cacheManager);
+
+    ResultSet lines = mock(ResultSet.class);
+    when(lines.next()).thenReturn(true);
+    when(lines.getLong(1)).thenReturn(2L);
+    when(lines.getLong(2)).thenReturn(2501L);
+    ResultSet invoices = mock(ResultSet.class);
+    when(invoices.next()).thenReturn(true, true, false);
+    when(invoices.getLong(1)).thenReturn(10L, 11L);
+    when(stmt.executeQuery(anyString())).thenReturn(lines, invoices);
+
+    PreparedStatement apply = mock(PreparedStatement.class);
+    when(con.prepareStatement(anyString())).thenReturn(apply);
+    when(apply.executeUpdate()).thenReturn(1000, 1000, 500);
+
+    long count = dao.apply();
+
+    assertThat("Added count", count, equalTo(2500L));
+    ArgumentCaptor<Long> starts = ArgumentCaptor.forClass(Long.class);
+    verify(apply, times(3)).setLong(same(1), starts.capture());
+    assertThat("Batch starts", starts.getAllValues(), contains(2L, 1002L, 2002L));
+    verify(cache).evict(10L);
+    verify(cache).evict(11L);
+    verify(con).close();
+  }
+
+  @Test
+  public void apply_empty() throws Exception {
+    ResultSet lines = mock(ResultSet.class);
+    when(lines.next()).thenReturn(true);
+    when(lines.wasNull()).thenReturn(true);
+    when(stmt.executeQuery(anyString())).thenReturn(lines);
+
+    long count = dao.apply();
+
+    assertThat("Nothing added", count, equalTo(0L));
+    verify(con, never()).prepareStatement(anyString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void batchSize_invalid() {
+    dao.setBatchSize(0);
+  }
+
+}
@@ -0,0 +1,217 @@
+/* ==================================================================
+ * ReplicaRoutingDataSourceTests.java - 18/10/2026 6:04:31 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.jdbc.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.jdbc.ReplicaRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test cases for the {@link ReplicaRoutingDataSource} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSourceTests {
+
+  private DataSource primary;
+  private DataSource replica1;
+  private DataSource replica2;
+  private Connection primaryConn;
+  private Connection replica1Conn;
+  private Connection replica2Conn;
+  private MutableClock clock;
+  private ReplicaRoutingDataSource ds;
+
+  private static final class MutableClock extends Clock {
+
+    // start well after any read-your-writes window left on the test thread by another test
+    private Instant now = Instant.now().plus(1, ChronoUnit.DAYS);
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    private void advance(Duration d) {
+      now = now.plus(d);
+    }
+  }
+
+  @Before
+  public void setup() throws SQLException {
+    primary = mock(DataSource.class);
+    replica1 = mock(DataSource.class);
+    replica2 = mock(DataSource.class);
+    primaryConn = mock(Connection.class);
+    replica1Conn = mock(Connection.class);
+    replica2Conn = mock(Connection.class);
+    when(primary.getConnection()).thenReturn(primaryConn);
+    when(replica1.getConnection()).thenReturn(replica1Conn);
+    when(replica2.getConnection()).thenReturn(replica2Conn);
+    clock = new MutableClock();
+    ds = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), clock);
+    ds.afterPropertiesSet();
+  }
+
+  @After
+  public void teardown() {
+    endTransaction();
+  }
+
+  private static void readOnly(boolean readOnly) {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+  }
+
+  private static void endTransaction() {
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  private static void givenLag(Connection conn, double lag) throws SQLException {
+    Statement stmt = mock(Statement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(conn.createStatement()).thenReturn(stmt);
+    when(stmt.executeQuery(anyString())).thenReturn(rs);
+    when(rs.next()).thenReturn(true);
+    when(rs.getDouble(1)).thenReturn(lag);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void construct_noPrimary() {
+    new ReplicaRoutingDataSource(null, Arrays.asList(replica1), clock);
+  }
+
+  @Test
+  public void readOnly_noReplicasChecked() throws SQLException {
+    readOnly(true);
+    assertThat("Primary used before replicas checked", ds.getConnection(),
+        sameInstance(primaryConn));
+  }
+
+  @Test
+  public void readOnly_roundRobin() throws SQLException {
+    givenLag(replica1Conn, 0);
+    givenLag(replica2Conn, 1);
+    ds.checkReplicas();
+    assertThat("Replicas available", ds.getAvailableReplicaCount(), equalTo(2));
+
+    readOnly(true);
+    Connection first = ds.getConnection();
+    Connection second = ds.getConnection();
+    Connection third = ds.getConnection();
+    assertThat("Replica 1 used", first, sameInstance(replica1Conn));
+    assertThat("Replica 2 used", second, sameInstance(replica2Conn));
+    assertThat("Replicas used in turn", third, sameInstance(replica1Conn));
+  }
+
+  @Test
+  public void readOnly_laggingReplicaSkipped() throws SQLException {
+    ds.setMaxLagSeconds(10);
+    givenLag(replica1Conn, 60);
+    givenLag(replica2Conn, 2);
+    ds.checkReplicas();
+    assertThat("Lagging replica unavailable", ds.getAvailableReplicaCount(), equalTo(1));
+
+    readOnly(true);
+    assertThat("Replica 2 used", ds.getConnection(), sameInstance(replica2Conn));
+    assertThat("Replica 2 used again", ds.getConnection(), sameInstance(replica2Conn));
+  }
+
+  @Test
+  public void readOnly_unreachableReplicaSkipped() throws SQLException {
+    when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+    givenLag(replica2Conn, 0);
+    ds.checkReplicas();
+    assertThat("Unreachable replica unavailable", ds.getAvailableReplicaCount(), equalTo(1));
+  }
+
+  @Test
+  public void readWrite_primary() throws SQLException {
+    givenLag(replica1Conn, 0);
+    givenLag(replica2Conn, 0);
+    ds.checkReplicas();
+
+    endTransaction();
+    assertThat("Primary used outside read-only transaction", ds.getConnection(),
+        sameInstance(primaryConn));
+  }
+
+  @Test
+  public void readYourWrites() throws SQLException {
+    ds.setReadYourWritesSeconds(30);
+    givenLag(replica1Conn, 0);
+    givenLag(replica2Conn, 0);
+    ds.checkReplicas();
+
+    readOnly(false);
+    assertThat("Primary used for write", ds.getConnection(), sameInstance(primaryConn));
+    endTransaction();
+
+    clock.advance(Duration.ofSeconds(29));
+    readOnly(true);
+    assertThat("Primary used for read after write", ds.getConnection(),
+        sameInstance(primaryConn));
+    endTransaction();
+
+    clock.advance(Duration.ofSeconds(1));
+    readOnly(true);
+    assertThat("Replica used after read-your-writes window", ds.getConnection(),
+        sameInstance(replica1Conn));
+  }
+
+}
@@ -22,6 +22,11 @@
 
 package org.snf.accounting.dao.mybatis.test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
@@ -37,6 +42,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.FileCopyUtils;
 
 import net.solarnetwork.central.user.billing.snf.domain.Account;
 import net.solarnetwork.central.user.billing.snf.domain.Address;
@@ -45,7 +51,7 @@ import net.solarnetwork.central.user.billing.snf.domain.Address;
  * Base class for MyBatis tests.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 @RunWith(SpringRunner.class)
 @MybatisTest
@@ -64,6 +70,27 @@ public abstract class AbstractMyBatisTest {
     return sqlSessionTemplate;
   }
 
+  protected JdbcOperations getJdbcTemplate() {
+    return jdbcTemplate;
+  }
+
+  /**
+   * Execute a SQL script resource, within the current transaction.
+   * 
+   * @param resource
+   *          the classpath resource of the script to execute
+   */
+  protected void executeSqlScript(String resource) {
+    try (InputStream in = getClass().getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalArgumentException("SQL script [" + resource + "] not found.");
+      }
+      jdbcTemplate.execute(FileCopyUtils.copyToString(new InputStreamReader(in, UTF_8)));
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading SQL script [" + resource + "]", e);
+    }
+  }
+
   /**
    * Create a test address instance.
    * 
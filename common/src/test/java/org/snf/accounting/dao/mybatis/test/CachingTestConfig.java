@@ -0,0 +1,110 @@
+/* ==================================================================
+ * CachingTestConfig.java - 19/10/2026 10:31:07 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import java.io.IOException;
+
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.cache.jcache.JCacheManagerFactoryBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test configuration that enables the DAO caches, and records the statements executed so tests
+ * can tell a cache hit from a database query.
+ * 
+ * <p>
+ * The caches are created from the {@literal ehcache.xml} configuration the CLI ships, which the
+ * build copies to the test classpath. Unlike the CLI, the cache manager is not transaction aware,
+ * because the tests run in a transaction that is never committed, so deferred cache changes would
+ * never be applied.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@TestConfiguration
+@EnableCaching(proxyTargetClass = true)
+public class CachingTestConfig {
+
+  /**
+   * The name of the cache configuration resource.
+   */
+  public static final String CACHE_CONFIG = "ehcache.xml";
+
+  /**
+   * The JCache cache manager, configured from {@link #CACHE_CONFIG}.
+   * 
+   * @return the factory bean
+   * @throws IOException
+   *           if the configuration cannot be resolved
+   */
+  @Bean
+  public JCacheManagerFactoryBean jcacheCacheManager() throws IOException {
+    JCacheManagerFactoryBean factory = new JCacheManagerFactoryBean();
+    factory.setCacheManagerUri(new ClassPathResource(CACHE_CONFIG).getURI());
+    return factory;
+  }
+
+  /**
+   * The cache manager, backed by the JCache cache manager.
+   * 
+   * @param jcacheCacheManager
+   *          the JCache cache manager
+   * @return the cache manager
+   */
+  @Bean
+  public CacheManager cacheManager(javax.cache.CacheManager jcacheCacheManager) {
+    return new JCacheCacheManager(jcacheCacheManager);
+  }
+
+  /**
+   * The registry to record statement metrics in.
+   * 
+   * @return the registry
+   */
+  @Bean
+  public MeterRegistry meterRegistry() {
+    return new SimpleMeterRegistry();
+  }
+
+  /**
+   * Record every mapped statement executed.
+   * 
+   * @param meterRegistry
+   *          the registry to record the metrics in
+   * @return the interceptor
+   */
+  @Bean
+  public StatementMetricsInterceptor statementMetricsInterceptor(MeterRegistry meterRegistry) {
+    return new StatementMetricsInterceptor(meterRegistry);
+  }
+
+}
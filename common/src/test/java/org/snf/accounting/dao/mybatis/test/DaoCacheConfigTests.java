@@ -0,0 +1,140 @@
+/* ==================================================================
+ * DaoCacheConfigTests.java - 19/10/2026 2:14:37 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+
+/**
+ * Test cases for the DAO caches created from the {@literal ehcache.xml} configuration the CLI
+ * ships, without a database.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = CachingTestConfig.class)
+public class DaoCacheConfigTests {
+
+  @Autowired
+  private javax.cache.CacheManager jcacheCacheManager;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Before
+  public void setup() {
+    cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+  }
+
+  @After
+  public void teardown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  public void daoCachesConfigured() {
+    for (String name : new String[] { MyBatisAccountDao.ACCOUNT_CACHE,
+        MyBatisAddressDao.ADDRESS_CACHE, MyBatisInvoiceDao.INVOICE_CACHE }) {
+      assertThat("DAO cache " + name + " configured", cacheManager.getCache(name),
+          notNullValue());
+    }
+  }
+
+  @Test
+  public void valuesStoredByReference() {
+    // GIVEN
+    Account account = new Account(1L, 2L, Instant.now());
+    Address address = new Address(3L, Instant.now());
+    SnfInvoiceWithBalance invoice = new SnfInvoiceWithBalance(4L, 2L, 1L, Instant.now());
+
+    // WHEN
+    cacheManager.getCache(MyBatisAccountDao.ACCOUNT_CACHE).put(1L, account);
+    cacheManager.getCache(MyBatisAddressDao.ADDRESS_CACHE).put(3L, address);
+    cacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE).put(4L, invoice);
+
+    // THEN
+    assertThat("Account not copied or serialized",
+        cacheManager.getCache(MyBatisAccountDao.ACCOUNT_CACHE).get(1L).get(),
+        sameInstance(account));
+    assertThat("Address not copied or serialized",
+        cacheManager.getCache(MyBatisAddressDao.ADDRESS_CACHE).get(3L).get(),
+        sameInstance(address));
+    assertThat("Invoice subtype not copied or serialized",
+        cacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE).get(4L).get(),
+        sameInstance(invoice));
+  }
+
+  @Test
+  public void transactionAware_evictDeferredUntilCommit() {
+    // GIVEN
+    // configured like the CLI's cache manager
+    JCacheCacheManager txCacheManager = new JCacheCacheManager(jcacheCacheManager);
+    txCacheManager.setTransactionAware(true);
+    txCacheManager.afterPropertiesSet();
+    Cache cache = txCacheManager.getCache(MyBatisInvoiceDao.INVOICE_CACHE);
+    SnfInvoiceWithBalance invoice = new SnfInvoiceWithBalance(4L, 2L, 1L, Instant.now());
+    cache.put(4L, invoice);
+
+    // WHEN
+    TransactionSynchronizationManager.initSynchronization();
+    cache.evict(4L);
+
+    // THEN
+    assertThat("Eviction deferred in transaction", cache.get(4L).get(), sameInstance(invoice));
+
+    // WHEN
+    TransactionSynchronizationUtils
+        .invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+    // THEN
+    assertThat("Evicted after commit", cache.get(4L), nullValue());
+  }
+
+}
@@ -0,0 +1,674 @@
+/* ==================================================================
+ * LedgerDataGenerator.java - 18/10/2026 9:41:27 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.PaymentType;
+
+/**
+ * Generate a synthetic ledger in the {@code solarbill} schema with PostgreSQL {@code COPY}.
+ * 
+ * <p>
+ * Each call to {@link #generate(int)} adds a number of invoices for a set of new accounts, along
+ * with their addresses, invoice items, payments, and invoice payments. The data is skewed like a
+ * real ledger: the number of monthly invoices per account follows a power law up to
+ * {@link #MAX_INVOICES_PER_ACCOUNT}, most invoices have a few usage items, most accounts pay each
+ * invoice a few weeks after it is issued, some payments cover more than one invoice, and a few
+ * accounts often do not pay at all.
+ * </p>
+ * 
+ * <p>
+ * The ledger is generated from a seed, so the same seed generates the same ledger apart from the
+ * IDs taken from the database sequences and the dates, which end at the previous month. Rather
+ * than holding the ledger in memory, the rows of each account are generated again for each table
+ * from the account's own random sequence, and each table is loaded with one
+ * {@code COPY FROM STDIN} statement. The connection is obtained with {@link DataSourceUtils}, so
+ * the rows are loaded in the current transaction if there is one.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class LedgerDataGenerator {
+
+  /** The maximum number of monthly invoices per account. */
+  public static final int MAX_INVOICES_PER_ACCOUNT = 120;
+
+  /** The maximum number of usage items per invoice. */
+  public static final int MAX_ITEMS_PER_INVOICE = 25;
+
+  /** The power law exponent of the number of invoices per account. */
+  private static final double INVOICE_COUNT_ALPHA = 1.1;
+
+  /** The probability of an invoice having another usage item. */
+  private static final double MORE_ITEMS_PROBABILITY = 0.55;
+
+  private static final double POOR_PAYER_PROBABILITY = 0.05;
+  private static final double PAID_PROBABILITY = 0.95;
+  private static final double POOR_PAYER_PAID_PROBABILITY = 0.4;
+  private static final double COMBINED_PAYMENT_PROBABILITY = 0.15;
+  private static final double EXTERNAL_KEY_PROBABILITY = 0.7;
+  private static final int MAX_INVOICES_PER_PAYMENT = 3;
+  private static final int MAX_PAYMENT_DAYS = 45;
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private static final String[] ITEM_KEYS = { "datum-props-in", "datum-out",
+      "datum-days-stored", "ocpp-chargers", "oscp-cap-groups" };
+
+  private static final Region[] REGIONS = {
+      new Region(50, "NZ", "Pacific/Auckland", "Wellington", "NZD", "en_NZ", "0.15", "GST"),
+      new Region(20, "AU", "Australia/Sydney", "Sydney", "AUD", "en_AU", "0.10", "GST"),
+      new Region(15, "US", "America/Los_Angeles", "Oakland", "USD", "en_US", null, null),
+      new Region(10, "GB", "Europe/London", "London", "GBP", "en_GB", "0.20", "VAT"),
+      new Region(5, "DE", "Europe/Berlin", "Berlin", "EUR", "de_DE", "0.19", "VAT"), };
+
+  private static final int REGION_WEIGHT_TOTAL = Arrays.stream(REGIONS).mapToInt(r -> r.weight)
+      .sum();
+
+  private static final String ADDRESS_COPY_SQL = "COPY solarbill.bill_address (id, created,"
+      + " disp_name, email, country, time_zone, locality, postal_code, address) FROM STDIN";
+  private static final String ACCOUNT_COPY_SQL = "COPY solarbill.bill_account (id, created,"
+      + " user_id, addr_id, currency, locale) FROM STDIN";
+  private static final String INVOICE_COPY_SQL = "COPY solarbill.bill_invoice (id, created,"
+      + " acct_id, addr_id, date_start, date_end, currency) FROM STDIN";
+  private static final String ITEM_COPY_SQL = "COPY solarbill.bill_invoice_item (id, created,"
+      + " inv_id, item_type, item_key, amount, quantity, jmeta) FROM STDIN";
+  private static final String PAYMENT_COPY_SQL = "COPY solarbill.bill_payment (id, created,"
+      + " acct_id, pay_type, amount, currency, ext_key) FROM STDIN";
+  private static final String INVOICE_PAYMENT_COPY_SQL = "COPY solarbill.bill_invoice_payment"
+      + " (id, created, acct_id, pay_id, inv_id, amount) FROM STDIN";
+
+  private final DataSource dataSource;
+  private final long seed;
+  private int generation;
+
+  /**
+   * A country the generated accounts can be in.
+   */
+  private static final class Region {
+
+    private final int weight;
+    private final String country;
+    private final String timeZoneId;
+    private final String locality;
+    private final String currencyCode;
+    private final String locale;
+    private final BigDecimal taxRate;
+    private final String taxKey;
+
+    private Region(int weight, String country, String timeZoneId, String locality,
+        String currencyCode, String locale, String taxRate, String taxKey) {
+      super();
+      this.weight = weight;
+      this.country = country;
+      this.timeZoneId = timeZoneId;
+      this.locality = locality;
+      this.currencyCode = currencyCode;
+      this.locale = locale;
+      this.taxRate = (taxRate != null ? new BigDecimal(taxRate) : null);
+      this.taxKey = taxKey;
+    }
+  }
+
+  /**
+   * The generated ledger of one account.
+   */
+  private static final class AccountLedger {
+
+    private final long id;
+    private final long addressId;
+    private final Region region;
+    private final Instant created;
+    private final List<Object[]> invoices = new ArrayList<>();
+    private final List<Object[]> items = new ArrayList<>();
+    private final List<Object[]> payments = new ArrayList<>();
+    private final List<Object[]> invoicePayments = new ArrayList<>();
+
+    private AccountLedger(long id, long addressId, Region region, Instant created) {
+      super();
+      this.id = id;
+      this.addressId = addressId;
+      this.region = region;
+      this.created = created;
+    }
+  }
+
+  /**
+   * The accounts and IDs of one call to {@link LedgerDataGenerator#generate(int)}.
+   */
+  private final class Plan {
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    private final YearMonth endMonth = YearMonth.from(now.atOffset(ZoneOffset.UTC))
+        .minusMonths(1);
+    private final int accountCount;
+    private final int[] invoiceCounts;
+    private final long[] accountSeeds;
+    private final long[] monthCounts = new long[MAX_INVOICES_PER_ACCOUNT];
+    private long addressBase;
+    private long accountBase;
+    private long invoiceBase;
+
+    private Plan(int invoiceCount) {
+      super();
+      final Random rng = new Random(seed + generation);
+      int[] counts = new int[Math.max(16, invoiceCount / 4)];
+      int accounts = 0;
+      for (int total = 0; total < invoiceCount; accounts++) {
+        // a power law distribution, truncated at the maximum number of months
+        int n = (int) Math
+            .ceil(1.0 / Math.pow(1.0 - rng.nextDouble(), 1.0 / INVOICE_COUNT_ALPHA));
+        n = Math.min(Math.min(n, MAX_INVOICES_PER_ACCOUNT), invoiceCount - total);
+        if (accounts == counts.length) {
+          counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        counts[accounts] = n;
+        total += n;
+        for (int m = 0; m < n; m++) {
+          monthCounts[MAX_INVOICES_PER_ACCOUNT - 1 - m]++;
+        }
+      }
+      accountCount = accounts;
+      invoiceCounts = Arrays.copyOf(counts, accounts);
+      accountSeeds = new long[accounts];
+      for (int i = 0; i < accounts; i++) {
+        accountSeeds[i] = rng.nextLong();
+      }
+    }
+
+    /**
+     * Get the next invoice ID of each month, so invoice IDs increase with their month like an
+     * invoice run.
+     */
+    private long[] nextInvoiceIds() {
+      long[] result = new long[MAX_INVOICES_PER_ACCOUNT];
+      long next = invoiceBase;
+      for (int i = 0; i < MAX_INVOICES_PER_ACCOUNT; i++) {
+        result[i] = next;
+        next += monthCounts[i];
+      }
+      return result;
+    }
+
+    private AccountLedger account(int index, long[] nextInvoiceIds) {
+      final Random rng = new Random(accountSeeds[index]);
+      final int invoiceCount = invoiceCounts[index];
+      final YearMonth firstMonth = endMonth.minusMonths(invoiceCount - 1);
+      final AccountLedger acct = new AccountLedger(accountBase + index, addressBase + index,
+          region(rng), startOfMonth(firstMonth).minus(1 + rng.nextInt(60), ChronoUnit.DAYS));
+      final boolean poorPayer = rng.nextDouble() < POOR_PAYER_PROBABILITY;
+      final Instant[] invoiceDates = new Instant[invoiceCount];
+      final BigDecimal[] invoiceTotals = new BigDecimal[invoiceCount];
+      final long[] invoiceIds = new long[invoiceCount];
+
+      for (int m = 0; m < invoiceCount; m++) {
+        final YearMonth month = firstMonth.plusMonths(m);
+        final long invoiceId = nextInvoiceIds[MAX_INVOICES_PER_ACCOUNT - invoiceCount + m]++;
+        final Instant created = startOfMonth(month.plusMonths(1)).plus(1, ChronoUnit.HOURS);
+        acct.invoices.add(new Object[] { invoiceId, created, acct.id, acct.addressId,
+            month.atDay(1), month.plusMonths(1).atDay(1), acct.region.currencyCode });
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 1;
+        while (itemCount < MAX_ITEMS_PER_INVOICE && rng.nextDouble() < MORE_ITEMS_PROBABILITY) {
+          itemCount++;
+        }
+        for (int i = 0; i < itemCount; i++) {
+          // log-normal amounts, so a few items are much larger than the rest
+          BigDecimal amount = BigDecimal.valueOf(Math.exp(2.5 + 1.5 * rng.nextGaussian()))
+              .min(BigDecimal.valueOf(99999)).max(new BigDecimal("0.01"))
+              .setScale(2, RoundingMode.HALF_UP);
+          long quantity = 1 + (long) (amount.doubleValue() * (50000 + rng.nextInt(200000)));
+          total = total.add(amount);
+          acct.items.add(new Object[] { uuid(rng), created, invoiceId,
+              InvoiceItemType.Usage.getCode(), ITEM_KEYS[i % ITEM_KEYS.length], amount, quantity,
+              itemMetadata(acct.id, quantity, amount) });
+        }
+        if (acct.region.taxRate != null) {
+          BigDecimal tax = total.multiply(acct.region.taxRate).setScale(2, RoundingMode.HALF_UP);
+          total = total.add(tax);
+          acct.items.add(new Object[] { uuid(rng), created, invoiceId,
+              InvoiceItemType.Tax.getCode(), acct.region.taxKey, tax, 1, null });
+        }
+        invoiceIds[m] = invoiceId;
+        invoiceDates[m] = created;
+        invoiceTotals[m] = total;
+      }
+
+      final double paidProbability = (poorPayer ? POOR_PAYER_PAID_PROBABILITY : PAID_PROBABILITY);
+      for (int m = 0; m < invoiceCount;) {
+        if (rng.nextDouble() >= paidProbability) {
+          m++;
+          continue;
+        }
+        int end = m + 1;
+        while (end < invoiceCount && end - m < MAX_INVOICES_PER_PAYMENT
+            && rng.nextDouble() < COMBINED_PAYMENT_PROBABILITY) {
+          end++;
+        }
+        final Instant date = invoiceDates[end - 1]
+            .plus(1 + rng.nextInt(MAX_PAYMENT_DAYS), ChronoUnit.DAYS)
+            .plusSeconds(rng.nextInt(86400));
+        final String extKey = (rng.nextDouble() < EXTERNAL_KEY_PROBABILITY
+            ? String.format("ch_%016x", rng.nextLong())
+            : null);
+        final UUID paymentId = uuid(rng);
+        if (date.isAfter(now)) {
+          // not paid yet
+          m = end;
+          continue;
+        }
+        BigDecimal amount = BigDecimal.ZERO;
+        for (int i = m; i < end; i++) {
+          amount = amount.add(invoiceTotals[i]);
+          acct.invoicePayments.add(new Object[] { uuid(rng), date, acct.id, paymentId,
+              invoiceIds[i], invoiceTotals[i] });
+        }
+        acct.payments.add(new Object[] { paymentId, date, acct.id,
+            PaymentType.Payment.getCode(), amount, acct.region.currencyCode, extKey });
+        m = end;
+      }
+      return acct;
+    }
+  }
+
+  /**
+   * Summary of a generated ledger.
+   */
+  public static final class GeneratedLedger {
+
+    private final YearMonth endMonth;
+    private final long firstAccountId;
+    private final long largestAccountId;
+    private final Long[] largestAccountInvoiceIds;
+    private long accountCount;
+    private long invoiceCount;
+    private long itemCount;
+    private long paymentCount;
+    private long invoicePaymentCount;
+
+    private GeneratedLedger(YearMonth endMonth, long firstAccountId, long largestAccountId,
+        Long[] largestAccountInvoiceIds) {
+      super();
+      this.endMonth = endMonth;
+      this.firstAccountId = firstAccountId;
+      this.largestAccountId = largestAccountId;
+      this.largestAccountInvoiceIds = largestAccountInvoiceIds;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d accounts, %d invoices, %d items, %d payments, "
+          + "%d invoice payments", getAccountCount(), getInvoiceCount(), getItemCount(),
+          getPaymentCount(), getInvoicePaymentCount());
+    }
+
+    /**
+     * Get the month of the latest invoices.
+     * 
+     * @return the month
+     */
+    public YearMonth getEndMonth() {
+      return endMonth;
+    }
+
+    /**
+     * Get the ID of the first generated account.
+     * 
+     * <p>
+     * The generated accounts have consecutive IDs.
+     * </p>
+     * 
+     * @return the account ID
+     */
+    public long getFirstAccountId() {
+      return firstAccountId;
+    }
+
+    /**
+     * Get the ID of the generated account with the most invoices.
+     * 
+     * @return the account ID
+     */
+    public long getLargestAccountId() {
+      return largestAccountId;
+    }
+
+    /**
+     * Get the invoice IDs of the generated account with the most invoices.
+     * 
+     * @return the invoice IDs, oldest first
+     */
+    public Long[] getLargestAccountInvoiceIds() {
+      return largestAccountInvoiceIds;
+    }
+
+    /**
+     * Get the number of generated accounts.
+     * 
+     * @return the count
+     */
+    public long getAccountCount() {
+      return accountCount;
+    }
+
+    /**
+     * Get the number of generated invoices.
+     * 
+     * @return the count
+     */
+    public long getInvoiceCount() {
+      return invoiceCount;
+    }
+
+    /**
+     * Get the number of generated invoice items.
+     * 
+     * @return the count
+     */
+    public long getItemCount() {
+      return itemCount;
+    }
+
+    /**
+     * Get the number of generated payments.
+     * 
+     * @return the count
+     */
+    public long getPaymentCount() {
+      return paymentCount;
+    }
+
+    /**
+     * Get the number of generated invoice payments.
+     * 
+     * @return the count
+     */
+    public long getInvoicePaymentCount() {
+      return invoicePaymentCount;
+    }
+  }
+
+  /**
+   * Writes rows in the {@code COPY} text format.
+   */
+  private static final class CopyWriter implements AutoCloseable {
+
+    private final CopyIn copyIn;
+    private final StringBuilder buf = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+
+    private CopyWriter(CopyManager copyManager, String sql) throws SQLException {
+      super();
+      this.copyIn = copyManager.copyIn(sql);
+    }
+
+    private void rows(List<Object[]> rows) throws SQLException {
+      for (Object[] row : rows) {
+        row(row);
+      }
+    }
+
+    private void row(Object... values) throws SQLException {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          buf.append('\t');
+        }
+        Object v = values[i];
+        if (v == null) {
+          buf.append("\\N");
+        } else if (v instanceof BigDecimal) {
+          buf.append(((BigDecimal) v).toPlainString());
+        } else {
+          buf.append(v);
+        }
+      }
+      buf.append('\n');
+      if (buf.length() >= COPY_BUFFER_SIZE) {
+        flush();
+      }
+    }
+
+    private void flush() throws SQLException {
+      byte[] data = buf.toString().getBytes(UTF_8);
+      copyIn.writeToCopy(data, 0, data.length);
+      buf.setLength(0);
+    }
+
+    private long finish() throws SQLException {
+      flush();
+      return copyIn.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param dataSource
+   *          the data source, which must provide PgJDBC connections
+   * @param seed
+   *          the random seed
+   */
+  public LedgerDataGenerator(DataSource dataSource, long seed) {
+    super();
+    this.dataSource = dataSource;
+    this.seed = seed;
+  }
+
+  /**
+   * Generate invoices for a set of new accounts, then analyze the {@code solarbill} tables.
+   * 
+   * @param invoiceCount
+   *          the number of invoices to generate
+   * @return the summary of the generated ledger
+   * @throws IllegalArgumentException
+   *           if {@code invoiceCount} is less than {@literal 1}
+   * @throws SQLException
+   *           if any SQL error occurs
+   */
+  public GeneratedLedger generate(int invoiceCount) throws SQLException {
+    if (invoiceCount < 1) {
+      throw new IllegalArgumentException("The invoice count must be at least 1.");
+    }
+    final Plan plan = new Plan(invoiceCount);
+    generation++;
+
+    final Connection con = DataSourceUtils.getConnection(dataSource);
+    try {
+      plan.addressBase = reserveIds(con, "solarbill.bill_seq", plan.accountCount);
+      plan.accountBase = reserveIds(con, "solarbill.bill_seq", plan.accountCount);
+      plan.invoiceBase = reserveIds(con, "solarbill.bill_inv_seq", invoiceCount);
+      final CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+
+      try (CopyWriter out = new CopyWriter(copyManager, ADDRESS_COPY_SQL)) {
+        final long[] ids = plan.nextInvoiceIds();
+        for (int i = 0; i < plan.accountCount; i++) {
+          final AccountLedger acct = plan.account(i, ids);
+          out.row(acct.addressId, acct.created, "Customer " + acct.id,
+              "customer" + acct.id + "@example.com", acct.region.country,
+              acct.region.timeZoneId, acct.region.locality, 1000 + (acct.id % 9000),
+              "{\"" + (1 + acct.id % 500) + " Main Street\"}");
+        }
+        out.finish();
+      }
+
+      long accounts;
+      try (CopyWriter out = new CopyWriter(copyManager, ACCOUNT_COPY_SQL)) {
+        final long[] ids = plan.nextInvoiceIds();
+        for (int i = 0; i < plan.accountCount; i++) {
+          final AccountLedger acct = plan.account(i, ids);
+          out.row(acct.id, acct.created, acct.id, acct.addressId, acct.region.currencyCode,
+              acct.region.locale);
+        }
+        accounts = out.finish();
+      }
+
+      int largestIndex = 0;
+      for (int i = 1; i < plan.accountCount; i++) {
+        if (plan.invoiceCounts[i] > plan.invoiceCounts[largestIndex]) {
+          largestIndex = i;
+        }
+      }
+      Long[] largestInvoiceIds = null;
+      long invoices;
+      try (CopyWriter out = new CopyWriter(copyManager, INVOICE_COPY_SQL)) {
+        final long[] ids = plan.nextInvoiceIds();
+        for (int i = 0; i < plan.accountCount; i++) {
+          final AccountLedger acct = plan.account(i, ids);
+          out.rows(acct.invoices);
+          if (i == largestIndex) {
+            largestInvoiceIds = acct.invoices.stream().map(r -> (Long) r[0])
+                .toArray(Long[]::new);
+          }
+        }
+        invoices = out.finish();
+      }
+
+      final GeneratedLedger result = new GeneratedLedger(plan.endMonth, plan.accountBase,
+          plan.accountBase + largestIndex, largestInvoiceIds);
+      result.accountCount = accounts;
+      result.invoiceCount = invoices;
+      result.itemCount = copyRows(copyManager, ITEM_COPY_SQL, plan, a -> a.items);
+      result.paymentCount = copyRows(copyManager, PAYMENT_COPY_SQL, plan, a -> a.payments);
+      result.invoicePaymentCount = copyRows(copyManager, INVOICE_PAYMENT_COPY_SQL, plan,
+          a -> a.invoicePayments);
+
+      analyze(con);
+      return result;
+    } finally {
+      DataSourceUtils.releaseConnection(con, dataSource);
+    }
+  }
+
+  private static long copyRows(CopyManager copyManager, String sql, Plan plan,
+      Function<AccountLedger, List<Object[]>> rows) throws SQLException {
+    try (CopyWriter out = new CopyWriter(copyManager, sql)) {
+      final long[] ids = plan.nextInvoiceIds();
+      for (int i = 0; i < plan.accountCount; i++) {
+        out.rows(rows.apply(plan.account(i, ids)));
+      }
+      return out.finish();
+    }
+  }
+
+  /**
+   * Reserve a range of sequence values.
+   * 
+   * @return the first reserved value
+   */
+  private static long reserveIds(Connection con, String sequence, long count)
+      throws SQLException {
+    try (PreparedStatement stmt = con.prepareStatement(
+        "SELECT setval(?::regclass, nextval(?::regclass) + ? - 1) - ? + 1")) {
+      stmt.setString(1, sequence);
+      stmt.setString(2, sequence);
+      stmt.setLong(3, count);
+      stmt.setLong(4, count);
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      }
+    }
+  }
+
+  /**
+   * Update the planner statistics of all {@code solarbill} tables, so queries are planned for
+   * the generated data.
+   */
+  private static void analyze(Connection con) throws SQLException {
+    List<String> tables = new ArrayList<>(16);
+    try (Statement stmt = con.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT c.oid::regclass::text FROM pg_class c"
+            + " INNER JOIN pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE n.nspname = 'solarbill' AND c.relkind = 'r'")) {
+      while (rs.next()) {
+        tables.add(rs.getString(1));
+      }
+    }
+    try (Statement stmt = con.createStatement()) {
+      for (String table : tables) {
+        stmt.execute("ANALYZE " + table);
+      }
+    }
+  }
+
+  private static Region region(Random rng) {
+    int n = rng.nextInt(REGION_WEIGHT_TOTAL);
+    for (Region r : REGIONS) {
+      n -= r.weight;
+      if (n < 0) {
+        return r;
+      }
+    }
+    return REGIONS[0];
+  }
+
+  private static Instant startOfMonth(YearMonth month) {
+    return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+  }
+
+  private static UUID uuid(Random rng) {
+    // a version 4 UUID
+    return new UUID((rng.nextLong() & ~0xF000L) | 0x4000L,
+        (rng.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L);
+  }
+
+  private static String itemMetadata(long nodeId, long quantity, BigDecimal amount) {
+    return "{\"nodeId\":" + nodeId + ",\"tiers\":[{\"quantity\":" + quantity + ",\"cost\":\""
+        + amount.divide(BigDecimal.valueOf(quantity), 9, RoundingMode.HALF_UP).toPlainString()
+        + "\"}]}";
+  }
+
+}
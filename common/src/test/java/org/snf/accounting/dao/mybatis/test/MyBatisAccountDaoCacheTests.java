@@ -0,0 +1,208 @@
+/* ==================================================================
+ * MyBatisAccountDaoCacheTests.java - 19/10/2026 10:52:23 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.domain.UserLongPK;
+
+/**
+ * Test cases for the {@link MyBatisAccountDao} and {@link MyBatisAddressDao} caches.
+ * 
+ * @author matt
+ * @version 1.2
+ */
+@Import({ CachingTestConfig.class, MyBatisAddressDao.class, MyBatisAccountDao.class })
+public class MyBatisAccountDaoCacheTests extends AbstractMyBatisTest {
+
+  private static final String GET_ACCOUNT_QUERY = "org.snf.accounting.dao.mybatis.Account"
+      + ".get-Account-for-id";
+  private static final String GET_ADDRESS_QUERY = "org.snf.accounting.dao.mybatis.Address"
+      + ".get-Address-for-id";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao dao;
+
+  private Address address;
+
+  @Before
+  public void setUp() throws Exception {
+    address = addressDao.get(addressDao.save(createTestAddress()));
+  }
+
+  private UserLongPK setupTestAccount(Address addr) {
+    UserLongPK pk = dao.save(createTestAccount(addr));
+    getSqlSessionTemplate().flushStatements();
+    return pk;
+  }
+
+  private long queryCount(String statementId) {
+    Timer timer = meterRegistry.find(StatementMetricsInterceptor.LATENCY_METER_NAME)
+        .tag(StatementMetricsInterceptor.STATEMENT_TAG, statementId).timer();
+    return (timer != null ? timer.count() : 0L);
+  }
+
+  @Test
+  public void get_cached() {
+    // GIVEN
+    final UserLongPK id = setupTestAccount(address);
+    final long startCount = queryCount(GET_ACCOUNT_QUERY);
+
+    // WHEN
+    Account first = dao.get(id);
+    Account second = dao.get(id);
+
+    // THEN
+    assertThat("One query for repeated get", queryCount(GET_ACCOUNT_QUERY) - startCount,
+        equalTo(1L));
+    assertThat("Copy of cached account returned", second, not(sameInstance(first)));
+    assertThat("Copy has cached account properties", second.isSameAs(first), equalTo(true));
+    assertThat("Copy has copy of cached address", second.getAddress(),
+        not(sameInstance(first.getAddress())));
+    assertThat("Copy has cached address properties",
+        second.getAddress().isSameAs(first.getAddress()), equalTo(true));
+  }
+
+  @Test
+  public void get_modifiedCopyNotCached() {
+    // GIVEN
+    final UserLongPK id = setupTestAccount(address);
+    final Account modified = dao.get(id);
+
+    // WHEN
+    modified.setCurrencyCode("USD");
+    modified.getAddress().setName("Not Saved");
+    Account account = dao.get(id);
+
+    // THEN
+    assertThat("Cached account not modified", account.getCurrencyCode(), equalTo("NZD"));
+    assertThat("Cached account address not modified", account.getAddress().getName(),
+        equalTo("Tester Dude"));
+  }
+
+  @Test
+  public void save_evicts() {
+    // GIVEN
+    final UserLongPK id = setupTestAccount(address);
+    final Account update = dao.get(id);
+    final long startCount = queryCount(GET_ACCOUNT_QUERY);
+
+    // WHEN
+    update.setCurrencyCode("USD");
+    update.setLocale("en_US");
+    dao.save(update);
+    Account saved = dao.get(id);
+
+    // THEN
+    assertThat("Saved account queried again", queryCount(GET_ACCOUNT_QUERY) - startCount,
+        equalTo(1L));
+    assertThat("Currency fresh after save", saved.getCurrencyCode(), equalTo("USD"));
+    assertThat("Locale fresh after save", saved.getLocale(), equalTo("en_US"));
+  }
+
+  @Test
+  public void address_get_cached() {
+    // GIVEN
+    final long startCount = queryCount(GET_ADDRESS_QUERY);
+
+    // WHEN
+    Address first = addressDao.get(address.getId());
+    Address second = addressDao.get(address.getId());
+
+    // THEN
+    assertThat("No query for address cached by setup get",
+        queryCount(GET_ADDRESS_QUERY) - startCount, equalTo(0L));
+    assertThat("Copy of cached address returned", first, not(sameInstance(address)));
+    assertThat("Copy of cached address returned again", second, not(sameInstance(first)));
+    assertThat("Copy has cached address properties", second.isSameAs(address), equalTo(true));
+  }
+
+  @Test
+  public void address_get_modifiedCopyNotCached() {
+    // GIVEN
+    final Address modified = addressDao.get(address.getId());
+
+    // WHEN
+    modified.setName("Not Saved");
+    modified.getStreet()[0] = "Not Saved";
+    Address cached = addressDao.get(address.getId());
+
+    // THEN
+    assertThat("Cached address name not modified", cached.getName(), equalTo("Tester Dude"));
+    assertThat("Cached address street not modified", cached.getStreet()[0],
+        equalTo("Level 1"));
+  }
+
+  @Test
+  public void address_save_evictsAllAccounts() {
+    // GIVEN
+    final UserLongPK id = setupTestAccount(address);
+    final Address otherAddress = addressDao
+        .get(addressDao.save(createTestAddress("other@localhost")));
+    final UserLongPK otherId = setupTestAccount(otherAddress);
+    dao.get(id);
+    dao.get(otherId);
+    final long startAccountCount = queryCount(GET_ACCOUNT_QUERY);
+    final long startAddressCount = queryCount(GET_ADDRESS_QUERY);
+
+    // WHEN
+    Address update = addressDao.get(address.getId());
+    update.setName("Tester Dudette");
+    addressDao.save(update);
+    final Address savedAddress = addressDao.get(address.getId());
+    final Account saved = dao.get(id);
+    dao.get(otherId);
+
+    // THEN
+    assertThat("Saved address queried again", queryCount(GET_ADDRESS_QUERY) - startAddressCount,
+        equalTo(1L));
+    assertThat("Address name fresh after save", savedAddress.getName(),
+        equalTo("Tester Dudette"));
+    assertThat("All accounts queried again", queryCount(GET_ACCOUNT_QUERY) - startAccountCount,
+        equalTo(2L));
+    assertThat("Account address fresh after address save", saved.getAddress().getName(),
+        equalTo("Tester Dudette"));
+  }
+
+}
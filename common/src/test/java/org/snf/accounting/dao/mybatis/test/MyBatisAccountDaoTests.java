@@ -24,6 +24,9 @@ package org.snf.accounting.dao.mybatis.test;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static net.solarnetwork.central.user.billing.snf.domain.AccountTaskType.GenerateInvoice;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
@@ -31,20 +34,32 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.StreamSupport;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
 import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.AccountDate;
 import org.snf.accounting.domain.AccountFilter;
 import org.snf.accounting.domain.AccountWithBalance;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.IdRange;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
 
 import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTask;
 import net.solarnetwork.central.user.billing.snf.domain.Address;
 import net.solarnetwork.central.user.domain.UserLongPK;
 import net.solarnetwork.dao.FilterResults;
@@ -53,7 +68,7 @@ import net.solarnetwork.dao.FilterResults;
  * Test cases for the {@link MyBatisAccountDao} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 @Import({ MyBatisAddressDao.class, MyBatisAccountDao.class })
 public class MyBatisAccountDaoTests extends AbstractMyBatisTest {
@@ -169,4 +184,167 @@ public class MyBatisAccountDaoTests extends AbstractMyBatisTest {
     }
   }
 
+  @Test
+  public void filterForEmail_windowCount() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(5);
+
+    // WHEN
+    AccountFilter filter = new AccountFilter();
+    filter.setEmail("test");
+    filter.setCountStrategy(CountStrategy.Window);
+    FilterResults<AccountWithBalance, UserLongPK> result = dao.findFilteredBalances(filter, null, 2,
+        2);
+
+    // THEN
+    assertThat("Result returned", result, notNullValue());
+    assertThat("Returned result count", result.getReturnedResultCount(), equalTo(2));
+    assertThat("Total results from window", result.getTotalResults(),
+        equalTo((long) accounts.size()));
+    List<AccountWithBalance> balances = StreamSupport.stream(result.spliterator(), false)
+        .collect(toList());
+    assertThat("Page starts at offset", balances.get(0),
+        equalTo(new AccountWithBalance(accounts.get(2))));
+  }
+
+  @Test
+  public void filterForEmail_windowCount_pastEnd() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(3);
+
+    // WHEN
+    AccountFilter filter = new AccountFilter();
+    filter.setEmail("test");
+    filter.setCountStrategy(CountStrategy.Window);
+    FilterResults<AccountWithBalance, UserLongPK> result = dao.findFilteredBalances(filter, null, 4,
+        2);
+
+    // THEN
+    assertThat("Returned result count", result.getReturnedResultCount(), equalTo(0));
+    assertThat("Total results from count query", result.getTotalResults(),
+        equalTo((long) accounts.size()));
+  }
+
+  @Test
+  public void findIdRanges() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(5);
+
+    // WHEN
+    List<IdRange> ranges = dao.findIdRanges(2);
+
+    // THEN
+    assertThat("Ranges returned", ranges, hasSize(2));
+    assertThat("First range starts at first account", ranges.get(0).getMinId(),
+        equalTo(accounts.get(0).getId().getId()));
+    assertThat("First range has larger share", ranges.get(0).getMaxId(),
+        equalTo(accounts.get(2).getId().getId()));
+    assertThat("Second range follows first", ranges.get(1).getMinId(),
+        equalTo(accounts.get(3).getId().getId()));
+    assertThat("Second range ends at last account", ranges.get(1).getMaxId(),
+        equalTo(accounts.get(4).getId().getId()));
+  }
+
+  @Test
+  public void findBalanceDiscrepancies() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(3);
+    Account zero = createTestAccount(addressDao.get(addressDao.save(createTestAddress())));
+    zero = dao.get(dao.save(zero));
+    insertAccountBalance(zero.getId().getId(), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+    // WHEN
+    List<AccountBalanceDiscrepancy> results = dao.findBalanceDiscrepancies(
+        new IdRange(accounts.get(1).getId().getId(), zero.getId().getId()));
+
+    // THEN
+    assertThat("Accounts in range without matching balances returned", results, hasSize(2));
+    for (int i = 0; i < results.size(); i++) {
+      AccountBalanceDiscrepancy d = results.get(i);
+      assertThat(format("Discrepancy %d account", i), d.getAccountId(),
+          equalTo(accounts.get(i + 1).getId().getId()));
+      assertThat(format("Discrepancy %d charge total", i), d.getChargeTotal(),
+          comparesEqualTo(new BigDecimal(String.valueOf(i * 3 + 6))));
+      assertThat(format("Discrepancy %d actual charge total", i), d.getActualChargeTotal(),
+          comparesEqualTo(BigDecimal.ZERO));
+      assertThat(format("Discrepancy %d payment total", i), d.getPaymentTotal(),
+          comparesEqualTo(new BigDecimal(String.valueOf(i * 3 + 5))));
+      assertThat(format("Discrepancy %d actual payment total", i), d.getActualPaymentTotal(),
+          comparesEqualTo(BigDecimal.ZERO));
+    }
+  }
+
+  private void insertInvoice(Account account, LocalDate startDate) {
+    // CHECKSTYLE OFF: LineLength
+    getJdbcTemplate().update(
+        "insert into solarbill.bill_invoice (id,acct_id,addr_id,date_start,date_end,currency) VALUES (nextval('solarbill.bill_inv_seq'),?,?,?,?,?)",
+        account.getId().getId(), account.getAddress().getId(), startDate,
+        startDate.plusMonths(1), account.getCurrencyCode());
+    // CHECKSTYLE ON: LineLength
+  }
+
+  @Test
+  public void saveTasks() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(3);
+    final Instant date = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    List<AccountTask> tasks = accounts.stream()
+        .map(a -> AccountTask.newTask(date, GenerateInvoice, a.getId().getId()))
+        .collect(toList());
+
+    // WHEN
+    int count = dao.saveTasks(tasks);
+
+    // THEN
+    assertThat("All tasks saved", count, equalTo(3));
+    List<Map<String, Object>> rows = rows("solarbill.bill_account_task", "acct_id");
+    assertThat("Task rows", rows, hasSize(3));
+    for (int i = 0; i < rows.size(); i++) {
+      assertThat(format("Task %d ID", i), rows.get(i).get("id"), equalTo(tasks.get(i).getId()));
+      assertThat(format("Task %d account", i), rows.get(i).get("acct_id"),
+          equalTo(accounts.get(i).getId().getId()));
+    }
+    assertThat("Existing tasks not saved again", dao.saveTasks(tasks), equalTo(0));
+  }
+
+  @Test
+  public void findAccountsWithoutInvoice() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(4);
+    final YearMonth month = YearMonth.of(2026, 10);
+    final Instant monthStart = month.atDay(1).atStartOfDay(ZoneId.of("Pacific/Auckland"))
+        .toInstant();
+    insertInvoice(accounts.get(0), month.atDay(1));
+    insertInvoice(accounts.get(2), month.minusMonths(1).atDay(1));
+    dao.saveTasks(Collections.singletonList(
+        AccountTask.newTask(monthStart, GenerateInvoice, accounts.get(1).getId().getId())));
+
+    // WHEN
+    List<AccountDate> results = dao.findAccountsWithoutInvoice(null, month, GenerateInvoice);
+
+    // THEN
+    assertThat("Accounts without invoice or task returned",
+        results.stream().map(AccountDate::getAccountId).collect(toList()),
+        contains(accounts.get(2).getId().getId(), accounts.get(3).getId().getId()));
+    assertThat("Date is start of month in account time zone", results.get(0).getDate(),
+        equalTo(monthStart));
+  }
+
+  @Test
+  public void findAccountsWithoutInvoice_filter() {
+    // GIVEN
+    final List<Account> accounts = setupTestAccounts(3);
+    AccountFilter filter = new AccountFilter();
+    filter.setUserId(accounts.get(1).getUserId());
+
+    // WHEN
+    List<AccountDate> results = dao.findAccountsWithoutInvoice(filter, YearMonth.of(2026, 10),
+        GenerateInvoice);
+
+    // THEN
+    assertThat("Filtered account returned",
+        results.stream().map(AccountDate::getAccountId).collect(toList()),
+        contains(accounts.get(1).getId().getId()));
+  }
+
 }
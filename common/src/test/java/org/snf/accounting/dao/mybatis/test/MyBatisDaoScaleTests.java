@@ -0,0 +1,448 @@
+/* ==================================================================
+ * MyBatisDaoScaleTests.java - 18/10/2026 10:02:53 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisPaymentDao;
+import org.snf.accounting.dao.mybatis.test.LedgerDataGenerator.GeneratedLedger;
+import org.snf.accounting.domain.AccountFilter;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.ExtendedPaymentFilter;
+import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.IdRange;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import net.solarnetwork.central.user.billing.snf.domain.AccountTask;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
+import net.solarnetwork.central.user.billing.snf.domain.Payment;
+import net.solarnetwork.central.user.domain.UserLongPK;
+
+/**
+ * Scale test of the {@link MyBatisInvoiceDao}, {@link MyBatisPaymentDao}, and
+ * {@link MyBatisAccountDao} queries.
+ * 
+ * <p>
+ * A synthetic ledger is generated with {@link LedgerDataGenerator}, growing in steps to each
+ * configured number of invoices, and every {@code QueryName} of the DAOs is timed at each step.
+ * The test fails if a {@code QueryName} has no timed query here, so new queries are not missed.
+ * All data is rolled back when the test completes.
+ * </p>
+ * 
+ * <p>
+ * The median time of each query is written to a results file. If a baseline results file is
+ * configured, such as the results of a previous run on the same machine, the test fails if any
+ * query is slower than its baseline by more than the configured tolerance.
+ * </p>
+ * 
+ * <p>
+ * The test is skipped unless the {@literal scaleTest} system property is {@literal true}, for
+ * example by running {@code gradle test -PscaleTest}. It is configured with these system
+ * properties, which can also be given as Gradle project properties:
+ * </p>
+ * 
+ * <ul>
+ * <li>{@literal scaleTest.sizes} - the comma-delimited invoice counts to test at; defaults to
+ * {@literal 10000,100000,1000000}</li>
+ * <li>{@literal scaleTest.iterations} - the number of timed executions of each query; defaults
+ * to {@literal 5}</li>
+ * <li>{@literal scaleTest.seed} - the random seed of the generated ledger</li>
+ * <li>{@literal scaleTest.results} - the path of the results file to write; Gradle sets this to
+ * {@literal build/scale-test/results.properties}</li>
+ * <li>{@literal scaleTest.baseline} - the path of a results file to compare with</li>
+ * <li>{@literal scaleTest.tolerance} - the maximum ratio of a query time to its baseline;
+ * defaults to {@literal 1.5}</li>
+ * <li>{@literal scaleTest.minDeltaMs} - the minimum difference from the baseline considered a
+ * regression, so small queries do not fail on noise; defaults to {@literal 5}</li>
+ * </ul>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class MyBatisDaoScaleTests extends AbstractMyBatisTest {
+
+  private static final String INVOICE_BALANCE_SCRIPT = "/org/snf/accounting/dao/mybatis/sql/"
+      + "bill-invoice-bal.sql";
+  private static final String INVOICE_SNAPSHOT_SCRIPT = "/org/snf/accounting/dao/mybatis/sql/"
+      + "bill-invoice-snap.sql";
+
+  private static final String DEFAULT_SIZES = "10000,100000,1000000";
+  private static final int WARMUP_ITERATIONS = 1;
+  private static final int PAGE_SIZE = 25;
+  private static final int ID_RANGE_COUNT = 16;
+  private static final int TASK_COUNT = 500;
+  private static final int INVOICE_ACCOUNTS_COUNT = 10000;
+  private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+  @Autowired
+  private DataSource dataSource;
+
+  private MyBatisInvoiceDao invoiceDao;
+  private MyBatisPaymentDao paymentDao;
+  private MyBatisAccountDao accountDao;
+  private int iterations;
+
+  /**
+   * A timed DAO query.
+   */
+  private static final class ScaleQuery {
+
+    private final Runnable setup;
+    private final Runnable query;
+    private String name;
+
+    private ScaleQuery(Runnable setup, Runnable query) {
+      super();
+      this.setup = setup;
+      this.query = query;
+    }
+  }
+
+  private static ScaleQuery query(Runnable query) {
+    return new ScaleQuery(null, query);
+  }
+
+  private static ScaleQuery query(Runnable setup, Runnable query) {
+    return new ScaleQuery(setup, query);
+  }
+
+  @Before
+  public void setup() {
+    assumeTrue("Scale test not enabled.", Boolean.getBoolean("scaleTest"));
+    executeSqlScript(INVOICE_BALANCE_SCRIPT);
+    executeSqlScript(INVOICE_SNAPSHOT_SCRIPT);
+
+    // not the Spring managed DAOs, so nothing is cached
+    invoiceDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    invoiceDao.setInvoiceBalancesAvailable(true);
+    invoiceDao.setInvoiceSnapshotsAvailable(true);
+    paymentDao = new MyBatisPaymentDao(getSqlSessionTemplate());
+    accountDao = new MyBatisAccountDao(getSqlSessionTemplate());
+    iterations = Integer.getInteger("scaleTest.iterations", 5);
+  }
+
+  private static int[] sizes() {
+    return Arrays.stream(System.getProperty("scaleTest.sizes", DEFAULT_SIZES).split("\\s*,\\s*"))
+        .mapToInt(Integer::parseInt).sorted().toArray();
+  }
+
+  private static Instant startOfMonth(YearMonth month) {
+    return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+  }
+
+  private static <E extends Enum<E>> void addQueries(List<ScaleQuery> dest, Class<?> daoClass,
+      Class<E> queryNameClass, Map<E, ScaleQuery> queries) {
+    List<E> missing = new ArrayList<>();
+    for (E queryName : queryNameClass.getEnumConstants()) {
+      ScaleQuery q = queries.get(queryName);
+      if (q == null) {
+        missing.add(queryName);
+        continue;
+      }
+      q.name = daoClass.getSimpleName() + "." + queryName.name();
+      dest.add(q);
+    }
+    assertThat(daoClass.getSimpleName() + " queries without a scale test", missing, empty());
+  }
+
+  private void invoiceQueries(GeneratedLedger ledger, List<ScaleQuery> dest) {
+    final Long accountId = ledger.getLargestAccountId();
+    final Long[] accountInvoiceIds = ledger.getLargestAccountInvoiceIds();
+    final Long invoiceId = accountInvoiceIds[accountInvoiceIds.length - 1];
+    final Instant snapshotDate = startOfMonth(ledger.getEndMonth());
+    final Instant oldSnapshotDate = startOfMonth(ledger.getEndMonth().minusMonths(1));
+
+    final ExtendedSnfInvoiceFilter accountFilter = new ExtendedSnfInvoiceFilter();
+    accountFilter.setAccountId(accountId);
+    accountFilter.setCountStrategy(CountStrategy.Exact);
+
+    final ExtendedSnfInvoiceFilter accountPageFilter = accountFilter.clone();
+    accountPageFilter.setOffset(0);
+    accountPageFilter.setMax(PAGE_SIZE);
+
+    final ExtendedSnfInvoiceFilter unpaidFilter = new ExtendedSnfInvoiceFilter();
+    unpaidFilter.setUnpaidOnly(true);
+    unpaidFilter.setCountStrategy(CountStrategy.Estimate);
+
+    final ExtendedSnfInvoiceFilter itemsFilter = new ExtendedSnfInvoiceFilter();
+    itemsFilter.setInvoiceIds(
+        Arrays.copyOf(accountInvoiceIds, Math.min(PAGE_SIZE, accountInvoiceIds.length)));
+
+    final ExtendedSnfInvoiceFilter monthFilter = new ExtendedSnfInvoiceFilter();
+    monthFilter.setStartDate(ledger.getEndMonth().atDay(1));
+    monthFilter.setEndDate(ledger.getEndMonth().plusMonths(1).atDay(1));
+
+    final long afterInvoiceId = Math.max(0, invoiceId - INVOICE_ACCOUNTS_COUNT);
+
+    Map<MyBatisInvoiceDao.QueryName, ScaleQuery> queries = new EnumMap<>(
+        MyBatisInvoiceDao.QueryName.class);
+    queries.put(MyBatisInvoiceDao.QueryName.FindFiltered,
+        query(() -> invoiceDao.findFiltered(accountFilter, null, 0, PAGE_SIZE)));
+    queries.put(MyBatisInvoiceDao.QueryName.FindFilteredStream,
+        query(() -> invoiceDao.streamFiltered(accountFilter, inv -> {
+          // nothing to do
+        })));
+    queries.put(MyBatisInvoiceDao.QueryName.FindFilteredSummary,
+        query(() -> invoiceDao.findFilteredSummaries(unpaidFilter, null, 0, PAGE_SIZE)));
+    queries.put(MyBatisInvoiceDao.QueryName.FindFilteredSummaryStream,
+        query(() -> invoiceDao.streamFilteredSummaries(accountFilter, inv -> {
+          // nothing to do
+        })));
+    queries.put(MyBatisInvoiceDao.QueryName.GetHeader,
+        query(() -> getSqlSessionTemplate().selectOne(
+            MyBatisInvoiceDao.QueryName.GetHeader.getQueryName(),
+            new UserLongPK(null, invoiceId))));
+    queries.put(MyBatisInvoiceDao.QueryName.FindFilteredHeaders,
+        query(() -> getSqlSessionTemplate().selectList(
+            MyBatisInvoiceDao.QueryName.FindFilteredHeaders.getQueryName(), accountPageFilter)));
+    queries.put(MyBatisInvoiceDao.QueryName.FindItemsForInvoices,
+        query(() -> getSqlSessionTemplate().selectList(
+            MyBatisInvoiceDao.QueryName.FindItemsForInvoices.getQueryName(), itemsFilter)));
+    queries.put(MyBatisInvoiceDao.QueryName.InvoiceBalancesAvailable,
+        query(() -> getSqlSessionTemplate()
+            .selectOne(MyBatisInvoiceDao.QueryName.InvoiceBalancesAvailable.getQueryName())));
+    queries.put(MyBatisInvoiceDao.QueryName.RebuildBalances,
+        query(() -> invoiceDao.rebuildBalances(accountId)));
+    queries.put(MyBatisInvoiceDao.QueryName.FindBalanceDiscrepancies,
+        query(() -> invoiceDao.findBalanceDiscrepancies(null)));
+    queries.put(MyBatisInvoiceDao.QueryName.InvoiceSnapshotsAvailable,
+        query(() -> getSqlSessionTemplate()
+            .selectOne(MyBatisInvoiceDao.QueryName.InvoiceSnapshotsAvailable.getQueryName())));
+    queries.put(MyBatisInvoiceDao.QueryName.FindSnapshotDateForDate,
+        query(() -> getSqlSessionTemplate().selectOne(
+            MyBatisInvoiceDao.QueryName.FindSnapshotDateForDate.getQueryName(), Instant.now())));
+    queries.put(MyBatisInvoiceDao.QueryName.FindSnapshotDates,
+        query(() -> invoiceDao.findSnapshotDates()));
+    queries.put(MyBatisInvoiceDao.QueryName.CreateSnapshot,
+        query(() -> invoiceDao.createSnapshot(snapshotDate)));
+    queries.put(MyBatisInvoiceDao.QueryName.DeleteSnapshot,
+        query(() -> invoiceDao.createSnapshot(oldSnapshotDate),
+            () -> getSqlSessionTemplate().delete(
+                MyBatisInvoiceDao.QueryName.DeleteSnapshot.getQueryName(),
+                singletonMap("snapshotDate", oldSnapshotDate))));
+    queries.put(MyBatisInvoiceDao.QueryName.FindAging,
+        query(() -> invoiceDao.streamAging(null, null, aging -> {
+          // nothing to do
+        })));
+    queries.put(MyBatisInvoiceDao.QueryName.FindInvoiceAccounts,
+        query(() -> invoiceDao.streamInvoiceAccounts(afterInvoiceId, inv -> {
+          // nothing to do
+        })));
+    queries.put(MyBatisInvoiceDao.QueryName.FindFilteredAccounts,
+        query(() -> invoiceDao.streamFilteredAccounts(monthFilter, inv -> {
+          // nothing to do
+        })));
+    addQueries(dest, MyBatisInvoiceDao.class, MyBatisInvoiceDao.QueryName.class, queries);
+  }
+
+  private void paymentQueries(GeneratedLedger ledger, List<ScaleQuery> dest) {
+    final Long accountId = ledger.getLargestAccountId();
+
+    final ExtendedPaymentFilter accountFilter = new ExtendedPaymentFilter();
+    accountFilter.setAccountId(accountId);
+    accountFilter.setCountStrategy(CountStrategy.Exact);
+
+    Map<MyBatisPaymentDao.QueryName, ScaleQuery> queries = new EnumMap<>(
+        MyBatisPaymentDao.QueryName.class);
+    queries.put(MyBatisPaymentDao.QueryName.FindFiltered,
+        query(() -> paymentDao.findFiltered(accountFilter, null, 0, PAGE_SIZE)));
+    queries.put(MyBatisPaymentDao.QueryName.FindFilteredStream,
+        query(() -> paymentDao.streamFiltered(accountFilter, payment -> {
+          // nothing to do
+        })));
+    queries.put(MyBatisPaymentDao.QueryName.AddPayment, query(() -> {
+      Payment payment = new Payment(null, accountId, Instant.now());
+      payment.setAmount(AMOUNT);
+      paymentDao.addPayment(payment, null);
+    }));
+    addQueries(dest, MyBatisPaymentDao.class, MyBatisPaymentDao.QueryName.class, queries);
+  }
+
+  private void accountQueries(GeneratedLedger ledger, List<ScaleQuery> dest) {
+    final Long accountId = ledger.getLargestAccountId();
+    final IdRange idRange = accountDao.findIdRanges(ID_RANGE_COUNT).get(0);
+    final int taskCount = (int) Math.min(TASK_COUNT, ledger.getAccountCount());
+
+    final AccountFilter pageFilter = new AccountFilter();
+    pageFilter.setCountStrategy(CountStrategy.Exact);
+
+    Map<MyBatisAccountDao.QueryName, ScaleQuery> queries = new EnumMap<>(
+        MyBatisAccountDao.QueryName.class);
+    queries.put(MyBatisAccountDao.QueryName.AddCredit,
+        query(() -> accountDao.addCredit(accountId, AMOUNT)));
+    queries.put(MyBatisAccountDao.QueryName.FindFilteredBalance,
+        query(() -> accountDao.findFilteredBalances(pageFilter, null, 0, PAGE_SIZE)));
+    queries.put(MyBatisAccountDao.QueryName.FindIdRanges,
+        query(() -> accountDao.findIdRanges(ID_RANGE_COUNT)));
+    queries.put(MyBatisAccountDao.QueryName.FindBalanceDiscrepancies,
+        query(() -> accountDao.findBalanceDiscrepancies(idRange)));
+    queries.put(MyBatisAccountDao.QueryName.FindWithoutInvoiceForMonth,
+        query(() -> accountDao.findAccountsWithoutInvoice(new AccountFilter(),
+            ledger.getEndMonth().plusMonths(1), AccountTaskType.GenerateInvoice)));
+    queries.put(MyBatisAccountDao.QueryName.SaveTask, query(() -> accountDao
+        .saveTask(AccountTask.newTask(Instant.now(), AccountTaskType.GenerateInvoice, accountId))));
+    queries.put(MyBatisAccountDao.QueryName.SaveTaskList, query(() -> {
+      final Instant date = Instant.now();
+      List<AccountTask> tasks = new ArrayList<>(taskCount);
+      for (int i = 0; i < taskCount; i++) {
+        tasks.add(AccountTask.newTask(date, AccountTaskType.GenerateInvoice,
+            ledger.getFirstAccountId() + i));
+      }
+      accountDao.saveTasks(tasks);
+    }));
+    addQueries(dest, MyBatisAccountDao.class, MyBatisAccountDao.QueryName.class, queries);
+  }
+
+  private double medianMillis(ScaleQuery q) {
+    final long[] nanos = new long[iterations];
+    for (int i = -WARMUP_ITERATIONS; i < iterations; i++) {
+      if (q.setup != null) {
+        q.setup.run();
+        getSqlSessionTemplate().flushStatements();
+      }
+      final long start = System.nanoTime();
+      q.query.run();
+      // include any batched statements
+      getSqlSessionTemplate().flushStatements();
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    return nanos[nanos.length / 2] / 1000000.0;
+  }
+
+  private static void saveResults(Map<String, Double> results) throws IOException {
+    final String resultsPath = System.getProperty("scaleTest.results");
+    if (resultsPath == null || resultsPath.isEmpty()) {
+      return;
+    }
+    final Path path = Paths.get(resultsPath);
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    try (Writer out = Files.newBufferedWriter(path, UTF_8)) {
+      out.write("# Median query times in milliseconds, by query and invoice count\n");
+      for (Map.Entry<String, Double> e : results.entrySet()) {
+        out.write(String.format(Locale.ROOT, "%s=%.3f%n", e.getKey(), e.getValue()));
+      }
+    }
+  }
+
+  private static List<String> regressions(Map<String, Double> results) throws IOException {
+    final List<String> regressions = new ArrayList<>();
+    final String baselinePath = System.getProperty("scaleTest.baseline");
+    if (baselinePath == null || baselinePath.isEmpty()) {
+      return regressions;
+    }
+    final double tolerance = Double.parseDouble(System.getProperty("scaleTest.tolerance", "1.5"));
+    final double minDelta = Double.parseDouble(System.getProperty("scaleTest.minDeltaMs", "5"));
+    final Properties baseline = new Properties();
+    try (Reader in = Files.newBufferedReader(Paths.get(baselinePath), UTF_8)) {
+      baseline.load(in);
+    }
+    for (Map.Entry<String, Double> e : results.entrySet()) {
+      final String base = baseline.getProperty(e.getKey());
+      if (base == null) {
+        continue;
+      }
+      final double baseMs = Double.parseDouble(base);
+      final double ms = e.getValue();
+      if (ms > baseMs * tolerance && ms - baseMs > minDelta) {
+        regressions.add(String.format(Locale.ROOT, "%s took %.2fms, baseline %.2fms",
+            e.getKey(), ms, baseMs));
+      }
+    }
+    return regressions;
+  }
+
+  @Test
+  public void queryLatency() throws SQLException, IOException {
+    // GIVEN
+    final LedgerDataGenerator generator = new LedgerDataGenerator(dataSource,
+        Long.getLong("scaleTest.seed", 1L));
+    final Map<String, Double> results = new TreeMap<>();
+
+    // WHEN
+    int invoiceCount = 0;
+    for (int size : sizes()) {
+      if (size <= invoiceCount) {
+        continue;
+      }
+      long start = System.currentTimeMillis();
+      GeneratedLedger ledger = generator.generate(size - invoiceCount);
+      invoiceCount = size;
+      log.info("Generated {} up to {} invoices in {}s", ledger, size,
+          (System.currentTimeMillis() - start) / 1000);
+
+      // snapshots for the queries that use them
+      invoiceDao.createSnapshot(startOfMonth(ledger.getEndMonth()));
+
+      List<ScaleQuery> queries = new ArrayList<>(32);
+      invoiceQueries(ledger, queries);
+      paymentQueries(ledger, queries);
+      accountQueries(ledger, queries);
+
+      for (ScaleQuery q : queries) {
+        final double ms = medianMillis(q);
+        results.put(q.name + "." + size, ms);
+        log.info(String.format(Locale.ROOT, "%-8d %-50s %10.2fms", size, q.name, ms));
+      }
+    }
+    saveResults(results);
+
+    // THEN
+    assertThat("Query latency regressions", regressions(results), empty());
+  }
+
+}
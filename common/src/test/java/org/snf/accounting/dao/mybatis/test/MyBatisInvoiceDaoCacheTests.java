@@ -0,0 +1,190 @@
+/* ==================================================================
+ * MyBatisInvoiceDaoCacheTests.java - 19/10/2026 10:36:44 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceItemDao;
+import org.snf.accounting.dao.mybatis.MyBatisPaymentDao;
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.Payment;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+import net.solarnetwork.central.user.domain.UserLongPK;
+
+/**
+ * Test cases for the {@link MyBatisInvoiceDao} invoice cache, and its eviction when items are
+ * saved by {@link MyBatisInvoiceItemDao} or payments are added by {@link MyBatisPaymentDao}.
+ * 
+ * @author matt
+ * @version 1.2
+ */
+@Import({ CachingTestConfig.class, MyBatisAddressDao.class, MyBatisAccountDao.class,
+    MyBatisInvoiceDao.class, MyBatisInvoiceItemDao.class, MyBatisPaymentDao.class })
+public class MyBatisInvoiceDaoCacheTests extends AbstractMyBatisTest {
+
+  private static final String GET_QUERY = "org.snf.accounting.dao.mybatis.SnfInvoice"
+      + ".get-SnfInvoice-for-id";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao accountDao;
+
+  @Autowired
+  private MyBatisInvoiceDao dao;
+
+  @Autowired
+  private MyBatisInvoiceItemDao itemDao;
+
+  @Autowired
+  private MyBatisPaymentDao paymentDao;
+
+  private Account account;
+
+  @Before
+  public void setUp() throws Exception {
+    Address address = addressDao.get(addressDao.save(createTestAddress()));
+    account = accountDao.get(accountDao.save(createTestAccount(address)));
+  }
+
+  private UserLongPK setupTestInvoice(String amount) {
+    SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(),
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    inv.setAddress(account.getAddress());
+    inv.setCurrencyCode(account.getCurrencyCode());
+    inv.setStartDate(LocalDate.of(2020, 1, 1));
+    inv.setEndDate(LocalDate.of(2020, 2, 1));
+    Long invoiceId = dao.save(inv).getId();
+    addItem(invoiceId, InvoiceItemType.Fixed, amount);
+    return new UserLongPK(null, invoiceId);
+  }
+
+  private void addItem(Long invoiceId, InvoiceItemType type, String amount) {
+    SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId,
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    item.setItemType(type);
+    item.setKey("test-" + type);
+    item.setAmount(new BigDecimal(amount));
+    item.setQuantity(BigDecimal.ONE);
+    itemDao.save(item);
+    getSqlSessionTemplate().flushStatements();
+  }
+
+  private long queryCount(String statementId) {
+    Timer timer = meterRegistry.find(StatementMetricsInterceptor.LATENCY_METER_NAME)
+        .tag(StatementMetricsInterceptor.STATEMENT_TAG, statementId).timer();
+    return (timer != null ? timer.count() : 0L);
+  }
+
+  @Test
+  public void get_cached() {
+    // GIVEN
+    final UserLongPK id = setupTestInvoice("10.00");
+    final long startCount = queryCount(GET_QUERY);
+
+    // WHEN
+    SnfInvoice first = dao.get(id);
+    SnfInvoice second = dao.get(id);
+
+    // THEN
+    assertThat("One query for repeated get", queryCount(GET_QUERY) - startCount, equalTo(1L));
+    assertThat("Cached invoice returned", second, sameInstance(first));
+  }
+
+  @Test
+  public void saveItem_evictsInvoice() {
+    // GIVEN
+    final UserLongPK id = setupTestInvoice("10.00");
+    final SnfInvoice cached = dao.get(id);
+    final long startCount = queryCount(GET_QUERY);
+
+    // WHEN
+    addItem(id.getId(), InvoiceItemType.Credit, "-3.00");
+    SnfInvoice updated = dao.get(id);
+
+    // THEN
+    assertThat("Invoice queried again", queryCount(GET_QUERY) - startCount, equalTo(1L));
+    assertThat("Invoice not the cached instance", updated, not(sameInstance(cached)));
+    assertThat("Total amount fresh after item saved", updated.getTotalAmount(),
+        comparesEqualTo(new BigDecimal("7.00")));
+  }
+
+  @Test
+  public void addPayment_evictsInvoices() {
+    // GIVEN
+    final UserLongPK paidId = setupTestInvoice("10.00");
+    final UserLongPK otherId = setupTestInvoice("20.00");
+    final SnfInvoiceWithBalance unpaid = (SnfInvoiceWithBalance) dao.get(paidId);
+    final SnfInvoice other = dao.get(otherId);
+    assertThat("Nothing paid yet", unpaid.getPaidAmount(), comparesEqualTo(BigDecimal.ZERO));
+    final long startCount = queryCount(GET_QUERY);
+
+    // WHEN
+    Payment payment = new Payment(null, account.getId().getId(),
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    payment.setAmount(new BigDecimal("4.00"));
+    paymentDao.addPayment(payment, Collections.singletonList(paidId.getId()));
+    SnfInvoiceWithBalance paid = (SnfInvoiceWithBalance) dao.get(paidId);
+
+    // THEN
+    assertThat("Paid invoice queried again", queryCount(GET_QUERY) - startCount, equalTo(1L));
+    assertThat("Paid invoice not the cached instance", paid, not(sameInstance(unpaid)));
+    assertThat("Paid amount fresh after payment", paid.getPaidAmount(),
+        comparesEqualTo(new BigDecimal("4.00")));
+    assertThat("Due amount fresh after payment", paid.getDueAmount(),
+        comparesEqualTo(new BigDecimal("6.00")));
+    assertThat("Other invoice still cached", dao.get(otherId), sameInstance(other));
+    assertThat("Other invoice not queried again", queryCount(GET_QUERY) - startCount,
+        equalTo(1L));
+  }
+
+}
@@ -0,0 +1,668 @@
+/* ==================================================================
+ * MyBatisInvoiceDaoTests.java - 18/10/2026 10:21:47 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.StreamSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao.FetchMode;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceItemDao;
+import org.snf.accounting.domain.AccountAging;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.SnfInvoiceBalance;
+import org.snf.accounting.domain.SnfInvoiceKeyset;
+import org.snf.accounting.domain.SnfInvoiceSummary;
+import org.snf.accounting.domain.SnfInvoiceWithBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTask;
+import net.solarnetwork.central.user.billing.snf.domain.AccountTaskType;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+import net.solarnetwork.central.user.domain.UserLongPK;
+import net.solarnetwork.dao.FilterResults;
+
+/**
+ * Test cases for the {@link MyBatisInvoiceDao} class.
+ * 
+ * @author matt
+ * @version 1.3
+ */
+@Import({ MyBatisAddressDao.class, MyBatisAccountDao.class, MyBatisInvoiceDao.class,
+    MyBatisInvoiceItemDao.class })
+public class MyBatisInvoiceDaoTests extends AbstractMyBatisTest {
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao accountDao;
+
+  @Autowired
+  private MyBatisInvoiceDao dao;
+
+  @Autowired
+  private MyBatisInvoiceItemDao itemDao;
+
+  private Account account;
+
+  @Before
+  public void setUp() throws Exception {
+    Address address = addressDao.get(addressDao.save(createTestAddress()));
+    Account acct = createTestAccount(address);
+    account = accountDao.get(accountDao.save(acct));
+  }
+
+  private List<Long> setupTestInvoices(int count) {
+    List<Long> results = new ArrayList<>(count);
+    LocalDate month = LocalDate.of(2020, 1, 1);
+    for (int i = 0; i < count; i++) {
+      // two invoices per month, to verify the ID tie-breaker between equal dates
+      LocalDate start = month.plusMonths(i / 2);
+      SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(),
+          Instant.ofEpochMilli(System.currentTimeMillis()));
+      inv.setAddress(account.getAddress());
+      inv.setCurrencyCode(account.getCurrencyCode());
+      inv.setStartDate(start);
+      inv.setEndDate(start.plusMonths(1));
+      results.add(dao.save(inv).getId());
+    }
+    getSqlSessionTemplate().flushStatements();
+    return results;
+  }
+
+  private void setupTestInvoiceItems(Long invoiceId, int count) {
+    for (int i = 0; i < count; i++) {
+      SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId,
+          Instant.ofEpochMilli(System.currentTimeMillis()));
+      item.setItemType(InvoiceItemType.Fixed);
+      item.setKey("test-" + i);
+      item.setAmount(new BigDecimal(String.valueOf(i + 1)));
+      item.setQuantity(BigDecimal.ONE);
+      itemDao.save(item);
+    }
+    getSqlSessionTemplate().flushStatements();
+  }
+
+  private static List<Long> invoiceIds(FilterResults<SnfInvoice, UserLongPK> results) {
+    return StreamSupport.stream(results.spliterator(), false).map(e -> e.getId().getId())
+        .collect(toList());
+  }
+
+  private static Set<UUID> itemIds(SnfInvoice invoice) {
+    return (invoice.getItems() != null
+        ? invoice.getItems().stream().map(SnfInvoiceItem::getId).collect(toSet())
+        : Collections.emptySet());
+  }
+
+  private void assertInvoiceItemsEqual(SnfInvoice invoice, SnfInvoice expected) {
+    final Long id = invoice.getId().getId();
+    assertThat(format("Invoice %d ID", id), id, equalTo(expected.getId().getId()));
+    assertThat(format("Invoice %d address", id), invoice.getAddress().getId(),
+        equalTo(expected.getAddress().getId()));
+    assertThat(format("Invoice %d item count", id), invoice.getItemCount(),
+        equalTo(expected.getItemCount()));
+    assertThat(format("Invoice %d items", id), itemIds(invoice), equalTo(itemIds(expected)));
+    assertThat(format("Invoice %d total", id), invoice.getTotalAmount(),
+        comparesEqualTo(expected.getTotalAmount()));
+  }
+
+  private MyBatisInvoiceDao twoPhaseDao() {
+    MyBatisInvoiceDao twoPhaseDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    twoPhaseDao.setFetchMode(FetchMode.TwoPhase);
+    return twoPhaseDao;
+  }
+
+  @Test
+  public void findFiltered_keyset_matchesOffset() {
+    // GIVEN
+    final int pageSize = 3;
+    List<Long> ids = setupTestInvoices(10);
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    SnfInvoiceKeyset keyset = null;
+    List<Long> keysetIds = new ArrayList<>(ids.size());
+    for (int offset = 0; offset < ids.size(); offset += pageSize) {
+      ExtendedSnfInvoiceFilter offsetFilter = filter.clone();
+      final FilterResults<SnfInvoice, UserLongPK> offsetResults = dao.findFiltered(offsetFilter,
+          null, offset, pageSize);
+
+      ExtendedSnfInvoiceFilter keysetFilter = filter.clone();
+      keysetFilter.setKeyset(keyset);
+      FilterResults<SnfInvoice, UserLongPK> keysetResults = dao.findFiltered(keysetFilter, null,
+          offset, pageSize);
+
+      // THEN
+      assertThat(format("Keyset results returned for offset %d", offset), keysetResults,
+          notNullValue());
+      assertThat(format("Total count for offset %d not affected by keyset", offset),
+          keysetResults.getTotalResults(), equalTo((long) ids.size()));
+      List<Long> pageIds = invoiceIds(keysetResults);
+      assertThat(format("Keyset page at offset %d same as offset page", offset), pageIds,
+          equalTo(invoiceIds(offsetResults)));
+      keysetIds.addAll(pageIds);
+
+      SnfInvoice last = null;
+      for (SnfInvoice inv : keysetResults) {
+        last = inv;
+      }
+      keyset = SnfInvoiceKeyset.forInvoice(last);
+    }
+    assertThat("All invoices returned once", keysetIds.stream().sorted().collect(toList()),
+        equalTo(ids));
+  }
+
+  @Test
+  public void findFiltered_windowCount_matchesExact() {
+    // GIVEN
+    final int pageSize = 3;
+    List<Long> ids = setupTestInvoices(7);
+    for (Long id : ids) {
+      setupTestInvoiceItems(id, 2);
+    }
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setCountStrategy(CountStrategy.Window);
+    SnfInvoiceKeyset keyset = null;
+    for (int offset = 0; offset <= ids.size() + pageSize; offset += pageSize) {
+      ExtendedSnfInvoiceFilter keysetFilter = filter.clone();
+      keysetFilter.setKeyset(keyset);
+      FilterResults<SnfInvoice, UserLongPK> results = dao.findFiltered(keysetFilter, null, offset,
+          pageSize);
+
+      // THEN
+      assertThat(format("Window count for offset %d is total count", offset),
+          results.getTotalResults(), equalTo((long) ids.size()));
+      assertThat(format("Returned count for offset %d", offset), results.getReturnedResultCount(),
+          equalTo(Math.max(0, Math.min(pageSize, ids.size() - offset))));
+
+      SnfInvoice last = null;
+      for (SnfInvoice inv : results) {
+        last = inv;
+      }
+      keyset = (last != null ? SnfInvoiceKeyset.forInvoice(last) : null);
+    }
+  }
+
+  @Test
+  public void findFiltered_firstPageWithoutOffset() {
+    // GIVEN
+    final List<Long> ids = setupTestInvoices(5);
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setMax(2);
+    filter.setOffset(null);
+    FilterResults<SnfInvoice, UserLongPK> results = dao.findFiltered(filter, null, null, null);
+
+    // THEN
+    assertThat("First page returned", results.getReturnedResultCount(), equalTo(2));
+    assertThat("Default window count is total count", results.getTotalResults(),
+        equalTo((long) ids.size()));
+    assertThat("Caller's filter not modified", filter.getOffset(), nullValue());
+  }
+
+  @Test
+  public void findFiltered_noCount() {
+    // GIVEN
+    setupTestInvoices(3);
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setCountStrategy(CountStrategy.None);
+    FilterResults<SnfInvoice, UserLongPK> results = dao.findFiltered(filter, null, 0, 2);
+
+    // THEN
+    assertThat("Returned count", results.getReturnedResultCount(), equalTo(2));
+    assertThat("No total count", results.getTotalResults(), nullValue());
+  }
+
+  @Test
+  public void streamFiltered_itemsGrouped() {
+    // GIVEN
+    List<Long> ids = setupTestInvoices(5);
+    for (Long id : ids) {
+      setupTestInvoiceItems(id, 3);
+    }
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    List<SnfInvoiceWithBalance> streamed = new ArrayList<>(ids.size());
+    long count = dao.streamFiltered(filter, streamed::add);
+
+    // THEN
+    assertThat("Streamed count", count, equalTo((long) ids.size()));
+    assertThat("Streamed invoices", streamed, hasSize(ids.size()));
+    FilterResults<SnfInvoice, UserLongPK> expected = dao.findFiltered(filter, null, null, null);
+    assertThat("Streamed order same as find",
+        streamed.stream().map(e -> e.getId().getId()).collect(toList()),
+        equalTo(invoiceIds(expected)));
+    for (SnfInvoiceWithBalance inv : streamed) {
+      assertThat(format("Invoice %d items grouped", inv.getId().getId()), inv.getItems(),
+          hasSize(3));
+      assertThat(format("Invoice %d total", inv.getId().getId()), inv.getTotalAmount(),
+          comparesEqualTo(new BigDecimal("6")));
+    }
+  }
+
+  @Test
+  public void findFilteredSummaries_matchesFull() {
+    // GIVEN
+    List<Long> ids = setupTestInvoices(4);
+    for (int i = 0; i < ids.size(); i++) {
+      setupTestInvoiceItems(ids.get(i), i);
+    }
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setCountStrategy(CountStrategy.Window);
+    FilterResults<SnfInvoiceSummary, UserLongPK> results = dao.findFilteredSummaries(filter, null,
+        0, 10);
+
+    // THEN
+    final FilterResults<SnfInvoice, UserLongPK> expected = dao.findFiltered(filter, null, 0, 10);
+    assertThat("Total count", results.getTotalResults(), equalTo(expected.getTotalResults()));
+    assertThat("Summary order same as find",
+        StreamSupport.stream(results.spliterator(), false).map(e -> e.getId().getId())
+            .collect(toList()),
+        equalTo(invoiceIds(expected)));
+    Iterator<SnfInvoice> itr = expected.iterator();
+    for (SnfInvoiceSummary inv : results) {
+      SnfInvoice full = itr.next();
+      assertThat(format("Invoice %d has no items", inv.getId().getId()), inv.getItems(),
+          anyOf(nullValue(), empty()));
+      assertThat(format("Invoice %d item count", inv.getId().getId()), inv.getItemCount(),
+          equalTo(full.getItemCount()));
+      assertThat(format("Invoice %d total", inv.getId().getId()), inv.getTotalAmount(),
+          comparesEqualTo(full.getTotalAmount()));
+    }
+  }
+
+  @Test
+  public void get_twoPhase_matchesJoined() {
+    // GIVEN
+    Long id = setupTestInvoices(1).get(0);
+    setupTestInvoiceItems(id, 3);
+
+    // WHEN
+    SnfInvoice invoice = twoPhaseDao().get(new UserLongPK(null, id));
+
+    // THEN
+    assertThat("Invoice found", invoice, notNullValue());
+    assertInvoiceItemsEqual(invoice, dao.get(new UserLongPK(null, id)));
+  }
+
+  @Test
+  public void findFiltered_twoPhase_matchesJoined() {
+    // GIVEN
+    List<Long> ids = setupTestInvoices(5);
+    for (int i = 0; i < ids.size(); i++) {
+      setupTestInvoiceItems(ids.get(i), i);
+    }
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setCountStrategy(CountStrategy.Window);
+    FilterResults<SnfInvoice, UserLongPK> results = twoPhaseDao().findFiltered(filter, null, 1, 3);
+
+    // THEN
+    final FilterResults<SnfInvoice, UserLongPK> expected = dao.findFiltered(filter, null, 1, 3);
+    assertThat("Total count", results.getTotalResults(), equalTo(expected.getTotalResults()));
+    assertThat("Invoice order same as joined", invoiceIds(results),
+        equalTo(invoiceIds(expected)));
+    Iterator<SnfInvoice> itr = expected.iterator();
+    for (SnfInvoice inv : results) {
+      assertInvoiceItemsEqual(inv, itr.next());
+    }
+  }
+
+  private static final String INVOICE_BALANCE_SCRIPT = "/org/snf/accounting/dao/mybatis/sql/"
+      + "bill-invoice-bal.sql";
+
+  private MyBatisInvoiceDao invoiceBalancesDao(boolean available) {
+    MyBatisInvoiceDao balancesDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    balancesDao.setInvoiceBalancesAvailable(available);
+    return balancesDao;
+  }
+
+  private List<Long> setupTestInvoicesWithPaidAlternating(int count) {
+    List<Long> ids = setupTestInvoices(count);
+    for (int i = 0; i < ids.size(); i++) {
+      setupTestInvoiceItems(ids.get(i), 2);
+      if (i % 2 == 1) {
+        // credit the full amount, so the invoice total is zero
+        SnfInvoiceItem credit = new SnfInvoiceItem(UUID.randomUUID(), ids.get(i),
+            Instant.ofEpochMilli(System.currentTimeMillis()));
+        credit.setItemType(InvoiceItemType.Credit);
+        credit.setKey("test-credit");
+        credit.setAmount(new BigDecimal("-3"));
+        credit.setQuantity(BigDecimal.ONE);
+        itemDao.save(credit);
+      }
+    }
+    getSqlSessionTemplate().flushStatements();
+    return ids;
+  }
+
+  @Test
+  public void findFiltered_unpaid_invoiceBalances() {
+    // GIVEN
+    executeSqlScript(INVOICE_BALANCE_SCRIPT);
+    List<Long> ids = setupTestInvoicesWithPaidAlternating(6);
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setUnpaidOnly(true);
+    FilterResults<SnfInvoice, UserLongPK> paged = invoiceBalancesDao(true).findFiltered(filter,
+        null, 0, 10);
+    final FilterResults<SnfInvoice, UserLongPK> unpaged = invoiceBalancesDao(true)
+        .findFiltered(filter, null, null, null);
+
+    // THEN
+    final FilterResults<SnfInvoice, UserLongPK> expected = invoiceBalancesDao(false)
+        .findFiltered(filter, null, null, null);
+    assertThat("Only unpaid invoices returned", invoiceIds(expected), hasSize(ids.size() / 2));
+    assertThat("Paged unpaid invoices same as without balances", invoiceIds(paged),
+        equalTo(invoiceIds(expected)));
+    assertThat("Paged unpaid count", paged.getTotalResults(), equalTo((long) ids.size() / 2));
+    assertThat("Unpaged unpaid invoices same as without balances", invoiceIds(unpaged),
+        equalTo(invoiceIds(expected)));
+  }
+
+  @Test
+  public void verifyAndRebuildBalances() {
+    // GIVEN
+    executeSqlScript(INVOICE_BALANCE_SCRIPT);
+    List<Long> ids = setupTestInvoicesWithPaidAlternating(4);
+    final Long accountId = account.getId().getId();
+    assertThat("Maintained balances correct", dao.findBalanceDiscrepancies(accountId),
+        hasSize(0));
+    getJdbcTemplate().update(
+        "UPDATE solarbill.bill_invoice_bal SET total_amount = 0 WHERE inv_id = ?", ids.get(0));
+    getJdbcTemplate().update("DELETE FROM solarbill.bill_invoice_bal WHERE inv_id = ?",
+        ids.get(1));
+
+    // WHEN
+    List<SnfInvoiceBalance> discrepancies = dao.findBalanceDiscrepancies(accountId);
+    final int rebuilt = dao.rebuildBalances(accountId);
+
+    // THEN
+    assertThat("Discrepancies found", discrepancies, hasSize(2));
+    SnfInvoiceBalance bal = discrepancies.get(0);
+    assertThat("Incorrect balance invoice", bal.getInvoiceId(), equalTo(ids.get(0)));
+    assertThat("Incorrect balance not missing", bal.isMissing(), equalTo(false));
+    assertThat("Incorrect balance total", bal.getTotalAmount(), comparesEqualTo(BigDecimal.ZERO));
+    assertThat("Incorrect balance actual total", bal.getActualTotalAmount(),
+        comparesEqualTo(new BigDecimal("3")));
+    bal = discrepancies.get(1);
+    assertThat("Missing balance invoice", bal.getInvoiceId(), equalTo(ids.get(1)));
+    assertThat("Missing balance", bal.isMissing(), equalTo(true));
+    assertThat("Rebuilt count", rebuilt, equalTo(2));
+    assertThat("Rebuilt balances correct", dao.findBalanceDiscrepancies(accountId), hasSize(0));
+  }
+
+  private static final String INVOICE_SNAPSHOT_SCRIPT = "/org/snf/accounting/dao/mybatis/sql/"
+      + "bill-invoice-snap.sql";
+
+  private MyBatisInvoiceDao invoiceSnapshotsDao(boolean available) {
+    MyBatisInvoiceDao snapshotsDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    snapshotsDao.setInvoiceSnapshotsAvailable(available);
+    return snapshotsDao;
+  }
+
+  private void setupTestInvoiceItem(Long invoiceId, Instant created, String amount) {
+    SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId, created);
+    item.setItemType(InvoiceItemType.Fixed);
+    item.setKey("test");
+    item.setAmount(new BigDecimal(amount));
+    item.setQuantity(BigDecimal.ONE);
+    itemDao.save(item);
+  }
+
+  private List<Long> findUnpaidAt(MyBatisInvoiceDao unpaidDao, Instant date) {
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setUnpaidAtDate(date);
+    return invoiceIds(unpaidDao.findFiltered(filter, null, null, null));
+  }
+
+  @Test
+  public void findFiltered_unpaidAt_invoiceSnapshot() {
+    // GIVEN
+    executeSqlScript(INVOICE_SNAPSHOT_SCRIPT);
+    final Instant snapDate = Instant.parse("2020-02-01T00:00:00Z");
+    List<Long> ids = setupTestInvoices(4);
+    for (Long id : ids) {
+      setupTestInvoiceItem(id, Instant.parse("2020-01-15T00:00:00Z"), "10");
+    }
+    // credited before the snapshot
+    setupTestInvoiceItem(ids.get(2), Instant.parse("2020-01-20T00:00:00Z"), "-10");
+    // credited after the snapshot
+    setupTestInvoiceItem(ids.get(1), Instant.parse("2020-02-10T00:00:00Z"), "-10");
+    setupTestInvoiceItem(ids.get(3), Instant.parse("2020-02-20T00:00:00Z"), "-10");
+    getSqlSessionTemplate().flushStatements();
+
+    // WHEN
+    final int count = dao.createSnapshot(snapDate);
+
+    // THEN
+    assertThat("Snapshot excludes zero balance invoices", count, equalTo(3));
+    assertThat("Snapshot dates", dao.findSnapshotDates(), contains(snapDate));
+    assertThat("Snapshot replaced", dao.createSnapshot(snapDate), equalTo(3));
+    final MyBatisInvoiceDao snapshotsDao = invoiceSnapshotsDao(true);
+    final MyBatisInvoiceDao noSnapshotsDao = invoiceSnapshotsDao(false);
+    for (String date : Arrays.asList("2020-01-17", "2020-02-01", "2020-02-15", "2020-03-01")) {
+      Instant ts = Instant.parse(date + "T00:00:00Z");
+      assertThat(format("Unpaid at %s from snapshot same as without snapshot", date),
+          findUnpaidAt(snapshotsDao, ts), equalTo(findUnpaidAt(noSnapshotsDao, ts)));
+    }
+    assertThat("Unpaid at 2020-02-15 from snapshot",
+        findUnpaidAt(snapshotsDao, Instant.parse("2020-02-15T00:00:00Z")),
+        containsInAnyOrder(ids.get(0), ids.get(3)));
+    assertThat("Unpaid at 2020-03-01 from snapshot",
+        findUnpaidAt(snapshotsDao, Instant.parse("2020-03-01T00:00:00Z")), contains(ids.get(0)));
+  }
+
+  private Long setupTestInvoice(Instant created, String amount) {
+    SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(), created);
+    inv.setAddress(account.getAddress());
+    inv.setCurrencyCode(account.getCurrencyCode());
+    inv.setStartDate(created.atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1));
+    inv.setEndDate(inv.getStartDate().plusMonths(1));
+    Long id = dao.save(inv).getId();
+    setupTestInvoiceItem(id, created, amount);
+    getSqlSessionTemplate().flushStatements();
+    return id;
+  }
+
+  private static void assertAging(String msg, AccountAging aging, long count, String... amounts) {
+    assertThat(msg + " invoice count", aging.getInvoiceCount(), equalTo(count));
+    assertThat(msg + " current", aging.getCurrentAmount(),
+        comparesEqualTo(new BigDecimal(amounts[0])));
+    assertThat(msg + " 30 days", aging.getDays30Amount(),
+        comparesEqualTo(new BigDecimal(amounts[1])));
+    assertThat(msg + " 60 days", aging.getDays60Amount(),
+        comparesEqualTo(new BigDecimal(amounts[2])));
+    assertThat(msg + " 90 days", aging.getDays90Amount(),
+        comparesEqualTo(new BigDecimal(amounts[3])));
+    assertThat(msg + " total", aging.getTotalAmount(), comparesEqualTo(new BigDecimal(amounts[4])));
+  }
+
+  @Test
+  public void streamAging_asOf() {
+    // GIVEN
+    setupTestInvoice(Instant.parse("2020-01-01T00:00:00Z"), "1");
+    setupTestInvoice(Instant.parse("2020-01-20T00:00:00Z"), "2");
+    setupTestInvoice(Instant.parse("2020-02-15T00:00:00Z"), "4");
+    setupTestInvoice(Instant.parse("2020-03-20T00:00:00Z"), "8");
+    // paid
+    setupTestInvoice(Instant.parse("2020-03-21T00:00:00Z"), "0");
+    // after the report date
+    setupTestInvoice(Instant.parse("2020-04-02T00:00:00Z"), "16");
+
+    // WHEN
+    List<AccountAging> results = new ArrayList<>();
+    long count = dao.streamAging(Instant.parse("2020-04-01T00:00:00Z"),
+        account.getCurrencyCode(), results::add);
+
+    // THEN
+    assertThat("Account and currency total returned", count, equalTo(2L));
+    assertThat("Results streamed", results, hasSize(2));
+    AccountAging aging = results.get(0);
+    assertThat("Account aging", aging.getAccountId(), equalTo(account.getId().getId()));
+    assertThat("Account currency", aging.getCurrencyCode(), equalTo(account.getCurrencyCode()));
+    assertAging("Account", aging, 4L, "8", "4", "2", "1", "15");
+    aging = results.get(1);
+    assertThat("Currency total last", aging.isCurrencyTotal(), equalTo(true));
+    assertAging("Currency total", aging, 4L, "8", "4", "2", "1", "15");
+  }
+
+  @Test
+  public void streamAging_invoiceBalances() {
+    // GIVEN
+    executeSqlScript(INVOICE_BALANCE_SCRIPT);
+    final Instant now = Instant.now();
+    setupTestInvoice(now.minus(100, ChronoUnit.DAYS), "1");
+    setupTestInvoice(now.minus(40, ChronoUnit.DAYS), "2");
+    setupTestInvoice(now.minus(1, ChronoUnit.DAYS), "4");
+
+    // WHEN
+    List<AccountAging> results = new ArrayList<>();
+    invoiceBalancesDao(true).streamAging(null, null, results::add);
+
+    // THEN
+    List<AccountAging> expected = new ArrayList<>();
+    invoiceBalancesDao(false).streamAging(null, null, expected::add);
+    assertThat("Account and currency total returned", results, hasSize(2));
+    assertAging("Account", results.get(0), 3L, "4", "2", "0", "1", "7");
+    assertThat("Same results as without balances", results.toString(),
+        equalTo(expected.toString()));
+  }
+
+  @Test
+  public void streamFilteredAccounts_month() {
+    // GIVEN
+    final List<Long> ids = setupTestInvoices(6);
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setStartDate(LocalDate.of(2020, 2, 1));
+    filter.setEndDate(LocalDate.of(2020, 3, 1));
+    filter.setMax(1);
+    List<SnfInvoice> streamed = new ArrayList<>();
+    long count = dao.streamFilteredAccounts(filter, null, streamed::add);
+
+    // THEN
+    assertThat("Streamed count ignores max", count, equalTo(2L));
+    assertThat("Invoices for month streamed in ID order",
+        streamed.stream().map(e -> e.getId().getId()).collect(toList()),
+        contains(ids.get(2), ids.get(3)));
+    for (SnfInvoice inv : streamed) {
+      assertThat("Account populated", inv.getAccountId(), equalTo(account.getId().getId()));
+      assertThat("User populated", inv.getUserId(), equalTo(account.getUserId()));
+    }
+  }
+
+  @Test
+  public void streamFilteredAccounts_withoutTask() {
+    // GIVEN
+    final List<Long> ids = setupTestInvoices(6);
+    Map<String, Object> taskData = new LinkedHashMap<>(2);
+    taskData.put("userId", account.getUserId());
+    taskData.put("id", ids.get(2));
+    accountDao.saveTask(AccountTask.newTask(Instant.now(), AccountTaskType.DeliverInvoice,
+        account.getId().getId(), taskData));
+    // a task of another type for the other invoice does not exclude it
+    taskData = new LinkedHashMap<>(taskData);
+    taskData.put("id", ids.get(3));
+    accountDao.saveTask(AccountTask.newTask(Instant.now(), AccountTaskType.GenerateInvoice,
+        account.getId().getId(), taskData));
+    getSqlSessionTemplate().flushStatements();
+
+    // WHEN
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setStartDate(LocalDate.of(2020, 2, 1));
+    filter.setEndDate(LocalDate.of(2020, 3, 1));
+    List<SnfInvoice> streamed = new ArrayList<>();
+    long count = dao.streamFilteredAccounts(filter, AccountTaskType.DeliverInvoice,
+        streamed::add);
+
+    // THEN
+    assertThat("Invoice with deliver task excluded", count, equalTo(1L));
+    assertThat("Invoice without deliver task streamed",
+        streamed.stream().map(e -> e.getId().getId()).collect(toList()),
+        contains(ids.get(3)));
+    assertThat("Count excludes invoice with deliver task",
+        dao.countFilteredAccounts(filter, AccountTaskType.DeliverInvoice), equalTo(1L));
+    assertThat("Count without task type includes all invoices for month",
+        dao.countFilteredAccounts(filter, null), equalTo(2L));
+  }
+
+}
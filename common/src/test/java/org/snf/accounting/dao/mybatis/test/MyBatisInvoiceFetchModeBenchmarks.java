@@ -0,0 +1,245 @@
+/* ==================================================================
+ * MyBatisInvoiceFetchModeBenchmarks.java - 18/10/2026 2:41:15 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao.FetchMode;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao.QueryName;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceItemDao;
+import org.snf.accounting.domain.CountStrategy;
+import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+
+/**
+ * Benchmark comparing the {@link FetchMode} options of {@link MyBatisInvoiceDao}.
+ * 
+ * <p>
+ * For each mode this reports the rows and bytes of column data returned by the database, the time
+ * taken to read those rows with plain JDBC, and the time taken by the DAO to query and map them.
+ * The difference between the last two is the cost of the MyBatis result mapping.
+ * </p>
+ * 
+ * <p>
+ * The benchmark is skipped unless the {@literal benchmark} system property is {@literal true},
+ * for example by running {@code gradle test -Pbenchmark}.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Import({ MyBatisAddressDao.class, MyBatisAccountDao.class, MyBatisInvoiceItemDao.class })
+public class MyBatisInvoiceFetchModeBenchmarks extends AbstractMyBatisTest {
+
+  private static final int INVOICE_COUNT = 100;
+  private static final int ITEMS_PER_INVOICE = 20;
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 100;
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao accountDao;
+
+  @Autowired
+  private MyBatisInvoiceItemDao itemDao;
+
+  private Account account;
+  private List<Long> invoiceIds;
+
+  /**
+   * The raw result set statistics of a query.
+   */
+  private static final class ResultSetStats {
+
+    private long rows;
+    private long bytes;
+    private long nanos;
+
+    private void add(ResultSetStats other) {
+      rows += other.rows;
+      bytes += other.bytes;
+      nanos += other.nanos;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    assumeTrue("Benchmark not enabled.", Boolean.getBoolean("benchmark"));
+    Address address = addressDao.get(addressDao.save(createTestAddress()));
+    account = accountDao.get(accountDao.save(createTestAccount(address)));
+
+    MyBatisInvoiceDao dao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    invoiceIds = new ArrayList<>(INVOICE_COUNT);
+    LocalDate month = LocalDate.of(2020, 1, 1);
+    for (int i = 0; i < INVOICE_COUNT; i++) {
+      SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(),
+          Instant.ofEpochMilli(System.currentTimeMillis()));
+      inv.setAddress(account.getAddress());
+      inv.setCurrencyCode(account.getCurrencyCode());
+      inv.setStartDate(month.plusMonths(i));
+      inv.setEndDate(month.plusMonths(i + 1));
+      Long invoiceId = dao.save(inv).getId();
+      invoiceIds.add(invoiceId);
+      for (int j = 0; j < ITEMS_PER_INVOICE; j++) {
+        SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId,
+            Instant.ofEpochMilli(System.currentTimeMillis()));
+        item.setItemType(InvoiceItemType.Usage);
+        item.setKey("test-" + j);
+        item.setAmount(new BigDecimal(String.valueOf(j + 1)));
+        item.setQuantity(BigDecimal.ONE);
+        itemDao.save(item);
+      }
+    }
+    getSqlSessionTemplate().flushStatements();
+  }
+
+  private ResultSetStats resultSetStats(String statementId, Object parameter) throws SQLException {
+    MappedStatement ms = getSqlSessionTemplate().getConfiguration().getMappedStatement(statementId);
+    BoundSql sql = ms.getBoundSql(parameter);
+    ResultSetStats stats = new ResultSetStats();
+    // the transaction's connection, which must not be closed here
+    Connection conn = getSqlSessionTemplate().getConnection();
+    try (PreparedStatement ps = conn.prepareStatement(sql.getSql())) {
+      new DefaultParameterHandler(ms, parameter, sql).setParameters(ps);
+      final long start = System.nanoTime();
+      try (ResultSet rs = ps.executeQuery()) {
+        final int colCount = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+          stats.rows++;
+          for (int i = 1; i <= colCount; i++) {
+            // the raw column value as sent by the database
+            byte[] value = rs.getBytes(i);
+            if (value != null) {
+              stats.bytes += value.length;
+            }
+          }
+        }
+      }
+      stats.nanos = System.nanoTime() - start;
+    }
+    return stats;
+  }
+
+  private ResultSetStats averageResultSetStats(String statementId, Object parameter)
+      throws SQLException {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      resultSetStats(statementId, parameter);
+    }
+    ResultSetStats total = new ResultSetStats();
+    for (int i = 0; i < ITERATIONS; i++) {
+      total.add(resultSetStats(statementId, parameter));
+    }
+    total.rows /= ITERATIONS;
+    total.bytes /= ITERATIONS;
+    total.nanos /= ITERATIONS;
+    return total;
+  }
+
+  private long averageFindNanos(MyBatisInvoiceDao dao, ExtendedSnfInvoiceFilter filter) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      dao.findFiltered(filter, null, 0, INVOICE_COUNT);
+    }
+    long total = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      final long start = System.nanoTime();
+      dao.findFiltered(filter, null, 0, INVOICE_COUNT);
+      total += System.nanoTime() - start;
+    }
+    return total / ITERATIONS;
+  }
+
+  private void logResult(FetchMode mode, ResultSetStats stats, long findNanos) {
+    log.info(String.format("%-8s rows: %6d; bytes: %9d; JDBC read: %6.2fms; DAO find: %6.2fms; "
+        + "mapping: %6.2fms", mode, stats.rows, stats.bytes, stats.nanos / 1000000.0,
+        findNanos / 1000000.0, (findNanos - stats.nanos) / 1000000.0));
+  }
+
+  @Test
+  public void compareFetchModes() throws SQLException {
+    // GIVEN
+    final MyBatisInvoiceDao joinedDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    joinedDao.setFetchMode(FetchMode.Joined);
+    final MyBatisInvoiceDao twoPhaseDao = new MyBatisInvoiceDao(getSqlSessionTemplate());
+    twoPhaseDao.setFetchMode(FetchMode.TwoPhase);
+
+    ExtendedSnfInvoiceFilter filter = new ExtendedSnfInvoiceFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setCountStrategy(CountStrategy.None);
+
+    ExtendedSnfInvoiceFilter queryFilter = filter.clone();
+    queryFilter.setOffset(0);
+    queryFilter.setMax(INVOICE_COUNT);
+
+    ExtendedSnfInvoiceFilter itemFilter = new ExtendedSnfInvoiceFilter();
+    itemFilter.setInvoiceIds(invoiceIds.toArray(new Long[invoiceIds.size()]));
+
+    // WHEN
+    ResultSetStats joinedStats = averageResultSetStats(QueryName.FindFiltered.getQueryName(),
+        queryFilter);
+    long joinedNanos = averageFindNanos(joinedDao, filter);
+
+    ResultSetStats twoPhaseStats = averageResultSetStats(
+        QueryName.FindFilteredHeaders.getQueryName(), queryFilter);
+    twoPhaseStats.add(
+        averageResultSetStats(QueryName.FindItemsForInvoices.getQueryName(), itemFilter));
+    long twoPhaseNanos = averageFindNanos(twoPhaseDao, filter);
+
+    // THEN
+    logResult(FetchMode.Joined, joinedStats, joinedNanos);
+    logResult(FetchMode.TwoPhase, twoPhaseStats, twoPhaseNanos);
+    assertThat("Joined rows", joinedStats.rows, equalTo((long) INVOICE_COUNT * ITEMS_PER_INVOICE));
+    assertThat("Two phase rows", twoPhaseStats.rows,
+        equalTo((long) INVOICE_COUNT * (ITEMS_PER_INVOICE + 1)));
+  }
+
+}
@@ -0,0 +1,231 @@
+/* ==================================================================
+ * MyBatisPaymentDaoTests.java - 19/10/2026 10:05:18 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.mybatis.MyBatisAccountDao;
+import org.snf.accounting.dao.mybatis.MyBatisAddressDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceDao;
+import org.snf.accounting.dao.mybatis.MyBatisInvoiceItemDao;
+import org.snf.accounting.dao.mybatis.MyBatisPaymentDao;
+import org.snf.accounting.domain.ExtendedPaymentFilter;
+import org.snf.accounting.domain.PaymentWithInvoicePayments;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import net.solarnetwork.central.user.billing.snf.domain.Account;
+import net.solarnetwork.central.user.billing.snf.domain.Address;
+import net.solarnetwork.central.user.billing.snf.domain.InvoiceItemType;
+import net.solarnetwork.central.user.billing.snf.domain.InvoicePayment;
+import net.solarnetwork.central.user.billing.snf.domain.Payment;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoiceItem;
+import net.solarnetwork.central.user.domain.UserUuidPK;
+import net.solarnetwork.dao.FilterResults;
+
+/**
+ * Test cases for the {@link MyBatisPaymentDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Import({ MyBatisAddressDao.class, MyBatisAccountDao.class, MyBatisInvoiceDao.class,
+    MyBatisInvoiceItemDao.class, MyBatisPaymentDao.class })
+public class MyBatisPaymentDaoTests extends AbstractMyBatisTest {
+
+  @Autowired
+  private MyBatisAddressDao addressDao;
+
+  @Autowired
+  private MyBatisAccountDao accountDao;
+
+  @Autowired
+  private MyBatisInvoiceDao invoiceDao;
+
+  @Autowired
+  private MyBatisInvoiceItemDao itemDao;
+
+  @Autowired
+  private MyBatisPaymentDao dao;
+
+  private Account account;
+
+  @Before
+  public void setUp() throws Exception {
+    // the test address time zone is Pacific/Auckland, which is UTC+13 in January and February
+    Address address = addressDao.get(addressDao.save(createTestAddress()));
+    Account acct = createTestAccount(address);
+    account = accountDao.get(accountDao.save(acct));
+  }
+
+  private Long setupTestInvoice(String amount) {
+    SnfInvoice inv = new SnfInvoice(account.getId().getId(), account.getUserId(),
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    inv.setAddress(account.getAddress());
+    inv.setCurrencyCode(account.getCurrencyCode());
+    inv.setStartDate(LocalDate.of(2020, 1, 1));
+    inv.setEndDate(LocalDate.of(2020, 2, 1));
+    Long invoiceId = invoiceDao.save(inv).getId();
+    SnfInvoiceItem item = new SnfInvoiceItem(UUID.randomUUID(), invoiceId,
+        Instant.ofEpochMilli(System.currentTimeMillis()));
+    item.setItemType(InvoiceItemType.Fixed);
+    item.setKey("test");
+    item.setAmount(new BigDecimal(amount));
+    item.setQuantity(BigDecimal.ONE);
+    itemDao.save(item);
+    getSqlSessionTemplate().flushStatements();
+    return invoiceId;
+  }
+
+  private UUID addPayment(String amount, Instant date, Long... invoiceIds) {
+    Payment payment = new Payment(null, account.getId().getId(), date);
+    payment.setAmount(new BigDecimal(amount));
+    return dao.addPayment(payment, Arrays.asList(invoiceIds)).getId().getId();
+  }
+
+  private static List<UUID> paymentIds(Iterable<PaymentWithInvoicePayments> payments) {
+    List<UUID> result = new ArrayList<>();
+    for (PaymentWithInvoicePayments payment : payments) {
+      result.add(payment.getId().getId());
+    }
+    return result;
+  }
+
+  @Test
+  public void streamFiltered_invoicePaymentsGrouped() {
+    // GIVEN
+    final Long inv1 = setupTestInvoice("6.00");
+    final Long inv2 = setupTestInvoice("6.00");
+    final Long inv3 = setupTestInvoice("6.00");
+    final UUID pay1 = addPayment("12.00", Instant.parse("2020-02-10T00:00:00Z"), inv1, inv2);
+    final UUID pay2 = addPayment("6.00", Instant.parse("2020-02-11T00:00:00Z"), inv3);
+
+    // WHEN
+    ExtendedPaymentFilter filter = new ExtendedPaymentFilter();
+    filter.setAccountId(account.getId().getId());
+    List<PaymentWithInvoicePayments> streamed = new ArrayList<>(2);
+    long count = dao.streamFiltered(filter, streamed::add);
+
+    // THEN
+    assertThat("Streamed count is payment count, not row count", count, equalTo(2L));
+    assertThat("Streamed payments", paymentIds(streamed), contains(pay2, pay1));
+    FilterResults<PaymentWithInvoicePayments, UserUuidPK> expected = dao.findFiltered(filter,
+        null, null, null);
+    assertThat("Streamed order same as find", paymentIds(streamed),
+        equalTo(paymentIds(expected)));
+
+    PaymentWithInvoicePayments multi = streamed.get(1);
+    assertThat("Multi-invoice payment invoice payments grouped", multi.getInvoicePayments(),
+        hasSize(2));
+    assertThat("Multi-invoice payment invoices",
+        multi.getInvoicePayments().stream().map(InvoicePayment::getInvoiceId).collect(toList()),
+        containsInAnyOrder(inv1, inv2));
+    for (InvoicePayment ipay : multi.getInvoicePayments()) {
+      assertThat(format("Invoice %d payment amount", ipay.getInvoiceId()), ipay.getAmount(),
+          comparesEqualTo(new BigDecimal("6.00")));
+    }
+    assertThat("Single invoice payment", streamed.get(0).getInvoicePayments(), hasSize(1));
+  }
+
+  @Test
+  public void filter_dateRange_accountTimeZone() {
+    // GIVEN
+    final Long inv = setupTestInvoice("100.00");
+    // 2020-01-31 23:30 in Auckland, so January
+    addPayment("1.00", Instant.parse("2020-01-31T10:30:00Z"), inv);
+    // 2020-02-01 00:30 in Auckland, so February although January in UTC
+    final UUID feb = addPayment("1.00", Instant.parse("2020-01-31T11:30:00Z"), inv);
+    // 2020-03-01 00:30 in Auckland, so March although February in UTC
+    addPayment("1.00", Instant.parse("2020-02-29T11:30:00Z"), inv);
+
+    // WHEN
+    ExtendedPaymentFilter filter = new ExtendedPaymentFilter();
+    filter.setAccountId(account.getId().getId());
+    filter.setStartDate(LocalDate.of(2020, 2, 1));
+    filter.setEndDate(LocalDate.of(2020, 3, 1));
+    List<PaymentWithInvoicePayments> streamed = new ArrayList<>(1);
+    dao.streamFiltered(filter, streamed::add);
+    FilterResults<PaymentWithInvoicePayments, UserUuidPK> unpaged = dao.findFiltered(filter, null,
+        null, null);
+    FilterResults<PaymentWithInvoicePayments, UserUuidPK> paged = dao.findFiltered(filter, null,
+        0, 10);
+
+    // THEN
+    assertThat("Streamed payments in account time zone month", paymentIds(streamed),
+        contains(feb));
+    assertThat("Found payments in account time zone month", paymentIds(unpaged), contains(feb));
+    assertThat("Paged payments in account time zone month", paymentIds(paged), contains(feb));
+  }
+
+  @Test
+  public void filter_defaultSort() {
+    // GIVEN
+    final Long inv = setupTestInvoice("100.00");
+    final Instant sameDate = Instant.parse("2020-01-20T00:00:00Z");
+    final UUID jan10 = addPayment("1.00", Instant.parse("2020-01-10T00:00:00Z"), inv);
+    final UUID jan20a = addPayment("1.00", sameDate, inv);
+    final UUID jan05 = addPayment("1.00", Instant.parse("2020-01-05T00:00:00Z"), inv);
+    final UUID jan20b = addPayment("1.00", sameDate, inv);
+
+    // newest first, then by ID, which PostgreSQL orders like the lowercase hex string
+    List<UUID> sameDateIds = Arrays.asList(jan20a, jan20b);
+    Collections.sort(sameDateIds, (l, r) -> l.toString().compareTo(r.toString()));
+    final List<UUID> expected = Arrays.asList(sameDateIds.get(0), sameDateIds.get(1), jan10,
+        jan05);
+
+    // WHEN
+    ExtendedPaymentFilter filter = new ExtendedPaymentFilter();
+    filter.setAccountId(account.getId().getId());
+    List<PaymentWithInvoicePayments> streamed = new ArrayList<>(4);
+    dao.streamFiltered(filter, streamed::add);
+    FilterResults<PaymentWithInvoicePayments, UserUuidPK> unpaged = dao.findFiltered(filter, null,
+        null, null);
+    FilterResults<PaymentWithInvoicePayments, UserUuidPK> paged = dao.findFiltered(filter, null,
+        0, 10);
+
+    // THEN
+    assertThat("Streamed default order", paymentIds(streamed), equalTo(expected));
+    assertThat("Found default order", paymentIds(unpaged), equalTo(expected));
+    assertThat("Paged default order", paymentIds(paged), equalTo(expected));
+  }
+
+}
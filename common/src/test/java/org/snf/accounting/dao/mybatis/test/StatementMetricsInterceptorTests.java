@@ -0,0 +1,241 @@
+/* ==================================================================
+ * StatementMetricsInterceptorTests.java - 18/10/2026 11:27:49 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.dao.mybatis.test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.snf.accounting.dao.mybatis.StatementMetricsInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test cases for the {@link StatementMetricsInterceptor} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class StatementMetricsInterceptorTests {
+
+  private static final String NAMESPACE = "org.snf.accounting.dao.mybatis.Test.";
+
+  private Configuration config;
+  private MeterRegistry registry;
+  private Executor target;
+  private Executor executor;
+
+  @Before
+  public void setup() {
+    config = new Configuration();
+    registry = new SimpleMeterRegistry();
+    target = mock(Executor.class);
+    executor = (Executor) Plugin.wrap(target, new StatementMetricsInterceptor(registry));
+  }
+
+  private MappedStatement statement(String id, SqlCommandType type) {
+    return new MappedStatement.Builder(config, NAMESPACE + id, mock(SqlSource.class), type)
+        .build();
+  }
+
+  private Timer timer(String statementId) {
+    return registry.find(StatementMetricsInterceptor.LATENCY_METER_NAME)
+        .tag(StatementMetricsInterceptor.STATEMENT_TAG, NAMESPACE + statementId).timer();
+  }
+
+  private double rows(String statementId) {
+    return registry.find(StatementMetricsInterceptor.ROWS_METER_NAME)
+        .tag(StatementMetricsInterceptor.STATEMENT_TAG, NAMESPACE + statementId).summary()
+        .totalAmount();
+  }
+
+  private double errors(String statementId) {
+    return registry.find(StatementMetricsInterceptor.ERRORS_METER_NAME)
+        .tag(StatementMetricsInterceptor.STATEMENT_TAG, NAMESPACE + statementId).counter()
+        .count();
+  }
+
+  @Test
+  public void query() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("find-Foo-for-filter", SqlCommandType.SELECT);
+    when(target.query(same(ms), any(), any(), any())).thenReturn(asList("a", "b", "c"));
+
+    // WHEN
+    executor.query(ms, null, RowBounds.DEFAULT, null);
+    executor.query(ms, null, RowBounds.DEFAULT, null);
+
+    // THEN
+    Timer timer = timer("find-Foo-for-filter");
+    assertThat("Timer registered with full statement ID", timer.count(), equalTo(2L));
+    assertThat("Rows counted", rows("find-Foo-for-filter"), equalTo(6.0));
+    assertThat("No errors", errors("find-Foo-for-filter"), equalTo(0.0));
+  }
+
+  @Test
+  public void query_sameIdInOtherNamespace() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("get-Foo-for-id", SqlCommandType.SELECT);
+    MappedStatement other = new MappedStatement.Builder(config,
+        "org.snf.accounting.dao.mybatis.Other.get-Foo-for-id", mock(SqlSource.class),
+        SqlCommandType.SELECT).build();
+    when(target.query(any(), any(), any(), any())).thenReturn(asList("a"));
+
+    // WHEN
+    executor.query(ms, null, RowBounds.DEFAULT, null);
+    executor.query(other, null, RowBounds.DEFAULT, null);
+    executor.query(other, null, RowBounds.DEFAULT, null);
+
+    // THEN
+    assertThat("Statement timed separately from other namespace", timer("get-Foo-for-id").count(),
+        equalTo(1L));
+    assertThat("Other namespace statement timed separately",
+        registry.find(StatementMetricsInterceptor.LATENCY_METER_NAME)
+            .tag(StatementMetricsInterceptor.STATEMENT_TAG, other.getId()).timer().count(),
+        equalTo(2L));
+  }
+
+  @Test
+  public void queryError() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("find-Foo-for-filter-count", SqlCommandType.SELECT);
+    SQLException err = new SQLException("test");
+    when(target.query(same(ms), any(), any(), any())).thenThrow(err);
+
+    // WHEN
+    try {
+      executor.query(ms, null, RowBounds.DEFAULT, null);
+      fail("Exception should be thrown");
+    } catch (SQLException e) {
+      assertThat("Original exception thrown", e, sameInstance(err));
+    }
+
+    // THEN
+    assertThat("Error counted", errors("find-Foo-for-filter-count"), equalTo(1.0));
+    assertThat("Failed call not timed", timer("find-Foo-for-filter-count").count(),
+        equalTo(0L));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void queryWithResultHandler() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("find-Foo-for-filter-stream", SqlCommandType.SELECT);
+    when(target.query(same(ms), any(), any(), any())).then(invocation -> {
+      ResultHandler<Object> h = invocation.getArgument(3);
+      DefaultResultContext<Object> ctx = new DefaultResultContext<>();
+      for (int i = 0; i < 5; i++) {
+        ctx.nextResultObject(i);
+        h.handleResult(ctx);
+      }
+      return Collections.emptyList();
+    });
+    ResultHandler<Object> handler = mock(ResultHandler.class);
+
+    // WHEN
+    executor.query(ms, null, RowBounds.DEFAULT, handler);
+
+    // THEN
+    assertThat("Call timed", timer("find-Foo-for-filter-stream").count(), equalTo(1L));
+    assertThat("Rows passed to handler counted", rows("find-Foo-for-filter-stream"),
+        equalTo(5.0));
+  }
+
+  @Test
+  public void update() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("update-Foo", SqlCommandType.UPDATE);
+    when(target.update(same(ms), any())).thenReturn(2);
+
+    // WHEN
+    int result = executor.update(ms, null);
+
+    // THEN
+    assertThat("Result returned", result, equalTo(2));
+    assertThat("Call timed", timer("update-Foo").count(), equalTo(1L));
+    assertThat("Updated rows counted", rows("update-Foo"), equalTo(2.0));
+  }
+
+  @Test
+  public void batchUpdateRecordedOnCommit() throws SQLException {
+    // GIVEN
+    MappedStatement ms = statement("add-payment", SqlCommandType.INSERT);
+    when(target.update(same(ms), any())).thenReturn(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    BatchResult batch = new BatchResult(ms, "INSERT");
+    batch.setUpdateCounts(new int[] { 1, 1, 1 });
+    when(target.flushStatements()).thenReturn(singletonList(batch));
+
+    // WHEN
+    executor.update(ms, null);
+    executor.update(ms, null);
+    executor.update(ms, null);
+
+    // THEN
+    assertThat("Deferred update not timed", timer("add-payment").count(), equalTo(0L));
+
+    // WHEN
+    executor.commit(true);
+
+    // THEN
+    InOrder order = inOrder(target);
+    order.verify(target).flushStatements();
+    order.verify(target).commit(eq(true));
+    assertThat("Batch timed as one call", timer("add-payment").count(), equalTo(1L));
+    assertThat("Batch rows counted", rows("add-payment"), equalTo(3.0));
+  }
+
+  @Test
+  public void noMetersBeforeFirstCall() {
+    assertThat("Meters created lazily", timer("find-Foo-for-filter"), nullValue());
+  }
+
+}
@@ -0,0 +1,122 @@
+/* ==================================================================
+ * ExtendedSnfInvoiceFilterTests.java - 18/10/2026 10:02:18 AM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.domain.test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+import org.snf.accounting.domain.ExtendedSnfInvoiceFilter;
+import org.snf.accounting.domain.SnfInvoiceKeyset;
+
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+import net.solarnetwork.domain.SimpleSortDescriptor;
+import net.solarnetwork.domain.SortDescriptor;
+
+/**
+ * Test cases for the {@link ExtendedSnfInvoiceFilter} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ExtendedSnfInvoiceFilterTests {
+
+  private static String sortString(List<SortDescriptor> sorts) {
+    StringBuilder buf = new StringBuilder();
+    for (SortDescriptor s : sorts) {
+      if (buf.length() > 0) {
+        buf.append(',');
+      }
+      buf.append(s.getSortKey());
+      if (s.isDescending()) {
+        buf.append(":d");
+      }
+    }
+    return buf.toString();
+  }
+
+  @Test
+  public void effectiveSorts_default() {
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    List<SortDescriptor> sorts = f.getEffectiveSorts();
+    assertThat("Default sorts used", sorts, sameInstance(ExtendedSnfInvoiceFilter.DEFAULT_SORTS));
+    assertThat("Default sort order", sortString(sorts), equalTo("DATE:d,ID"));
+  }
+
+  @Test
+  public void effectiveSorts_appendId() {
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    f.setSorts(asList(new SimpleSortDescriptor("ACCOUNT", false),
+        new SimpleSortDescriptor("DATE", true)));
+    List<SortDescriptor> sorts = f.getEffectiveSorts();
+    assertThat("ID sort appended", sorts, hasSize(3));
+    assertThat("Sort order", sortString(sorts), equalTo("ACCOUNT,DATE:d,ID"));
+    assertThat("Configured sorts not modified", f.getSorts(), hasSize(2));
+  }
+
+  @Test
+  public void effectiveSorts_explicitId() {
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    List<SortDescriptor> given = asList(new SimpleSortDescriptor("ID", true),
+        new SimpleSortDescriptor("DATE", false));
+    f.setSorts(given);
+    assertThat("Configured sorts used as-is", f.getEffectiveSorts(), sameInstance(given));
+  }
+
+  @Test
+  public void keyset_forInvoice() {
+    SnfInvoice inv = new SnfInvoice(1L, 2L, 3L, Instant.ofEpochSecond(1596240000L));
+    inv.setStartDate(LocalDate.of(2020, 7, 1));
+    SnfInvoiceKeyset keyset = SnfInvoiceKeyset.forInvoice(inv);
+    assertThat("Account ID", keyset.getAccountId(), equalTo(3L));
+    assertThat("Created", keyset.getCreated(), equalTo(inv.getCreated()));
+    assertThat("Start date", keyset.getStartDate(), equalTo(inv.getStartDate()));
+    assertThat("Invoice ID", keyset.getInvoiceId(), equalTo(1L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void keyset_forInvoice_missingValue() {
+    SnfInvoiceKeyset.forInvoice(new SnfInvoice(1L, 2L, 3L, Instant.now()));
+  }
+
+  @Test
+  public void clone_preservesKeyset() {
+    ExtendedSnfInvoiceFilter f = new ExtendedSnfInvoiceFilter();
+    SnfInvoiceKeyset keyset = new SnfInvoiceKeyset(1L, Instant.now(), LocalDate.now(), 2L);
+    f.setKeyset(keyset);
+    ExtendedSnfInvoiceFilter copy = f.clone();
+    assertThat("Keyset copied", copy.getKeyset(), sameInstance(keyset));
+    copy.setKeyset(null);
+    assertThat("Copy keyset cleared", copy.getKeyset(), nullValue());
+    assertThat("Original keyset unchanged", f.getKeyset(), sameInstance(keyset));
+  }
+
+}
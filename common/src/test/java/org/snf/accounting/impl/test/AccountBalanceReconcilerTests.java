@@ -0,0 +1,172 @@
+/* ==================================================================
+ * AccountBalanceReconcilerTests.java - 18/10/2026 5:52:13 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl.test;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Test;
+import org.snf.accounting.dao.AccountDao;
+import org.snf.accounting.domain.AccountBalanceDiscrepancy;
+import org.snf.accounting.domain.IdRange;
+import org.snf.accounting.impl.AccountBalanceReconciler;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * Test cases for the {@link AccountBalanceReconciler} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class AccountBalanceReconcilerTests {
+
+  private AccountBalanceReconciler reconciler;
+
+  @After
+  public void teardown() {
+    if (reconciler != null) {
+      reconciler.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidParallelism() {
+    new AccountBalanceReconciler(mock(AccountDao.class), 0);
+  }
+
+  @Test
+  public void reconcile_noAccounts() {
+    // GIVEN
+    final AccountDao dao = mock(AccountDao.class);
+    when(dao.findIdRanges(2 * AccountBalanceReconciler.PARTITIONS_PER_THREAD))
+        .thenReturn(Collections.emptyList());
+
+    // WHEN
+    reconciler = new AccountBalanceReconciler(dao, 2);
+    List<AccountBalanceDiscrepancy> results = reconciler.reconcile(null);
+
+    // THEN
+    assertThat("No results", results, empty());
+    verify(dao, never()).findBalanceDiscrepancies(any());
+  }
+
+  @Test
+  public void reconcile() {
+    // GIVEN
+    final AccountDao dao = mock(AccountDao.class);
+    final List<IdRange> ranges = Arrays.asList(new IdRange(1L, 10L), new IdRange(11L, 20L),
+        new IdRange(21L, 30L));
+    when(dao.findIdRanges(2 * AccountBalanceReconciler.PARTITIONS_PER_THREAD)).thenReturn(ranges);
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    when(dao.findBalanceDiscrepancies(any())).thenAnswer(invocation -> {
+      threads.add(Thread.currentThread().getName());
+      IdRange range = invocation.getArgument(0);
+      if (range.getMinId().equals(11L)) {
+        return Collections.emptyList();
+      }
+      return Arrays.asList(new AccountBalanceDiscrepancy(range.getMaxId()),
+          new AccountBalanceDiscrepancy(range.getMinId()));
+    });
+    final List<Integer> progress = new ArrayList<>();
+
+    // WHEN
+    reconciler = new AccountBalanceReconciler(dao, 2);
+    List<AccountBalanceDiscrepancy> results = reconciler.reconcile((completed, total) -> {
+      assertThat("Total partitions", total, equalTo(ranges.size()));
+      progress.add(completed);
+    });
+
+    // THEN
+    assertThat("Results from all partitions ordered by account",
+        results.stream().map(AccountBalanceDiscrepancy::getAccountId).collect(toList()),
+        contains(1L, 10L, 21L, 30L));
+    assertThat("Progress reported for each partition", progress, contains(1, 2, 3));
+    for (IdRange range : ranges) {
+      verify(dao).findBalanceDiscrepancies(range);
+    }
+    assertThat("Partitions verified on reconciler threads",
+        threads.stream().allMatch(n -> n.startsWith("AccountBalanceReconciler-")),
+        equalTo(true));
+  }
+
+  @Test
+  public void reconcile_error() {
+    // GIVEN
+    final AccountDao dao = mock(AccountDao.class);
+    when(dao.findIdRanges(AccountBalanceReconciler.PARTITIONS_PER_THREAD))
+        .thenReturn(Arrays.asList(new IdRange(1L, 10L)));
+    final DataRetrievalFailureException ex = new DataRetrievalFailureException("test");
+    when(dao.findBalanceDiscrepancies(any())).thenThrow(ex);
+
+    // WHEN
+    reconciler = new AccountBalanceReconciler(dao, 1);
+    try {
+      reconciler.reconcile(null);
+      fail("Should have thrown exception.");
+    } catch (DataRetrievalFailureException e) {
+      // THEN
+      assertThat("DAO exception thrown", e, sameInstance(ex));
+    }
+  }
+
+  @Test
+  public void reconcile_executorShared() {
+    // GIVEN
+    final AccountDao dao = mock(AccountDao.class);
+    when(dao.findIdRanges(AccountBalanceReconciler.PARTITIONS_PER_THREAD))
+        .thenReturn(Arrays.asList(new IdRange(1L, 10L), new IdRange(11L, 20L)));
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    when(dao.findBalanceDiscrepancies(any())).thenAnswer(invocation -> {
+      threads.add(Thread.currentThread().getName());
+      return Collections.emptyList();
+    });
+
+    // WHEN
+    reconciler = new AccountBalanceReconciler(dao, 1);
+    reconciler.reconcile(null);
+    reconciler.reconcile(null);
+
+    // THEN
+    assertThat("All partitions of both calls verified on the one shared thread", threads,
+        contains("AccountBalanceReconciler-1"));
+  }
+
+}
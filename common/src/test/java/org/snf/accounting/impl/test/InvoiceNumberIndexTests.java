@@ -0,0 +1,284 @@
+/* ==================================================================
+ * InvoiceNumberIndexTests.java - 18/10/2026 7:02:15 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl.test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.dao.InvoiceDao;
+import org.snf.accounting.domain.InvoiceReferences;
+import org.snf.accounting.impl.InvoiceNumberIndex;
+
+import net.solarnetwork.central.user.billing.snf.domain.SnfInvoice;
+
+/**
+ * Test cases for the {@link InvoiceNumberIndex} class.
+ * 
+ * @author matt
+ * @version 1.2
+ */
+public class InvoiceNumberIndexTests {
+
+  private InvoiceDao invoiceDao;
+  private List<SnfInvoice> invoices;
+  private InvoiceNumberIndex index;
+
+  @Before
+  public void setup() {
+    invoiceDao = mock(InvoiceDao.class);
+    invoices = new ArrayList<>();
+    doAnswer(invocation -> {
+      long after = invocation.getArgument(0);
+      Consumer<SnfInvoice> consumer = invocation.getArgument(1);
+      long count = 0;
+      for (SnfInvoice inv : invoices) {
+        if (inv.getId().getId().longValue() > after) {
+          consumer.accept(inv);
+          count++;
+        }
+      }
+      return count;
+    }).when(invoiceDao).streamInvoiceAccounts(anyLong(), any());
+    doAnswer(invocation -> {
+      List<Long> ids = Arrays.asList(invocation.getArgument(0, Long[].class));
+      return invoices.stream().filter(inv -> ids.contains(inv.getId().getId()))
+          .sorted((l, r) -> l.getId().getId().compareTo(r.getId().getId()))
+          .collect(Collectors.toList());
+    }).when(invoiceDao).findInvoiceAccounts(any());
+    index = new InvoiceNumberIndex(invoiceDao);
+    // use the index for every batch, unless a test enables direct lookups
+    index.setDirectLookupLimit(0);
+  }
+
+  private void addInvoice(long invoiceId, long accountId) {
+    invoices.add(new SnfInvoice(invoiceId, null, accountId, Instant.now()));
+  }
+
+  @Test
+  public void referenceForId() {
+    assertThat("ID parsed", InvoiceNumberIndex.invoiceIdForReference("123"), equalTo(123L));
+  }
+
+  @Test
+  public void referenceForNumber() {
+    assertThat("Base 36 number parsed", InvoiceNumberIndex.invoiceIdForReference("INV-3F"),
+        equalTo(Long.parseLong("3F", 36)));
+  }
+
+  @Test
+  public void referenceInvalid() {
+    assertThat("Invalid", InvoiceNumberIndex.invoiceIdForReference("foo"), nullValue());
+    assertThat("Negative", InvoiceNumberIndex.invoiceIdForReference("-1"), nullValue());
+    assertThat("Null", InvoiceNumberIndex.invoiceIdForReference(null), nullValue());
+  }
+
+  @Test
+  public void resolve_batch() {
+    addInvoice(1L, 100L);
+    addInvoice(2L, 200L);
+    addInvoice(46L, 100L);
+
+    InvoiceReferences refs = index.resolve(Arrays.asList("1", " INV-1A ", "", "2", "bad", "99"),
+        100L);
+
+    assertThat("Resolved references", refs.getInvoiceIds().keySet(), contains("1", "INV-1A"));
+    assertThat("Resolved IDs", refs.getInvoiceIds().values(), contains(1L, 46L));
+    assertThat("Invalid references", refs.getInvalid(), contains("bad"));
+    assertThat("Not found references", refs.getNotFound(), contains("99"));
+    assertThat("Other account references", refs.getOtherAccount(), contains("2"));
+    assertThat("Not resolved", refs.isResolved(), equalTo(false));
+    assertThat("Index loaded", index.size(), equalTo(3));
+
+    // only one refresh for the whole batch, even with a reference beyond the highest ID
+    verify(invoiceDao, times(1)).streamInvoiceAccounts(anyLong(), any());
+  }
+
+  @Test
+  public void resolve_anyAccount() {
+    addInvoice(1L, 100L);
+    addInvoice(2L, 200L);
+
+    InvoiceReferences refs = index.resolve(Arrays.asList("1", "2"), null);
+
+    assertThat("Resolved", refs.isResolved(), equalTo(true));
+    assertThat("Resolved IDs", refs.getInvoiceIds().values(), contains(1L, 2L));
+    assertThat("No other account", refs.getOtherAccount(), empty());
+  }
+
+  @Test
+  public void resolve_refreshIncremental() {
+    addInvoice(1L, 100L);
+    index.resolve(Collections.singleton("1"), 100L);
+
+    addInvoice(2L, 100L);
+    InvoiceReferences refs = index.resolve(Collections.singleton("2"), 100L);
+
+    assertThat("New invoice resolved", refs.getInvoiceIds().values(), contains(2L));
+    assertThat("Index size", index.size(), equalTo(2));
+    verify(invoiceDao).streamInvoiceAccounts(eq(0L), any());
+    verify(invoiceDao).streamInvoiceAccounts(eq(1L), any());
+  }
+
+  @Test
+  public void resolve_indexedNoRefresh() {
+    addInvoice(1L, 100L);
+    addInvoice(3L, 100L);
+    index.refresh();
+
+    InvoiceReferences refs = index.resolve(Arrays.asList("1", "2", "3"), 100L);
+
+    assertThat("Gap in IDs not found", refs.getNotFound(), contains("2"));
+    assertThat("Index size unchanged", index.size(), equalTo(2));
+    verify(invoiceDao, times(1)).streamInvoiceAccounts(anyLong(), any());
+    verify(invoiceDao, times(1)).findInvoiceAccounts(eq(new Long[] { 2L }));
+  }
+
+  @Test
+  public void resolve_committedOutOfOrder() {
+    addInvoice(1L, 100L);
+    addInvoice(4L, 100L);
+    index.refresh();
+
+    // invoices 2 and 3 committed after 4 was indexed
+    addInvoice(2L, 100L);
+    addInvoice(3L, 200L);
+    InvoiceReferences refs = index.resolve(Arrays.asList("2", "3", "4"), 100L);
+
+    assertThat("Late invoice resolved", refs.getInvoiceIds().values(), contains(2L, 4L));
+    assertThat("Late invoice for other account", refs.getOtherAccount(), contains("3"));
+    assertThat("Index size", index.size(), equalTo(4));
+    verify(invoiceDao, times(1)).findInvoiceAccounts(eq(new Long[] { 2L, 3L }));
+
+    // the added invoices are now indexed
+    refs = index.resolve(Arrays.asList("1", "2", "3", "4"), null);
+    assertThat("All resolved", refs.getInvoiceIds().values(), contains(1L, 2L, 3L, 4L));
+    verify(invoiceDao, times(1)).findInvoiceAccounts(any());
+    verify(invoiceDao, times(1)).streamInvoiceAccounts(anyLong(), any());
+
+    // refresh continues after the highest ID
+    addInvoice(5L, 100L);
+    refs = index.resolve(Arrays.asList("5"), 100L);
+    assertThat("New invoice resolved", refs.getInvoiceIds().values(), contains(5L));
+    verify(invoiceDao).streamInvoiceAccounts(eq(4L), any());
+  }
+
+  @Test
+  public void resolve_allIndexedNoLookup() {
+    addInvoice(1L, 100L);
+    addInvoice(2L, 100L);
+    index.refresh();
+
+    index.resolve(Arrays.asList("1", "2"), 100L);
+
+    verify(invoiceDao, never()).findInvoiceAccounts(any());
+  }
+
+  @Test
+  public void resolve_direct() {
+    // GIVEN
+    addInvoice(1L, 100L);
+    addInvoice(2L, 200L);
+    addInvoice(46L, 100L);
+    index.setDirectLookupLimit(InvoiceNumberIndex.DEFAULT_DIRECT_LOOKUP_LIMIT);
+
+    // WHEN
+    InvoiceReferences refs = index.resolve(
+        Arrays.asList("1", " INV-1A ", "", "2", "bad", "99", "46"), 100L);
+
+    // THEN
+    assertThat("Resolved references", refs.getInvoiceIds().keySet(),
+        contains("1", "INV-1A", "46"));
+    assertThat("Resolved IDs", refs.getInvoiceIds().values(), contains(1L, 46L, 46L));
+    assertThat("Invalid references", refs.getInvalid(), contains("bad"));
+    assertThat("Not found references", refs.getNotFound(), contains("99"));
+    assertThat("Other account references", refs.getOtherAccount(), contains("2"));
+    assertThat("Index not loaded", index.size(), equalTo(0));
+    verify(invoiceDao, times(1)).findInvoiceAccounts(eq(new Long[] { 1L, 46L, 2L, 99L }));
+    verify(invoiceDao, never()).streamInvoiceAccounts(anyLong(), any());
+  }
+
+  @Test
+  public void resolve_direct_noValidReferences() {
+    // GIVEN
+    index.setDirectLookupLimit(InvoiceNumberIndex.DEFAULT_DIRECT_LOOKUP_LIMIT);
+
+    // WHEN
+    InvoiceReferences refs = index.resolve(Arrays.asList("", "bad"), 100L);
+
+    // THEN
+    assertThat("Invalid references", refs.getInvalid(), contains("bad"));
+    verify(invoiceDao, never()).findInvoiceAccounts(any());
+    verify(invoiceDao, never()).streamInvoiceAccounts(anyLong(), any());
+  }
+
+  @Test
+  public void resolve_overDirectLimitUsesIndex() {
+    // GIVEN
+    addInvoice(1L, 100L);
+    addInvoice(2L, 100L);
+    addInvoice(3L, 100L);
+    index.setDirectLookupLimit(2);
+
+    // WHEN
+    InvoiceReferences refs = index.resolve(Arrays.asList("1", "2", "3"), 100L);
+
+    // THEN
+    assertThat("Resolved IDs", refs.getInvoiceIds().values(), contains(1L, 2L, 3L));
+    assertThat("Index loaded", index.size(), equalTo(3));
+    verify(invoiceDao, never()).findInvoiceAccounts(any());
+  }
+
+  @Test
+  public void refresh_grow() {
+    for (long i = 1; i <= 5000; i++) {
+      addInvoice(i, i % 7);
+    }
+    assertThat("Added count", index.refresh(), equalTo(5000));
+
+    InvoiceReferences refs = index.resolve(Arrays.asList("4999", "5000"), 4999L % 7);
+    assertThat("Resolved last added", refs.getInvoiceIds().values(), contains(4999L));
+    assertThat("Other account", refs.getOtherAccount(), contains("5000"));
+  }
+
+}
@@ -0,0 +1,109 @@
+/* ==================================================================
+ * InvoiceSnapshotJobTests.java - 18/10/2026 4:31:05 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.snf.accounting.impl.InvoiceSnapshotJob;
+import org.snf.accounting.service.AccountService;
+
+/**
+ * Test cases for the {@link InvoiceSnapshotJob} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class InvoiceSnapshotJobTests {
+
+  private static final ZoneId ZONE = ZoneId.of("Pacific/Auckland");
+
+  private static ZonedDateTime date(String date) {
+    return ZonedDateTime.of(LocalDateTime.parse(date), ZONE);
+  }
+
+  @Test
+  public void periodStart() {
+    final ZonedDateTime date = date("2021-03-17T13:14:15");
+    assertThat("Day", InvoiceSnapshotJob.periodStart(date, ChronoUnit.DAYS),
+        equalTo(date("2021-03-17T00:00:00")));
+    assertThat("Week starts Monday", InvoiceSnapshotJob.periodStart(date, ChronoUnit.WEEKS),
+        equalTo(date("2021-03-15T00:00:00")));
+    assertThat("Month", InvoiceSnapshotJob.periodStart(date, ChronoUnit.MONTHS),
+        equalTo(date("2021-03-01T00:00:00")));
+    assertThat("Year", InvoiceSnapshotJob.periodStart(date, ChronoUnit.YEARS),
+        equalTo(date("2021-01-01T00:00:00")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedPeriod() {
+    new InvoiceSnapshotJob(mock(AccountService.class), ChronoUnit.HOURS, Clock.system(ZONE));
+  }
+
+  @Test
+  public void run_createSnapshot() {
+    // GIVEN
+    final AccountService service = mock(AccountService.class);
+    final Instant expected = date("2021-03-01T00:00:00").toInstant();
+    when(service.invoiceSnapshotDates()).thenReturn(Collections.emptyList());
+    when(service.createInvoiceSnapshot(expected)).thenReturn(1);
+    final Clock clock = Clock.fixed(date("2021-03-17T13:14:15").toInstant(), ZONE);
+
+    // WHEN
+    new InvoiceSnapshotJob(service, ChronoUnit.MONTHS, clock).run();
+
+    // THEN
+    verify(service).createInvoiceSnapshot(expected);
+  }
+
+  @Test
+  public void run_snapshotExists() {
+    // GIVEN
+    final AccountService service = mock(AccountService.class);
+    when(service.invoiceSnapshotDates()).thenReturn(Arrays.asList(
+        date("2021-03-01T00:00:00").toInstant(), date("2021-02-01T00:00:00").toInstant()));
+    final Clock clock = Clock.fixed(date("2021-03-17T13:14:15").toInstant(), ZONE);
+
+    // WHEN
+    new InvoiceSnapshotJob(service, ChronoUnit.MONTHS, clock).run();
+
+    // THEN
+    verify(service, never()).createInvoiceSnapshot(any());
+  }
+
+}
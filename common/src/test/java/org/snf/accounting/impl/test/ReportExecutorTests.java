@@ -0,0 +1,134 @@
+/* ==================================================================
+ * ReportExecutorTests.java - 18/10/2026 7:34:52 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.impl.test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf.accounting.impl.ReportExecutor;
+
+/**
+ * Test cases for the {@link ReportExecutor} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ReportExecutorTests {
+
+  private static final int PARALLELISM = 3;
+
+  private ReportExecutor executor;
+
+  @Before
+  public void setup() {
+    executor = new ReportExecutor(PARALLELISM);
+  }
+
+  @After
+  public void teardown() {
+    executor.close();
+  }
+
+  private static List<Long> keys(int count) {
+    List<Long> keys = new ArrayList<>(count);
+    for (long i = 1; i <= count; i++) {
+      keys.add(i);
+    }
+    return keys;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void construct_invalidParallelism() {
+    new ReportExecutor(0);
+  }
+
+  @Test
+  public void invokeAll_resultsInKeyOrder() {
+    List<Long> results = executor.invokeAll(Arrays.asList(3L, 1L, 2L), k -> {
+      try {
+        Thread.sleep(k * 10);
+      } catch (InterruptedException e) {
+        // ignore
+      }
+      return k * 100;
+    });
+    assertThat("Results in key order", results, contains(300L, 100L, 200L));
+  }
+
+  @Test
+  public void invokeAll_bounded() {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    List<String> results = executor.invokeAll(keys(20), k -> {
+      int count = running.incrementAndGet();
+      maxRunning.accumulateAndGet(count, Math::max);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        // ignore
+      }
+      running.decrementAndGet();
+      return Thread.currentThread().getName();
+    });
+    assertThat("All results", results.size(), equalTo(20));
+    assertThat("Run on report thread", results.get(0), startsWith("ReportExecutor-"));
+    assertThat("Concurrency reached but not exceeded parallelism", maxRunning.get(),
+        equalTo(PARALLELISM));
+  }
+
+  @Test
+  public void invokeAll_nestedRunsInline() {
+    List<List<Long>> results = executor.invokeAll(keys(PARALLELISM), k -> {
+      return executor.invokeAll(keys(PARALLELISM), j -> k * 10 + j);
+    });
+    assertThat("Nested results", results.get(0), contains(11L, 12L, 13L));
+    assertThat("Nested results", results.get(2), contains(31L, 32L, 33L));
+  }
+
+  @Test
+  public void invokeAll_exception() {
+    try {
+      executor.invokeAll(keys(10), k -> {
+        if (k.longValue() == 5L) {
+          throw new IllegalArgumentException("Bad key");
+        }
+        return k;
+      });
+      fail("Exception should be thrown");
+    } catch (IllegalArgumentException e) {
+      assertThat("Task exception thrown", e.getMessage(), equalTo("Bad key"));
+    }
+  }
+
+}
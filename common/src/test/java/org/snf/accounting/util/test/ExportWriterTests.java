@@ -0,0 +1,90 @@
+/* ==================================================================
+ * ExportWriterTests.java - 18/10/2026 7:48:20 PM
+ * 
+ * Copyright 2026 SolarNetwork Foundation
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package org.snf.accounting.util.test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.snf.accounting.domain.ExportFormat;
+import org.snf.accounting.util.ExportWriter;
+
+/**
+ * Test cases for the {@link ExportWriter} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ExportWriterTests {
+
+  private static String export(ExportFormat format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ExportWriter w = ExportWriter.forFormat(format, out, asList("id", "name", "amount",
+        "ids"))) {
+      w.row(asList(1L, "Foo, Inc.", new BigDecimal("1E+2"), asList(1L, 2L)));
+      w.row(asList(2L, "Say \"hi\"", null, asList()));
+      assertThat("Row count", w.getRowCount(), equalTo(2L));
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void csv() throws IOException {
+    assertThat("CSV output", export(ExportFormat.Csv), equalTo(
+        "id,name,amount,ids\n1,\"Foo, Inc.\",100,1;2\n2,\"Say \"\"hi\"\"\",,\n"));
+  }
+
+  @Test
+  public void ndjson() throws IOException {
+    assertThat("NDJSON output", export(ExportFormat.Ndjson),
+        equalTo("{\"id\":1,\"name\":\"Foo, Inc.\",\"amount\":100,\"ids\":[1,2]}\n"
+            + "{\"id\":2,\"name\":\"Say \\\"hi\\\"\",\"amount\":null,\"ids\":[]}\n"));
+  }
+
+  @Test
+  public void firstRowFlushed() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExportWriter w = ExportWriter.forFormat(ExportFormat.Ndjson, out, asList("id"));
+    w.row(asList(1));
+    assertThat("First row written without close", out.size(), equalTo(9));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rowSizeMismatch() throws IOException {
+    ExportWriter w = ExportWriter.forFormat(ExportFormat.Csv, new ByteArrayOutputStream(),
+        asList("id"));
+    w.row(asList(1, 2));
+  }
+
+  @Test
+  public void formatForKey() {
+    assertThat("Key case ignored", ExportFormat.forKey("NDJson"), equalTo(ExportFormat.Ndjson));
+  }
+
+}